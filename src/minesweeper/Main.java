@@ -1,11 +1,20 @@
 package minesweeper;
 
+import minesweeper.field.BoardSpec;
 import minesweeper.game.GameController;
+import minesweeper.generator.BoardPool;
 
 public class Main {
 
     public static void main(String[] args) {
-        Runnable game = new GameController();
-        game.run();
+        int width = args.length >= 2 ? Integer.parseInt(args[0]) : BoardSpec.DEFAULT_SIDE;
+        int height = args.length >= 2 ? Integer.parseInt(args[1]) : BoardSpec.DEFAULT_SIDE;
+        if (args.length >= 3 && args[2].equals("noguess")) {
+            try (BoardPool boardPool = new BoardPool(1)) {
+                new GameController(width, height, boardPool).run();
+            }
+        } else {
+            new GameController(width, height).run();
+        }
     }
 }
\ No newline at end of file
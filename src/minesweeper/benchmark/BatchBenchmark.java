@@ -0,0 +1,118 @@
+package minesweeper.benchmark;
+
+import minesweeper.cell.Coordinates;
+import minesweeper.cell.ICoordinates;
+import minesweeper.field.AbstractField;
+import minesweeper.field.BoardSpec;
+import minesweeper.field.Field;
+import minesweeper.field.FieldStatus;
+import minesweeper.field.MappedField;
+import minesweeper.field.MinePlacer;
+import minesweeper.field.MinePlacer.SafeZone;
+import minesweeper.field.PackedField;
+import minesweeper.game.BatchInvoker;
+import minesweeper.game.Command;
+import minesweeper.game.CommandInvoker;
+import minesweeper.game.Explore;
+import minesweeper.game.IInvoker;
+import minesweeper.game.ToggleMarkedCell;
+import minesweeper.solver.Solver;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Benchmark of {@link BatchInvoker} against the one command at a time loop of {@link CommandInvoker}, checking the
+ * field status after every command as the game controller does.
+ * <p>
+ * The commands are the replay of a game played by the {@link Solver}, from the first exploration until it is stuck.
+ * Each iteration replays them on a field {@link AbstractField#reset(long) reset} to the same mines.
+ * <p>
+ * Arguments are the side of the square board and the ratio of mines to cells (default: 100 0.15).
+ */
+public class BatchBenchmark {
+
+    private static final long SEED = 1;
+    private static final int WARMUPS = 100;
+    private static final int ITERATIONS = 100;
+
+    public static void main(String[] args) throws IOException {
+        int side = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        double density = args.length > 1 ? Double.parseDouble(args[1]) : 0.15;
+        BoardSpec spec = new BoardSpec(side, side, (int) (density * side * side));
+        List<Move> moves = record(spec);
+        System.out.println(spec + ": replay of " + moves.size() + " moves");
+
+        // the first round warms up the code paths of all the field implementations
+        for (int round = 1; round <= 2; round++) {
+            System.out.println("round " + round);
+            run("PackedField", new PackedField(spec, newMinePlacer()), moves);
+            run("Field", new Field(spec, newMinePlacer()), moves);
+            Path path = Files.createTempFile("minesweeper", ".board");
+            try (MappedField field = MappedField.create(path, spec, newMinePlacer())) {
+                run("MappedField", field, moves);
+            } finally {
+                Files.delete(path);
+            }
+        }
+    }
+
+    private static void run(String name, AbstractField field, List<Move> moves) {
+        List<Command> commands = new ArrayList<>(moves.size());
+        for (Move move : moves) {
+            commands.add(move.explore ? new Explore(field, move.coordinates)
+                    : new ToggleMarkedCell(field, move.coordinates));
+        }
+        IInvoker invoker = new CommandInvoker();
+        BatchInvoker batchInvoker = new BatchInvoker(field);
+        long[] sink = new long[1];
+
+        Benchmark.measure(name + " one at a time", WARMUPS, ITERATIONS, () -> field.reset(SEED), () -> {
+            for (Command command : commands) {
+                invoker.setCommand(command);
+                invoker.execute();
+                sink[0] += invoker.isSuccess() ? 1 : 0;
+                if (field.getFieldStatus() != FieldStatus.PENDING) {
+                    break;
+                }
+            }
+        });
+        Benchmark.measure(name + " batch", WARMUPS, ITERATIONS, () -> field.reset(SEED),
+                () -> sink[0] += batchInvoker.execute(commands).getExecuted());
+        System.out.println("checksum " + sink[0] + ", final status " + field.getFieldStatus());
+    }
+
+    /**
+     * Play a game with the solver and record its moves.
+     */
+    private static List<Move> record(BoardSpec spec) {
+        PackedField field = new PackedField(spec, newMinePlacer());
+        Solver solver = new Solver(field);
+        Coordinates first = new Coordinates(spec.getWidth() / 2, spec.getHeight() / 2, spec.getWidth());
+        List<Move> moves = new ArrayList<>();
+        moves.add(new Move(first, true));
+        field.explore(first);
+        for (List<Command> commands = solver.nextMoves(); !commands.isEmpty(); commands = solver.nextMoves()) {
+            for (Command command : commands) {
+                if (command instanceof Explore explore) {
+                    moves.add(new Move(explore.getCoordinates(), true));
+                } else {
+                    moves.add(new Move(((ToggleMarkedCell) command).getCoordinates(), false));
+                }
+                command.execute();
+            }
+        }
+        return moves;
+    }
+
+    private static MinePlacer newMinePlacer() {
+        return new MinePlacer(new SplittableRandom(SEED), SafeZone.NEIGHBORHOOD);
+    }
+
+    private record Move(ICoordinates coordinates, boolean explore) {
+    }
+}
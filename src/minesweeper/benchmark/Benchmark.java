@@ -0,0 +1,78 @@
+package minesweeper.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+
+/**
+ * Minimal benchmark harness, running an action a number of times after a warm up and printing the average time and
+ * the average heap allocation per operation.
+ * <p>
+ * The setup of each iteration is excluded from the measure, so that actions mutating their state (for example the
+ * exploration of a field) can be measured on a fresh state every time. Allocations are measured on the current thread
+ * only, when the JVM supports it (see {@link com.sun.management.ThreadMXBean#getThreadAllocatedBytes(long)}).
+ */
+public final class Benchmark {
+
+    private static final com.sun.management.ThreadMXBean threads = threadMXBean();
+
+    private Benchmark() {
+    }
+
+    private static com.sun.management.ThreadMXBean threadMXBean() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+                && bean.isThreadAllocatedMemorySupported()) {
+            bean.setThreadAllocatedMemoryEnabled(true);
+            return bean;
+        }
+        return null;
+    }
+
+    /**
+     * Get the bytes allocated so far by the current thread.
+     *
+     * @return  long - the allocated bytes, or 0 if not supported
+     */
+    public static long allocatedBytes() {
+        return threads == null ? 0 : threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Run and measure an action.
+     *
+     * @param   label      - the name printed with the result
+     * @param   warmups    - number of not measured iterations
+     * @param   iterations - number of measured iterations
+     * @param   setup      - action run, not measured, before every iteration
+     * @param   action     - the measured action
+     * @return  double - the average nanoseconds per operation
+     */
+    public static double measure(String label, int warmups, int iterations, Runnable setup, Runnable action) {
+        for (int i = 0; i < warmups; i++) {
+            setup.run();
+            action.run();
+        }
+
+        long elapsed = 0;
+        long allocated = 0;
+        for (int i = 0; i < iterations; i++) {
+            setup.run();
+            long allocatedBefore = allocatedBytes();
+            long start = System.nanoTime();
+            action.run();
+            elapsed += System.nanoTime() - start;
+            allocated += allocatedBytes() - allocatedBefore;
+        }
+
+        double nanosPerOperation = (double) elapsed / iterations;
+        System.out.printf(Locale.ROOT, "%-56s %16.1f ns/op %14.1f B/op%n", label, nanosPerOperation,
+                (double) allocated / iterations);
+        return nanosPerOperation;
+    }
+
+    /**
+     * Overloading of {@link #measure(String, int, int, Runnable, Runnable)}, without setup.
+     */
+    public static double measure(String label, int warmups, int iterations, Runnable action) {
+        return measure(label, warmups, iterations, () -> { }, action);
+    }
+}
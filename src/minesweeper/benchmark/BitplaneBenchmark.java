@@ -0,0 +1,84 @@
+package minesweeper.benchmark;
+
+import minesweeper.cell.CellFaceValue;
+import minesweeper.cell.Coordinates;
+import minesweeper.field.AbstractField;
+import minesweeper.field.BitplaneField;
+import minesweeper.field.BoardSpec;
+import minesweeper.field.Field;
+import minesweeper.field.PackedField;
+
+import java.util.function.Function;
+
+/**
+ * Benchmark of the bulk operations of {@link BitplaneField} against the per-cell path of {@link Field} and {@link
+ * PackedField}:
+ * <ul>
+ *     <li>placing the mines and computing the numbers, triggered by marking and unmarking a corner of a reset field.
+ *     The time includes drawing the mines, the same for all the fields;</li>
+ *     <li>capturing the state of the field;</li>
+ *     <li>checking the status from the cells, word by word on the bitplanes, face by face on the other fields.</li>
+ * </ul>
+ * Arguments are the sides of the square boards, comma separated (default: 1000,4000). {@link Field} is skipped on
+ * boards larger than 10^6 cells.
+ */
+public class BitplaneBenchmark {
+
+    private static final double DENSITY = 0.2;
+
+    /**
+     * Sink preventing the JIT from removing the measured results.
+     */
+    private static long sink;
+
+    public static void main(String[] args) {
+        String sides = args.length > 0 ? args[0] : "1000,4000";
+        for (String side : sides.split(",")) {
+            int n = Integer.parseInt(side);
+            BoardSpec spec = new BoardSpec(n, n, (int) (DENSITY * n * n));
+            if (spec.getSize() <= 1_000_000) {
+                run(spec, "Field", s -> new Field(s, 1L));
+            }
+            run(spec, "PackedField", s -> new PackedField(s, 1L));
+            run(spec, "BitplaneField", s -> new BitplaneField(s, 1L));
+        }
+        System.out.println("checksum " + sink);
+    }
+
+    private static void run(BoardSpec spec, String name, Function<BoardSpec, AbstractField> factory) {
+        AbstractField field = factory.apply(spec);
+        Coordinates corner = new Coordinates(0, 0, spec.getWidth());
+        Benchmark.measure(name + " " + spec + " place mines", 3, 10, () -> field.reset(1L), () -> {
+            field.toggleMarkedCell(corner);
+            field.toggleMarkedCell(corner);
+        });
+        field.explore(new Coordinates(spec.getWidth() / 2, spec.getHeight() / 2, spec.getWidth()));
+        sink += field.getRevealedSafe();
+
+        Benchmark.measure(name + " " + spec + " capture", 20, 20,
+                () -> sink += field.captureState().isMine(0) ? 1 : 0);
+        if (field instanceof BitplaneField bitplanes) {
+            Benchmark.measure(name + " " + spec + " status from cells", 20, 20,
+                    () -> sink += bitplanes.computeFieldStatus().ordinal());
+        } else {
+            Benchmark.measure(name + " " + spec + " status from cells", 20, 20, () -> sink += scanStatus(field));
+        }
+    }
+
+    /**
+     * Check the status as a client without access to the planes would: counting the face values of the cells.
+     */
+    private static int scanStatus(AbstractField field) {
+        int marked = 0;
+        int exploded = 0;
+        for (int lineal = 0; lineal < field.getBoardSpec().getSize(); lineal++) {
+            CellFaceValue faceValue = field.getFaceValue(lineal);
+            if (faceValue == CellFaceValue.MARKED) {
+                marked++;
+            } else if (faceValue == CellFaceValue.MINE) {
+                exploded++;
+            }
+        }
+        return marked + exploded;
+    }
+}
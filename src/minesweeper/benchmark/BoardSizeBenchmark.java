@@ -0,0 +1,53 @@
+package minesweeper.benchmark;
+
+import minesweeper.cell.Coordinates;
+import minesweeper.field.BoardSpec;
+import minesweeper.field.Field;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Benchmark of the field operations on large rectangular boards.
+ * <p>
+ * Arguments are the board sizes to measure, as "widthxheight" (default: 1000x1000 10000x10000). Each board gets mines
+ * on 15% of its cells. A size that cannot be played (for example because it does not fit the heap) is reported as
+ * failed, and the next one is measured.
+ */
+public class BoardSizeBenchmark {
+
+    private static final double DENSITY = 0.15;
+
+    public static void main(String[] args) {
+        String[] sizes = args.length > 0 ? args : new String[] {"1000x1000", "10000x10000"};
+        for (String size : sizes) {
+            String[] dimensions = size.split("x");
+            int width = Integer.parseInt(dimensions[0]);
+            int height = Integer.parseInt(dimensions[1]);
+            BoardSpec spec = new BoardSpec(width, height, (int) (DENSITY * width * height));
+            try {
+                run(spec);
+            } catch (OutOfMemoryError | StackOverflowError error) {
+                System.out.printf("%s failed: %s%n", spec, error);
+            }
+        }
+    }
+
+    private static void run(BoardSpec spec) {
+        Coordinates center = new Coordinates(spec.getWidth() / 2, spec.getHeight() / 2, spec.getWidth());
+        Coordinates corner = new Coordinates(0, 0, spec.getWidth());
+        Field[] field = new Field[1];
+
+        Benchmark.measure(spec + " new Field", 0, 3, () -> field[0] = new Field(spec));
+        Benchmark.measure(spec + " first explore", 0, 3, () -> field[0] = new Field(spec),
+                () -> field[0].explore(center));
+        Benchmark.measure(spec + " toggleMarkedCell", 1, 5, () -> field[0].toggleMarkedCell(corner));
+        List<Coordinates> row = new ArrayList<>();
+        for (int x = 0; x < Math.min(1000, spec.getWidth()); x++) {
+            row.add(new Coordinates(x, 0, spec.getWidth()));
+        }
+        Benchmark.measure(spec + " toggleMarkedCells (" + row.size() + ")", 1, 5,
+                () -> field[0].toggleMarkedCells(row));
+        Benchmark.measure(spec + " getFieldStatus", 1, 5, () -> field[0].getFieldStatus());
+    }
+}
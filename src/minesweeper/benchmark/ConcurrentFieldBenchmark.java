@@ -0,0 +1,164 @@
+package minesweeper.benchmark;
+
+import minesweeper.cell.Coordinates;
+import minesweeper.cell.ICoordinates;
+import minesweeper.field.BoardSpec;
+import minesweeper.field.ConcurrentField;
+import minesweeper.field.FieldState;
+import minesweeper.field.FieldStatus;
+import minesweeper.field.IField;
+import minesweeper.field.PackedField;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.CyclicBarrier;
+
+/**
+ * Benchmark of many players moving at once on a single board: {@link ConcurrentField} against a {@link PackedField}
+ * guarded by one lock, for an increasing number of threads. Each player explores random cells which are not mines and
+ * marks random mines, so that the game goes on; the moves are drawn before the clock starts. Prints the moves per
+ * second of all the players together.
+ * <p>
+ * Arguments are key=value pairs:
+ * <ul>
+ *     <li>size - the board, as width x height (default 2000x2000);</li>
+ *     <li>density - ratio of mines (default 0.2);</li>
+ *     <li>threads - the numbers of players, comma separated (default 1,2,4,8);</li>
+ *     <li>moves - moves per player (default 200000).</li>
+ * </ul>
+ */
+public class ConcurrentFieldBenchmark {
+    private static final int ROUNDS = 3;
+
+    /**
+     * Sink preventing the JIT from removing the measured results.
+     */
+    private static long sink;
+
+    public static void main(String[] args) throws Exception {
+        String size = "2000x2000";
+        double density = 0.2;
+        String threads = "1,2,4,8";
+        int moves = 200_000;
+        for (String arg : args) {
+            String[] keyValue = arg.split("=", 2);
+            switch (keyValue[0]) {
+                case "size" -> size = keyValue[1];
+                case "density" -> density = Double.parseDouble(keyValue[1]);
+                case "threads" -> threads = keyValue[1];
+                case "moves" -> moves = Integer.parseInt(keyValue[1]);
+                default -> throw new IllegalArgumentException("Unknown argument: " + arg);
+            }
+        }
+        String[] dimensions = size.split("x");
+        int width = Integer.parseInt(dimensions[0]);
+        int height = Integer.parseInt(dimensions[1]);
+        BoardSpec spec = new BoardSpec(width, height, (int) (density * width * height));
+
+        System.out.printf("%s, %d moves per player, %d cores%n", spec, moves,
+                Runtime.getRuntime().availableProcessors());
+        for (String count : threads.split(",")) {
+            int players = Integer.parseInt(count);
+            run(spec, players, moves, false);
+            run(spec, players, moves, true);
+        }
+        System.out.println("checksum " + sink);
+    }
+
+    private static void run(BoardSpec spec, int players, int moves, boolean locked) throws Exception {
+        double best = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            ConcurrentField shared = new ConcurrentField(spec, round);
+            shared.explore(new Coordinates(spec.getWidth() / 2, spec.getHeight() / 2, spec.getWidth()));
+            FieldState state = shared.captureState();
+            int[][] plans = plan(state, players, moves, round);
+            // the locked field plays the same mines, copied from the concurrent one
+            IField target = locked ? new LockedField(state) : shared;
+
+            CyclicBarrier start = new CyclicBarrier(players + 1);
+            Thread[] workers = new Thread[players];
+            for (int i = 0; i < players; i++) {
+                int[] plan = plans[i];
+                workers[i] = new Thread(() -> {
+                    await(start);
+                    for (int lineal : plan) {
+                        Coordinates coordinates = new Coordinates(lineal >>> 1, spec.getWidth());
+                        if ((lineal & 1) == 0) {
+                            target.explore(coordinates);
+                        } else {
+                            target.toggleMarkedCell(coordinates);
+                        }
+                    }
+                });
+                workers[i].start();
+            }
+            await(start);
+            long begin = System.nanoTime();
+            for (Thread worker : workers) {
+                worker.join();
+            }
+            long elapsed = System.nanoTime() - begin;
+            best = Math.max(best, (double) players * moves * 1e9 / elapsed);
+            sink += target.getFieldStatus().ordinal();
+        }
+        String name = locked ? "locked PackedField" : "ConcurrentField";
+        System.out.printf(Locale.ROOT, "%2d players %-20s %,14.0f moves/s%n", players, name, best);
+    }
+
+    /**
+     * Draw the moves of each player: lineal values shifted left by one, with the low bit set for marks.
+     */
+    private static int[][] plan(FieldState state, int players, int moves, long seed) {
+        int size = state.getBoardSpec().getSize();
+        SplittableRandom random = new SplittableRandom(seed);
+        int[][] plans = new int[players][moves];
+        for (int[] plan : plans) {
+            for (int i = 0; i < moves; i++) {
+                int lineal = random.nextInt(size);
+                plan[i] = lineal << 1 | (state.isMine(lineal) ? 1 : 0);
+            }
+        }
+        return plans;
+    }
+
+    private static void await(CyclicBarrier barrier) {
+        try {
+            barrier.await();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * A field guarded by a single lock, as the simplest alternative to a concurrent field.
+     */
+    private static final class LockedField implements IField {
+        private final PackedField field;
+
+        LockedField(FieldState state) {
+            this.field = new PackedField(state.getBoardSpec(), 0L);
+            field.restoreState(state);
+        }
+
+        @Override
+        public synchronized boolean explore(ICoordinates coordinates) {
+            return field.explore(coordinates);
+        }
+
+        @Override
+        public synchronized FieldStatus getFieldStatus() {
+            return field.getFieldStatus();
+        }
+
+        @Override
+        public synchronized boolean toggleMarkedCell(ICoordinates coordinates) {
+            return field.toggleMarkedCell(coordinates);
+        }
+
+        @Override
+        public synchronized boolean[] toggleMarkedCells(List<? extends ICoordinates> coordinates) {
+            return field.toggleMarkedCells(coordinates);
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package minesweeper.benchmark;
+
+import minesweeper.cell.Coordinates;
+import minesweeper.cell.Neighborhood;
+import minesweeper.field.AbstractField;
+import minesweeper.field.BoardSpec;
+import minesweeper.field.Field;
+import minesweeper.field.FieldRenderer;
+import minesweeper.field.MinePlacer;
+import minesweeper.field.PackedField;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.SplittableRandom;
+
+/**
+ * Benchmark suite of the engine hot paths, across board sizes and mine densities, with time and allocation per
+ * operation. It is the baseline to compare every performance change against.
+ * <p>
+ * Arguments, all optional, as key=value:
+ * <ul>
+ *     <li>sizes: comma separated board sizes as widthxheight (default: 100x100,1000x1000);</li>
+ *     <li>densities: comma separated ratios of mines to cells (default: 0.05,0.15,0.3);</li>
+ *     <li>field: the field implementation, Field or PackedField (default: Field);</li>
+ *     <li>iterations: measured iterations per benchmark (default: 10).</li>
+ * </ul>
+ * Measured operations:
+ * <ul>
+ *     <li>place mines: {@link MinePlacer#place}, as done at the first move;</li>
+ *     <li>first explore: first exploration of a new field, mine placement included;</li>
+ *     <li>explore small: exploration of 1000 random cells of a played field, mostly opening few cells;</li>
+ *     <li>explore board-wide: first exploration of a field without mines, opening every cell;</li>
+ *     <li>toggleMarkedCell: marking or unmarking 1000 random cells;</li>
+ *     <li>getFieldStatus: 1000 calls;</li>
+ *     <li>toString: rendering of the whole field;</li>
+ *     <li>write: streaming of the whole field to a writer;</li>
+ *     <li>render moves: incremental rendering with {@link FieldRenderer} after each of 1000 marks;</li>
+ *     <li>getSurrounding and Neighborhood: neighbors of 1000 cells through the boxed list and the flat tables.</li>
+ * </ul>
+ */
+public class EngineBenchmark {
+
+    private static final int WARMUPS = 3;
+    private static final int RANDOM_CELLS = 1000;
+
+    /**
+     * Sink preventing the JIT from removing the measured results.
+     */
+    private static long sink;
+
+    public static void main(String[] args) {
+        String sizes = "100x100,1000x1000";
+        String densities = "0.05,0.15,0.3";
+        String implementation = "Field";
+        int iterations = 10;
+        for (String arg : args) {
+            String[] keyValue = arg.split("=", 2);
+            switch (keyValue[0]) {
+                case "sizes" -> sizes = keyValue[1];
+                case "densities" -> densities = keyValue[1];
+                case "field" -> implementation = keyValue[1];
+                case "iterations" -> iterations = Integer.parseInt(keyValue[1]);
+                default -> throw new IllegalArgumentException("Unknown argument: " + arg);
+            }
+        }
+
+        System.out.println("field implementation: " + implementation);
+        for (String size : sizes.split(",")) {
+            String[] dimensions = size.split("x");
+            int width = Integer.parseInt(dimensions[0]);
+            int height = Integer.parseInt(dimensions[1]);
+            for (String density : densities.split(",")) {
+                int mines = (int) (Double.parseDouble(density) * width * height);
+                run(new BoardSpec(width, height, mines), implementation, iterations);
+            }
+            runBoardWide(new BoardSpec(width, height, 0), implementation, iterations);
+            runNeighbors(width, height, iterations);
+        }
+        System.out.println("checksum " + sink);
+    }
+
+    private static AbstractField newField(String implementation, BoardSpec spec, long seed) {
+        return switch (implementation) {
+            case "Field" -> new Field(spec, seed);
+            case "PackedField" -> new PackedField(spec, seed);
+            default -> throw new IllegalArgumentException("Unknown field implementation: " + implementation);
+        };
+    }
+
+    private static void run(BoardSpec spec, String implementation, int iterations) {
+        Neighborhood neighborhood = Neighborhood.of(spec.getWidth(), spec.getHeight());
+        Coordinates center = new Coordinates(spec.getWidth() / 2, spec.getHeight() / 2, spec.getWidth());
+        SplittableRandom random = new SplittableRandom(1);
+        Coordinates[] cells = new Coordinates[RANDOM_CELLS];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = new Coordinates(random.nextInt(spec.getSize()), spec.getWidth());
+        }
+        AbstractField[] field = new AbstractField[1];
+        long[] seed = new long[1];
+
+        Benchmark.measure(spec + " place mines", WARMUPS, iterations, () -> {
+            int[] mines = new MinePlacer(seed[0]++).place(neighborhood, spec.getNumberOfMines(), center.getLineal());
+            sink += mines.length;
+        });
+        Benchmark.measure(spec + " first explore", WARMUPS, iterations,
+                () -> field[0] = newField(implementation, spec, seed[0]++),
+                () -> field[0].explore(center));
+        Benchmark.measure(spec + " explore small (" + RANDOM_CELLS + ")", WARMUPS, iterations,
+                () -> {
+                    field[0] = newField(implementation, spec, seed[0]++);
+                    field[0].explore(center);
+                },
+                () -> {
+                    for (Coordinates cell : cells) {
+                        field[0].explore(cell);
+                    }
+                });
+        Benchmark.measure(spec + " toggleMarkedCell (" + RANDOM_CELLS + ")", WARMUPS, iterations, () -> {
+            for (Coordinates cell : cells) {
+                field[0].toggleMarkedCell(cell);
+            }
+        });
+        Benchmark.measure(spec + " getFieldStatus (" + RANDOM_CELLS + ")", WARMUPS, iterations, () -> {
+            for (int i = 0; i < RANDOM_CELLS; i++) {
+                sink += field[0].getFieldStatus().ordinal();
+            }
+        });
+        Benchmark.measure(spec + " toString", WARMUPS, iterations, () -> sink += field[0].toString().length());
+        Benchmark.measure(spec + " write", WARMUPS, iterations, () -> {
+            try {
+                field[0].write(Writer.nullWriter());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        FieldRenderer renderer = new FieldRenderer(field[0], Writer.nullWriter(), FieldRenderer.Mode.ANSI);
+        render(renderer);
+        Benchmark.measure(spec + " render moves (" + RANDOM_CELLS + ")", WARMUPS, iterations, () -> {
+            for (Coordinates cell : cells) {
+                field[0].toggleMarkedCell(cell);
+                render(renderer);
+            }
+        });
+        renderer.detach();
+    }
+
+    private static void render(FieldRenderer renderer) {
+        try {
+            renderer.render();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void runBoardWide(BoardSpec spec, String implementation, int iterations) {
+        Coordinates center = new Coordinates(spec.getWidth() / 2, spec.getHeight() / 2, spec.getWidth());
+        AbstractField[] field = new AbstractField[1];
+        Benchmark.measure(spec + " explore board-wide", WARMUPS, iterations,
+                () -> field[0] = newField(implementation, spec, 1L),
+                () -> field[0].explore(center));
+    }
+
+    private static void runNeighbors(int width, int height, int iterations) {
+        Neighborhood neighborhood = Neighborhood.of(width, height);
+        SplittableRandom random = new SplittableRandom(1);
+        int[] cells = random.ints(RANDOM_CELLS, 0, width * height).toArray();
+        String board = width + "x" + height;
+
+        Benchmark.measure(board + " getSurrounding (" + RANDOM_CELLS + ")", WARMUPS, iterations, () -> {
+            for (int cell : cells) {
+                for (int neighbor : Coordinates.getSurrounding(cell, width, height)) {
+                    sink += neighbor;
+                }
+            }
+        });
+        Benchmark.measure(board + " Neighborhood (" + RANDOM_CELLS + ")", WARMUPS, iterations, () -> {
+            for (int cell : cells) {
+                int shape = neighborhood.shapeOf(cell);
+                for (int k = 0; k < neighborhood.size(shape); k++) {
+                    sink += neighborhood.neighbor(cell, shape, k);
+                }
+            }
+        });
+    }
+}
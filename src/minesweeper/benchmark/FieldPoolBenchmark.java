@@ -0,0 +1,51 @@
+package minesweeper.benchmark;
+
+import minesweeper.cell.Coordinates;
+import minesweeper.field.AbstractField;
+import minesweeper.field.BoardSpec;
+import minesweeper.field.Field;
+import minesweeper.field.FieldPool;
+import minesweeper.field.PackedField;
+
+import java.util.function.Function;
+
+/**
+ * Benchmark of the cost of starting a game: creating a new field and exploring its first cell, against taking a field
+ * from a {@link FieldPool}, which resets it in place, exploring and releasing it. The allocation column shows that
+ * pooled games allocate nothing once the pool is warm.
+ */
+public class FieldPoolBenchmark {
+
+    /**
+     * Sink preventing the JIT from removing the measured results.
+     */
+    private static long sink;
+
+    public static void main(String[] args) {
+        BoardSpec[] specs = {BoardSpec.classic(10), new BoardSpec(30, 16, 99), new BoardSpec(100, 100, 1500)};
+        for (BoardSpec spec : specs) {
+            run(spec, "Field", Field::new);
+            run(spec, "PackedField", PackedField::new);
+        }
+        System.out.println("checksum " + sink);
+    }
+
+    private static <F extends AbstractField> void run(BoardSpec spec, String name, Function<BoardSpec, F> factory) {
+        Coordinates first = new Coordinates(spec.getWidth() / 2, spec.getHeight() / 2, spec.getWidth());
+        long[] seed = {0};
+        Benchmark.measure(spec + " new " + name + " + explore", 2000, 2000, () -> {
+            F field = factory.apply(spec);
+            field.reset(seed[0]++);
+            field.explore(first);
+            sink += field.getRevealedSafe();
+        });
+
+        FieldPool<F> pool = new FieldPool<>(factory, 4);
+        Benchmark.measure(spec + " pooled " + name + " + explore", 2000, 2000, () -> {
+            F field = pool.acquire(spec, seed[0]++);
+            field.explore(first);
+            sink += field.getRevealedSafe();
+            pool.release(field);
+        });
+    }
+}
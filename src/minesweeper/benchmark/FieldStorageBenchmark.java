@@ -0,0 +1,70 @@
+package minesweeper.benchmark;
+
+import minesweeper.cell.Coordinates;
+import minesweeper.field.AbstractField;
+import minesweeper.field.BitplaneField;
+import minesweeper.field.BoardSpec;
+import minesweeper.field.Field;
+import minesweeper.field.PackedField;
+
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.function.Function;
+
+/**
+ * Benchmark comparing the memory footprint and the throughput of the field storage implementations: {@link Field}
+ * (an object per cell), {@link PackedField} (a byte per cell) and {@link BitplaneField} (9 bits per cell).
+ * <p>
+ * Arguments are the number of cells of the square boards to measure (default: 1000000 100000000). The footprint is
+ * the heap used after a garbage collection, once the first cell has been explored. Throughput is measured as random
+ * explorations, each followed by a status check. Run with a large heap (for example -Xmx16g) for 10^8 cells.
+ */
+public class FieldStorageBenchmark {
+
+    private static final double DENSITY = 0.15;
+    private static final int MOVES = 100_000;
+
+    public static void main(String[] args) {
+        String[] sizes = args.length > 0 ? args : new String[] {"1000000", "100000000"};
+        for (String size : sizes) {
+            int side = (int) Math.sqrt(Long.parseLong(size));
+            BoardSpec spec = new BoardSpec(side, side, (int) (DENSITY * side * side));
+            run(spec, "Field", s -> new Field(s, 1L));
+            run(spec, "PackedField", s -> new PackedField(s, 1L));
+            run(spec, "BitplaneField", s -> new BitplaneField(s, 1L));
+        }
+    }
+
+    private static void run(BoardSpec spec, String name, Function<BoardSpec, AbstractField> factory) {
+        try {
+            long before = usedHeap();
+            AbstractField field = factory.apply(spec);
+            field.explore(new Coordinates(spec.getWidth() / 2, spec.getHeight() / 2, spec.getWidth()));
+            long footprint = usedHeap() - before;
+            System.out.printf(Locale.ROOT, "%-12s %-22s %10.1f MB %8.2f bytes/cell%n", name, spec,
+                    footprint / 1e6, (double) footprint / spec.getSize());
+
+            SplittableRandom random = new SplittableRandom(1);
+            Coordinates[] moves = new Coordinates[MOVES];
+            for (int i = 0; i < MOVES; i++) {
+                moves[i] = new Coordinates(random.nextInt(spec.getSize()), spec.getWidth());
+            }
+            Benchmark.measure(name + " " + spec + " " + MOVES + " explore+status", 1, 3, () -> {
+                for (Coordinates move : moves) {
+                    field.explore(move);
+                    field.getFieldStatus();
+                }
+            });
+        } catch (OutOfMemoryError error) {
+            System.out.printf("%-12s %-22s failed: %s%n", name, spec, error);
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
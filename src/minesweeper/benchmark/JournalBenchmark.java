@@ -0,0 +1,110 @@
+package minesweeper.benchmark;
+
+import minesweeper.cell.Coordinates;
+import minesweeper.field.BoardSpec;
+import minesweeper.field.MinePlacer;
+import minesweeper.field.MinePlacer.SafeZone;
+import minesweeper.field.PackedField;
+import minesweeper.game.Command;
+import minesweeper.game.CommandInvoker;
+import minesweeper.game.Explore;
+import minesweeper.game.IInvoker;
+import minesweeper.journal.Journal;
+import minesweeper.journal.JournalReplay;
+import minesweeper.journal.JournalingInvoker;
+import minesweeper.journal.MoveJournal;
+import minesweeper.solver.Solver;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Benchmark of the move journal: the cost of recording the moves of a game played by the {@link Solver}, the speed of
+ * a full replay, and the time to seek random moves with and without keyframes.
+ * <p>
+ * Arguments are the side of the square board and the ratio of mines to cells (default: 300 0.15).
+ */
+public class JournalBenchmark {
+
+    private static final long SEED = 1;
+    private static final SafeZone SAFE_ZONE = SafeZone.NEIGHBORHOOD;
+    private static final int SEEKS = 100;
+
+    public static void main(String[] args) throws IOException {
+        int side = args.length > 0 ? Integer.parseInt(args[0]) : 300;
+        double density = args.length > 1 ? Double.parseDouble(args[1]) : 0.15;
+        BoardSpec spec = new BoardSpec(side, side, (int) (density * side * side));
+        Path path = Files.createTempFile("minesweeper", ".journal");
+        try {
+            long[] moves = new long[1];
+            Benchmark.measure(spec + " play", 2, 3, () -> moves[0] = play(spec, new CommandInvoker()));
+            Benchmark.measure(spec + " play with journal", 2, 3, () -> {
+                try (MoveJournal journal = MoveJournal.create(path, spec, SEED, SAFE_ZONE)) {
+                    play(spec, new JournalingInvoker(journal));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            System.out.printf(Locale.ROOT, "%d moves, journal of %d bytes%n", moves[0], Files.size(path));
+
+            Journal journal = Journal.read(path);
+            double nanos = Benchmark.measure(spec + " full replay", 2, 5,
+                    () -> new JournalReplay<>(journal, PackedField::new).toEnd());
+            System.out.printf(Locale.ROOT, "replay: %.1f million moves/s%n", journal.size() * 1e3 / nanos);
+
+            seek(journal, JournalReplay.DEFAULT_KEYFRAME_INTERVAL);
+            seek(journal, Integer.MAX_VALUE);
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    /**
+     * Play a game with the solver until it is stuck.
+     *
+     * @return  long - the number of moves
+     */
+    private static long play(BoardSpec spec, IInvoker invoker) {
+        PackedField field = new PackedField(spec, new MinePlacer(SEED, SAFE_ZONE));
+        Solver solver = new Solver(field);
+        Coordinates first = new Coordinates(spec.getWidth() / 2, spec.getHeight() / 2, spec.getWidth());
+        invoker.setCommand(new Explore(field, first));
+        invoker.execute();
+        long moves = 1;
+        for (List<Command> commands = solver.nextMoves(); !commands.isEmpty(); commands = solver.nextMoves()) {
+            for (Command command : commands) {
+                invoker.setCommand(command);
+                invoker.execute();
+                moves++;
+            }
+        }
+        return moves;
+    }
+
+    /**
+     * Seek random moves, once the keyframes have been captured by a full replay.
+     */
+    private static void seek(Journal journal, int keyframeInterval) {
+        JournalReplay<PackedField> replay = new JournalReplay<>(journal, PackedField::new, keyframeInterval);
+        replay.toEnd();
+        SplittableRandom random = new SplittableRandom(SEED);
+        List<Integer> targets = new ArrayList<>();
+        for (int i = 0; i < SEEKS; i++) {
+            targets.add(random.nextInt(journal.size() + 1));
+        }
+        String label = keyframeInterval == Integer.MAX_VALUE
+                ? "without keyframes"
+                : "keyframes every " + keyframeInterval;
+        Benchmark.measure("seek " + SEEKS + " random moves, " + label, 1, 3, () -> {
+            for (int target : targets) {
+                replay.seek(target);
+            }
+        });
+    }
+}
@@ -0,0 +1,76 @@
+package minesweeper.benchmark;
+
+import minesweeper.cell.Coordinates;
+import minesweeper.field.BoardSpec;
+import minesweeper.field.MappedField;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+/**
+ * Benchmark of {@link MappedField}: random moves on a board file, and reopening of the file.
+ * <p>
+ * Arguments are the side of the square board (default: 10000) and the board file (default: a temporary file, deleted
+ * at the end).
+ */
+public class MappedFieldBenchmark {
+
+    private static final double DENSITY = 0.15;
+    private static final int MOVES = 100_000;
+
+    public static void main(String[] args) throws IOException {
+        int side = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        Path path = args.length > 1 ? Path.of(args[1]) : Files.createTempFile("minesweeper", ".board");
+        BoardSpec spec = new BoardSpec(side, side, (int) (DENSITY * side * side));
+        SplittableRandom random = new SplittableRandom(1);
+        Coordinates[] moves = new Coordinates[MOVES];
+        for (int i = 0; i < MOVES; i++) {
+            moves[i] = new Coordinates(random.nextInt(spec.getSize()), spec.getWidth());
+        }
+
+        MappedField[] field = new MappedField[1];
+        Benchmark.measure(spec + " create", 0, 1, () -> field[0] = create(path, spec));
+        Benchmark.measure(spec + " " + MOVES + " explore+status", 1, 3, () -> {
+            for (Coordinates move : moves) {
+                field[0].explore(move);
+                field[0].getFieldStatus();
+            }
+        });
+        Benchmark.measure(spec + " close", 0, 1, () -> close(field[0]));
+        Benchmark.measure(spec + " open", 0, 1, () -> field[0] = open(path));
+        System.out.println("status after reopening: " + field[0].getFieldStatus());
+        close(field[0]);
+
+        if (args.length <= 1) {
+            Files.delete(path);
+        }
+    }
+
+    private static MappedField create(Path path, BoardSpec spec) {
+        try {
+            MappedField field = MappedField.create(path, spec, 1L);
+            field.explore(new Coordinates(spec.getWidth() / 2, spec.getHeight() / 2, spec.getWidth()));
+            return field;
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static MappedField open(Path path) {
+        try {
+            return MappedField.open(path);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void close(MappedField field) {
+        try {
+            field.close();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package minesweeper.benchmark;
+
+import minesweeper.cell.Coordinates;
+import minesweeper.cell.Neighborhood;
+
+/**
+ * Benchmark comparing {@link Coordinates#getSurrounding(int, int, int)} with the precomputed {@link Neighborhood}
+ * tables, summing the neighbors of every cell of a board.
+ * <p>
+ * Arguments are the board width and height (default: 1000 1000).
+ */
+public class NeighborhoodBenchmark {
+
+    /**
+     * Sink preventing the JIT from removing the measured loops.
+     */
+    private static long sink;
+
+    public static void main(String[] args) {
+        int width = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int height = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        int size = width * height;
+        Neighborhood neighborhood = Neighborhood.of(width, height);
+        int[] buffer = new int[Neighborhood.MAX_NEIGHBORS];
+        String board = width + "x" + height;
+
+        Benchmark.measure(board + " Coordinates.getSurrounding", 3, 5, () -> {
+            long sum = 0;
+            for (int i = 0; i < size; i++) {
+                for (int neighbor : Coordinates.getSurrounding(i, width, height)) {
+                    sum += neighbor;
+                }
+            }
+            sink += sum;
+        });
+
+        Benchmark.measure(board + " Neighborhood.neighbor", 3, 5, () -> {
+            long sum = 0;
+            for (int i = 0; i < size; i++) {
+                int shape = neighborhood.shapeOf(i);
+                for (int k = 0; k < neighborhood.size(shape); k++) {
+                    sum += neighborhood.neighbor(i, shape, k);
+                }
+            }
+            sink += sum;
+        });
+
+        Benchmark.measure(board + " Neighborhood.neighbors(buffer)", 3, 5, () -> {
+            long sum = 0;
+            for (int i = 0; i < size; i++) {
+                int count = neighborhood.neighbors(i, buffer);
+                for (int k = 0; k < count; k++) {
+                    sum += buffer[k];
+                }
+            }
+            sink += sum;
+        });
+
+        System.out.println("checksum " + sink);
+    }
+}
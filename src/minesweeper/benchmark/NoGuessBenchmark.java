@@ -0,0 +1,51 @@
+package minesweeper.benchmark;
+
+import minesweeper.field.BoardSpec;
+import minesweeper.generator.BoardPool;
+import minesweeper.generator.NoGuessBoard;
+import minesweeper.generator.NoGuessGenerator;
+
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Benchmark of the no-guess boards: generation throughput and acceptance rate of a single
+ * {@link NoGuessGenerator}, then the hit rate of a {@link BoardPool} serving games that take a new board every few
+ * milliseconds.
+ * <p>
+ * Arguments are the board configurations as width x height / mines (default: 9x9/10 16x16/40 30x16/99).
+ */
+public class NoGuessBenchmark {
+
+    public static void main(String[] args) throws InterruptedException {
+        String[] configurations = args.length > 0 ? args : new String[] {"9x9/10", "16x16/40", "30x16/99"};
+        for (String configuration : configurations) {
+            String[] parts = configuration.split("[x/]");
+            BoardSpec spec = new BoardSpec(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]),
+                    Integer.parseInt(parts[2]));
+
+            NoGuessGenerator generator = new NoGuessGenerator(spec);
+            SplittableRandom random = new SplittableRandom(1);
+            int boards = 50;
+            long candidates = 0;
+            long start = System.nanoTime();
+            for (int i = 0; i < boards; i++) {
+                NoGuessBoard board = generator.generate(random);
+                candidates += board.getAttempts();
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf(Locale.ROOT, "%-12s generator: %.1f boards/s, %.0f candidates/s, acceptance %.3f%n",
+                    spec, boards / seconds, candidates / seconds, (double) boards / candidates);
+
+            try (BoardPool pool = new BoardPool(16)) {
+                pool.prepare(spec);
+                Thread.sleep(500);
+                for (int i = 0; i < 100; i++) {
+                    pool.take(spec);
+                    Thread.sleep(5);
+                }
+                System.out.printf("%-12s pool: %s%n", spec, pool.getMetrics(spec));
+            }
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package minesweeper.benchmark;
+
+import minesweeper.cell.Coordinates;
+import minesweeper.field.BoardSpec;
+import minesweeper.field.MinePlacer;
+import minesweeper.field.PackedField;
+
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Benchmark of a board-wide opening: the exploration of the center of a huge sparse board, opening most of its cells,
+ * sequentially and in parallel on pools of increasing size. The mines are placed before the measure, by marking and
+ * unmarking a corner. Checks that every mode opens the same number of cells.
+ * <p>
+ * Arguments are key=value pairs:
+ * <ul>
+ *     <li>size - the board, as width x height (default 4000x2500, 10^7 cells);</li>
+ *     <li>density - ratio of mines (default 0.03);</li>
+ *     <li>threads - the sizes of the pools, comma separated (default 1,2,4,8).</li>
+ * </ul>
+ */
+public class ParallelFloodFillBenchmark {
+
+    public static void main(String[] args) {
+        String size = "4000x2500";
+        double density = 0.03;
+        String threads = "1,2,4,8";
+        for (String arg : args) {
+            String[] keyValue = arg.split("=", 2);
+            switch (keyValue[0]) {
+                case "size" -> size = keyValue[1];
+                case "density" -> density = Double.parseDouble(keyValue[1]);
+                case "threads" -> threads = keyValue[1];
+                default -> throw new IllegalArgumentException("Unknown argument: " + arg);
+            }
+        }
+        String[] dimensions = size.split("x");
+        int width = Integer.parseInt(dimensions[0]);
+        int height = Integer.parseInt(dimensions[1]);
+        BoardSpec spec = new BoardSpec(width, height, (int) (density * width * height));
+
+        PackedField field = new PackedField(spec, new MinePlacer(1L, MinePlacer.SafeZone.NEIGHBORHOOD));
+        Coordinates corner = new Coordinates(0, 0, width);
+        Coordinates center = new Coordinates(width / 2, height / 2, width);
+        Runnable setup = () -> {
+            field.reset(1L);
+            field.toggleMarkedCell(corner);
+            field.toggleMarkedCell(corner);
+        };
+        System.out.printf("%s, %d cores%n", spec, Runtime.getRuntime().availableProcessors());
+
+        double sequential = Benchmark.measure(spec + " sequential", 2, 5, setup, () -> field.explore(center));
+        int opened = field.getRevealedSafe();
+        System.out.printf(Locale.ROOT, "    %d cells opened, %.0f cells/ms%n", opened, opened * 1e6 / sequential);
+
+        for (String count : threads.split(",")) {
+            ForkJoinPool pool = new ForkJoinPool(Integer.parseInt(count));
+            try {
+                double parallel = Benchmark.measure(spec + " parallel, " + count + " threads", 2, 5, setup,
+                        () -> field.explore(center, pool));
+                if (field.getRevealedSafe() != opened) {
+                    throw new IllegalStateException("Parallel opening differs: " + field.getRevealedSafe() + " cells");
+                }
+                System.out.printf(Locale.ROOT, "    speedup %.2f%n", sequential / parallel);
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package minesweeper.benchmark;
+
+import minesweeper.cell.Coordinates;
+import minesweeper.field.BoardSpec;
+import minesweeper.field.FieldStatus;
+import minesweeper.field.MinePlacer;
+import minesweeper.field.MinePlacer.SafeZone;
+import minesweeper.field.PackedField;
+import minesweeper.game.Command;
+import minesweeper.game.CommandInvoker;
+import minesweeper.game.IInvoker;
+import minesweeper.solver.MineProbabilities;
+import minesweeper.solver.ProbabilityEngine;
+import minesweeper.solver.Solver;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Benchmark of the {@link ProbabilityEngine} scaling with the number of cores: plays a large board with the
+ * {@link Solver} until no move is certain, then computes the probabilities of that position with pools of growing
+ * parallelism, up to the available processors.
+ * <p>
+ * Arguments are the side of the square board, the ratio of mines to cells and the size cutoff of the exact
+ * enumeration (default: 300 0.2 40).
+ */
+public class ProbabilityBenchmark {
+
+    public static void main(String[] args) {
+        int side = args.length > 0 ? Integer.parseInt(args[0]) : 300;
+        double density = args.length > 1 ? Double.parseDouble(args[1]) : 0.2;
+        int cutoff = args.length > 2 ? Integer.parseInt(args[2]) : ProbabilityEngine.DEFAULT_MAX_EXACT_CELLS;
+        BoardSpec spec = new BoardSpec(side, side, (int) (density * side * side));
+
+        PackedField field = new PackedField(spec, new MinePlacer(new SplittableRandom(1), SafeZone.NEIGHBORHOOD));
+        Solver solver = new Solver(field);
+        field.explore(new Coordinates(side / 2, side / 2, side));
+        IInvoker invoker = new CommandInvoker();
+        List<Command> commands = solver.nextMoves();
+        while (!commands.isEmpty() && field.getFieldStatus() == FieldStatus.PENDING) {
+            for (Command command : commands) {
+                invoker.setCommand(command);
+                invoker.execute();
+            }
+            commands = solver.nextMoves();
+        }
+
+        MineProbabilities probabilities = new ProbabilityEngine().compute(field, solver);
+        System.out.printf(Locale.ROOT, "%s: %d frontier cells in %d components, exact %b%n", spec,
+                probabilities.getFrontierSize(), probabilities.getComponentCount(), probabilities.isExact());
+
+        int processors = Runtime.getRuntime().availableProcessors();
+        double sequential = 0;
+        for (int parallelism = 1; parallelism <= processors; parallelism = nextParallelism(parallelism, processors)) {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            ProbabilityEngine engine = new ProbabilityEngine(pool, cutoff, ProbabilityEngine.DEFAULT_SAMPLES, 0);
+            double nanos = Benchmark.measure(String.format("%s parallelism %d", spec, parallelism), 3, 10,
+                    () -> engine.compute(field, solver));
+            if (parallelism == 1) {
+                sequential = nanos;
+            } else {
+                System.out.printf(Locale.ROOT, "%-56s %16.2fx%n", "speedup", sequential / nanos);
+            }
+            pool.shutdown();
+        }
+    }
+
+    private static int nextParallelism(int parallelism, int processors) {
+        return parallelism == processors ? processors + 1 : Math.min(parallelism * 2, processors);
+    }
+}
@@ -0,0 +1,152 @@
+package minesweeper.benchmark;
+
+import minesweeper.server.GameServer;
+
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Load test of {@link GameServer}: creates many games, then sends random requests to them, a bounded number at a
+ * time, and prints the requests per second and the latency percentiles, then the counters of the session store. The
+ * requests are explorations (60%), marks (15%), JSON deltas (15%) and binary deltas (10%) of random cells of random
+ * games.
+ * <p>
+ * Arguments are key=value pairs:
+ * <ul>
+ *     <li>url - the server, for example http://localhost:8080 (default: a server started in this process);</li>
+ *     <li>sessions - number of games (default 10000);</li>
+ *     <li>requests - number of requests after the games are created (default 200000);</li>
+ *     <li>concurrency - maximum number of requests in progress (default 64);</li>
+ *     <li>size - the board, as width x height (default 9x9);</li>
+ *     <li>mines - number of mines (default 10);</li>
+ *     <li>memory - the memory budget of the games of the server started in this process, in megabytes, for example 4
+ *     to spill most of 10000 games of 9x9 to disk (default: half of the maximum heap).</li>
+ * </ul>
+ */
+public class ServerBenchmark {
+    private static final Pattern ID = Pattern.compile("\"id\":(\\d+)");
+
+    public static void main(String[] args) throws Exception {
+        String url = null;
+        int sessions = 10_000;
+        int requests = 200_000;
+        int concurrency = 64;
+        String size = "9x9";
+        int mines = 10;
+        long memoryBudget = Runtime.getRuntime().maxMemory() / 2;
+        for (String arg : args) {
+            String[] keyValue = arg.split("=", 2);
+            switch (keyValue[0]) {
+                case "url" -> url = keyValue[1];
+                case "sessions" -> sessions = Integer.parseInt(keyValue[1]);
+                case "requests" -> requests = Integer.parseInt(keyValue[1]);
+                case "concurrency" -> concurrency = Integer.parseInt(keyValue[1]);
+                case "size" -> size = keyValue[1];
+                case "mines" -> mines = Integer.parseInt(keyValue[1]);
+                case "memory" -> memoryBudget = Long.parseLong(keyValue[1]) << 20;
+                default -> throw new IllegalArgumentException("Unknown argument: " + arg);
+            }
+        }
+        String[] dimensions = size.split("x");
+        int width = Integer.parseInt(dimensions[0]);
+        int height = Integer.parseInt(dimensions[1]);
+
+        GameServer server = null;
+        if (url == null) {
+            server = new GameServer(new InetSocketAddress("localhost", 0), memoryBudget,
+                    Files.createTempDirectory("minesweeper-games"));
+            server.start();
+            url = "http://localhost:" + server.getPort();
+        }
+        String base = url;
+        try {
+            HttpClient client = HttpClient.newHttpClient();
+            long[] ids = new long[sessions];
+            String create = String.format("%s/games?width=%d&height=%d&mines=%d", base, width, height, mines);
+            run(client, "create", sessions, concurrency, i -> post(create), (i, body) -> {
+                Matcher matcher = ID.matcher(body);
+                if (!matcher.find()) {
+                    throw new IllegalStateException("Unexpected answer: " + body);
+                }
+                ids[i] = Long.parseLong(matcher.group(1));
+            });
+
+            SplittableRandom random = new SplittableRandom(1);
+            HttpRequest[] plan = new HttpRequest[requests];
+            for (int i = 0; i < requests; i++) {
+                String game = base + "/games/" + ids[random.nextInt(sessions)];
+                String cell = "?column=" + (1 + random.nextInt(width)) + "&row=" + (1 + random.nextInt(height));
+                int kind = random.nextInt(100);
+                plan[i] = kind < 60 ? post(game + "/explore" + cell)
+                        : kind < 75 ? post(game + "/mark" + cell)
+                        : kind < 90 ? get(game + "/delta")
+                        : get(game + "/delta?format=binary");
+            }
+            run(client, "play", requests, concurrency, i -> plan[i], (i, body) -> { });
+            System.out.println(client.send(get(base + "/stats"), HttpResponse.BodyHandlers.ofString()).body());
+        } finally {
+            if (server != null) {
+                server.close();
+            }
+        }
+    }
+
+    /**
+     * Answer of a request, checked and parsed.
+     */
+    private interface Answer {
+        void accept(int index, String body);
+    }
+
+    private static void run(HttpClient client, String label, int count, int concurrency,
+                            IntFunction<HttpRequest> requests, Answer answer) throws InterruptedException {
+        long[] latencies = new long[count];
+        Semaphore permits = new Semaphore(concurrency);
+        AtomicInteger errors = new AtomicInteger();
+        CompletableFuture<?>[] pending = new CompletableFuture<?>[count];
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            int index = i;
+            permits.acquire();
+            long sent = System.nanoTime();
+            pending[i] = client.sendAsync(requests.apply(i), HttpResponse.BodyHandlers.ofString())
+                    .whenComplete((response, failure) -> {
+                        latencies[index] = System.nanoTime() - sent;
+                        permits.release();
+                        if (failure != null || response.statusCode() >= 300) {
+                            errors.incrementAndGet();
+                        } else {
+                            answer.accept(index, response.body());
+                        }
+                    });
+        }
+        CompletableFuture.allOf(pending).exceptionally(failure -> null).join();
+        long elapsed = System.nanoTime() - start;
+
+        Arrays.sort(latencies);
+        System.out.printf(Locale.ROOT, "%-7s %,9d requests %,10.0f req/s   p50 %7.2f ms   p99 %7.2f ms   max %7.2f ms"
+                        + "   %d errors%n", label, count, count * 1e9 / elapsed, latencies[count / 2] / 1e6,
+                latencies[(int) (count * 0.99)] / 1e6, latencies[count - 1] / 1e6, errors.get());
+    }
+
+    private static HttpRequest post(String uri) {
+        return HttpRequest.newBuilder(URI.create(uri)).POST(HttpRequest.BodyPublishers.noBody()).build();
+    }
+
+    private static HttpRequest get(String uri) {
+        return HttpRequest.newBuilder(URI.create(uri)).GET().build();
+    }
+}
@@ -0,0 +1,98 @@
+package minesweeper.benchmark;
+
+import minesweeper.cell.Coordinates;
+import minesweeper.field.AbstractField;
+import minesweeper.field.BoardSpec;
+import minesweeper.field.FieldSnapshot;
+import minesweeper.field.FieldState;
+import minesweeper.field.FieldStatus;
+import minesweeper.field.PackedField;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Benchmark of {@link FieldSnapshot}: saving a played field to a file and loading it back into another field, with
+ * the throughput in megabytes of snapshot per second.
+ * <p>
+ * Arguments are the sides of the square boards, comma separated (default: 1000,4000).
+ */
+public class SnapshotBenchmark {
+
+    private static final double DENSITY = 0.15;
+    private static final int MOVES = 10_000;
+
+    /**
+     * Sink preventing the JIT from removing the measured results.
+     */
+    private static long sink;
+
+    public static void main(String[] args) throws IOException {
+        String sides = args.length > 0 ? args[0] : "1000,4000";
+        Path path = Files.createTempFile("minesweeper", ".snapshot");
+        try {
+            for (String side : sides.split(",")) {
+                int n = Integer.parseInt(side);
+                run(new BoardSpec(n, n, (int) (DENSITY * n * n)), path);
+            }
+        } finally {
+            Files.delete(path);
+        }
+        System.out.println("checksum " + sink);
+    }
+
+    private static void run(BoardSpec spec, Path path) {
+        PackedField field = new PackedField(spec, 1L);
+        field.explore(new Coordinates(spec.getWidth() / 2, spec.getHeight() / 2, spec.getWidth()));
+        // the mines are known once placed: explore only safe cells, so that the game goes on
+        FieldState mines = field.captureState();
+        SplittableRandom random = new SplittableRandom(1);
+        for (int i = 0; i < MOVES && field.getFieldStatus() == FieldStatus.PENDING; i++) {
+            int lineal = random.nextInt(spec.getSize());
+            Coordinates cell = new Coordinates(lineal, spec.getWidth());
+            if (mines.isMine(lineal)) {
+                field.toggleMarkedCell(cell);
+            } else {
+                field.explore(cell);
+            }
+        }
+        double megabytes = FieldSnapshot.sizeOf(spec) / 1e6;
+        System.out.printf(Locale.ROOT, "%s: snapshot of %.1f MB, %d cells explored%n", spec, megabytes,
+                field.getRevealedSafe());
+
+        FieldState[] state = new FieldState[1];
+        AbstractField copy = new PackedField(spec, 2L);
+        report(megabytes, Benchmark.measure(spec + " capture", 5, 10, () -> state[0] = field.captureState()));
+        report(megabytes, Benchmark.measure(spec + " save", 2, 5, () -> save(field, path)));
+        report(megabytes, Benchmark.measure(spec + " load", 2, 5, () -> state[0] = load(path)));
+        report(megabytes, Benchmark.measure(spec + " restore", 5, 10, () -> copy.restoreState(state[0])));
+        sink += copy.getRevealedSafe();
+        if (!copy.toString().equals(field.toString())) {
+            throw new IllegalStateException("Snapshot round trip failed");
+        }
+    }
+
+    private static void report(double megabytes, double nanos) {
+        System.out.printf(Locale.ROOT, "    %.0f MB/s%n", megabytes * 1e9 / nanos);
+    }
+
+    private static void save(AbstractField field, Path path) {
+        try {
+            FieldSnapshot.save(field, path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static FieldState load(Path path) {
+        try {
+            return FieldSnapshot.load(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package minesweeper.benchmark;
+
+import minesweeper.cell.Coordinates;
+import minesweeper.field.BoardSpec;
+import minesweeper.field.FieldStatus;
+import minesweeper.field.MinePlacer;
+import minesweeper.field.MinePlacer.SafeZone;
+import minesweeper.field.PackedField;
+import minesweeper.game.Command;
+import minesweeper.game.CommandInvoker;
+import minesweeper.game.IInvoker;
+import minesweeper.solver.Solver;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Benchmark of the {@link Solver} on a large board with a long frontier: from the first exploration, runs the certain
+ * moves found by the solver until none is left, and reports the cost per move.
+ * <p>
+ * Arguments are the side of the square board and the ratio of mines to cells (default: 1000 0.15).
+ */
+public class SolverBenchmark {
+
+    public static void main(String[] args) {
+        int side = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        double density = args.length > 1 ? Double.parseDouble(args[1]) : 0.15;
+        BoardSpec spec = new BoardSpec(side, side, (int) (density * side * side));
+        IInvoker invoker = new CommandInvoker();
+
+        for (long seed = 0; seed < 5; seed++) {
+            MinePlacer minePlacer = new MinePlacer(new SplittableRandom(seed), SafeZone.NEIGHBORHOOD);
+            PackedField field = new PackedField(spec, minePlacer);
+            Solver solver = new Solver(field);
+            field.explore(new Coordinates(side / 2, side / 2, side));
+
+            long moves = 0;
+            long start = System.nanoTime();
+            List<Command> commands = solver.nextMoves();
+            while (!commands.isEmpty() && field.getFieldStatus() == FieldStatus.PENDING) {
+                for (Command command : commands) {
+                    invoker.setCommand(command);
+                    invoker.execute();
+                    moves++;
+                }
+                commands = solver.nextMoves();
+            }
+            long elapsed = System.nanoTime() - start;
+            System.out.printf(Locale.ROOT, "%s seed %d: %d certain moves in %.1f ms, %.1f ns/move, status %s%n",
+                    spec, seed, moves, elapsed / 1e6, moves == 0 ? 0.0 : (double) elapsed / moves,
+                    field.getFieldStatus());
+        }
+    }
+}
@@ -61,10 +61,12 @@ public class Cell implements ICell {
 
     /**
      * {@inheritDoc}
+     * <p>
+     * Same as testing whether the face value is MARKED, without computing the face value.
      */
     @Override
     public boolean isMarked() {
-        return getFaceValue() == CellFaceValue.MARKED;
+        return marked && !(explored && (isMine() || value.isNumber()));
     }
 
     /**
@@ -124,6 +126,16 @@ public class Cell implements ICell {
         this.value = value;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void reset() {
+        explored = false;
+        marked = false;
+        value = CellValue.SAFE;
+    }
+
     @Override
     public String toString() {
         return getFaceValue().toString();
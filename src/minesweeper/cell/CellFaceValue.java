@@ -25,7 +25,7 @@ public enum CellFaceValue {
      */
     public static CellFaceValue fromValue(CellValue value) {
         String stringValue = value.toString();
-        for (CellFaceValue val : CellFaceValue.values()) {
+        for (CellFaceValue val : VALUES) {
             if (val.toString().equals(stringValue)) {
                 return val;
             }
@@ -34,6 +34,11 @@ public enum CellFaceValue {
         throw new IllegalArgumentException(String.format("Value '%s' not allowed", stringValue));
     }
 
+    /**
+     * The values, cached since values() returns a new array.
+     */
+    private static final CellFaceValue[] VALUES = values();
+
     private final String stringValue;
 
     /**
@@ -57,6 +62,27 @@ public enum CellFaceValue {
                 && this != CellFaceValue.MINE;
     }
 
+    /**
+     * Get the number of adjacent mines shown by the face value.
+     *
+     * @return  int - 1 to 8 for numeric face values, 0 for EXPLORED, -1 if the face value does not show it.
+     */
+    public int getMinesAround() {
+        if (this == CellFaceValue.EXPLORED) {
+            return 0;
+        }
+        return isNumber() ? ordinal() : -1;
+    }
+
+    /**
+     * Get the single character shown for the face value.
+     *
+     * @return  char
+     */
+    public char getSymbol() {
+        return stringValue.charAt(0);
+    }
+
     @Override
     public String toString() {
         return this.stringValue;
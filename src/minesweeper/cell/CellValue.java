@@ -16,6 +16,11 @@ public enum CellValue {
     EIGHT("8"),
     MINE("X");
 
+    /**
+     * The values in declaration order, numbers being in increasing order, cached since values() returns a new array.
+     */
+    private static final CellValue[] VALUES = values();
+
     private final String stringValue;
 
     /**
@@ -45,19 +50,7 @@ public enum CellValue {
             throw new IllegalArgumentException(String.format("Value '%s' not allowed", stringValue));
         }
 
-        if (this == CellValue.SAFE) {
-            return CellValue.ONE;
-        }
-
-        int nextValue = Integer.parseInt(toString()) + 1;
-        String nextValueString = String.valueOf(nextValue);
-        for (CellValue value : CellValue.values()) {
-           if (value.stringValue.equals(nextValueString)) {
-               return value;
-           }
-        }
-
-        throw new RuntimeException("getNext method unable to return a valid CellValue");
+        return VALUES[ordinal() + 1];
     }
 
     /**
@@ -6,10 +6,11 @@ import java.util.List;
 import java.util.Objects;
 
 /**
- * A class implementing the ICoordinates interface in a 2D space of 9 * 9, with offset of 1 (origin is 1, 1 instead of
- * 0, 0).
+ * A class implementing the ICoordinates interface in a 2D space of width * height, with offset of 1 (origin is 1, 1
+ * instead of 0, 0).
  * <p>
- * Internally the coordinates are stored as if the origin were 0, 0. The offset is only for client users.
+ * Internally the coordinates are stored as if the origin were 0, 0. The offset is only for client users. The lineal
+ * value is computed row by row, that is: lineal = y * width + x.
  */
 public class Coordinates implements ICoordinates {
 
@@ -17,16 +18,18 @@ public class Coordinates implements ICoordinates {
      * Get list of all adjacent coordinates lineal values to a given one.
      *
      * @param   lineal - the integer lineal value of the given coordinate
+     * @param   width  - the number of columns of the 2D space
+     * @param   height - the number of rows of the 2D space
      * @return  list of adjacent coordinates lineal values
      */
-    public static List<Integer> getSurrounding(int lineal) {
-        int row = lineal / side;
-        int column = lineal % side;
+    public static List<Integer> getSurrounding(int lineal, int width, int height) {
+        int row = lineal / width;
+        int column = lineal % width;
         List<Integer> result = new ArrayList<>();
-        for (int i = Math.max(0, row - 1); i < Math.min(row + 2, side); i++) {
-            for (int j = Math.max(0, column - 1); j < Math.min(column + 2, side); j++) {
+        for (int i = Math.max(0, row - 1); i < Math.min(row + 2, height); i++) {
+            for (int j = Math.max(0, column - 1); j < Math.min(column + 2, width); j++) {
                 if (i != row || j != column) {
-                    result.add(i * side + j);
+                    result.add(i * width + j);
                 }
             }
         }
@@ -34,17 +37,24 @@ public class Coordinates implements ICoordinates {
     }
 
     /**
-     * Overloading of {@link #getSurrounding(int)}, accepting a ICoordinates object instead of its lineal value.
+     * Overloading of {@link #getSurrounding(int, int, int)}, accepting a ICoordinates object instead of its lineal
+     * value.
      */
-    public static List<Integer> getSurrounding(ICoordinates coordinates) {
+    public static List<Integer> getSurrounding(ICoordinates coordinates, int width, int height) {
         int lineal = coordinates.getLineal();
-        return getSurrounding(lineal);
+        return getSurrounding(lineal, width, height);
     }
 
     /**
-     * The coordinate system of a square of side length.
+     * Parse the n-th whitespace separated word of a string as an integer.
+     *
+     * @param   string - the string to split
+     * @param   n      - the index of the word
+     * @return  int - the parsed word
      */
-    private static final int side = 9;
+    private static int parseWord(String string, int n) {
+        return Integer.parseInt(string.trim().split("\\s+")[n]);
+    }
 
     /**
      * Origin is 0, 0; but may be referenced outside the class with other coordinates.
@@ -54,20 +64,29 @@ public class Coordinates implements ICoordinates {
     private final int x;
     private final int y;
 
+    /**
+     * Number of columns of the coordinate system, needed to compute the lineal value.
+     */
+    private final int width;
+
     /**
      * Class constructor.
      * <p>
      * Create new object from string value. The string shall be split by whitespaces, the first word shall be the value
-     * of y, and the second of x. An offset of 1 shall be considered, that is: the constructor shall consider the input
-     * 1, 1 as the origin of the 2D space, the real values as (0, 0).
-     * For example "8 3" shall be converted as (x = 2, y = 7).
+     * of x (the column), and the second of y (the row). An offset of 1 shall be considered, that is: the constructor
+     * shall consider the input 1, 1 as the origin of the 2D space, the real values as (0, 0).
+     * For example "8 3" shall be converted as (x = 7, y = 2).
      *
-     * @param   strCoordinates - the string representing coordinates y and x value.
+     * @param   strCoordinates - the string representing coordinates x and y value.
+     * @param   width          - the number of columns of the 2D space
+     * @param   height         - the number of rows of the 2D space
+     * @throws  IllegalArgumentException if the coordinates fall outside the 2D space
      */
-    public Coordinates(String strCoordinates) {
-        String[] coordinates = strCoordinates.split(" ");
-        y = Integer.parseInt(coordinates[0]) - offset;
-        x = Integer.parseInt(coordinates[1]) - offset;
+    public Coordinates(String strCoordinates, int width, int height) {
+        this(parseWord(strCoordinates, 0) - offset, parseWord(strCoordinates, 1) - offset, width);
+        if (y >= height) {
+            throw new IllegalArgumentException("Coordinates out of field: " + strCoordinates);
+        }
     }
 
     /**
@@ -76,10 +95,46 @@ public class Coordinates implements ICoordinates {
      * Create new object from lineal value. For example the lineal value 0 shall be converted into (x = 0, y = 0).
      *
      * @param   linealValue - a integer.
+     * @param   width       - the number of columns of the 2D space
      */
-    public Coordinates(int linealValue) {
-        y = linealValue / side;
-        x = linealValue % side;
+    public Coordinates(int linealValue, int width) {
+        this(linealValue % width, linealValue / width, width);
+    }
+
+    /**
+     * Class constructor.
+     * <p>
+     * Create new object from its zero based column and row.
+     *
+     * @param   x     - the column, starting from 0
+     * @param   y     - the row, starting from 0
+     * @param   width - the number of columns of the 2D space
+     * @throws  IllegalArgumentException if x or y are negative, or x is not lower than width
+     */
+    public Coordinates(int x, int y, int width) {
+        if (x < 0 || y < 0 || x >= width) {
+            String error = String.format("Coordinates (%d, %d) out of field", x + offset, y + offset);
+            throw new IllegalArgumentException(error);
+        }
+        this.x = x;
+        this.y = y;
+        this.width = width;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getX() {
+        return x;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getY() {
+        return y;
     }
 
     /**
@@ -87,7 +142,7 @@ public class Coordinates implements ICoordinates {
      */
     @Override
     public int getLineal() {
-        return y * side + x;
+        return y * width + x;
     }
 
     @Override
@@ -95,12 +150,17 @@ public class Coordinates implements ICoordinates {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Coordinates that = (Coordinates) o;
-        return x == that.x && y == that.y;
+        return x == that.x && y == that.y && width == that.width;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(x, y);
+        return Objects.hash(x, y, width);
+    }
+
+    @Override
+    public String toString() {
+        return (x + offset) + " " + (y + offset);
     }
 
 }
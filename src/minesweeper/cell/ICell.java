@@ -73,4 +73,9 @@ public interface ICell {
      */
     void setValue(CellValue value);
 
+    /**
+     * Restore the initial state of the cell: SAFE, neither explored nor marked.
+     */
+    void reset();
+
 }
@@ -6,8 +6,10 @@ package minesweeper.cell;
  * A coordinates object has a "lineal" int value, which is the corresponding unique coordinate in a one-dimensional
  * space, the first value being 0. For example, in a (4 * 4) space the coordinate (0, 0) would be the first (lineal = 0)
  * and (3, 3) the last (lineal = 15).
+ * <p>
+ * Coordinates of an unbounded space have no lineal value, and only implement {@link IPlaneCoordinates}.
  */
-public interface ICoordinates {
+public interface ICoordinates extends IPlaneCoordinates {
     /**
      * Get the lineal value
      * @return  int - the lineal value.
@@ -0,0 +1,21 @@
+package minesweeper.cell;
+
+/**
+ * Interface for object representing coordinates of a 2D space, possibly unbounded: the column and the row may be
+ * negative, or too large for the lineal value of {@link ICoordinates}.
+ */
+public interface IPlaneCoordinates {
+    /**
+     * Get the column, starting from 0.
+     *
+     * @return  long - the column
+     */
+    long getX();
+
+    /**
+     * Get the row, starting from 0.
+     *
+     * @return  long - the row
+     */
+    long getY();
+}
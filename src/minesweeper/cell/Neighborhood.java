@@ -0,0 +1,150 @@
+package minesweeper.cell;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Adjacency of the cells of a 2D space of width * height, addressed by lineal value (see {@link ICoordinates}).
+ * <p>
+ * Unlike {@link Coordinates#getSurrounding(int, int, int)}, the adjacency is computed once per board shape and stored
+ * as flat primitive arrays, and iterating over the neighbors of a cell does not allocate:
+ * <pre>{@code
+ * int shape = neighborhood.shapeOf(lineal);
+ * for (int k = 0; k < neighborhood.size(shape); k++) {
+ *     int neighbor = neighborhood.neighbor(lineal, shape, k);
+ * }
+ * }</pre>
+ * Cells are grouped by shape, that is by which of their sides lie on the border of the space: all cells of the same
+ * shape have the same neighbors offsets. There are only 16 shapes, so the tables do not grow with the board.
+ * Neighbors are returned in the same order of {@link Coordinates#getSurrounding(int, int, int)}.
+ * <p>
+ * Instances are immutable and thread safe.
+ */
+public final class Neighborhood {
+    /**
+     * Maximum number of neighbors of a cell.
+     */
+    public static final int MAX_NEIGHBORS = 8;
+
+    private static final Map<Long, Neighborhood> cache = new ConcurrentHashMap<>();
+
+    /**
+     * Shape flags: whether the cell has a row above, a row below, a column on the left, a column on the right.
+     */
+    private static final int UP = 1;
+    private static final int DOWN = 2;
+    private static final int LEFT = 4;
+    private static final int RIGHT = 8;
+
+    /**
+     * Get the (shared) adjacency of a 2D space.
+     *
+     * @param   width  - the number of columns of the 2D space
+     * @param   height - the number of rows of the 2D space
+     * @return  Neighborhood
+     */
+    public static Neighborhood of(int width, int height) {
+        long key = (long) width << 32 | height;
+        return cache.computeIfAbsent(key, k -> new Neighborhood(width, height));
+    }
+
+    private final int width;
+    private final int height;
+
+    /**
+     * Lineal offsets of the neighbors, MAX_NEIGHBORS per shape.
+     */
+    private final int[] offsets = new int[16 * MAX_NEIGHBORS];
+
+    /**
+     * Number of neighbors, per shape.
+     */
+    private final int[] sizes = new int[16];
+
+    private Neighborhood(int width, int height) {
+        this.width = width;
+        this.height = height;
+        for (int shape = 0; shape < 16; shape++) {
+            int size = 0;
+            for (int i = -1; i <= 1; i++) {
+                for (int j = -1; j <= 1; j++) {
+                    if ((i != 0 || j != 0) && has(shape, i, j)) {
+                        offsets[shape * MAX_NEIGHBORS + size++] = i * width + j;
+                    }
+                }
+            }
+            sizes[shape] = size;
+        }
+    }
+
+    private static boolean has(int shape, int rowOffset, int columnOffset) {
+        return (rowOffset != -1 || (shape & UP) != 0)
+                && (rowOffset != 1 || (shape & DOWN) != 0)
+                && (columnOffset != -1 || (shape & LEFT) != 0)
+                && (columnOffset != 1 || (shape & RIGHT) != 0);
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Get the shape of a cell, to be passed to {@link #size(int)} and {@link #neighbor(int, int, int)}.
+     *
+     * @param   lineal - the lineal value of the cell
+     * @return  int - the shape of the cell
+     */
+    public int shapeOf(int lineal) {
+        int row = lineal / width;
+        int column = lineal - row * width;
+        int shape = 0;
+        if (row > 0) shape |= UP;
+        if (row < height - 1) shape |= DOWN;
+        if (column > 0) shape |= LEFT;
+        if (column < width - 1) shape |= RIGHT;
+        return shape;
+    }
+
+    /**
+     * Get the number of neighbors of the cells of a shape.
+     *
+     * @param   shape - the shape, see {@link #shapeOf(int)}
+     * @return  int - the number of neighbors, at most {@link #MAX_NEIGHBORS}
+     */
+    public int size(int shape) {
+        return sizes[shape];
+    }
+
+    /**
+     * Get the k-th neighbor of a cell.
+     *
+     * @param   lineal - the lineal value of the cell
+     * @param   shape  - the shape of the cell, see {@link #shapeOf(int)}
+     * @param   k      - the index of the neighbor, lower than {@link #size(int)}
+     * @return  int - the lineal value of the neighbor
+     */
+    public int neighbor(int lineal, int shape, int k) {
+        return lineal + offsets[shape * MAX_NEIGHBORS + k];
+    }
+
+    /**
+     * Copy the lineal values of the neighbors of a cell into a buffer.
+     *
+     * @param   lineal - the lineal value of the cell
+     * @param   buffer - the destination, of length at least {@link #MAX_NEIGHBORS}
+     * @return  int - the number of neighbors copied
+     */
+    public int neighbors(int lineal, int[] buffer) {
+        int shape = shapeOf(lineal);
+        int size = sizes[shape];
+        int base = shape * MAX_NEIGHBORS;
+        for (int k = 0; k < size; k++) {
+            buffer[k] = lineal + offsets[base + k];
+        }
+        return size;
+    }
+}
@@ -0,0 +1,73 @@
+package minesweeper.cell;
+
+import java.util.Objects;
+
+/**
+ * A class implementing the IPlaneCoordinates interface in an unbounded 2D space, where x and y may be negative.
+ * <p>
+ * Unlike {@link Coordinates} there is no offset: the string "0 0" is the origin. Having no bounds, these coordinates
+ * have no lineal value, and are not {@link ICoordinates}.
+ */
+public class PlaneCoordinates implements IPlaneCoordinates {
+    private final long x;
+    private final long y;
+
+    /**
+     * Class constructor.
+     *
+     * @param   x - the column
+     * @param   y - the row
+     */
+    public PlaneCoordinates(long x, long y) {
+        this.x = x;
+        this.y = y;
+    }
+
+    /**
+     * Class constructor.
+     * <p>
+     * Create new object from string value. The string shall be split by whitespaces, the first word shall be the value
+     * of x (the column), and the second of y (the row). For example "-8 3" shall be converted as (x = -8, y = 3).
+     *
+     * @param   strCoordinates - the string representing coordinates x and y value.
+     */
+    public PlaneCoordinates(String strCoordinates) {
+        String[] coordinates = strCoordinates.trim().split("\\s+");
+        this.x = Long.parseLong(coordinates[0]);
+        this.y = Long.parseLong(coordinates[1]);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getX() {
+        return x;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getY() {
+        return y;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        PlaneCoordinates that = (PlaneCoordinates) o;
+        return x == that.x && y == that.y;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(x, y);
+    }
+
+    @Override
+    public String toString() {
+        return x + " " + y;
+    }
+}
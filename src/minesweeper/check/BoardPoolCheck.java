@@ -0,0 +1,61 @@
+package minesweeper.check;
+
+import minesweeper.field.BoardSpec;
+import minesweeper.generator.BoardPool;
+import minesweeper.generator.NoGuessGenerator;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Check of {@link BoardPool}: boards of a playable configuration are served, while a configuration too dense ever to
+ * be solved without guessing fails its first take, then fails the next ones at once, without generating again, and
+ * counts its failures. Closing the pool while the producers refill it must not leave a take failing on anything but
+ * the closed pool.
+ */
+public class BoardPoolCheck {
+    private static final BoardSpec PLAYABLE = new BoardSpec(9, 9, 10);
+    private static final BoardSpec HOPELESS = new BoardSpec(30, 16, 300);
+
+    public static void main(String[] args) throws InterruptedException {
+        try (BoardPool pool = new BoardPool(4, 2, spec -> new NoGuessGenerator(spec, null, 200))) {
+            for (int i = 0; i < 20; i++) {
+                Check.equal(PLAYABLE, pool.take(PLAYABLE).getBoardSpec(), "board taken");
+            }
+
+            Check.fails(IllegalStateException.class, () -> pool.take(HOPELESS), "first take of " + HOPELESS);
+            long start = System.nanoTime();
+            for (int i = 0; i < 100; i++) {
+                Check.fails(IllegalStateException.class, () -> pool.take(HOPELESS), "take of " + HOPELESS);
+            }
+            long nanos = System.nanoTime() - start;
+            Check.that(nanos < 100_000_000L, "Takes of a failed configuration generate again: %d ms",
+                    nanos / 1_000_000);
+            BoardPool.Metrics metrics = pool.getMetrics(HOPELESS);
+            Check.that(metrics.getFailures() > 0, "No failure counted: %s", metrics);
+            Check.equal(0, metrics.getReady(), "ready boards of " + HOPELESS);
+        }
+
+        for (int round = 0; round < 50; round++) {
+            BoardPool pool = new BoardPool(8, 2, spec -> new NoGuessGenerator(spec, null));
+            pool.prepare(PLAYABLE);
+            AtomicReference<RuntimeException> failure = new AtomicReference<>();
+            Thread taker = new Thread(() -> {
+                try {
+                    while (true) {
+                        pool.take(PLAYABLE);
+                    }
+                } catch (RuntimeException e) {
+                    failure.set(e);
+                }
+            });
+            taker.start();
+            Thread.sleep(round % 5);
+            pool.close();
+            taker.join();
+            Check.that(failure.get() instanceof IllegalStateException
+                    && "Board pool closed".equals(failure.get().getMessage()), "Take failed after close: %s",
+                    failure.get());
+        }
+        System.out.println("BoardPoolCheck OK");
+    }
+}
@@ -0,0 +1,87 @@
+package minesweeper.check;
+
+import minesweeper.cell.CellFaceValue;
+import minesweeper.cell.Coordinates;
+import minesweeper.field.AbstractField;
+import minesweeper.field.BoardSpec;
+import minesweeper.field.Field;
+import minesweeper.field.FieldStatus;
+import minesweeper.field.PackedField;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * Check that the moves stay practical on large boards: a {@link Field} of 1000x1000 and a {@link PackedField} of
+ * 10000x10000 (a field of cell objects does not fit a common heap at that size) are explored, marked and checked with
+ * generous time limits, and marking and status checks must not depend on the size of the board. Also checks that
+ * coordinates address the cell of their column and row, whatever the width they were created for.
+ */
+public class BoardSizeCheck {
+
+    private static final double DENSITY = 0.15;
+
+    /**
+     * Limits, far above the measured times, so that only a move scanning the board fails them.
+     */
+    private static final long EXPLORE_LIMIT_NANOS = 60_000_000_000L;
+    private static final long MARK_LIMIT_NANOS = 100_000;
+    private static final long STATUS_LIMIT_NANOS = 10_000;
+
+    public static void main(String[] args) {
+        checkCoordinatesWidth();
+        check(new BoardSpec(1000, 1000, (int) (DENSITY * 1000 * 1000)), s -> new Field(s, 1L));
+        check(new BoardSpec(10000, 10000, (int) (DENSITY * 10000 * 10000)), s -> new PackedField(s, 1L));
+        System.out.println("BoardSizeCheck OK");
+    }
+
+    private static void checkCoordinatesWidth() {
+        Field field = new Field(new BoardSpec(20, 10, 10), 1L);
+        Check.that(field.toggleMarkedCell(new Coordinates(3, 2, 7)), "marking a pristine cell failed");
+        Check.equal(CellFaceValue.MARKED, field.getFaceValue(2 * 20 + 3), "face of the cell at column 3, row 2");
+        Check.fails(IllegalArgumentException.class, () -> field.toggleMarkedCell(new Coordinates(25, 0, 30)),
+                "marking a column outside the field");
+        Check.fails(IllegalArgumentException.class, () -> field.explore(new Coordinates(5, 12, 30)),
+                "exploring a row outside the field");
+    }
+
+    private static void check(BoardSpec spec, Function<BoardSpec, AbstractField> factory) {
+        AbstractField field = factory.apply(spec);
+        int width = spec.getWidth();
+
+        long start = System.nanoTime();
+        Check.that(field.explore(new Coordinates(width / 2, spec.getHeight() / 2, width)), "first exploration failed");
+        long explore = System.nanoTime() - start;
+        Check.that(explore < EXPLORE_LIMIT_NANOS, "%s first exploration took %d ms", spec, explore / 1_000_000);
+        Check.that(field.getRevealedSafe() > 0, "%s first exploration opened no cell", spec);
+        Check.equal(FieldStatus.PENDING, field.getFieldStatus(), spec + " status");
+
+        List<Coordinates> row = new ArrayList<>();
+        for (int x = 0; x < Math.min(1000, width); x++) {
+            row.add(new Coordinates(x, 0, width));
+        }
+        int moves = 10_000;
+        start = System.nanoTime();
+        for (int i = 0; i < moves; i++) {
+            field.toggleMarkedCell(row.get(i % row.size()));
+        }
+        long mark = (System.nanoTime() - start) / moves;
+        Check.that(mark < MARK_LIMIT_NANOS, "%s toggleMarkedCell took %d ns", spec, mark);
+        field.toggleMarkedCells(row);
+
+        int statuses = 1_000_000;
+        int pending = 0;
+        start = System.nanoTime();
+        for (int i = 0; i < statuses; i++) {
+            pending += field.getFieldStatus() == FieldStatus.PENDING ? 1 : 0;
+        }
+        long status = (System.nanoTime() - start) / statuses;
+        Check.equal(statuses, pending, spec + " pending statuses");
+        Check.that(status < STATUS_LIMIT_NANOS, "%s getFieldStatus took %d ns", spec, status);
+
+        System.out.printf(Locale.ROOT, "%s: explore %d ms, mark %d ns, status %d ns%n", spec, explore / 1_000_000,
+                mark, status);
+    }
+}
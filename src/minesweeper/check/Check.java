@@ -0,0 +1,70 @@
+package minesweeper.check;
+
+/**
+ * Minimal assertion helpers of the runnable checks of this package.
+ * <p>
+ * The repository has no test framework: each check is a class with a main method, which throws an {@link
+ * AssertionError} on the first failed assertion and prints a summary line otherwise, so that a non-zero exit code
+ * means failure. {@link Checks} runs them all.
+ */
+public final class Check {
+
+    private Check() {
+    }
+
+    /**
+     * An action expected to throw.
+     */
+    @FunctionalInterface
+    public interface Action {
+        void run() throws Exception;
+    }
+
+    /**
+     * Assert a condition.
+     *
+     * @param   condition - the asserted condition
+     * @param   format    - the failure message, as a format string
+     * @param   args      - the arguments of the format string
+     * @throws  AssertionError if the condition is false
+     */
+    public static void that(boolean condition, String format, Object... args) {
+        if (!condition) {
+            throw new AssertionError(String.format(format, args));
+        }
+    }
+
+    /**
+     * Assert two values are equal.
+     *
+     * @param   expected - the expected value
+     * @param   actual   - the actual value
+     * @param   what     - description of the value, for the failure message
+     * @throws  AssertionError if the values differ
+     */
+    public static void equal(Object expected, Object actual, String what) {
+        if (expected == null ? actual != null : !expected.equals(actual)) {
+            throw new AssertionError(String.format("%s: expected %s, got %s", what, expected, actual));
+        }
+    }
+
+    /**
+     * Assert an action throws an exception of a type.
+     *
+     * @param   type   - the expected exception type
+     * @param   action - the action
+     * @param   what   - description of the action, for the failure message
+     * @throws  AssertionError if the action completes, or throws an exception of another type
+     */
+    public static void fails(Class<? extends Exception> type, Action action, String what) {
+        try {
+            action.run();
+        } catch (Exception e) {
+            if (!type.isInstance(e)) {
+                throw new AssertionError(what + ": expected " + type.getSimpleName() + ", got " + e, e);
+            }
+            return;
+        }
+        throw new AssertionError(what + ": expected " + type.getSimpleName() + ", completed");
+    }
+}
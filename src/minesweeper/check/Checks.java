@@ -0,0 +1,20 @@
+package minesweeper.check;
+
+/**
+ * Run all the checks of this package, stopping at the first failure.
+ */
+public class Checks {
+
+    public static void main(String[] args) throws Exception {
+        BoardSizeCheck.main(new String[0]);
+        FieldStatusCheck.main(new String[0]);
+        SnapshotCheck.main(new String[0]);
+        EndlessFieldCheck.main(new String[0]);
+        JournalCheck.main(new String[0]);
+        ConcurrentFieldCheck.main(new String[0]);
+        ParallelFloodFillCheck.main(new String[0]);
+        BoardPoolCheck.main(new String[0]);
+        SessionStoreCheck.main(new String[0]);
+        System.out.println("All checks passed");
+    }
+}
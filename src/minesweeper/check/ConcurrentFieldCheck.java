@@ -0,0 +1,199 @@
+package minesweeper.check;
+
+import minesweeper.cell.Coordinates;
+import minesweeper.field.BoardSpec;
+import minesweeper.field.ConcurrentField;
+import minesweeper.field.FieldState;
+import minesweeper.field.FieldStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Stress check of {@link ConcurrentField}: many threads explore and mark one field at once, then the counters are
+ * compared against a scan of every cell.
+ * <p>
+ * Two kinds of rounds alternate. In the random rounds the threads explore and mark random cells, alone or in batches,
+ * so that their flood fills overlap and race with the marks. In the solving rounds every thread explores all the safe
+ * cells, each in its own order, then the threads share out the marks of the mines, so that the game must be won.
+ * After each round:
+ * <ul>
+ *     <li>the number of revealed safe cells must be the number of explored safe cells: a cell opened twice would be
+ *     counted twice;</li>
+ *     <li>an exploration must report a cell as newly explored to one thread at most;</li>
+ *     <li>each cell which is not explored must have been changed only by successful marks, and be marked if they are
+ *     odd in number;</li>
+ *     <li>the status must be the one computed from the cells.</li>
+ * </ul>
+ * Arguments: the number of threads (default 8) and the number of rounds (default 40).
+ */
+public class ConcurrentFieldCheck {
+    private static final int MOVES = 20_000;
+
+    public static void main(String[] args) throws InterruptedException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 40;
+        int[] statuses = new int[FieldStatus.values().length];
+        for (int round = 0; round < rounds; round++) {
+            BoardSpec spec = round % 4 < 2 ? new BoardSpec(300, 200, 3_000) : new BoardSpec(120, 100, 2_000);
+            statuses[play(spec, round, threads, round % 2 == 1).ordinal()]++;
+        }
+        Check.that(statuses[FieldStatus.WIN.ordinal()] > 0 && statuses[FieldStatus.LOSS.ordinal()] > 0,
+                "Rounds did not reach both a win and a loss");
+        System.out.printf("ConcurrentFieldCheck OK %d threads, %d rounds%n", threads, rounds);
+    }
+
+    private static FieldStatus play(BoardSpec spec, int round, int threads, boolean solving)
+            throws InterruptedException {
+        ConcurrentField field = new ConcurrentField(spec, round);
+        int size = spec.getSize();
+        AtomicIntegerArray changes = new AtomicIntegerArray(size);
+        AtomicIntegerArray marks = new AtomicIntegerArray(size);
+        AtomicIntegerArray opens = new AtomicIntegerArray(size);
+        field.addListener(changes::incrementAndGet);
+
+        // place the mines before the solving rounds, which need them to tell the safe cells
+        FieldState placed = null;
+        if (solving) {
+            Coordinates start = new Coordinates(size / 2, spec.getWidth());
+            if (field.explore(start)) {
+                opens.incrementAndGet(size / 2);
+            }
+            placed = field.captureState();
+        }
+        FieldState mines = placed;
+
+        CyclicBarrier barrier = new CyclicBarrier(threads);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> players = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int player = t;
+            Thread thread = new Thread(() -> {
+                try {
+                    SplittableRandom random = new SplittableRandom(round * 1000L + player);
+                    barrier.await();
+                    if (solving) {
+                        solve(field, mines, player, threads, random, marks, opens);
+                    } else {
+                        playRandom(field, random, marks, opens);
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            }, "player-" + player);
+            players.add(thread);
+            thread.start();
+        }
+        for (Thread thread : players) {
+            thread.join();
+        }
+        if (failure.get() != null) {
+            throw new AssertionError("Player failed in round " + round, failure.get());
+        }
+
+        FieldStatus status = verify(field, changes, marks, opens, "round " + round + " on " + spec);
+        if (solving) {
+            Check.equal(FieldStatus.WIN, status, "round " + round + " solved status");
+            Check.equal(size - spec.getNumberOfMines(), field.getRevealedSafe(), "round " + round + " solved cells");
+        }
+        return status;
+    }
+
+    private static void playRandom(ConcurrentField field, SplittableRandom random, AtomicIntegerArray marks,
+                                   AtomicIntegerArray opens) {
+        int size = field.getBoardSpec().getSize();
+        int width = field.getBoardSpec().getWidth();
+        for (int move = 0; move < MOVES; move++) {
+            int lineal = random.nextInt(size);
+            int kind = random.nextInt(20);
+            if (kind < 12) {
+                if (field.explore(new Coordinates(lineal, width))) {
+                    opens.incrementAndGet(lineal);
+                }
+            } else if (kind < 19) {
+                if (field.toggleMarkedCell(new Coordinates(lineal, width))) {
+                    marks.incrementAndGet(lineal);
+                }
+            } else {
+                // a batch of neighbors in a row, toggled by several players at once
+                List<Coordinates> batch = new ArrayList<>();
+                for (int i = 0; i < 3 && lineal + i < size; i++) {
+                    batch.add(new Coordinates(lineal + i, width));
+                }
+                boolean[] results = field.toggleMarkedCells(batch);
+                for (int i = 0; i < results.length; i++) {
+                    if (results[i]) {
+                        marks.incrementAndGet(lineal + i);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void solve(ConcurrentField field, FieldState mines, int player, int players,
+                              SplittableRandom random, AtomicIntegerArray marks, AtomicIntegerArray opens) {
+        int size = field.getBoardSpec().getSize();
+        int width = field.getBoardSpec().getWidth();
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            int j = random.nextInt(i + 1);
+            order[i] = order[j];
+            order[j] = i;
+        }
+        for (int lineal : order) {
+            if (!mines.isMine(lineal) && field.explore(new Coordinates(lineal, width))) {
+                opens.incrementAndGet(lineal);
+            }
+        }
+        for (int lineal = player; lineal < size; lineal += players) {
+            if (mines.isMine(lineal) && field.toggleMarkedCell(new Coordinates(lineal, width))) {
+                marks.incrementAndGet(lineal);
+            }
+        }
+    }
+
+    /**
+     * Compare the counters of the field against a scan of its cells, once the players are done.
+     *
+     * @return  FieldStatus - the status of the field
+     */
+    private static FieldStatus verify(ConcurrentField field, AtomicIntegerArray changes, AtomicIntegerArray marks,
+                                      AtomicIntegerArray opens, String what) {
+        FieldState state = field.captureState();
+        int size = field.getBoardSpec().getSize();
+        int exploredSafe = 0;
+        int correctMarks = 0;
+        int wrongMarks = 0;
+        boolean exploded = false;
+        for (int lineal = 0; lineal < size; lineal++) {
+            boolean mine = state.isMine(lineal);
+            boolean explored = state.isExplored(lineal);
+            boolean marked = state.isMarked(lineal);
+            Check.that(opens.get(lineal) <= (explored ? 1 : 0), "%s: cell %d reported explored %d times, explored %b",
+                    what, lineal, opens.get(lineal), explored);
+            if (explored) {
+                exploredSafe += mine ? 0 : 1;
+                exploded |= mine;
+            } else {
+                Check.equal(marks.get(lineal), changes.get(lineal), what + " changes of hidden cell " + lineal);
+                Check.equal(marks.get(lineal) % 2 == 1, marked, what + " mark of hidden cell " + lineal);
+            }
+            if (marked) {
+                if (mine) {
+                    correctMarks++;
+                } else {
+                    wrongMarks++;
+                }
+            }
+        }
+        Check.equal(exploredSafe, field.getRevealedSafe(), what + " revealed safe cells");
+        FieldStatus expected = correctMarks == field.getBoardSpec().getNumberOfMines() && wrongMarks == 0
+                ? FieldStatus.WIN : exploded ? FieldStatus.LOSS : FieldStatus.PENDING;
+        Check.equal(expected, field.getFieldStatus(), what + " status");
+        return expected;
+    }
+}
@@ -0,0 +1,132 @@
+package minesweeper.check;
+
+import minesweeper.cell.PlaneCoordinates;
+import minesweeper.field.EndlessField;
+import minesweeper.field.FieldStatus;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Check of {@link EndlessField}:
+ * <ul>
+ *     <li>the numbers of the cells match the mines around them, across the boundaries of the chunks, the mines being
+ *     read from a field with the same seed whose every cell is explored;</li>
+ *     <li>the mines depend on the seed only: the same seed gives the same mines whatever the order the chunks are
+ *     created in, another seed other mines, and the first explored cell and its neighbors are never mines;</li>
+ *     <li>a single exploration opens at most the maximum opening, plus the explored cell;</li>
+ *     <li>rendering the whole field stays bounded when explored cells are far apart.</li>
+ * </ul>
+ */
+public class EndlessFieldCheck {
+    private static final double DENSITY = 0.15;
+
+    /**
+     * The checked window, across the chunk boundaries at -64, 0 and 64.
+     */
+    private static final int FROM = -80;
+    private static final int TO = 80;
+
+    public static void main(String[] args) {
+        for (long seed = 1; seed <= 3; seed++) {
+            char[][] mines = explored(seed, 1);
+            checkNumbers(mines, seed);
+            checkSafeStart(mines, seed);
+            Check.that(Arrays.deepEquals(mines, explored(seed, -1)), "seed %d: mines depend on the order", seed);
+            Check.that(!Arrays.deepEquals(mines, explored(seed + 100, 1)), "seed %d: same mines as seed %d",
+                    seed, seed + 100);
+        }
+        checkMaxOpening();
+        checkFarRendering();
+        System.out.println("EndlessFieldCheck OK");
+    }
+
+    /**
+     * Explore every cell of the window, mines included, in increasing or decreasing order of the cells, starting from
+     * the origin, and read the face values.
+     *
+     * @param   direction - 1 or -1
+     * @return  char[][] - the face values, by row and column of the window
+     */
+    private static char[][] explored(long seed, int direction) {
+        EndlessField field = new EndlessField(DENSITY, seed, 64);
+        field.explore(new PlaneCoordinates(0, 0));
+        int side = TO - FROM;
+        for (int i = 0; i < side * side; i++) {
+            int n = direction > 0 ? i : side * side - 1 - i;
+            field.explore(new PlaneCoordinates(FROM + n % side, FROM + n / side));
+        }
+        Check.equal(FieldStatus.LOSS, field.getFieldStatus(), "status after exploring the mines");
+        String[] lines = field.render(FROM, FROM, side, side).split(System.getProperty("line.separator"));
+        char[][] faces = new char[side][];
+        for (int row = 0; row < side; row++) {
+            faces[row] = lines[row].toCharArray();
+        }
+        return faces;
+    }
+
+    private static void checkNumbers(char[][] faces, long seed) {
+        int side = faces.length;
+        int mines = 0;
+        for (int row = 1; row < side - 1; row++) {
+            for (int column = 1; column < side - 1; column++) {
+                if (faces[row][column] == 'X') {
+                    mines++;
+                    continue;
+                }
+                int around = 0;
+                for (int i = row - 1; i <= row + 1; i++) {
+                    for (int j = column - 1; j <= column + 1; j++) {
+                        around += faces[i][j] == 'X' ? 1 : 0;
+                    }
+                }
+                char expected = around == 0 ? '/' : (char) ('0' + around);
+                Check.equal(expected, faces[row][column], String.format("seed %d: face of cell %d %d", seed,
+                        FROM + column, FROM + row));
+            }
+        }
+        double density = (double) mines / ((side - 2) * (side - 2));
+        Check.that(Math.abs(density - DENSITY) < 0.02, "seed %d: density %.3f instead of %.3f", seed, density,
+                DENSITY);
+    }
+
+    private static void checkSafeStart(char[][] faces, long seed) {
+        for (int y = -1; y <= 1; y++) {
+            for (int x = -1; x <= 1; x++) {
+                Check.that(faces[y - FROM][x - FROM] != 'X', "seed %d: mine next to the first explored cell", seed);
+            }
+        }
+    }
+
+    private static void checkMaxOpening() {
+        SplittableRandom random = new SplittableRandom(1);
+        for (int maxOpening : new int[] {1, 10, 1000, 50_000}) {
+            EndlessField field = new EndlessField(0.01, maxOpening, maxOpening);
+            long revealed = 0;
+            for (int i = 0; i < 20; i++) {
+                field.explore(new PlaneCoordinates(random.nextInt(2000) - 1000, random.nextInt(2000) - 1000));
+                long opened = field.getRevealedSafe() - revealed;
+                Check.that(opened <= maxOpening + 1L, "Exploration opened %d cells, more than %d", opened,
+                        maxOpening + 1);
+                revealed = field.getRevealedSafe();
+            }
+            Check.that(revealed > maxOpening, "Explorations with a maximum opening of %d opened only %d cells",
+                    maxOpening, revealed);
+        }
+    }
+
+    private static void checkFarRendering() {
+        EndlessField field = new EndlessField(DENSITY, 1);
+        field.explore(new PlaneCoordinates(0, 0));
+        field.explore(new PlaneCoordinates(1L << 36, -(1L << 36)));
+        field.toggleMarkedCell(new PlaneCoordinates(-(1L << 30), 1L << 30));
+        String[] lines = field.toString().split(System.getProperty("line.separator"));
+        Check.that(lines.length <= 1024, "Rendered %d lines", lines.length);
+        boolean explored = false;
+        for (String line : lines) {
+            Check.that(line.length() <= 1024, "Rendered %d columns", line.length());
+            explored |= line.matches(".*[/1-8].*");
+        }
+        Check.that(explored, "First explored cell not rendered");
+    }
+}
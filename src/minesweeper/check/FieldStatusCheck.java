@@ -0,0 +1,113 @@
+package minesweeper.check;
+
+import minesweeper.cell.CellFaceValue;
+import minesweeper.cell.Coordinates;
+import minesweeper.field.AbstractField;
+import minesweeper.field.BitplaneField;
+import minesweeper.field.BoardSpec;
+import minesweeper.field.Field;
+import minesweeper.field.FieldState;
+import minesweeper.field.FieldStatus;
+import minesweeper.field.PackedField;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.Function;
+
+/**
+ * Randomized check of the constant time {@link AbstractField#getFieldStatus()}, answered from counters, against a
+ * status computed by scanning every cell: the game is won when the cells whose face value is MARKED are exactly the
+ * mines, lost when a cell shows a mine.
+ * <p>
+ * Random games are played on small boards, so that all the statuses are reached, by every field storage: random
+ * explorations and marks, marks of known mines to reach wins, and batches of marks. The status is compared after every
+ * move. Arguments: the number of games per storage (default 20000).
+ */
+public class FieldStatusCheck {
+
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        check("Field", games, s -> new Field(s, 1L));
+        check("PackedField", games, s -> new PackedField(s, 1L));
+        check("BitplaneField", games, s -> new BitplaneField(s, 1L));
+    }
+
+    private static void check(String name, int games, Function<BoardSpec, AbstractField> factory) {
+        SplittableRandom random = new SplittableRandom(1);
+        int[] statuses = new int[FieldStatus.values().length];
+        for (int game = 0; game < games; game++) {
+            int width = 1 + random.nextInt(game % 2 == 0 ? 4 : 12);
+            int height = 1 + random.nextInt(game % 2 == 0 ? 4 : 12);
+            BoardSpec spec = new BoardSpec(width, height, random.nextInt(width * height));
+            AbstractField field = factory.apply(spec);
+            field.reset(game);
+            for (int move = 0; move < 40; move++) {
+                play(field, random);
+                FieldStatus expected = scanStatus(field);
+                Check.equal(expected, field.getFieldStatus(),
+                        String.format("%s game %d move %d status on %s", name, game, move, spec));
+                statuses[expected.ordinal()]++;
+            }
+        }
+        for (FieldStatus status : FieldStatus.values()) {
+            Check.that(statuses[status.ordinal()] > 0, "%s: no move reached %s", name, status);
+        }
+        System.out.println("FieldStatusCheck " + name + " OK " + Arrays.toString(statuses));
+    }
+
+    private static void play(AbstractField field, SplittableRandom random) {
+        BoardSpec spec = field.getBoardSpec();
+        int width = spec.getWidth();
+        int kind = random.nextInt(20);
+        if (kind < 9) {
+            field.explore(new Coordinates(random.nextInt(spec.getSize()), width));
+        } else if (kind < 13) {
+            field.toggleMarkedCell(new Coordinates(random.nextInt(spec.getSize()), width));
+        } else if (kind < 19) {
+            // mark a mine, once they are placed
+            FieldState state = field.captureState();
+            int lineal = random.nextInt(spec.getSize());
+            for (int i = 0; i < spec.getSize() && !state.isPristine(); i++) {
+                int candidate = (lineal + i) % spec.getSize();
+                if (state.isMine(candidate) && field.getFaceValue(candidate) != CellFaceValue.MARKED) {
+                    field.toggleMarkedCell(new Coordinates(candidate, width));
+                    break;
+                }
+            }
+        } else {
+            List<Coordinates> batch = new ArrayList<>();
+            for (int i = random.nextInt(4); i >= 0; i--) {
+                batch.add(new Coordinates(random.nextInt(spec.getSize()), width));
+            }
+            field.toggleMarkedCells(batch);
+        }
+    }
+
+    /**
+     * Compute the status by scanning every cell, as the field did before keeping counters.
+     */
+    private static FieldStatus scanStatus(AbstractField field) {
+        FieldState state = field.captureState();
+        int correctMarks = 0;
+        int wrongMarks = 0;
+        boolean exploded = false;
+        for (int lineal = 0; lineal < field.getBoardSpec().getSize(); lineal++) {
+            CellFaceValue faceValue = field.getFaceValue(lineal);
+            if (faceValue == CellFaceValue.MARKED) {
+                if (state.isMine(lineal)) {
+                    correctMarks++;
+                } else {
+                    wrongMarks++;
+                }
+            } else if (faceValue == CellFaceValue.MINE) {
+                exploded = true;
+            }
+        }
+        if (correctMarks == field.getBoardSpec().getNumberOfMines() && wrongMarks == 0) {
+            return FieldStatus.WIN;
+        }
+        return exploded ? FieldStatus.LOSS : FieldStatus.PENDING;
+    }
+}
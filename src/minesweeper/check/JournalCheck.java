@@ -0,0 +1,167 @@
+package minesweeper.check;
+
+import minesweeper.cell.Coordinates;
+import minesweeper.field.BoardSpec;
+import minesweeper.field.FieldState;
+import minesweeper.field.FieldStatus;
+import minesweeper.field.MinePlacer;
+import minesweeper.field.MinePlacer.SafeZone;
+import minesweeper.field.PackedField;
+import minesweeper.game.Explore;
+import minesweeper.game.ToggleMarkedCell;
+import minesweeper.journal.Journal;
+import minesweeper.journal.JournalReplay;
+import minesweeper.journal.JournalingInvoker;
+import minesweeper.journal.MoveJournal;
+import minesweeper.journal.MoveType;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Check of the move journal, on a game of random moves recorded with a {@link JournalingInvoker}, the state of the
+ * field being captured after every move:
+ * <ul>
+ *     <li>the header and every record read back by {@link Journal} are the ones of the game, before and after the
+ *     journal is reopened;</li>
+ *     <li>{@link MoveJournal#append} discards a record cut by a crash, which {@link Journal} ignores, and records the
+ *     next moves after the last whole record;</li>
+ *     <li>{@link JournalReplay#seek} gives the captured state of every move it is sent to, forwards and backwards,
+ *     across and between keyframes, whether they are already captured or not.</li>
+ * </ul>
+ * The game goes on after a mine is explored, so that the journal also holds moves played on a lost game.
+ */
+public class JournalCheck {
+    private static final BoardSpec SPEC = new BoardSpec(30, 16, 60);
+    private static final long SEED = 7;
+    private static final SafeZone SAFE_ZONE = SafeZone.NEIGHBORHOOD;
+    private static final int KEYFRAME_INTERVAL = 64;
+
+    /**
+     * Moves recorded before and after the journal is reopened, spanning several groups of records.
+     */
+    private static final int FIRST_MOVES = 600;
+    private static final int NEXT_MOVES = 400;
+
+    public static void main(String[] args) throws IOException {
+        Path path = Files.createTempFile("journal-check", ".journal");
+        try {
+            Game game = new Game();
+            try (JournalingInvoker invoker = new JournalingInvoker(MoveJournal.create(path, SPEC, SEED, SAFE_ZONE))) {
+                game.play(invoker, FIRST_MOVES);
+            }
+            checkRecords(Journal.read(path), game);
+
+            // a record cut by a crash
+            Files.write(path, new byte[] {1, 1, 0, 0, 0, 0, 0}, StandardOpenOption.APPEND);
+            checkRecords(Journal.read(path), game);
+            try (JournalingInvoker invoker = new JournalingInvoker(MoveJournal.append(path))) {
+                Check.equal((long) FIRST_MOVES, invoker.getJournal().getRecords(), "records of the reopened journal");
+                game.play(invoker, NEXT_MOVES);
+            }
+            Journal journal = Journal.read(path);
+            checkRecords(journal, game);
+            Check.equal(40L + 16L * journal.size(), Files.size(path), "journal size");
+            Check.equal(FieldStatus.LOSS, game.field.getFieldStatus(), "status of the game");
+
+            checkSeeks(journal, game);
+
+            Files.write(path, new byte[] {1, 2, 3});
+            Check.fails(IOException.class, () -> MoveJournal.append(path), "append to a file which is not a journal");
+            System.out.printf("JournalCheck OK %d moves%n", journal.size());
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    private static void checkRecords(Journal journal, Game game) {
+        Check.equal(SPEC, journal.getBoardSpec(), "board of the journal");
+        Check.equal(SEED, journal.getSeed(), "seed of the journal");
+        Check.equal(SAFE_ZONE, journal.getSafeZone(), "safe zone of the journal");
+        Check.equal(game.types.size(), journal.size(), "moves of the journal");
+        long time = journal.getStartTime();
+        for (int move = 0; move < journal.size(); move++) {
+            Check.equal(game.types.get(move), journal.getType(move), "type of move " + move);
+            Check.equal(game.lineals.get(move), journal.getLineal(move), "cell of move " + move);
+            Check.equal(game.results.get(move), journal.getResult(move), "result of move " + move);
+            Check.that(journal.getTimestamp(move) >= time, "Move %d recorded before the previous one", move);
+            time = journal.getTimestamp(move);
+        }
+        Check.fails(IndexOutOfBoundsException.class, () -> journal.getLineal(journal.size()), "move after the last");
+    }
+
+    private static void checkSeeks(Journal journal, Game game) {
+        int size = journal.size();
+        List<Integer> targets = new ArrayList<>(List.of(0, 1, KEYFRAME_INTERVAL - 1, KEYFRAME_INTERVAL,
+                KEYFRAME_INTERVAL + 1, 10 * KEYFRAME_INTERVAL + 3, 3 * KEYFRAME_INTERVAL, 3 * KEYFRAME_INTERVAL - 1,
+                size, 0, size - 1, 5 * KEYFRAME_INTERVAL, 5 * KEYFRAME_INTERVAL + 2, 5 * KEYFRAME_INTERVAL + 1));
+        SplittableRandom random = new SplittableRandom(SEED);
+        for (int i = 0; i < 200; i++) {
+            targets.add(random.nextInt(size + 1));
+        }
+
+        JournalReplay<PackedField> replay = new JournalReplay<>(journal, PackedField::new, KEYFRAME_INTERVAL);
+        for (int target : targets) {
+            replay.seek(target);
+            Check.equal(target, replay.getPosition(), "position");
+            compare(game.states.get(target), replay.getField().captureState(), "seek of move " + target);
+        }
+        Check.equal(size / KEYFRAME_INTERVAL + 1, replay.getKeyframes(), "keyframes");
+
+        JournalReplay<PackedField> single = new JournalReplay<>(journal, PackedField::new, Integer.MAX_VALUE);
+        single.toEnd();
+        compare(game.states.get(size), single.getField().captureState(), "replay without keyframes");
+        single.seek(size / 2);
+        compare(game.states.get(size / 2), single.getField().captureState(), "replay without keyframes, backwards");
+        Check.fails(IllegalArgumentException.class, () -> replay.seek(size + 1), "seek after the last move");
+    }
+
+    private static void compare(FieldState expected, FieldState actual, String what) {
+        Check.equal(expected.isPristine(), actual.isPristine(), what + " pristine");
+        for (int lineal = 0; lineal < SPEC.getSize(); lineal++) {
+            Check.that(expected.isMine(lineal) == actual.isMine(lineal)
+                    && expected.isExplored(lineal) == actual.isExplored(lineal)
+                    && expected.isMarked(lineal) == actual.isMarked(lineal), "%s: cell %d differs", what, lineal);
+        }
+    }
+
+    /**
+     * A game of random moves, with every move and the state of the field after it, from the initial state.
+     */
+    private static final class Game {
+        final PackedField field = new PackedField(SPEC, new MinePlacer(SEED, SAFE_ZONE));
+        final SplittableRandom random = new SplittableRandom(SEED);
+        final List<MoveType> types = new ArrayList<>();
+        final List<Integer> lineals = new ArrayList<>();
+        final List<Boolean> results = new ArrayList<>();
+        final List<FieldState> states = new ArrayList<>(List.of(field.captureState()));
+
+        /**
+         * Play moves, exploring mines only in the last quarter of the game.
+         */
+        void play(JournalingInvoker invoker, int moves) {
+            for (int i = 0; i < moves; i++) {
+                int lineal = random.nextInt(SPEC.getSize());
+                boolean explore = random.nextInt(4) > 0;
+                boolean late = states.size() > (FIRST_MOVES + NEXT_MOVES) * 3 / 4;
+                if (explore && !late && states.size() > 1 && states.get(states.size() - 1).isMine(lineal)) {
+                    explore = false;
+                }
+                Coordinates coordinates = new Coordinates(lineal, SPEC.getWidth());
+                invoker.setCommand(explore
+                        ? new Explore(field, coordinates)
+                        : new ToggleMarkedCell(field, coordinates));
+                invoker.execute();
+                types.add(explore ? MoveType.EXPLORE : MoveType.TOGGLE_MARK);
+                lineals.add(lineal);
+                results.add(invoker.isSuccess());
+                states.add(field.captureState());
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package minesweeper.check;
+
+import minesweeper.cell.Coordinates;
+import minesweeper.field.AbstractField;
+import minesweeper.field.BitplaneField;
+import minesweeper.field.BoardSpec;
+import minesweeper.field.Field;
+import minesweeper.field.FieldState;
+import minesweeper.field.PackedField;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+
+/**
+ * Check of the parallel flood fill against the sequential one: on two fields with the same mines and marks, a cell is
+ * explored once with {@link AbstractField#explore(minesweeper.cell.ICoordinates, ForkJoinPool)} and once with {@link
+ * AbstractField#explore(minesweeper.cell.ICoordinates)}, and the explored and marked cells, the counters and the status
+ * must be the same, on every field storage.
+ * <p>
+ * The boards are large and sparse, so that the frontier of the opening exceeds the threshold of the parallel levels,
+ * and some cells are marked beforehand, so that the opening also unmarks cells. Workers of the parallel levels change
+ * neighboring cells at once, which storages packing several cells in a word must support. Arguments: the number of
+ * seeds per storage (default 4).
+ */
+public class ParallelFloodFillCheck {
+    private static final BoardSpec SPEC = new BoardSpec(1500, 1500, 1500 * 1500 / 50);
+    private static final int MARKS = 20_000;
+
+    public static void main(String[] args) {
+        int seeds = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        ForkJoinPool pool = new ForkJoinPool(Math.max(4, Runtime.getRuntime().availableProcessors()));
+        try {
+            check("Field", seeds, pool, s -> new Field(s, 1L));
+            check("PackedField", seeds, pool, s -> new PackedField(s, 1L));
+            check("BitplaneField", seeds, pool, s -> new BitplaneField(s, 1L));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static void check(String name, int seeds, ForkJoinPool pool, Function<BoardSpec, AbstractField> factory) {
+        long opened = 0;
+        for (int seed = 18; seed < 18 + seeds; seed++) {
+            AbstractField sequential = prepare(factory.apply(SPEC), seed);
+            AbstractField parallel = prepare(factory.apply(SPEC), seed);
+            Coordinates start = new Coordinates(SPEC.getSize() / 2 + SPEC.getWidth() / 2, SPEC.getWidth());
+            boolean expected = sequential.explore(start);
+            boolean actual = parallel.explore(start, pool);
+            String what = String.format("%s seed %d", name, seed);
+            Check.equal(expected, actual, what + " result");
+            compare(sequential, parallel, what);
+            opened += parallel.getRevealedSafe();
+        }
+        Check.that(opened > (long) seeds * SPEC.getSize() / 2, "%s: openings too small to run in parallel", name);
+        System.out.printf("ParallelFloodFillCheck %s OK %,d cells opened%n", name, opened);
+    }
+
+    /**
+     * Place the mines by marking a cell, then mark random cells, the same on every field of a seed.
+     */
+    private static AbstractField prepare(AbstractField field, long seed) {
+        field.reset(seed);
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int i = 0; i < MARKS; i++) {
+            field.toggleMarkedCell(new Coordinates(random.nextInt(SPEC.getSize()), SPEC.getWidth()));
+        }
+        return field;
+    }
+
+    private static void compare(AbstractField expected, AbstractField actual, String what) {
+        FieldState expectedState = expected.captureState();
+        FieldState actualState = actual.captureState();
+        int differences = 0;
+        int first = -1;
+        for (int lineal = 0; lineal < SPEC.getSize(); lineal++) {
+            if (expectedState.isMine(lineal) != actualState.isMine(lineal)
+                    || expectedState.isExplored(lineal) != actualState.isExplored(lineal)
+                    || expectedState.isMarked(lineal) != actualState.isMarked(lineal)) {
+                differences++;
+                first = first < 0 ? lineal : first;
+            }
+        }
+        Check.that(differences == 0, "%s: %d cells differ from the sequential opening, first %d", what, differences,
+                first);
+        Check.equal(expected.getRevealedSafe(), actual.getRevealedSafe(), what + " revealed safe cells");
+        Check.equal(expected.getFieldStatus(), actual.getFieldStatus(), what + " status");
+    }
+}
@@ -0,0 +1,184 @@
+package minesweeper.check;
+
+import minesweeper.cell.Coordinates;
+import minesweeper.field.BoardSpec;
+import minesweeper.field.FieldStatus;
+import minesweeper.field.PackedField;
+import minesweeper.server.GameServer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Concurrency check of the session store of {@link GameServer}, through its HTTP interface: many games are played at
+ * once by several clients with a memory budget holding a small part of them, so that games are spilled and reloaded
+ * all along, by concurrent evictions.
+ * <p>
+ * Each client plays its own games, and replays every move on a reference field with the same mines, in memory: the
+ * result and the status of every move, and every binary delta, must be the ones of the reference. At the end, the store
+ * must have spilled and reloaded games, be back within its budget, and leave no snapshot file once the games are
+ * deleted, after which they are not found.
+ * <p>
+ * Arguments: the number of clients (default 8) and the number of requests per client (default 500).
+ */
+public class SessionStoreCheck {
+    private static final BoardSpec SPEC = new BoardSpec(16, 16, 40);
+    private static final int GAMES = 400;
+    private static final long BUDGET = 40_000;
+    private static final Pattern ID = Pattern.compile("\"id\":(\\d+)");
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int requests = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+        Path directory = Files.createTempDirectory("session-store-check");
+        GameServer server = new GameServer(new InetSocketAddress("localhost", 0), BUDGET, directory);
+        server.start();
+        try {
+            HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            String base = "http://localhost:" + server.getPort() + "/games";
+            Game[] games = new Game[GAMES];
+            for (int i = 0; i < GAMES; i++) {
+                games[i] = new Game(client, base, i);
+            }
+
+            AtomicReference<Throwable> failure = new AtomicReference<>();
+            List<Thread> threads = new ArrayList<>();
+            for (int c = 0; c < clients; c++) {
+                int player = c;
+                Thread thread = new Thread(() -> {
+                    try {
+                        SplittableRandom random = new SplittableRandom(player);
+                        for (int r = 0; r < requests; r++) {
+                            games[player + clients * random.nextInt(GAMES / clients)].play(client, base, random);
+                        }
+                    } catch (Throwable e) {
+                        failure.compareAndSet(null, e);
+                    }
+                }, "client-" + player);
+                threads.add(thread);
+                thread.start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            if (failure.get() != null) {
+                throw new AssertionError("Client failed", failure.get());
+            }
+
+            // a last request alone, evicting what the concurrent evictions may have left over the budget
+            games[0].delta(client, base);
+            String stats = send(client, HttpRequest.newBuilder(URI.create(base.replace("/games", "/stats"))).GET());
+            Check.that(number(stats, "evictions") > 0 && number(stats, "misses") > 0,
+                    "No game spilled and reloaded: %s", stats);
+            Check.that(number(stats, "residentBytes") <= BUDGET, "Store over budget: %s", stats);
+
+            for (Game game : games) {
+                HttpRequest.Builder delete = HttpRequest.newBuilder(URI.create(base + "/" + game.id)).DELETE();
+                Check.equal(204, client.send(delete.build(), HttpResponse.BodyHandlers.discarding()).statusCode(),
+                        "deletion of game " + game.id);
+            }
+            Check.equal(0, server.getSessionCount(), "games left");
+            for (HttpRequest.Builder gone : List.of(HttpRequest.newBuilder(URI.create(base + "/" + games[0].id)).GET(),
+                    HttpRequest.newBuilder(URI.create(base + "/" + games[0].id)).DELETE())) {
+                Check.equal(404, client.send(gone.build(), HttpResponse.BodyHandlers.discarding()).statusCode(),
+                        "deleted game " + gone.build().method());
+            }
+            try (var files = Files.list(directory)) {
+                Check.equal(0L, files.count(), "snapshot files left");
+            }
+            System.out.printf("SessionStoreCheck OK %d clients, %d requests each, %s%n", clients, requests, stats);
+        } finally {
+            server.close();
+            try (var files = Files.list(directory)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(directory);
+        }
+    }
+
+    private static String send(HttpClient client, HttpRequest.Builder request) throws IOException,
+            InterruptedException {
+        HttpResponse<String> response = client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        Check.that(response.statusCode() < 300, "%s answered %d: %s", request.build().uri(), response.statusCode(),
+                response.body());
+        return response.body();
+    }
+
+    private static long number(String json, String name) {
+        Matcher matcher = Pattern.compile("\"" + name + "\":(\\d+)").matcher(json);
+        Check.that(matcher.find(), "No %s in %s", name, json);
+        return Long.parseLong(matcher.group(1));
+    }
+
+    /**
+     * A game of the server, with its reference field and the cells changed since its last delta. Played by a single
+     * client.
+     */
+    private static final class Game {
+        final long id;
+        final PackedField reference;
+        final Set<Integer> changed = new LinkedHashSet<>();
+
+        Game(HttpClient client, String base, long seed) throws IOException, InterruptedException {
+            String created = send(client, HttpRequest.newBuilder(URI.create(String.format(
+                    "%s?width=%d&height=%d&mines=%d&seed=%d", base, SPEC.getWidth(), SPEC.getHeight(),
+                    SPEC.getNumberOfMines(), seed))).POST(HttpRequest.BodyPublishers.noBody()));
+            Matcher matcher = ID.matcher(created);
+            Check.that(matcher.find(), "No id in %s", created);
+            this.id = Long.parseLong(matcher.group(1));
+            this.reference = new PackedField(SPEC, seed);
+            reference.addListener(changed::add);
+        }
+
+        void play(HttpClient client, String base, SplittableRandom random) throws IOException,
+                InterruptedException {
+            int kind = random.nextInt(10);
+            if (kind == 0) {
+                delta(client, base);
+                return;
+            }
+            boolean explore = kind < 7;
+            int column = 1 + random.nextInt(SPEC.getWidth());
+            int row = 1 + random.nextInt(SPEC.getHeight());
+            String answer = send(client, HttpRequest.newBuilder(URI.create(String.format("%s/%d/%s?column=%d&row=%d",
+                    base, id, explore ? "explore" : "mark", column, row))).POST(HttpRequest.BodyPublishers.noBody()));
+            Coordinates coordinates = new Coordinates(column - 1, row - 1, SPEC.getWidth());
+            boolean success = explore ? reference.explore(coordinates) : reference.toggleMarkedCell(coordinates);
+            String expected = "{\"success\":" + success + ",\"status\":\"" + reference.getFieldStatus() + "\"}";
+            Check.equal(expected, answer, "game " + id + " move");
+        }
+
+        void delta(HttpClient client, String base) throws IOException, InterruptedException {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(base + "/" + id + "/delta?format=binary")).GET()
+                    .build();
+            HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            Check.equal(200, response.statusCode(), "game " + id + " delta");
+            ByteBuffer delta = ByteBuffer.wrap(response.body());
+            Check.equal(FieldStatus.values()[delta.get()], reference.getFieldStatus(), "game " + id + " delta status");
+            Check.equal(changed.size(), delta.getInt(), "game " + id + " delta size");
+            for (int lineal : changed) {
+                Check.equal(lineal, delta.getInt(), "game " + id + " delta cell");
+                Check.equal((byte) reference.getFaceValue(lineal).getSymbol(), delta.get(),
+                        "game " + id + " delta symbol of " + lineal);
+            }
+            changed.clear();
+        }
+    }
+}
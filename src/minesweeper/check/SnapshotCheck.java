@@ -0,0 +1,200 @@
+package minesweeper.check;
+
+import minesweeper.cell.Coordinates;
+import minesweeper.field.AbstractField;
+import minesweeper.field.BitplaneField;
+import minesweeper.field.BoardSpec;
+import minesweeper.field.Field;
+import minesweeper.field.FieldSnapshot;
+import minesweeper.field.FieldState;
+import minesweeper.field.FieldStatus;
+import minesweeper.field.PackedField;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.function.Function;
+
+/**
+ * Check of {@link FieldSnapshot}: snapshots of random games are written and read back, through a buffer and through a
+ * file, on every field storage, and the restored field must have the same state, face values and status as the
+ * original. Snapshots restored on another storage must give the same. Then corrupt snapshots must be rejected: a
+ * truncated one, a wrong magic, a wrong version, an invalid board, dimensions not matching the bitsets, bits past the
+ * last cell, and a snapshot of another board, or with another number of mines, restored on a field.
+ * <p>
+ * Arguments: the number of games per storage (default 2000).
+ */
+public class SnapshotCheck {
+
+    public static void main(String[] args) throws IOException {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+        Path directory = Files.createTempDirectory("snapshot-check");
+        try {
+            roundTrip("Field", games, s -> new Field(s, 1L), directory);
+            roundTrip("PackedField", games, s -> new PackedField(s, 1L), directory);
+            roundTrip("BitplaneField", games, s -> new BitplaneField(s, 1L), directory);
+            rejections(directory);
+        } finally {
+            try (var files = Files.list(directory)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(directory);
+        }
+    }
+
+    private static void roundTrip(String name, int games, Function<BoardSpec, AbstractField> factory, Path directory)
+            throws IOException {
+        SplittableRandom random = new SplittableRandom(1);
+        Path file = directory.resolve(name + ".snapshot");
+        int[] statuses = new int[FieldStatus.values().length];
+        int pristine = 0;
+        for (int game = 0; game < games; game++) {
+            int width = 1 + random.nextInt(game % 2 == 0 ? 8 : 70);
+            int height = 1 + random.nextInt(game % 2 == 0 ? 8 : 70);
+            BoardSpec spec = new BoardSpec(width, height, random.nextInt(width * height));
+            AbstractField field = factory.apply(spec);
+            field.reset(game);
+            play(field, random);
+            String what = String.format("%s game %d on %s", name, game, spec);
+
+            FieldState state = field.captureState();
+            byte[] bytes = toBytes(state);
+            Check.equal(FieldSnapshot.sizeOf(spec), (long) bytes.length, what + " snapshot size");
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            FieldState read = FieldSnapshot.read(buffer);
+            Check.equal(0, buffer.remaining(), what + " bytes left after the snapshot");
+            AbstractField restored = factory.apply(spec);
+            restored.restoreState(read);
+            compare(field, restored, what + " read");
+
+            FieldSnapshot.save(field, file);
+            AbstractField loaded = factory.apply(spec);
+            FieldSnapshot.load(file, loaded);
+            compare(field, loaded, what + " loaded");
+
+            AbstractField other = game % 2 == 0 ? new PackedField(spec) : new Field(spec);
+            other.restoreState(read);
+            compare(field, other, what + " restored on " + other.getClass().getSimpleName());
+
+            statuses[field.getFieldStatus().ordinal()]++;
+            pristine += state.isPristine() ? 1 : 0;
+        }
+        for (FieldStatus status : FieldStatus.values()) {
+            Check.that(statuses[status.ordinal()] > 0, "%s: no game reached %s", name, status);
+        }
+        Check.that(pristine > 0, "%s: no pristine game", name);
+        System.out.printf("SnapshotCheck %s OK %s, %d pristine%n", name, Arrays.toString(statuses), pristine);
+    }
+
+    /**
+     * Play a random number of random moves, marking all the mines in some games to reach wins.
+     */
+    private static void play(AbstractField field, SplittableRandom random) {
+        BoardSpec spec = field.getBoardSpec();
+        int moves = random.nextInt(8);
+        for (int move = 0; move < moves && field.getFieldStatus() == FieldStatus.PENDING; move++) {
+            Coordinates coordinates = new Coordinates(random.nextInt(spec.getSize()), spec.getWidth());
+            if (random.nextInt(4) == 0) {
+                field.toggleMarkedCell(coordinates);
+            } else {
+                field.explore(coordinates);
+            }
+        }
+        FieldState state = field.captureState();
+        if (!state.isPristine() && field.getFieldStatus() == FieldStatus.PENDING && random.nextInt(4) == 0) {
+            for (int lineal = 0; lineal < spec.getSize(); lineal++) {
+                if (state.isMine(lineal) != state.isMarked(lineal)) {
+                    field.toggleMarkedCell(new Coordinates(lineal, spec.getWidth()));
+                }
+            }
+        }
+    }
+
+    private static void compare(AbstractField expected, AbstractField actual, String what) {
+        FieldState expectedState = expected.captureState();
+        FieldState actualState = actual.captureState();
+        Check.equal(expectedState.getBoardSpec(), actualState.getBoardSpec(), what + " board");
+        Check.equal(expectedState.isPristine(), actualState.isPristine(), what + " pristine");
+        for (int lineal = 0; lineal < expected.getBoardSpec().getSize(); lineal++) {
+            Check.equal(expectedState.isMine(lineal), actualState.isMine(lineal), what + " mine " + lineal);
+            Check.equal(expectedState.isExplored(lineal), actualState.isExplored(lineal), what + " explored " + lineal);
+            Check.equal(expectedState.isMarked(lineal), actualState.isMarked(lineal), what + " marked " + lineal);
+            Check.equal(expected.getFaceValue(lineal), actual.getFaceValue(lineal), what + " face value " + lineal);
+        }
+        Check.equal(expected.getFieldStatus(), actual.getFieldStatus(), what + " status");
+        Check.equal(expected.getRevealedSafe(), actual.getRevealedSafe(), what + " revealed safe cells");
+    }
+
+    private static void rejections(Path directory) throws IOException {
+        BoardSpec spec = new BoardSpec(30, 16, 99);
+        PackedField field = new PackedField(spec, 1L);
+        field.explore(new Coordinates(7, 5));
+        byte[] valid = toBytes(field.captureState());
+        Path file = directory.resolve("corrupt.snapshot");
+
+        byte[] truncated = Arrays.copyOf(valid, valid.length - 1);
+        rejected(truncated, file, "truncated snapshot");
+        rejected(Arrays.copyOf(valid, 10), file, "truncated header");
+        rejected(new byte[0], file, "empty snapshot");
+
+        byte[] magic = valid.clone();
+        ByteBuffer.wrap(magic).putInt(0, 0x4D53534F);
+        rejected(magic, file, "wrong magic");
+
+        byte[] version = valid.clone();
+        ByteBuffer.wrap(version).putInt(4, 2);
+        rejected(version, file, "wrong version");
+
+        byte[] board = valid.clone();
+        ByteBuffer.wrap(board).putInt(8, 0);
+        rejected(board, file, "invalid board");
+
+        byte[] larger = valid.clone();
+        ByteBuffer.wrap(larger).putInt(8, 40);
+        rejected(larger, file, "dimensions larger than the bitsets");
+
+        // the highest bit of the last long of the mines, cell 511 of 480
+        byte[] outside = valid.clone();
+        outside[24 + 7 * Long.BYTES] |= (byte) 0x80;
+        rejected(outside, file, "mine past the last cell");
+
+        byte[] mines = valid.clone();
+        ByteBuffer.wrap(mines).putInt(16, 98);
+        FieldState wrongCount = FieldSnapshot.read(ByteBuffer.wrap(mines));
+        Check.fails(IllegalArgumentException.class, () -> new PackedField(wrongCount.getBoardSpec()).restoreState(
+                wrongCount), "snapshot with 99 mines on a board of 98 restored");
+
+        Files.write(file, valid);
+        for (BoardSpec other : new BoardSpec[] {new BoardSpec(16, 30, 99), new BoardSpec(30, 16, 98),
+                new BoardSpec(9, 9, 10)}) {
+            AbstractField target = new PackedField(other, 1L);
+            Check.fails(IllegalArgumentException.class, () -> FieldSnapshot.load(file, target),
+                    "snapshot of " + spec + " loaded into " + other);
+            Check.fails(IllegalArgumentException.class, () -> target.restoreState(FieldSnapshot.load(file)),
+                    "snapshot of " + spec + " restored on " + other);
+        }
+        System.out.println("SnapshotCheck rejections OK");
+    }
+
+    /**
+     * Assert corrupt bytes are rejected, from a buffer and from a file.
+     */
+    private static void rejected(byte[] bytes, Path file, String what) throws IOException {
+        Check.fails(IOException.class, () -> FieldSnapshot.read(ByteBuffer.wrap(bytes)), what + " read");
+        Files.write(file, bytes);
+        Check.fails(IOException.class, () -> FieldSnapshot.load(file), what + " loaded");
+    }
+
+    private static byte[] toBytes(FieldState state) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        FieldSnapshot.write(state, Channels.newChannel(bytes));
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,729 @@
+package minesweeper.field;
+
+import minesweeper.cell.CellFaceValue;
+import minesweeper.cell.ICoordinates;
+import minesweeper.cell.Neighborhood;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Base class of the minesweeper game fields, implementing the game rules independently of how cells are stored.
+ * <p>
+ * Subclasses only provide the storage of the cells, through primitive operations addressed by the lineal value of the
+ * cell coordinates. Mine placement, exploration, marking and status are implemented once here, so that all the
+ * implementations play identically.
+ */
+public abstract class AbstractField implements IField, IFieldView {
+    /**
+     * Dimensions and number of mines of the field.
+     */
+    final BoardSpec spec;
+
+    /**
+     * Number of columns of the field.
+     */
+    final int width;
+
+    /**
+     * Number of rows of the field.
+     */
+    final int height;
+
+    /**
+     * Adjacency of the cells of the field.
+     */
+    final Neighborhood neighborhood;
+
+    /**
+     * Lineal values of the cells coordinates which contain mines.
+     */
+    int[] indexOfMines;
+
+    /**
+     * Total number of mines in the field.
+     */
+    final int numberOfMines;
+
+    /**
+     * Flag value: true if the player has not yet interacted with the field.
+     */
+    boolean pristine = true;
+
+    /**
+     * Number of mines whose face value is MARKED.
+     */
+    int correctMarks;
+
+    /**
+     * Number of cells, not mines, whose face value is MARKED.
+     */
+    int wrongMarks;
+
+    /**
+     * Number of explored mines.
+     */
+    int revealedMines;
+
+    /**
+     * Number of explored cells which are not mines.
+     */
+    int revealedSafe;
+
+    /**
+     * Engine exploring a cell and the region around it.
+     */
+    private final FloodFill floodFill;
+
+    /**
+     * Engine opening large regions on a pool of threads, created on first use.
+     */
+    private ParallelFloodFill parallelFloodFill;
+
+    /**
+     * Empty array of listeners, shared by the fields without listeners.
+     */
+    private static final FieldListener[] NO_LISTENERS = new FieldListener[0];
+
+    /**
+     * Listeners of the changes of the cells.
+     */
+    private FieldListener[] listeners = NO_LISTENERS;
+
+    /**
+     * Engine choosing the cells which contain mines.
+     */
+    private MinePlacer minePlacer;
+
+    /**
+     * Sole constructor.
+     *
+     * @param   spec       - dimensions and number of mines of the field
+     * @param   minePlacer - engine choosing the cells which contain mines
+     */
+    AbstractField(BoardSpec spec, MinePlacer minePlacer) {
+        this.spec = spec;
+        this.minePlacer = minePlacer;
+        this.width = spec.getWidth();
+        this.height = spec.getHeight();
+        this.numberOfMines = spec.getNumberOfMines();
+        this.neighborhood = Neighborhood.of(width, height);
+        this.floodFill = new FloodFill(neighborhood, new TrackingStore());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BoardSpec getBoardSpec() {
+        return spec;
+    }
+
+    /**
+     * Get the number of explored cells which are not mines.
+     *
+     * @return  int
+     */
+    public int getRevealedSafe() {
+        return revealedSafe;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void addListener(FieldListener listener) {
+        listeners = Arrays.copyOf(listeners, listeners.length + 1);
+        listeners[listeners.length - 1] = listener;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void removeListener(FieldListener listener) {
+        for (int i = 0; i < listeners.length; i++) {
+            if (listeners[i] == listener) {
+                FieldListener[] remaining = new FieldListener[listeners.length - 1];
+                System.arraycopy(listeners, 0, remaining, 0, i);
+                System.arraycopy(listeners, i + 1, remaining, i, remaining.length - i);
+                listeners = remaining;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Notify the listeners of the change of a cell.
+     *
+     * @param   lineal - the lineal value of the changed cell coordinates
+     */
+    private void cellChanged(int lineal) {
+        for (FieldListener listener : listeners) {
+            listener.cellChanged(lineal);
+        }
+    }
+
+    /**
+     * Tests whether the cell is a mine.
+     *
+     * @param   lineal - the lineal value of the cell coordinates
+     * @return  boolean
+     */
+    abstract boolean isMine(int lineal);
+
+    /**
+     * Tests whether the cell has been already explored.
+     *
+     * @param   lineal - the lineal value of the cell coordinates
+     * @return  boolean
+     */
+    abstract boolean isExplored(int lineal);
+
+    /**
+     * Tests whether the cell face value is MARKED.
+     *
+     * @param   lineal - the lineal value of the cell coordinates
+     * @return  boolean
+     */
+    abstract boolean isMarked(int lineal);
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public abstract CellFaceValue getFaceValue(int lineal);
+
+    /**
+     * Explore the cell, as {@link minesweeper.cell.ICell#explore()}. Status counters are updated by the caller. May be
+     * called for different cells at the same time, by the workers of a {@link ParallelFloodFill}.
+     *
+     * @param   lineal - the lineal value of the cell coordinates
+     * @return  boolean - true if action is performed, false if the cell was already explored.
+     */
+    abstract boolean exploreCell(int lineal);
+
+    /**
+     * Mark or unmark the cell, as {@link minesweeper.cell.ICell#mark()}. Status counters are updated by the caller. May
+     * be called for different cells at the same time, by the workers of a {@link ParallelFloodFill}.
+     *
+     * @param   lineal - the lineal value of the cell coordinates
+     * @return  boolean - true if action is performed, false if not allowed.
+     */
+    abstract boolean markCell(int lineal);
+
+    /**
+     * Add 1 to the numeric value of a cell which is not a mine.
+     *
+     * @param   lineal - the lineal value of the cell coordinates
+     */
+    abstract void incrementNumber(int lineal);
+
+    /**
+     * Set the cell value to MINE.
+     *
+     * @param   lineal - the lineal value of the cell coordinates
+     */
+    abstract void setMine(int lineal);
+
+    /**
+     * Set all the cells to their initial state: SAFE, neither explored nor marked.
+     */
+    abstract void clearCells();
+
+    /**
+     * Start a new game on this field, keeping its arrays and tables: cells are cleared in place, and the mines will be
+     * placed on the first exploration. Listeners of the previous game are removed.
+     * <p>
+     * Once the field has played a game of its size, starting a new one allocates nothing.
+     *
+     * @param   minePlacer - engine choosing the cells which contain mines
+     */
+    public void reset(MinePlacer minePlacer) {
+        this.minePlacer = minePlacer;
+        clearCells();
+        pristine = true;
+        correctMarks = 0;
+        wrongMarks = 0;
+        revealedMines = 0;
+        revealedSafe = 0;
+        listeners = NO_LISTENERS;
+        afterMove();
+    }
+
+    /**
+     * Start a new game on this field, with the mine placer of the previous game restarted from a seed. The new game
+     * has the same mines as a new field created with the same seed.
+     *
+     * @param   seed - the seed of the random generator placing mines
+     * @see     #reset(MinePlacer)
+     * @see     MinePlacer#reseed(long)
+     */
+    public void reset(long seed) {
+        minePlacer.reseed(seed);
+        reset(minePlacer);
+    }
+
+    /**
+     * Capture the state of the cells, to be restored later with {@link #restoreState(FieldState)}, on this field or on
+     * another field of the same board.
+     *
+     * @return  FieldState
+     */
+    public FieldState captureState() {
+        long[] mines = new long[FieldState.words(spec.getSize())];
+        long[] explored = new long[mines.length];
+        long[] marked = new long[mines.length];
+        captureCells(mines, explored, marked);
+        return new FieldState(spec, pristine, mines, explored, marked);
+    }
+
+    /**
+     * Set the bits of the mines, of the explored cells and of the cells whose face value is MARKED.
+     *
+     * @param   mines    - the bitset of the mines, cleared
+     * @param   explored - the bitset of the explored cells, cleared
+     * @param   marked   - the bitset of the marked cells, cleared
+     */
+    void captureCells(long[] mines, long[] explored, long[] marked) {
+        for (int lineal = 0; lineal < spec.getSize(); lineal++) {
+            long bit = 1L << lineal;
+            if (isMine(lineal)) {
+                mines[lineal >>> 6] |= bit;
+            }
+            if (isExplored(lineal)) {
+                explored[lineal >>> 6] |= bit;
+            }
+            if (isMarked(lineal)) {
+                marked[lineal >>> 6] |= bit;
+            }
+        }
+    }
+
+    /**
+     * Set the cells to a captured state, in place: the cells are cleared, then the mines, marks and explored cells are
+     * set directly from the bitsets of the state, and the status counters are computed from them. As on {@link
+     * #reset(MinePlacer)}, listeners are removed. If the state is pristine, the mines are placed on the next
+     * exploration by the current mine placer.
+     *
+     * @param   state - the state
+     * @throws  IllegalArgumentException if the state is of another board, or does not hold the number of mines of
+     *          the board although not pristine
+     */
+    public void restoreState(FieldState state) {
+        if (!state.getBoardSpec().equals(spec)) {
+            String error = String.format("Cannot restore a state of %s on a field of %s", state.getBoardSpec(), spec);
+            throw new IllegalArgumentException(error);
+        }
+        int placed = FieldState.count(state.mines);
+        if (!state.isPristine() && placed != numberOfMines) {
+            String error = String.format("Invalid state: %d mines instead of %d", placed, numberOfMines);
+            throw new IllegalArgumentException(error);
+        }
+
+        clearCells();
+        pristine = state.isPristine();
+        correctMarks = 0;
+        wrongMarks = 0;
+        revealedMines = 0;
+        revealedSafe = 0;
+        if (!pristine) {
+            if (indexOfMines == null || indexOfMines.length != placed) {
+                indexOfMines = new int[placed];
+            }
+            FieldState.toLineals(state.mines, indexOfMines);
+            setMines(indexOfMines);
+        }
+        // marks first, while every cell is hidden: an explored cell showing a number refuses the mark, while
+        // exploring a cell leaves its mark
+        for (int i = 0; i < state.marked.length; i++) {
+            for (long bits = state.marked[i]; bits != 0; bits &= bits - 1) {
+                markCell((i << 6) + Long.numberOfTrailingZeros(bits));
+            }
+        }
+        for (int i = 0; i < state.explored.length; i++) {
+            for (long bits = state.explored[i]; bits != 0; bits &= bits - 1) {
+                int lineal = (i << 6) + Long.numberOfTrailingZeros(bits);
+                exploreCell(lineal);
+                if (isMine(lineal)) {
+                    revealedMines++;
+                } else {
+                    revealedSafe++;
+                }
+            }
+        }
+        for (int i = 0; i < state.marked.length; i++) {
+            for (long bits = state.marked[i]; bits != 0; bits &= bits - 1) {
+                int lineal = (i << 6) + Long.numberOfTrailingZeros(bits);
+                if (isMarked(lineal)) {
+                    if (isMine(lineal)) {
+                        correctMarks++;
+                    } else {
+                        wrongMarks++;
+                    }
+                }
+            }
+        }
+        listeners = NO_LISTENERS;
+        afterMove();
+    }
+
+    /**
+     * Called at the end of every move of the player, once cells and status counters are up to date. Does nothing by
+     * default.
+     */
+    void afterMove() {
+    }
+
+    /**
+     * Place field mines. The total number of mines is {@link #numberOfMines}. This function accept a coordinate that
+     * shall be kept without mines, with its neighbors if required by {@link #minePlacer}.
+     *
+     * @param      safeLineal - lineal value of the cell that must be left without mines.
+     * @throws     IllegalStateException if field is not pristine. This function should only be called before the any
+     *             cell has been explored.
+     */
+    private void placeMines(int safeLineal) {
+        if (!pristine) {
+            throw new IllegalStateException("Cannot place mines when field is no longer pristine");
+        }
+
+        indexOfMines = minePlacer.place(neighborhood, numberOfMines, safeLineal, indexOfMines);
+        setMines(indexOfMines);
+    }
+
+    /**
+     * Set the cells containing mines, and the numbers around them, on cleared cells. Subclasses may compute the
+     * numbers in bulk.
+     *
+     * @param   mines - lineal values of the cells containing mines, sorted
+     */
+    void setMines(int[] mines) {
+        for (int index : mines) {
+            int shape = neighborhood.shapeOf(index);
+            for (int k = 0; k < neighborhood.size(shape); k++) {
+                int neighbor = neighborhood.neighbor(index, shape, k);
+                if (!isMine(neighbor)) {
+                    incrementNumber(neighbor);
+                }
+            }
+            setMine(index);
+        }
+    }
+
+    /**
+     * Place the mines, if the player has not yet interacted with the field.
+     *
+     * @param   safeLineal - lineal value of the cell that must be left without mines.
+     */
+    private void leavePristine(int safeLineal) {
+        if (pristine) {
+            placeMines(safeLineal);
+        }
+        pristine = false;
+    }
+
+    /**
+     * Get the validated lineal value of coordinates on this field. The lineal value is computed from the column and
+     * the row with the width of the field, so that coordinates created for a space of another width cannot address
+     * another cell than their own.
+     *
+     * @param   coordinates - the coordinates
+     * @return  int - the lineal value
+     * @throws  IllegalArgumentException if coordinates are outside the field
+     */
+    public int toLineal(ICoordinates coordinates) {
+        long x = coordinates.getX();
+        long y = coordinates.getY();
+        if (x < 0 || y < 0 || x >= width || y >= height) {
+            throw new IllegalArgumentException("Coordinates not found: " + coordinates);
+        }
+        return (int) y * width + (int) x;
+    }
+
+    /**
+     * Render a rectangular window of the field, with the numbers of its rows and columns, in the layout of {@link
+     * #toString()}. Meant to inspect fields too large to be rendered whole.
+     *
+     * @param   left    - the column of the first rendered cell, from 0
+     * @param   top     - the row of the first rendered cell, from 0
+     * @param   columns - the number of columns to render
+     * @param   rows    - the number of rows to render
+     * @return  String
+     * @throws  IllegalArgumentException if the window is empty or not inside the field
+     */
+    public String render(int left, int top, int columns, int rows) {
+        if (left < 0 || top < 0 || columns < 1 || rows < 1 || columns > width - left || rows > height - top) {
+            String error = String.format("Invalid window of %dx%d cells at (%d, %d)", columns, rows, left, top);
+            throw new IllegalArgumentException(error);
+        }
+        String newLine = System.getProperty("line.separator");
+        BoardLayout layout = new BoardLayout((long) left + columns, (long) top + rows);
+        TextBuffer buffer = new TextBuffer((columns + 2 * layout.getColumnOffset()) * (rows + 4));
+        layout.appendWindow(buffer, this, left, top, columns, rows, newLine);
+        return buffer.toString();
+    }
+
+    /**
+     * Write the whole field, as {@link #toString()} followed by a line separator, row by row. Memory use does not
+     * depend on the number of rows, so that fields too large for a string can be archived.
+     *
+     * @param   writer - the destination, not flushed nor closed
+     * @throws  IOException if the writer fails
+     */
+    public void write(Writer writer) throws IOException {
+        BoardLayout layout = new BoardLayout(width, height);
+        TextBuffer buffer = new TextBuffer(BoardLayout.FLUSH_SIZE + width + 32);
+        layout.stream(buffer, this, System.getProperty("line.separator"), full -> full.writeTo(writer));
+    }
+
+    /**
+     * Write the whole field, as {@link #write(Writer)}, in ASCII.
+     *
+     * @param   channel - the destination, not closed
+     * @throws  IOException if the channel fails
+     */
+    public void write(WritableByteChannel channel) throws IOException {
+        BoardLayout layout = new BoardLayout(width, height);
+        TextBuffer buffer = new TextBuffer(BoardLayout.FLUSH_SIZE + width + 32);
+        ByteBuffer bytes = ByteBuffer.allocate(BoardLayout.FLUSH_SIZE);
+        layout.stream(buffer, this, System.getProperty("line.separator"), full -> full.writeTo(channel, bytes));
+    }
+
+    /**
+     * Render the whole field, with row and column numbers, see {@link BoardLayout}.
+     */
+    @Override
+    public String toString() {
+        return render(0, 0, width, height);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean toggleMarkedCell(ICoordinates coordinates) {
+        int lineal = toLineal(coordinates);
+        leavePristine(lineal);
+        boolean result = trackedMark(lineal);
+        afterMove();
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * All coordinates are validated before any cell is changed.
+     */
+    @Override
+    public boolean[] toggleMarkedCells(List<? extends ICoordinates> coordinates) {
+        int[] toMark = new int[coordinates.size()];
+        for (int i = 0; i < toMark.length; i++) {
+            toMark[i] = toLineal(coordinates.get(i));
+        }
+        if (toMark.length > 0) {
+            leavePristine(toMark[0]);
+        }
+
+        boolean[] results = new boolean[toMark.length];
+        for (int i = 0; i < toMark.length; i++) {
+            results[i] = trackedMark(toMark[i]);
+        }
+        afterMove();
+        return results;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * If the player explore for the first time, place mines into the field, but the first cell explored cannot be a
+     * mine.
+     */
+    @Override
+    public boolean explore(ICoordinates coordinates) {
+        int lineal = toLineal(coordinates);
+        leavePristine(lineal);
+        boolean result = floodFill.explore(lineal);
+        afterMove();
+        return result;
+    }
+
+    /**
+     * Explore a cell, as {@link #explore(ICoordinates)}, opening the region around it in parallel on a pool: meant for
+     * huge sparse fields, where a single exploration can open millions of cells. The opened cells are the same as the
+     * ones of the sequential exploration; small regions are opened in the calling thread. Listeners are notified once
+     * per changed cell, after the whole region has been opened.
+     *
+     * @param   coordinates - the coordinates of cell to explore
+     * @param   pool        - the pool opening the region
+     * @return  boolean - true if selected cell is explored, false if action was not valid (already explored)
+     * @see     ParallelFloodFill
+     */
+    public boolean explore(ICoordinates coordinates, ForkJoinPool pool) {
+        int lineal = toLineal(coordinates);
+        leavePristine(lineal);
+        boolean result = trackedExplore(lineal);
+        if (floodFill.noneIsMine(lineal)) {
+            if (parallelFloodFill == null) {
+                parallelFloodFill = new ParallelFloodFill(this, neighborhood, ParallelFloodFill.SEQUENTIAL_THRESHOLD,
+                        ParallelFloodFill.TASK_SIZE);
+            }
+            ParallelFloodFill.IntList changed = listeners.length > 0 ? new ParallelFloodFill.IntList() : null;
+            parallelFloodFill.open(lineal, pool, changed);
+            revealedSafe += parallelFloodFill.getOpened();
+            wrongMarks -= parallelFloodFill.getUnmarked();
+            for (int i = 0; changed != null && i < changed.size; i++) {
+                cellChanged(changed.values[i]);
+            }
+        }
+        afterMove();
+        return result;
+    }
+
+    /**
+     * Play a sequence of explorations and marks as a single move: all coordinates are validated first, the moves are
+     * then applied back to back, and {@link #afterMove()} runs once at the end. The sequence stops as soon as the game
+     * is lost, a lost game playing no move at all.
+     *
+     * @param   lineals  - the lineal values of the cells, one per move
+     * @param   explores - for each move, true to explore the cell, false to mark or unmark it
+     * @param   count    - the number of moves, from the start of the arrays
+     * @param   results  - receives the result of each played move, as returned by {@link #explore(ICoordinates)} or
+     *                   {@link #toggleMarkedCell(ICoordinates)}
+     * @return  int - the number of played moves
+     * @throws  IllegalArgumentException if any lineal value is outside the field, before any cell is changed
+     */
+    public int playMoves(int[] lineals, boolean[] explores, int count, boolean[] results) {
+        for (int i = 0; i < count; i++) {
+            if (lineals[i] < 0 || lineals[i] >= spec.getSize()) {
+                throw new IllegalArgumentException("Coordinates not found: " + lineals[i]);
+            }
+        }
+
+        int played = 0;
+        while (played < count && revealedMines == 0) {
+            int lineal = lineals[played];
+            leavePristine(lineal);
+            results[played] = explores[played] ? floodFill.explore(lineal) : trackedMark(lineal);
+            played++;
+        }
+        afterMove();
+        return played;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The status is computed in constant time from counters updated at every change of the cells.
+     */
+    @Override
+    public FieldStatus getFieldStatus() {
+        // If all and only the real mine are marked by the player, he won
+        if (correctMarks == numberOfMines && wrongMarks == 0) {
+            return FieldStatus.WIN;
+        }
+
+        // If at least one discovered field is MINE, player lost
+        if (revealedMines > 0) {
+            return FieldStatus.LOSS;
+        }
+
+        // the game continue
+        return FieldStatus.PENDING;
+    }
+
+    /**
+     * Explore a cell, keeping the status counters up to date.
+     *
+     * @param   lineal - the lineal value of the cell coordinates
+     * @return  boolean - the result of {@link #exploreCell(int)}
+     */
+    private boolean trackedExplore(int lineal) {
+        boolean markedBefore = isMarked(lineal);
+        boolean result = exploreCell(lineal);
+        if (result) {
+            if (isMine(lineal)) {
+                revealedMines++;
+            } else {
+                revealedSafe++;
+            }
+        }
+        if (countMarks(lineal, markedBefore) || result) {
+            cellChanged(lineal);
+        }
+        return result;
+    }
+
+    /**
+     * Mark or unmark a cell, keeping the status counters up to date.
+     *
+     * @param   lineal - the lineal value of the cell coordinates
+     * @return  boolean - the result of {@link #markCell(int)}
+     */
+    private boolean trackedMark(int lineal) {
+        boolean markedBefore = isMarked(lineal);
+        boolean result = markCell(lineal);
+        if (countMarks(lineal, markedBefore) || result) {
+            cellChanged(lineal);
+        }
+        return result;
+    }
+
+    /**
+     * Update the marks counters after a change of a cell.
+     * <p>
+     * A cell counts as marked while its face value is MARKED: exploring a cell may change it as well as marking.
+     *
+     * @param   lineal       - the lineal value of the changed cell
+     * @param   markedBefore - whether the cell face value was MARKED before the change
+     * @return  boolean - true if the cell face value changed from or to MARKED
+     */
+    private boolean countMarks(int lineal, boolean markedBefore) {
+        boolean markedAfter = isMarked(lineal);
+        if (markedBefore == markedAfter) {
+            return false;
+        }
+        int delta = markedAfter ? 1 : -1;
+        if (isMine(lineal)) {
+            correctMarks += delta;
+        } else {
+            wrongMarks += delta;
+        }
+        return true;
+    }
+
+    /**
+     * Access to the cells for the field engines, keeping the status counters up to date.
+     */
+    private class TrackingStore implements CellStore {
+        @Override
+        public boolean isMine(int lineal) {
+            return AbstractField.this.isMine(lineal);
+        }
+
+        @Override
+        public boolean isExplored(int lineal) {
+            return AbstractField.this.isExplored(lineal);
+        }
+
+        @Override
+        public boolean isMarked(int lineal) {
+            return AbstractField.this.isMarked(lineal);
+        }
+
+        @Override
+        public boolean explore(int lineal) {
+            return trackedExplore(lineal);
+        }
+
+        @Override
+        public boolean mark(int lineal) {
+            return trackedMark(lineal);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package minesweeper.field;
+
+import minesweeper.cell.CellFaceValue;
+
+/**
+ * Base class of the fields storing each cell in a single byte, encoded as described by {@link PackedCells}.
+ * <p>
+ * Subclasses only provide where the bytes are stored.
+ */
+abstract class AbstractPackedField extends AbstractField {
+
+    /**
+     * Sole constructor.
+     *
+     * @param   spec       - dimensions and number of mines of the field
+     * @param   minePlacer - engine choosing the cells which contain mines
+     */
+    AbstractPackedField(BoardSpec spec, MinePlacer minePlacer) {
+        super(spec, minePlacer);
+    }
+
+    /**
+     * Get the packed state of a cell.
+     *
+     * @param   lineal - the lineal value of the cell coordinates
+     * @return  int - the state, see {@link PackedCells}
+     */
+    abstract int getState(int lineal);
+
+    /**
+     * Set the packed state of a cell.
+     *
+     * @param   lineal - the lineal value of the cell coordinates
+     * @param   state  - the state, see {@link PackedCells}
+     */
+    abstract void setState(int lineal, int state);
+
+    @Override
+    boolean isMine(int lineal) {
+        return PackedCells.isMine(getState(lineal));
+    }
+
+    @Override
+    boolean isExplored(int lineal) {
+        return PackedCells.isExplored(getState(lineal));
+    }
+
+    @Override
+    boolean isMarked(int lineal) {
+        return PackedCells.isMarked(getState(lineal));
+    }
+
+    /**
+     * Reads each byte once, instead of once for each bitset.
+     */
+    @Override
+    void captureCells(long[] mines, long[] explored, long[] marked) {
+        int size = getBoardSpec().getSize();
+        for (int lineal = 0; lineal < size; lineal++) {
+            int state = getState(lineal);
+            long bit = 1L << lineal;
+            if (PackedCells.isMine(state)) {
+                mines[lineal >>> 6] |= bit;
+            }
+            if (PackedCells.isExplored(state)) {
+                explored[lineal >>> 6] |= bit;
+            }
+            if (PackedCells.isMarked(state)) {
+                marked[lineal >>> 6] |= bit;
+            }
+        }
+    }
+
+    @Override
+    public CellFaceValue getFaceValue(int lineal) {
+        return PackedCells.getFaceValue(getState(lineal));
+    }
+
+    @Override
+    boolean exploreCell(int lineal) {
+        int state = getState(lineal);
+        if (PackedCells.isExplored(state)) {
+            return false;
+        }
+        setState(lineal, state | PackedCells.EXPLORED);
+        return true;
+    }
+
+    @Override
+    boolean markCell(int lineal) {
+        int state = getState(lineal);
+        if (!PackedCells.isMarkable(state)) {
+            return false;
+        }
+        setState(lineal, state ^ PackedCells.MARKED);
+        return true;
+    }
+
+    @Override
+    void incrementNumber(int lineal) {
+        setState(lineal, getState(lineal) + 1);
+    }
+
+    @Override
+    void setMine(int lineal) {
+        setState(lineal, getState(lineal) & ~PackedCells.VALUE | PackedCells.MINE);
+    }
+}
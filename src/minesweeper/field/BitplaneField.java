@@ -0,0 +1,259 @@
+package minesweeper.field;
+
+import minesweeper.cell.CellFaceValue;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Class representing a minesweeper game field stored as bitplanes: arrays of longs holding one bit per cell, indexed
+ * by lineal value.
+ * <p>
+ * Three planes hold the mines, the explored cells and the marked cells; four more hold the numbers, bit by bit. The
+ * numbers of the whole board are computed at once when the mines are placed: for each word, the mine plane is shifted
+ * towards each of the 8 neighbors, masked at the first and last columns, and the 8 words are summed by a bit-sliced
+ * adder, 64 cells per operation. In the same way, the state of the field is captured and its status checked word by
+ * word. Plays identically to {@link Field}, with 9 bits per cell: the 7 planes and 2 planes of column masks.
+ * <p>
+ * Explorations and marks set their bit with an atomic operation on its word, since the workers of a {@link
+ * ParallelFloodFill} change neighboring cells, which share words, at the same time.
+ */
+public class BitplaneField extends AbstractField {
+    private static final VarHandle WORDS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final long[] mines;
+    private final long[] explored;
+    private final long[] marked;
+
+    /**
+     * Bits 0 to 3 of the number of each cell. Meaningless for the mines.
+     */
+    private final long[][] numbers = new long[4][];
+
+    /**
+     * Cells of the first and of the last column, which have no neighbors on their left and on their right.
+     */
+    private final long[] firstColumn;
+    private final long[] lastColumn;
+
+    /**
+     * Class constructor.
+     *
+     * @param   spec       - dimensions and number of mines of the field
+     * @param   minePlacer - engine choosing the cells which contain mines
+     */
+    public BitplaneField(BoardSpec spec, MinePlacer minePlacer) {
+        super(spec, minePlacer);
+        int words = FieldState.words(spec.getSize());
+        this.mines = new long[words];
+        this.explored = new long[words];
+        this.marked = new long[words];
+        for (int i = 0; i < numbers.length; i++) {
+            numbers[i] = new long[words];
+        }
+        this.firstColumn = new long[words];
+        this.lastColumn = new long[words];
+        for (int lineal = 0; lineal < spec.getSize(); lineal += width) {
+            firstColumn[lineal >>> 6] |= 1L << lineal;
+            lastColumn[(lineal + width - 1) >>> 6] |= 1L << (lineal + width - 1);
+        }
+    }
+
+    /**
+     * Class constructor, creating a reproducible field: the same seed and first explored cell give the same mines.
+     *
+     * @param   spec - dimensions and number of mines of the field
+     * @param   seed - the seed of the random generator placing mines
+     */
+    public BitplaneField(BoardSpec spec, long seed) {
+        this(spec, new MinePlacer(seed));
+    }
+
+    /**
+     * Class constructor, creating a field with randomly placed mines.
+     *
+     * @param   spec - dimensions and number of mines of the field
+     */
+    public BitplaneField(BoardSpec spec) {
+        this(spec, new MinePlacer(new SplittableRandom()));
+    }
+
+    /**
+     * Compute the status from the planes, word by word, without the counters kept by the moves: the game is won when
+     * the cells whose face value is MARKED are exactly the mines, lost when a mine is explored.
+     *
+     * @return  FieldStatus - the same as {@link #getFieldStatus()}
+     */
+    public FieldStatus computeFieldStatus() {
+        boolean won = true;
+        boolean lost = false;
+        for (int i = 0; i < mines.length; i++) {
+            won &= markedFaces(i) == mines[i];
+            lost |= (explored[i] & mines[i]) != 0;
+        }
+        return won ? FieldStatus.WIN : lost ? FieldStatus.LOSS : FieldStatus.PENDING;
+    }
+
+    @Override
+    boolean isMine(int lineal) {
+        return (mines[lineal >>> 6] & 1L << lineal) != 0;
+    }
+
+    @Override
+    boolean isExplored(int lineal) {
+        return (explored[lineal >>> 6] & 1L << lineal) != 0;
+    }
+
+    @Override
+    boolean isMarked(int lineal) {
+        return PackedCells.isMarked(getState(lineal));
+    }
+
+    @Override
+    public CellFaceValue getFaceValue(int lineal) {
+        return PackedCells.getFaceValue(getState(lineal));
+    }
+
+    @Override
+    boolean exploreCell(int lineal) {
+        long bit = 1L << lineal;
+        if ((explored[lineal >>> 6] & bit) != 0) {
+            return false;
+        }
+        return ((long) WORDS.getAndBitwiseOr(explored, lineal >>> 6, bit) & bit) == 0;
+    }
+
+    @Override
+    boolean markCell(int lineal) {
+        if (!PackedCells.isMarkable(getState(lineal))) {
+            return false;
+        }
+        WORDS.getAndBitwiseXor(marked, lineal >>> 6, 1L << lineal);
+        return true;
+    }
+
+    @Override
+    void incrementNumber(int lineal) {
+        // ripple carry through the bits of the number
+        long carry = 1L << lineal;
+        for (int i = 0; i < numbers.length && carry != 0; i++) {
+            long word = numbers[i][lineal >>> 6];
+            numbers[i][lineal >>> 6] = word ^ carry;
+            carry &= word;
+        }
+    }
+
+    @Override
+    void setMine(int lineal) {
+        mines[lineal >>> 6] |= 1L << lineal;
+    }
+
+    @Override
+    void clearCells() {
+        Arrays.fill(mines, 0);
+        Arrays.fill(explored, 0);
+        Arrays.fill(marked, 0);
+        for (long[] number : numbers) {
+            Arrays.fill(number, 0);
+        }
+    }
+
+    /**
+     * Set the mine bits, then compute the numbers of the whole board from the mine plane.
+     */
+    @Override
+    void setMines(int[] mines) {
+        for (int lineal : mines) {
+            setMine(lineal);
+        }
+        int[] offsets = {-width - 1, -1, width - 1, -width, width, -width + 1, 1, width + 1};
+        for (int i = 0; i < this.mines.length; i++) {
+            long bit0 = 0;
+            long bit1 = 0;
+            long bit2 = 0;
+            long bit3 = 0;
+            for (int k = 0; k < offsets.length; k++) {
+                long addend = shifted(this.mines, i, offsets[k]);
+                // the first three offsets look left, the last three right
+                if (k < 3) {
+                    addend &= ~firstColumn[i];
+                } else if (k >= 5) {
+                    addend &= ~lastColumn[i];
+                }
+                long carry = bit0 & addend;
+                bit0 ^= addend;
+                long carry1 = bit1 & carry;
+                bit1 ^= carry;
+                long carry2 = bit2 & carry1;
+                bit2 ^= carry1;
+                bit3 |= carry2;
+            }
+            numbers[0][i] = bit0;
+            numbers[1][i] = bit1;
+            numbers[2][i] = bit2;
+            numbers[3][i] = bit3;
+        }
+    }
+
+    /**
+     * Copies the planes, instead of reading the cells one by one.
+     */
+    @Override
+    void captureCells(long[] mines, long[] explored, long[] marked) {
+        System.arraycopy(this.mines, 0, mines, 0, mines.length);
+        System.arraycopy(this.explored, 0, explored, 0, explored.length);
+        for (int i = 0; i < marked.length; i++) {
+            marked[i] = markedFaces(i);
+        }
+    }
+
+    /**
+     * Get a word of the cells whose face value is MARKED: the marked cells, except the explored ones which show a mine
+     * or a number.
+     *
+     * @param   i - the index of the word
+     * @return  long
+     */
+    private long markedFaces(int i) {
+        long numbered = numbers[0][i] | numbers[1][i] | numbers[2][i] | numbers[3][i];
+        return marked[i] & ~(explored[i] & (mines[i] | numbered));
+    }
+
+    /**
+     * Get a word of a plane shifted by an offset: bit n of the result is the bit of the cell n + offset, or 0 outside
+     * the plane.
+     *
+     * @param   plane  - the plane
+     * @param   i      - the index of the word of the result
+     * @param   offset - the offset of the lineal values
+     * @return  long
+     */
+    private static long shifted(long[] plane, int i, int offset) {
+        long start = ((long) i << 6) + offset;
+        int index = (int) (start >> 6);
+        int shift = (int) (start & 63);
+        long low = index >= 0 && index < plane.length ? plane[index] : 0;
+        if (shift == 0) {
+            return low;
+        }
+        long high = index + 1 >= 0 && index + 1 < plane.length ? plane[index + 1] : 0;
+        return low >>> shift | high << (64 - shift);
+    }
+
+    /**
+     * Get the packed state of a cell, see {@link PackedCells}.
+     */
+    private int getState(int lineal) {
+        int word = lineal >>> 6;
+        int value;
+        if ((mines[word] >>> lineal & 1) != 0) {
+            value = PackedCells.MINE;
+        } else {
+            value = (int) (numbers[0][word] >>> lineal & 1 | (numbers[1][word] >>> lineal & 1) << 1
+                    | (numbers[2][word] >>> lineal & 1) << 2 | (numbers[3][word] >>> lineal & 1) << 3);
+        }
+        return value | (int) (explored[word] >>> lineal & 1) << 4 | (int) (marked[word] >>> lineal & 1) << 5;
+    }
+}
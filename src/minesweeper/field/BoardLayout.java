@@ -0,0 +1,207 @@
+package minesweeper.field;
+
+import java.io.IOException;
+
+/**
+ * Layout of the text rendering of a field. Rows are numbered on the left, right aligned; columns are numbered on top,
+ * one header line per digit, so that each number reads from top to bottom. Numbers start from 1. Up to 9 rows and
+ * columns, this is the classic layout:
+ * <pre>
+ *  |123456789|
+ * -|---------|
+ * 1|.........|
+ * </pre>
+ */
+final class BoardLayout {
+    /**
+     * Number of characters after which a streamed rendering writes its buffer.
+     */
+    static final int FLUSH_SIZE = 1 << 16;
+
+    /**
+     * Number of characters of the row numbers.
+     */
+    private final int labelWidth;
+
+    /**
+     * Number of header lines, one per digit of the largest column number.
+     */
+    private final int headerLines;
+
+    /**
+     * Class constructor.
+     *
+     * @param   lastColumn - the largest rendered column number
+     * @param   lastRow    - the largest rendered row number
+     */
+    BoardLayout(long lastColumn, long lastRow) {
+        this.labelWidth = TextBuffer.digits(lastRow);
+        this.headerLines = TextBuffer.digits(lastColumn);
+    }
+
+    /**
+     * Get the number of lines above the first row: the header lines and the border.
+     *
+     * @return  int
+     */
+    int getRowOffset() {
+        return headerLines + 1;
+    }
+
+    /**
+     * Get the number of characters on the left of the first column: the row number and the border.
+     *
+     * @return  int
+     */
+    int getColumnOffset() {
+        return labelWidth + 1;
+    }
+
+    /**
+     * Append the header lines followed by the border line.
+     *
+     * @param   buffer      - the buffer to append to
+     * @param   firstColumn - the number of the first rendered column
+     * @param   columns     - the number of rendered columns
+     * @param   newLine     - the line separator
+     */
+    void appendHeader(TextBuffer buffer, long firstColumn, int columns, String newLine) {
+        for (int line = 0; line < headerLines; line++) {
+            appendHeaderLine(buffer, line, firstColumn, columns, newLine);
+        }
+        appendBorder(buffer, columns);
+        buffer.append(newLine);
+    }
+
+    /**
+     * Append a header line, holding one digit of each column number.
+     *
+     * @param   buffer      - the buffer to append to
+     * @param   line        - the header line, 0 for the most significant digit
+     * @param   firstColumn - the number of the first rendered column
+     * @param   columns     - the number of rendered columns
+     * @param   newLine     - the line separator
+     */
+    private void appendHeaderLine(TextBuffer buffer, int line, long firstColumn, int columns, String newLine) {
+        long power = 1;
+        for (int i = line + 1; i < headerLines; i++) {
+            power *= 10;
+        }
+        buffer.repeat(' ', labelWidth).append('|');
+        for (long column = firstColumn; column < firstColumn + columns; column++) {
+            // blank instead of leading zeros, except on the last line
+            buffer.append(column < power && power > 1 ? ' ' : (char) ('0' + column / power % 10));
+        }
+        buffer.append('|').append(newLine);
+    }
+
+    /**
+     * Append the horizontal border, without line separator.
+     *
+     * @param   buffer  - the buffer to append to
+     * @param   columns - the number of rendered columns
+     */
+    void appendBorder(TextBuffer buffer, int columns) {
+        buffer.repeat('-', labelWidth).append('|').repeat('-', columns).append('|');
+    }
+
+    /**
+     * Append the number of a row and the left border.
+     *
+     * @param   buffer - the buffer to append to
+     * @param   row    - the row number
+     */
+    private void appendRowStart(TextBuffer buffer, long row) {
+        buffer.append(row, labelWidth).append('|');
+    }
+
+    /**
+     * Append a row of a field: row number, cells and right border, with line separator.
+     *
+     * @param   buffer  - the buffer to append to
+     * @param   view    - the field
+     * @param   row     - the row, from 0
+     * @param   left    - the first column, from 0
+     * @param   columns - the number of columns
+     * @param   newLine - the line separator
+     */
+    void appendRow(TextBuffer buffer, IFieldView view, int row, int left, int columns, String newLine) {
+        appendRowStart(buffer, row + 1L);
+        int lineal = row * view.getBoardSpec().getWidth() + left;
+        for (int j = 0; j < columns; j++) {
+            buffer.append(view.getFaceValue(lineal + j).getSymbol());
+        }
+        buffer.append('|').append(newLine);
+    }
+
+    /**
+     * Append a rectangular window of a field: header, rows and bottom border, without final line separator.
+     *
+     * @param   buffer  - the buffer to append to
+     * @param   view    - the field
+     * @param   left    - the first column, from 0
+     * @param   top     - the first row, from 0
+     * @param   columns - the number of columns
+     * @param   rows    - the number of rows
+     * @param   newLine - the line separator
+     */
+    void appendWindow(TextBuffer buffer, IFieldView view, int left, int top, int columns, int rows, String newLine) {
+        appendHeader(buffer, left + 1L, columns, newLine);
+        for (int i = top; i < top + rows; i++) {
+            appendRow(buffer, view, i, left, columns, newLine);
+        }
+        appendBorder(buffer, columns);
+    }
+
+    /**
+     * Write a whole field, as {@link #appendWindow} followed by a line separator, through a buffer handed to the sink
+     * and emptied whenever it holds more than {@link #FLUSH_SIZE} characters at the end of a line. Memory is bounded by
+     * the flush size and the length of a line, whatever the number of rows.
+     *
+     * @param   buffer  - the buffer, empty
+     * @param   view    - the field, as large as the layout
+     * @param   newLine - the line separator
+     * @param   sink    - the destination
+     * @throws  IOException if the sink fails
+     */
+    void stream(TextBuffer buffer, IFieldView view, String newLine, Sink sink) throws IOException {
+        int width = view.getBoardSpec().getWidth();
+        int height = view.getBoardSpec().getHeight();
+        for (int line = 0; line < headerLines; line++) {
+            appendHeaderLine(buffer, line, 1, width, newLine);
+            flush(buffer, sink, FLUSH_SIZE);
+        }
+        appendBorder(buffer, width);
+        buffer.append(newLine);
+        for (int i = 0; i < height; i++) {
+            appendRow(buffer, view, i, 0, width, newLine);
+            flush(buffer, sink, FLUSH_SIZE);
+        }
+        appendBorder(buffer, width);
+        buffer.append(newLine);
+        flush(buffer, sink, 0);
+    }
+
+    /**
+     * Hand the buffer to the sink and empty it, if it holds at least a number of characters.
+     */
+    private static void flush(TextBuffer buffer, Sink sink, int threshold) throws IOException {
+        if (buffer.length() >= threshold && buffer.length() > 0) {
+            sink.write(buffer);
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Destination of the text of a streamed rendering.
+     */
+    interface Sink {
+        /**
+         * Write the content of a buffer.
+         *
+         * @param   buffer - the buffer
+         * @throws  IOException if the destination fails
+         */
+        void write(TextBuffer buffer) throws IOException;
+    }
+}
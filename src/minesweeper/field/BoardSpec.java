@@ -0,0 +1,99 @@
+package minesweeper.field;
+
+import java.util.Objects;
+
+/**
+ * Immutable specification of a minesweeper board: its dimensions and the number of mines to place.
+ * <p>
+ * The number of cells of the board (width * height) must fit the lineal value of the coordinates, so cannot be
+ * greater than {@link Integer#MAX_VALUE}. At least one cell must be left free of mines, as the first explored cell can
+ * never be a mine.
+ */
+public final class BoardSpec {
+    /**
+     * Side of the classic square field.
+     */
+    public static final int DEFAULT_SIDE = 9;
+
+    private final int width;
+    private final int height;
+    private final int numberOfMines;
+
+    /**
+     * Sole constructor.
+     *
+     * @param   width         - number of columns
+     * @param   height        - number of rows
+     * @param   numberOfMines - number of mines to place into the field
+     * @throws  IllegalArgumentException if dimensions are not positive, the board is too large, or the number of mines
+     *          does not leave at least one free cell
+     */
+    public BoardSpec(int width, int height, int numberOfMines) {
+        if (width < 1 || height < 1) {
+            throw new IllegalArgumentException(String.format("Invalid board dimensions %d x %d", width, height));
+        }
+        long size = (long) width * height;
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(String.format("Board %d x %d has too many cells", width, height));
+        }
+        if (numberOfMines < 0 || numberOfMines >= size) {
+            String error = String.format("Cannot place %d mines in a board of %d cells", numberOfMines, size);
+            throw new IllegalArgumentException(error);
+        }
+        this.width = width;
+        this.height = height;
+        this.numberOfMines = numberOfMines;
+    }
+
+    /**
+     * Create the specification of the classic square field of side {@link #DEFAULT_SIDE}.
+     *
+     * @param   numberOfMines - number of mines to place into the field
+     * @return  BoardSpec
+     */
+    public static BoardSpec classic(int numberOfMines) {
+        return new BoardSpec(DEFAULT_SIDE, DEFAULT_SIDE, numberOfMines);
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getNumberOfMines() {
+        return numberOfMines;
+    }
+
+    /**
+     * Get the total number of cells of the board.
+     *
+     * @return  int - width * height
+     */
+    public int getSize() {
+        return width * height;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        BoardSpec that = (BoardSpec) o;
+        return width == that.width && height == that.height && numberOfMines == that.numberOfMines;
+    }
+
+    /**
+     * Computed without boxing, unlike {@link Objects#hash(Object...)}: boards are looked up on every game by the pools.
+     */
+    @Override
+    public int hashCode() {
+        return (31 * width + height) * 31 + numberOfMines;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%dx%d/%d", width, height, numberOfMines);
+    }
+}
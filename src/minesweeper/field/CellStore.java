@@ -0,0 +1,51 @@
+package minesweeper.field;
+
+/**
+ * Primitive view over the cells of a field, addressed by the lineal value of their coordinates.
+ * <p>
+ * It exposes the operations needed by the field engines (for example {@link FloodFill}) without creating coordinates
+ * or other objects per cell.
+ */
+interface CellStore {
+    /**
+     * Tests whether the cell is a mine.
+     *
+     * @param   lineal - the lineal value of the cell coordinates
+     * @return  boolean
+     */
+    boolean isMine(int lineal);
+
+    /**
+     * Tests whether the cell has been already explored.
+     *
+     * @param   lineal - the lineal value of the cell coordinates
+     * @return  boolean
+     */
+    boolean isExplored(int lineal);
+
+    /**
+     * Tests whether the cell face value is MARKED.
+     *
+     * @param   lineal - the lineal value of the cell coordinates
+     * @return  boolean
+     */
+    boolean isMarked(int lineal);
+
+    /**
+     * Explores the cell.
+     *
+     * @param   lineal - the lineal value of the cell coordinates
+     * @return  boolean - true if action is performed, false if the cell was already explored.
+     * @see     minesweeper.cell.ICell#explore()
+     */
+    boolean explore(int lineal);
+
+    /**
+     * Marks/unmarks the cell.
+     *
+     * @param   lineal - the lineal value of the cell coordinates
+     * @return  boolean - true if action is performed, false if not allowed.
+     * @see     minesweeper.cell.ICell#mark()
+     */
+    boolean mark(int lineal);
+}
@@ -0,0 +1,464 @@
+package minesweeper.field;
+
+import minesweeper.cell.CellFaceValue;
+import minesweeper.cell.ICoordinates;
+import minesweeper.cell.Neighborhood;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Class representing a minesweeper game field shared by many players, each moving from its own thread.
+ * <p>
+ * Cells take a single byte, encoded as described by {@link PackedCells}, four to an int of an {@link
+ * AtomicIntegerArray}. Every change of a cell is a compare-and-set from the state it was read in, so that two
+ * players can never both open, mark or unmark the same cell: a move whose transition is lost reads the new state and
+ * plays on it. Flood fills need no visited set: a surrounding cell is expanded only by the exploration which opened
+ * it, so overlapping fills share out the cells of a region, each cell being opened exactly once.
+ * <p>
+ * Mines are placed once, by the first move, under a lock; the other players wait for the placement and then never
+ * lock again. Status counters are atomic, and the marks counters are kept in a single word, so that the status is
+ * computed from a consistent pair of counters; they are exact once the moves in progress have returned. Listeners are
+ * called from the thread of the move, and must be thread safe. Plays as {@link Field} for each single move; moves of
+ * different players are applied in the order they reach each cell.
+ */
+public class ConcurrentField implements IField, IFieldView {
+    /**
+     * Increment of {@link #marks} for a correct mark, in its high half; a wrong mark counts 1 in its low half.
+     */
+    private static final long CORRECT_MARK = 1L << 32;
+
+    private static final FieldListener[] NO_LISTENERS = new FieldListener[0];
+
+    private final BoardSpec spec;
+    private final int numberOfMines;
+    private final Neighborhood neighborhood;
+
+    /**
+     * The packed cells, four per int: the cell of lineal value n is byte n % 4 of int n / 4, from the lowest.
+     */
+    private final AtomicIntegerArray cells;
+
+    /**
+     * Flag value: true if the player has not yet interacted with the field. Written once, under {@link #placement}.
+     */
+    private volatile boolean pristine = true;
+    private final Object placement = new Object();
+    private final MinePlacer minePlacer;
+
+    /**
+     * Number of marked mines in the high half, number of marked cells which are not mines in the low half.
+     */
+    private final AtomicLong marks = new AtomicLong();
+    private final AtomicInteger revealedMines = new AtomicInteger();
+    private final AtomicInteger revealedSafe = new AtomicInteger();
+
+    private volatile FieldListener[] listeners = NO_LISTENERS;
+
+    /**
+     * Work queue and counter of the explorations of each thread.
+     */
+    private final ThreadLocal<Exploration> explorations = ThreadLocal.withInitial(Exploration::new);
+
+    /**
+     * Class constructor.
+     *
+     * @param   spec       - dimensions and number of mines of the field
+     * @param   minePlacer - engine choosing the cells which contain mines
+     */
+    public ConcurrentField(BoardSpec spec, MinePlacer minePlacer) {
+        this.spec = spec;
+        this.numberOfMines = spec.getNumberOfMines();
+        this.neighborhood = Neighborhood.of(spec.getWidth(), spec.getHeight());
+        this.cells = new AtomicIntegerArray((int) ((spec.getSize() + 3L) >>> 2));
+        this.minePlacer = minePlacer;
+    }
+
+    /**
+     * Class constructor, creating a reproducible field: the same seed and first explored cell give the same mines.
+     *
+     * @param   spec - dimensions and number of mines of the field
+     * @param   seed - the seed of the random generator placing mines
+     */
+    public ConcurrentField(BoardSpec spec, long seed) {
+        this(spec, new MinePlacer(seed));
+    }
+
+    /**
+     * Class constructor, creating a field with randomly placed mines.
+     *
+     * @param   spec - dimensions and number of mines of the field
+     */
+    public ConcurrentField(BoardSpec spec) {
+        this(spec, new MinePlacer(new SplittableRandom()));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BoardSpec getBoardSpec() {
+        return spec;
+    }
+
+    /**
+     * Get the number of explored cells which are not mines.
+     *
+     * @return  int
+     */
+    public int getRevealedSafe() {
+        return revealedSafe.get();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CellFaceValue getFaceValue(int lineal) {
+        return PackedCells.getFaceValue(getState(lineal));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void addListener(FieldListener listener) {
+        synchronized (placement) {
+            FieldListener[] more = Arrays.copyOf(listeners, listeners.length + 1);
+            more[more.length - 1] = listener;
+            listeners = more;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void removeListener(FieldListener listener) {
+        synchronized (placement) {
+            for (int i = 0; i < listeners.length; i++) {
+                if (listeners[i] == listener) {
+                    FieldListener[] remaining = new FieldListener[listeners.length - 1];
+                    System.arraycopy(listeners, 0, remaining, 0, i);
+                    System.arraycopy(listeners, i + 1, remaining, i, remaining.length - i);
+                    listeners = remaining;
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * If the player explore for the first time, place mines into the field, but the first cell explored cannot be a
+     * mine.
+     */
+    @Override
+    public boolean explore(ICoordinates coordinates) {
+        int lineal = toLineal(coordinates);
+        leavePristine(lineal);
+        Exploration exploration = explorations.get();
+        exploration.opened = 0;
+
+        boolean result = false;
+        for (int state = getState(lineal); !PackedCells.isExplored(state); state = getState(lineal)) {
+            int explored = state | PackedCells.EXPLORED;
+            if (compareAndSet(lineal, state, explored)) {
+                result = true;
+                if (PackedCells.isMine(state)) {
+                    revealedMines.incrementAndGet();
+                } else {
+                    exploration.opened++;
+                }
+                changed(lineal, state, explored);
+                break;
+            }
+        }
+
+        int tail = 0;
+        if (noneIsMine(lineal)) {
+            exploration.queue[tail++] = lineal;
+        }
+        while (tail > 0) {
+            int current = exploration.queue[--tail];
+            int shape = neighborhood.shapeOf(current);
+            for (int k = 0; k < neighborhood.size(shape); k++) {
+                int neighbor = neighborhood.neighbor(current, shape, k);
+                if (open(neighbor, exploration) && noneIsMine(neighbor)) {
+                    if (tail == exploration.queue.length) {
+                        exploration.queue = Arrays.copyOf(exploration.queue, 2 * tail);
+                    }
+                    exploration.queue[tail++] = neighbor;
+                }
+            }
+        }
+        revealedSafe.addAndGet(exploration.opened);
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean toggleMarkedCell(ICoordinates coordinates) {
+        int lineal = toLineal(coordinates);
+        leavePristine(lineal);
+        return mark(lineal);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * All coordinates are validated before any cell is changed. Other players may change cells between two marks.
+     */
+    @Override
+    public boolean[] toggleMarkedCells(List<? extends ICoordinates> coordinates) {
+        int[] toMark = new int[coordinates.size()];
+        for (int i = 0; i < toMark.length; i++) {
+            toMark[i] = toLineal(coordinates.get(i));
+        }
+        if (toMark.length > 0) {
+            leavePristine(toMark[0]);
+        }
+
+        boolean[] results = new boolean[toMark.length];
+        for (int i = 0; i < toMark.length; i++) {
+            results[i] = mark(toMark[i]);
+        }
+        return results;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The status is computed in constant time from atomic counters, updated by every move once its cells are changed.
+     */
+    @Override
+    public FieldStatus getFieldStatus() {
+        long marked = marks.get();
+        if (marked == (long) numberOfMines * CORRECT_MARK) {
+            return FieldStatus.WIN;
+        }
+        if (revealedMines.get() > 0) {
+            return FieldStatus.LOSS;
+        }
+        return FieldStatus.PENDING;
+    }
+
+    /**
+     * Capture the state of the cells, as {@link AbstractField#captureState()}. Moves played while capturing may be
+     * captured only in part.
+     *
+     * @return  FieldState
+     */
+    public FieldState captureState() {
+        long[] mines = new long[FieldState.words(spec.getSize())];
+        long[] explored = new long[mines.length];
+        long[] marked = new long[mines.length];
+        for (int lineal = 0; lineal < spec.getSize(); lineal++) {
+            int state = getState(lineal);
+            long bit = 1L << lineal;
+            if (PackedCells.isMine(state)) {
+                mines[lineal >>> 6] |= bit;
+            }
+            if (PackedCells.isExplored(state)) {
+                explored[lineal >>> 6] |= bit;
+            }
+            if (PackedCells.isMarked(state)) {
+                marked[lineal >>> 6] |= bit;
+            }
+        }
+        return new FieldState(spec, pristine, mines, explored, marked);
+    }
+
+    /**
+     * Render the whole field, with row and column numbers, as {@link AbstractField#toString()}.
+     */
+    @Override
+    public String toString() {
+        BoardLayout layout = new BoardLayout(spec.getWidth(), spec.getHeight());
+        TextBuffer buffer = new TextBuffer((spec.getWidth() + 2 * layout.getColumnOffset()) * (spec.getHeight() + 4));
+        layout.appendWindow(buffer, this, 0, 0, spec.getWidth(), spec.getHeight(),
+                System.getProperty("line.separator"));
+        return buffer.toString();
+    }
+
+    /**
+     * Open a cell reached by a flood fill, as {@link FloodFill}: a cell which is neither a mine, explored nor marked
+     * is explored, a marked cell which is not a mine is unmarked and explored.
+     *
+     * @param   lineal      - the lineal value of the cell
+     * @param   exploration - the running exploration, counting the explored cells
+     * @return  boolean - true if the cell has been opened by this call, and its surroundings are to be visited
+     */
+    private boolean open(int lineal, Exploration exploration) {
+        while (true) {
+            int state = getState(lineal);
+            if (PackedCells.isMine(state)) {
+                return false;
+            }
+            int opened;
+            if (PackedCells.isMarked(state)) {
+                opened = state & ~PackedCells.MARKED | PackedCells.EXPLORED;
+            } else if (!PackedCells.isExplored(state)) {
+                opened = state | PackedCells.EXPLORED;
+            } else {
+                return false;
+            }
+            if (compareAndSet(lineal, state, opened)) {
+                // a marked cell already explored is only unmarked
+                if (!PackedCells.isExplored(state)) {
+                    exploration.opened++;
+                }
+                changed(lineal, state, opened);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Mark or unmark a cell, as {@link minesweeper.cell.ICell#mark()}.
+     *
+     * @param   lineal - the lineal value of the cell
+     * @return  boolean - true if action is performed, false if not allowed
+     */
+    private boolean mark(int lineal) {
+        while (true) {
+            int state = getState(lineal);
+            if (!PackedCells.isMarkable(state)) {
+                return false;
+            }
+            if (compareAndSet(lineal, state, state ^ PackedCells.MARKED)) {
+                changed(lineal, state, state ^ PackedCells.MARKED);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Update the marks counters after a change of a cell, and notify the listeners.
+     *
+     * @param   lineal - the lineal value of the changed cell
+     * @param   before - the state before the change
+     * @param   after  - the state after the change
+     */
+    private void changed(int lineal, int before, int after) {
+        boolean markedBefore = PackedCells.isMarked(before);
+        if (markedBefore != PackedCells.isMarked(after)) {
+            long delta = PackedCells.isMine(before) ? CORRECT_MARK : 1;
+            marks.addAndGet(markedBefore ? -delta : delta);
+        }
+        for (FieldListener listener : listeners) {
+            listener.cellChanged(lineal);
+        }
+    }
+
+    /**
+     * Tests whether none of the surrounding cells is a mine.
+     */
+    private boolean noneIsMine(int lineal) {
+        int shape = neighborhood.shapeOf(lineal);
+        for (int k = 0; k < neighborhood.size(shape); k++) {
+            if (PackedCells.isMine(getState(neighborhood.neighbor(lineal, shape, k)))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Place the mines, if nobody has yet interacted with the field. Moves arriving during the placement wait for it.
+     *
+     * @param   safeLineal - lineal value of the cell that must be left without mines.
+     */
+    private void leavePristine(int safeLineal) {
+        if (!pristine) {
+            return;
+        }
+        synchronized (placement) {
+            if (pristine) {
+                for (int index : minePlacer.place(neighborhood, numberOfMines, safeLineal)) {
+                    int shape = neighborhood.shapeOf(index);
+                    for (int k = 0; k < neighborhood.size(shape); k++) {
+                        int neighbor = neighborhood.neighbor(index, shape, k);
+                        int state = getState(neighbor);
+                        if (!PackedCells.isMine(state)) {
+                            setState(neighbor, state + 1);
+                        }
+                    }
+                    setState(index, getState(index) & ~PackedCells.VALUE | PackedCells.MINE);
+                }
+                // the volatile write publishes the mines to the players reading the flag
+                pristine = false;
+            }
+        }
+    }
+
+    /**
+     * Get the validated lineal value of coordinates, computed with the width of the field as {@link
+     * AbstractField#toLineal(ICoordinates)}.
+     */
+    private int toLineal(ICoordinates coordinates) {
+        long x = coordinates.getX();
+        long y = coordinates.getY();
+        if (x < 0 || y < 0 || x >= spec.getWidth() || y >= spec.getHeight()) {
+            throw new IllegalArgumentException("Coordinates not found: " + coordinates);
+        }
+        return (int) y * spec.getWidth() + (int) x;
+    }
+
+    private int getState(int lineal) {
+        return (cells.get(lineal >>> 2) >>> ((lineal & 3) << 3)) & 0xFF;
+    }
+
+    /**
+     * Set the state of a cell, for the placement of the mines only: other cells of the word may not change meanwhile.
+     */
+    private void setState(int lineal, int state) {
+        int shift = (lineal & 3) << 3;
+        int word = cells.get(lineal >>> 2);
+        cells.set(lineal >>> 2, word & ~(0xFF << shift) | state << shift);
+    }
+
+    /**
+     * Change the state of a cell if it is still the expected one, whatever the changes of the other cells of its word.
+     *
+     * @param   lineal   - the lineal value of the cell
+     * @param   expected - the state read before
+     * @param   state    - the new state
+     * @return  boolean - false if the cell has been changed by another player since it was read
+     */
+    private boolean compareAndSet(int lineal, int expected, int state) {
+        int index = lineal >>> 2;
+        int shift = (lineal & 3) << 3;
+        while (true) {
+            int word = cells.get(index);
+            if (((word >>> shift) & 0xFF) != expected) {
+                return false;
+            }
+            if (cells.compareAndSet(index, word, word & ~(0xFF << shift) | state << shift)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Reusable state of the explorations of a thread.
+     */
+    private static final class Exploration {
+        /**
+         * Cells opened by the running exploration whose surroundings are still to be visited.
+         */
+        int[] queue = new int[64];
+
+        /**
+         * Number of cells, not mines, explored by the running exploration.
+         */
+        int opened;
+    }
+}
@@ -0,0 +1,476 @@
+package minesweeper.field;
+
+import minesweeper.cell.IPlaneCoordinates;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Class representing an endless minesweeper game field, without bounds in any direction.
+ * <p>
+ * The field is split into square chunks of {@link #CHUNK_SIDE} cells per side, created on first touch: chunks nobody
+ * has played cost no memory. Whether a cell is a mine is derived from the seed and the cell coordinates only, so the
+ * mines of a chunk do not depend on the order chunks are created, and the same seed always gives the same field. Each
+ * cell is a mine with the given density, except the first explored cell and its neighbors.
+ * <p>
+ * Cells are stored as described by {@link PackedCells}, and follow the same explore and mark rules of {@link Field}.
+ * Exploration crosses chunk boundaries; as on a sparse endless field the region without mines around a cell may be
+ * unbounded, a single exploration opens at most a given number of cells. An endless field cannot be won: its status is
+ * LOSS once a mine is explored, PENDING otherwise.
+ */
+public class EndlessField implements IPlaneField {
+    /**
+     * Side of the chunks, as power of 2.
+     */
+    static final int CHUNK_SHIFT = 6;
+    static final int CHUNK_SIDE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIDE - 1;
+
+    /**
+     * Default maximum number of cells opened by a single exploration.
+     */
+    public static final int DEFAULT_MAX_OPENING = 1 << 22;
+
+    /**
+     * Maximum number of columns and of rows rendered by {@link #toString()}.
+     */
+    static final int MAX_RENDERED_SIDE = 1 << 10;
+
+    /**
+     * Flag set on the cells queued by the running exploration, besides the {@link PackedCells} bits.
+     */
+    private static final int VISITED = 0x40;
+    private static final int STATE = PackedCells.STATES - 1;
+
+    private final long seed;
+
+    /**
+     * Probability of a cell to be a mine, as a fraction of 2^53.
+     */
+    private final long threshold;
+
+    private final int maxOpening;
+
+    /**
+     * Created chunks, by key (see {@link #chunkKey(long, long)}).
+     */
+    private final Map<Long, byte[]> chunks = new HashMap<>();
+
+    /**
+     * Cache of the last chunk accessed, as most accesses are in the same chunk.
+     */
+    private long lastKey;
+    private byte[] lastChunk;
+
+    /**
+     * Flag value: true if the player has not yet interacted with the field.
+     */
+    private boolean pristine = true;
+
+    /**
+     * The first explored cell, center of the area without mines.
+     */
+    private long safeX;
+    private long safeY;
+
+    private int revealedMines;
+    private long revealedSafe;
+
+    /**
+     * Cells to be visited by the running exploration, as pairs of x and y.
+     */
+    private long[] queue = new long[128];
+
+    /**
+     * Class constructor.
+     *
+     * @param   density    - probability of each cell to be a mine, between 0 (excluded) and 1 (excluded)
+     * @param   seed       - the seed from which mines are derived
+     * @param   maxOpening - maximum number of cells opened by a single exploration
+     */
+    public EndlessField(double density, long seed, int maxOpening) {
+        if (!(density > 0 && density < 1)) {
+            throw new IllegalArgumentException("Mine density must be between 0 and 1: " + density);
+        }
+        if (maxOpening < 1) {
+            throw new IllegalArgumentException("Invalid maximum opening: " + maxOpening);
+        }
+        this.seed = seed;
+        this.threshold = (long) (density * (1L << 53));
+        this.maxOpening = maxOpening;
+    }
+
+    /**
+     * Class constructor, opening at most {@link #DEFAULT_MAX_OPENING} cells per exploration.
+     *
+     * @param   density - probability of each cell to be a mine, between 0 (excluded) and 1 (excluded)
+     * @param   seed    - the seed from which mines are derived
+     */
+    public EndlessField(double density, long seed) {
+        this(density, seed, DEFAULT_MAX_OPENING);
+    }
+
+    /**
+     * Get the number of chunks created so far.
+     *
+     * @return  int
+     */
+    public int getChunkCount() {
+        return chunks.size();
+    }
+
+    /**
+     * Get the number of explored cells which are not mines.
+     *
+     * @return  long
+     */
+    public long getRevealedSafe() {
+        return revealedSafe;
+    }
+
+    /**
+     * Tests whether a cell is a mine, without creating its chunk.
+     *
+     * @param   x - the column
+     * @param   y - the row
+     * @return  boolean
+     */
+    private boolean isMineAt(long x, long y) {
+        if (!pristine && Math.abs(x - safeX) <= 1 && Math.abs(y - safeY) <= 1) {
+            return false;
+        }
+        long hash = seed + x * 0x9E3779B97F4A7C15L + y * 0xC2B2AE3D27D4EB4FL;
+        hash = (hash ^ (hash >>> 30)) * 0xBF58476D1CE4E5B9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94D049BB133111EBL;
+        hash = hash ^ (hash >>> 31);
+        return (hash >>> 11) < threshold;
+    }
+
+    /**
+     * Get the chunk containing a cell, creating it if needed.
+     *
+     * @param   x - the column
+     * @param   y - the row
+     * @return  byte[] - the cells of the chunk, row by row
+     * @throws  IllegalArgumentException if the cell is too far from the origin
+     */
+    private byte[] chunk(long x, long y) {
+        long key = chunkKey(x, y);
+        if (lastChunk != null && key == lastKey) {
+            return lastChunk;
+        }
+        byte[] chunk = chunks.get(key);
+        if (chunk == null) {
+            chunk = createChunk(x & ~CHUNK_MASK, y & ~CHUNK_MASK);
+            chunks.put(key, chunk);
+        }
+        lastKey = key;
+        lastChunk = chunk;
+        return chunk;
+    }
+
+    /**
+     * Get the key of the chunk containing a cell: the chunk coordinates packed into a long.
+     *
+     * @param   x - the column
+     * @param   y - the row
+     * @return  long - the key
+     * @throws  IllegalArgumentException if the cell is too far from the origin
+     */
+    private static long chunkKey(long x, long y) {
+        long chunkX = x >> CHUNK_SHIFT;
+        long chunkY = y >> CHUNK_SHIFT;
+        if (chunkX != (int) chunkX || chunkY != (int) chunkY) {
+            throw new IllegalArgumentException(String.format("Coordinates too far: %d %d", x, y));
+        }
+        return chunkX << 32 | (chunkY & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Create a chunk, computing its mines and the numeric values of its cells.
+     *
+     * @param   left - the column of the first cell of the chunk
+     * @param   top  - the row of the first cell of the chunk
+     * @return  byte[] - the cells of the chunk, row by row
+     */
+    private byte[] createChunk(long left, long top) {
+        byte[] chunk = new byte[CHUNK_SIDE * CHUNK_SIDE];
+        for (int i = 0; i < CHUNK_SIDE; i++) {
+            for (int j = 0; j < CHUNK_SIDE; j++) {
+                long x = left + j;
+                long y = top + i;
+                chunk[i << CHUNK_SHIFT | j] = (byte) (isMineAt(x, y) ? PackedCells.MINE : countMines(x, y));
+            }
+        }
+        return chunk;
+    }
+
+    /**
+     * Count the mines around a cell.
+     */
+    private int countMines(long x, long y) {
+        int count = 0;
+        for (long i = y - 1; i <= y + 1; i++) {
+            for (long j = x - 1; j <= x + 1; j++) {
+                if ((i != y || j != x) && isMineAt(j, i)) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    private static int index(long x, long y) {
+        return (int) ((y & CHUNK_MASK) << CHUNK_SHIFT | (x & CHUNK_MASK));
+    }
+
+    /**
+     * Get the state of a cell, see {@link PackedCells}.
+     */
+    private int getState(long x, long y) {
+        return chunk(x, y)[index(x, y)] & STATE;
+    }
+
+    /**
+     * Set the state of a cell, see {@link PackedCells}, keeping the visited flag.
+     */
+    private void setState(long x, long y, int state) {
+        byte[] chunk = chunk(x, y);
+        int index = index(x, y);
+        chunk[index] = (byte) (state | chunk[index] & VISITED);
+    }
+
+    /**
+     * Validate the coordinates and, if the player has not yet interacted with the field, set the area without mines.
+     *
+     * @param   coordinates - the coordinates of the first cell the player interacts with
+     * @throws  IllegalArgumentException if the cell is too far from the origin
+     */
+    private void leavePristine(IPlaneCoordinates coordinates) {
+        chunkKey(coordinates.getX(), coordinates.getY());
+        if (pristine) {
+            safeX = coordinates.getX();
+            safeY = coordinates.getY();
+        }
+        pristine = false;
+    }
+
+    /**
+     * Explore a cell, as {@link minesweeper.cell.ICell#explore()}.
+     */
+    private boolean exploreCell(long x, long y) {
+        int state = getState(x, y);
+        if (PackedCells.isExplored(state)) {
+            return false;
+        }
+        setState(x, y, state | PackedCells.EXPLORED);
+        if (PackedCells.isMine(state)) {
+            revealedMines++;
+        } else {
+            revealedSafe++;
+        }
+        return true;
+    }
+
+    /**
+     * Mark or unmark a cell, as {@link minesweeper.cell.ICell#mark()}.
+     */
+    private boolean markCell(long x, long y) {
+        int state = getState(x, y);
+        if (!PackedCells.isMarkable(state)) {
+            return false;
+        }
+        setState(x, y, state ^ PackedCells.MARKED);
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean toggleMarkedCell(IPlaneCoordinates coordinates) {
+        leavePristine(coordinates);
+        return markCell(coordinates.getX(), coordinates.getY());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean[] toggleMarkedCells(List<? extends IPlaneCoordinates> coordinates) {
+        for (IPlaneCoordinates cell : coordinates) {
+            chunkKey(cell.getX(), cell.getY());
+        }
+        boolean[] results = new boolean[coordinates.size()];
+        for (int i = 0; i < results.length; i++) {
+            results[i] = toggleMarkedCell(coordinates.get(i));
+        }
+        return results;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The first explored cell and its neighbors are never mines. Same rules of {@link FloodFill}, but at most the given
+     * maximum number of surrounding cells is visited.
+     */
+    @Override
+    public boolean explore(IPlaneCoordinates coordinates) {
+        leavePristine(coordinates);
+        long x = coordinates.getX();
+        long y = coordinates.getY();
+        boolean result = exploreCell(x, y);
+        int tail = 0;
+        if (noneIsMine(x, y)) {
+            tail = enqueueSurrounding(x, y, tail);
+        }
+
+        for (int head = 0; head < tail; head += 2) {
+            long currentX = queue[head];
+            long currentY = queue[head + 1];
+            if (visit(currentX, currentY) && noneIsMine(currentX, currentY)) {
+                tail = enqueueSurrounding(currentX, currentY, tail);
+            }
+        }
+
+        for (int i = 0; i < tail; i += 2) {
+            byte[] chunk = chunk(queue[i], queue[i + 1]);
+            chunk[index(queue[i], queue[i + 1])] &= ~VISITED;
+        }
+        return result;
+    }
+
+    /**
+     * Explore a cell reached automatically, as {@link FloodFill}.
+     *
+     * @return  boolean - true if the cell has been explored by this visit, and its surroundings are to be visited.
+     */
+    private boolean visit(long x, long y) {
+        int state = getState(x, y);
+        if (PackedCells.isMine(state)) {
+            return false;
+        }
+        if (!PackedCells.isExplored(state) && !PackedCells.isMarked(state)) {
+            exploreCell(x, y);
+            return true;
+        }
+        if (PackedCells.isMarked(state)) {
+            markCell(x, y);
+            exploreCell(x, y);
+            return true;
+        }
+        return false;
+    }
+
+    private boolean noneIsMine(long x, long y) {
+        int state = getState(x, y);
+        if (!PackedCells.isMine(state)) {
+            return PackedCells.getValue(state) == 0;
+        }
+        return countMines(x, y) == 0;
+    }
+
+    /**
+     * Add the not yet visited surrounding cells to the queue, unless the maximum opening is reached.
+     *
+     * @return  int - the new queue length
+     */
+    private int enqueueSurrounding(long x, long y, int tail) {
+        for (long i = y - 1; i <= y + 1; i++) {
+            for (long j = x - 1; j <= x + 1; j++) {
+                if (i == y && j == x || tail >= 2 * maxOpening) {
+                    continue;
+                }
+                byte[] chunk = chunk(j, i);
+                int index = index(j, i);
+                if ((chunk[index] & VISITED) == 0) {
+                    chunk[index] |= VISITED;
+                    if (tail == queue.length) {
+                        queue = Arrays.copyOf(queue, 2 * queue.length);
+                    }
+                    queue[tail++] = j;
+                    queue[tail++] = i;
+                }
+            }
+        }
+        return tail;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * An endless field cannot be won.
+     */
+    @Override
+    public FieldStatus getFieldStatus() {
+        return revealedMines > 0 ? FieldStatus.LOSS : FieldStatus.PENDING;
+    }
+
+    /**
+     * Render a rectangular window of the field, one line per row. Cells of chunks not yet created are rendered as
+     * BLANK, without creating their chunk.
+     *
+     * @param   left    - the column of the first rendered cell
+     * @param   top     - the row of the first rendered cell
+     * @param   columns - the number of columns to render
+     * @param   rows    - the number of rows to render
+     * @return  String
+     */
+    public String render(long left, long top, int columns, int rows) {
+        String newLine = System.getProperty("line.separator");
+        StringBuilder stringBuilder = new StringBuilder();
+        for (long y = top; y < top + rows; y++) {
+            for (long x = left; x < left + columns; x++) {
+                byte[] chunk = chunks.get(chunkKey(x, y));
+                int state = chunk == null ? 0 : chunk[index(x, y)] & STATE;
+                stringBuilder.append(PackedCells.getFaceValue(state));
+            }
+            stringBuilder.append(newLine);
+        }
+        return stringBuilder.toString();
+    }
+
+    /**
+     * Render the smallest window containing all created chunks, see {@link #render(long, long, int, int)}. As chunks
+     * may be created anywhere, a window wider or higher than {@link #MAX_RENDERED_SIDE} cells is clipped to that size,
+     * around the first explored cell.
+     */
+    @Override
+    public String toString() {
+        if (chunks.isEmpty()) {
+            return "";
+        }
+        long minX = Long.MAX_VALUE, minY = Long.MAX_VALUE, maxX = Long.MIN_VALUE, maxY = Long.MIN_VALUE;
+        for (long key : chunks.keySet()) {
+            long chunkX = key >> 32;
+            long chunkY = (int) key;
+            minX = Math.min(minX, chunkX);
+            maxX = Math.max(maxX, chunkX);
+            minY = Math.min(minY, chunkY);
+            maxY = Math.max(maxY, chunkY);
+        }
+        long left = clip(minX << CHUNK_SHIFT, (maxX + 1) << CHUNK_SHIFT, safeX);
+        long top = clip(minY << CHUNK_SHIFT, (maxY + 1) << CHUNK_SHIFT, safeY);
+        int columns = (int) Math.min((maxX + 1 - minX) << CHUNK_SHIFT, MAX_RENDERED_SIDE);
+        int rows = (int) Math.min((maxY + 1 - minY) << CHUNK_SHIFT, MAX_RENDERED_SIDE);
+        return render(left, top, columns, rows);
+    }
+
+    /**
+     * Get the start of a rendered range of at most {@link #MAX_RENDERED_SIDE} cells within bounds, centered on a cell
+     * as far as the bounds allow.
+     *
+     * @param   from   - the first cell of the bounds
+     * @param   to     - the end of the bounds, excluded
+     * @param   center - the cell to center the range on
+     * @return  long - the first rendered cell
+     */
+    private static long clip(long from, long to, long center) {
+        if (to - from <= MAX_RENDERED_SIDE) {
+            return from;
+        }
+        return Math.max(from, Math.min(center - MAX_RENDERED_SIDE / 2, to - MAX_RENDERED_SIDE));
+    }
+}
@@ -2,222 +2,116 @@ package minesweeper.field;
 
 import minesweeper.cell.*;
 
-import java.util.Arrays;
-import java.util.List;
-import java.util.Random;
+import java.util.SplittableRandom;
 
 
 /**
- * Class representing a minesweeper game field.
+ * Class representing a minesweeper game field, each cell being a {@link Cell} object.
  */
-public class Field implements IField {
-    /**
-     * Dimension of the field (square shape).
-     */
-    private static final int side = 9;
-
+public class Field extends AbstractField {
     /**
      * The cells of the field, to be accessed by lineal value of corresponding coordinates.
      */
-    private final ICell[] cells = new Cell[side * side];
+    private final ICell[] cells;
 
     /**
-     * Lineal values of the cells coordinates which contain mines.
-     */
-    private int[] indexOfMines;
-
-    /**
-     * Total number of mines in the field.
-     */
-    private final int numberOfMines;
-
-    /**
-     * Flag value: true if the player has not yet interacted with the field.
+     * Class constructor.
+     *
+     * @param   spec       - dimensions and number of mines of the field
+     * @param   minePlacer - engine choosing the cells which contain mines
      */
-    private boolean pristine = true;
-
-    {
-        for (int i = 0; i < side * side; i++) {
-            ICoordinates coordinates = new Coordinates(i);
+    public Field(BoardSpec spec, MinePlacer minePlacer) {
+        super(spec, minePlacer);
+        this.cells = new Cell[spec.getSize()];
+        for (int i = 0; i < cells.length; i++) {
+            ICoordinates coordinates = new Coordinates(i, width);
             cells[i] = new Cell(coordinates);
         }
     }
 
     /**
-     * Sole constructor.
+     * Class constructor, creating a reproducible field: the same seed and first explored cell give the same mines.
      *
-     * @param   numberOfMines - number of mines for the field
+     * @param   spec - dimensions and number of mines of the field
+     * @param   seed - the seed of the random generator placing mines
      */
-    public Field(int numberOfMines) {
-        this.numberOfMines = numberOfMines;
+    public Field(BoardSpec spec, long seed) {
+        this(spec, new MinePlacer(seed));
     }
 
     /**
-     * Given a cell with mines, update CellValue of surrounding cells, by adding 1 to numeric value.
-     * <p>
-     * For example if the cell (1, 1) is given, and the cell (1, 0) is of value 4, it shall be updated to 5.
+     * Class constructor, creating a field with randomly placed mines.
      *
-     * @param number - the lineal value of coordinates
+     * @param   spec - dimensions and number of mines of the field
      */
-    private void updateCellNumber(int number) {
-        ICell cell = cells[number];
-        if (!cell.isMine()) {
-            CellValue newValue = cell.getValue().getNext();
-            cell.setValue(newValue);
-        }
+    public Field(BoardSpec spec) {
+        this(spec, new MinePlacer(new SplittableRandom()));
     }
 
     /**
-     * Place field mines. The total number of mines is {@link #numberOfMines}. This function accept a coordinate that
-     * shall be kept without mines.
+     * Class constructor, creating a classic square field.
      *
-     * @param      safeCoordinates - coordinates (ICoordinates) of cell that must be left without mines.
-     * @throws     IllegalStateException if field is not pristine. This function should only be called before the any
-     *             cell has been explored.
+     * @param   numberOfMines - number of mines for the field
+     * @see     BoardSpec#classic(int)
      */
-    private void placeMines(ICoordinates safeCoordinates) {
-        if (!pristine) {
-            throw new IllegalStateException("Cannot place mines when field is no longer pristine");
-        }
-
-        indexOfMines = new Random()
-                .ints(0, side * side)
-                .filter(x -> safeCoordinates.getLineal() != x)
-                .distinct()
-                .limit(numberOfMines)
-                .sorted()
-                .toArray();
-
-        for (int index : indexOfMines) {
-            List<Integer> toUpdate = Coordinates.getSurrounding(index);
-            for (Integer i : toUpdate) {
-                updateCellNumber(i);
-            }
-            cells[index].setValue(CellValue.MINE);
-        }
+    public Field(int numberOfMines) {
+        this(BoardSpec.classic(numberOfMines));
     }
 
     @Override
-    public String toString() {
-        String newLine = System.getProperty("line.separator");
-
-        StringBuilder stringBuilder = new StringBuilder();
-
-        // header
-        stringBuilder.append(" |123456789|")
-                .append(newLine)
-                .append("-|---------|")
-                .append(newLine);
-
-        // body
-        for (int i = 0; i < side; i++) {
-            stringBuilder.append(i + 1).append("|");
-            for (int j = 0; j < side; j++) {
-                int index = j * side + i;
-                stringBuilder.append(cells[index]);
-
-            }
-            stringBuilder.append("|")
-                    .append(newLine);
-        }
+    boolean isMine(int lineal) {
+        return cells[lineal].isMine();
+    }
 
-        // footer
-        stringBuilder.append("-|---------|");
+    @Override
+    boolean isExplored(int lineal) {
+        return cells[lineal].isExplored();
+    }
 
-        return stringBuilder.toString();
+    @Override
+    boolean isMarked(int lineal) {
+        return cells[lineal].isMarked();
     }
 
-    /**
-     * {@inheritDoc}
-     */
     @Override
-    public boolean toggleMarkedCell(ICoordinates coordinates) {
-        if (pristine) {
-            placeMines(coordinates);
-        }
-        pristine = false;
-        for (ICell cell : cells) {
-            if (cell.getCoordinates().equals(coordinates)) {
-                return cell.mark();
-            }
-        }
-        throw new IllegalArgumentException("Coordinates not found: " + coordinates);
+    public CellFaceValue getFaceValue(int lineal) {
+        return cells[lineal].getFaceValue();
     }
 
-    /**
-     * Given a coordinates (ICoordinates) return corresponding field cell.
-     *
-     * @param   coordinates - the coordinate of cell to be fetched.
-     * @return  ICell - the corresponding cell.
-     */
-    private ICell getCell(ICoordinates coordinates) {
-        return cells[coordinates.getLineal()];
+    @Override
+    boolean exploreCell(int lineal) {
+        return cells[lineal].explore();
     }
 
-    /**
-     * Explore given cell. If no adjacent cell is a mine, calls itself with each of these cell.
-     *
-     * @param   coordinates - the coordinates (ICoordinates) of the cell to be explored
-     * @param   first       - whether the cell to be explored was chosen by player, and not explored automatically.
-     * @return  boolean - the result of first exploration: true if action is performed, false if the action is not
-     *          allowed, because cell already explored.
-     */
-    private boolean exploreWithSurrounding(ICoordinates coordinates, boolean first) {
-        List<Integer> toUpdate = Coordinates.getSurrounding(coordinates);
-        boolean noneIsMine = toUpdate.stream().allMatch(lineal -> cells[lineal].getValue() != CellValue.MINE);
-        ICell currentCell = getCell(coordinates);
-        boolean result = false;
-        if (first || (!currentCell.isMine() && !currentCell.isExplored()) && !currentCell.isMarked()) {
-            result = currentCell.explore();
-            if (noneIsMine) {
-                toUpdate.forEach(lineal -> exploreWithSurrounding(new Coordinates(lineal), false));
-            }
-        }
-        if (!first && currentCell.isMarked() && !currentCell.isMine()) {
-            currentCell.mark();
-            currentCell.explore();
-            if (noneIsMine) {
-                toUpdate.forEach(lineal -> exploreWithSurrounding(new Coordinates(lineal), false));
-            }
-        }
-        return result;
+    @Override
+    boolean markCell(int lineal) {
+        return cells[lineal].mark();
     }
 
     /**
-     * {@inheritDoc}
+     * Given a cell next to a mine, update its CellValue by adding 1 to numeric value.
+     * <p>
+     * For example if the cell (1, 0) is of value 4, it shall be updated to 5.
      *
-     * If the player explore for the first time, place mines into the field, but the first cell explored cannot be a
-     * mine.
+     * @param lineal - the lineal value of coordinates
      */
     @Override
-    public boolean explore(ICoordinates coordinates) {
-        if (pristine) {
-            placeMines(coordinates);
-        }
-        pristine = false;
-        return exploreWithSurrounding(coordinates, true);
+    void incrementNumber(int lineal) {
+        ICell cell = cells[lineal];
+        CellValue newValue = cell.getValue().getNext();
+        cell.setValue(newValue);
     }
 
-    /**
-     * {@inheritDoc}
-     */
     @Override
-    public FieldStatus getFieldStatus() {
-        // If all and only the real mine are marked by the player, he won
-        int markedTotal = Arrays.stream(cells).mapToInt(a -> a.getFaceValue() == CellFaceValue.MARKED ? 1 : 0).sum();
-        boolean allMinesMarked = Arrays.stream(indexOfMines).allMatch(x -> cells[x].isMarked());
-        if (markedTotal == numberOfMines && allMinesMarked) {
-            return FieldStatus.WIN;
-        }
-
-        // If at least one discovered field is MINE, player lost
-        boolean oneIsMine = Arrays.stream(cells).anyMatch(cell -> cell.getFaceValue() == CellFaceValue.MINE);
-        if (oneIsMine) {
-            return FieldStatus.LOSS;
+    void clearCells() {
+        for (ICell cell : cells) {
+            cell.reset();
         }
+    }
 
-        // the game continue
-        return FieldStatus.PENDING;
+    @Override
+    void setMine(int lineal) {
+        cells[lineal].setValue(CellValue.MINE);
     }
 
 }
@@ -0,0 +1,15 @@
+package minesweeper.field;
+
+/**
+ * Listener of the changes of the cells of a field.
+ *
+ * @see IFieldView#addListener(FieldListener)
+ */
+public interface FieldListener {
+    /**
+     * Called after a cell has been explored, marked or unmarked.
+     *
+     * @param   lineal - the lineal value of the changed cell coordinates
+     */
+    void cellChanged(int lineal);
+}
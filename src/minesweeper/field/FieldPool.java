@@ -0,0 +1,96 @@
+package minesweeper.field;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Pool of fields, keyed by board, so that high volume simulations and servers start new games without allocating.
+ * <p>
+ * A field taken from the pool is {@link AbstractField#reset(long) reset} in place; a new field is created only when no
+ * field of the board is idle. Each board keeps a bounded queue of idle fields, backed by an array: once the fields
+ * are created, acquiring and releasing them allocates nothing. Thread safe, but a field must be used by a single
+ * thread at a time, and not after being released.
+ *
+ * @param   <F> - the field type
+ */
+public class FieldPool<F extends AbstractField> {
+    private final Function<BoardSpec, ? extends F> factory;
+    private final int capacity;
+    private final Map<BoardSpec, BlockingQueue<F>> idle = new ConcurrentHashMap<>();
+
+    /**
+     * Class constructor.
+     *
+     * @param   factory  - creates the fields missing from the pool
+     * @param   capacity - maximum number of idle fields kept for each board
+     * @throws  IllegalArgumentException if the capacity is not positive
+     */
+    public FieldPool(Function<BoardSpec, ? extends F> factory, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Invalid pool capacity: " + capacity);
+        }
+        this.factory = factory;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Take a field for a new game, with reproducible mines.
+     *
+     * @param   spec - the board of the game
+     * @param   seed - the seed of the random generator placing mines
+     * @return  F - a pristine field
+     */
+    public F acquire(BoardSpec spec, long seed) {
+        F field = queue(spec).poll();
+        if (field == null) {
+            field = factory.apply(spec);
+        }
+        field.reset(seed);
+        return field;
+    }
+
+    /**
+     * Take a field for a new game.
+     *
+     * @param   spec       - the board of the game
+     * @param   minePlacer - engine choosing the cells which contain mines
+     * @return  F - a pristine field
+     */
+    public F acquire(BoardSpec spec, MinePlacer minePlacer) {
+        F field = queue(spec).poll();
+        if (field == null) {
+            field = factory.apply(spec);
+        }
+        field.reset(minePlacer);
+        return field;
+    }
+
+    /**
+     * Give back a field whose game is over. If the pool already holds as many idle fields of the board as its capacity,
+     * the field is dropped.
+     *
+     * @param   field - the field
+     */
+    public void release(F field) {
+        queue(field.getBoardSpec()).offer(field);
+    }
+
+    /**
+     * Get the number of idle fields of a board.
+     *
+     * @param   spec - the board
+     * @return  int
+     */
+    public int getIdle(BoardSpec spec) {
+        BlockingQueue<F> queue = idle.get(spec);
+        return queue == null ? 0 : queue.size();
+    }
+
+    private BlockingQueue<F> queue(BoardSpec spec) {
+        BlockingQueue<F> queue = idle.get(spec);
+        return queue != null ? queue : idle.computeIfAbsent(spec, key -> new ArrayBlockingQueue<>(capacity));
+    }
+}
@@ -0,0 +1,191 @@
+package minesweeper.field;
+
+import minesweeper.cell.CellFaceValue;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * Incremental renderer of a field, writing after each move only the cells changed since the previous frame.
+ * <p>
+ * The renderer listens to the field and keeps the changed cells in a list, without duplicates, so that the cost of a
+ * frame is proportional to the number of changed cells, not to the size of the field. Frames are built in a buffer
+ * reused from one frame to the next. Two output formats are available, see {@link Mode}.
+ * <p>
+ * The renderer follows one game: it must be created again after the field is {@link AbstractField#reset(long) reset}.
+ */
+public class FieldRenderer implements FieldListener {
+    /**
+     * Output format of the frames.
+     */
+    public enum Mode {
+        /**
+         * For terminals: the first frame clears the screen and draws the whole field at its top, in the layout of
+         * {@link AbstractField#toString()}; the next frames move the cursor to each changed cell with ANSI escape
+         * sequences and overwrite it. The cursor is then left under the field, with the rest of the screen cleared.
+         */
+        ANSI,
+        /**
+         * For programs: the first frame is a line {@code board <width> <height>}, then every frame, including the
+         * first one, is a single line listing the changed cells as space separated {@code <column>,<row>:<symbol>}
+         * entries, with column and row numbers starting from 1 and the symbols of {@link CellFaceValue}. The first
+         * frame lists all the cells which are not blank.
+         */
+        DELTA
+    }
+
+    private static final String ESCAPE = "\u001B[";
+
+    private final IFieldView view;
+    private final Writer out;
+    private final Mode mode;
+    private final int width;
+    private final int size;
+    private final BoardLayout layout;
+    private final String newLine = System.getProperty("line.separator");
+    private final TextBuffer buffer;
+
+    /**
+     * Cells changed since the previous frame, as a bitset to skip duplicates and as a list in order of change.
+     */
+    private final long[] dirtyBits;
+    private int[] dirty = new int[64];
+    private int dirtyCount;
+
+    private boolean started;
+
+    /**
+     * Class constructor. The renderer starts listening to the field.
+     *
+     * @param   view - the field to render
+     * @param   out  - the destination of the frames, flushed after each frame
+     * @param   mode - the output format
+     */
+    public FieldRenderer(IFieldView view, Writer out, Mode mode) {
+        this.view = view;
+        this.out = out;
+        this.mode = mode;
+        BoardSpec spec = view.getBoardSpec();
+        this.width = spec.getWidth();
+        this.size = spec.getSize();
+        this.layout = new BoardLayout(width, spec.getHeight());
+        this.buffer = new TextBuffer(256);
+        this.dirtyBits = new long[(size + 63) >>> 6];
+        view.addListener(this);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void cellChanged(int lineal) {
+        long bit = 1L << lineal;
+        if ((dirtyBits[lineal >>> 6] & bit) != 0) {
+            return;
+        }
+        dirtyBits[lineal >>> 6] |= bit;
+        if (dirtyCount == dirty.length) {
+            dirty = Arrays.copyOf(dirty, dirtyCount * 2);
+        }
+        dirty[dirtyCount++] = lineal;
+    }
+
+    /**
+     * Get the number of cells changed since the previous frame.
+     *
+     * @return  int
+     */
+    public int getPendingChanges() {
+        return dirtyCount;
+    }
+
+    /**
+     * Write a frame: the whole field the first time, then the cells changed since the previous frame.
+     *
+     * @throws  IOException if the output fails
+     */
+    public void render() throws IOException {
+        buffer.clear();
+        if (!started) {
+            if (mode == Mode.ANSI) {
+                appendFullAnsi();
+            } else {
+                appendFullDelta();
+            }
+            started = true;
+        } else if (mode == Mode.ANSI) {
+            appendChangesAnsi();
+        } else {
+            appendChangesDelta();
+        }
+        clearDirty();
+        buffer.writeTo(out);
+        out.flush();
+    }
+
+    /**
+     * Stop listening to the field.
+     */
+    public void detach() {
+        view.removeListener(this);
+    }
+
+    private void appendFullAnsi() {
+        buffer.append(ESCAPE).append("2J").append(ESCAPE).append('H');
+        layout.appendWindow(buffer, view, 0, 0, width, size / width, newLine);
+        buffer.append(newLine);
+    }
+
+    private void appendChangesAnsi() {
+        int previous = -2;
+        for (int i = 0; i < dirtyCount; i++) {
+            int lineal = dirty[i];
+            int x = lineal % width;
+            // the cursor already follows the previous cell on the same row
+            if (lineal != previous + 1 || x == 0) {
+                int line = layout.getRowOffset() + lineal / width + 1;
+                int column = layout.getColumnOffset() + x + 1;
+                buffer.append(ESCAPE).append(line).append(';').append(column).append('H');
+            }
+            buffer.append(view.getFaceValue(lineal).getSymbol());
+            previous = lineal;
+        }
+        int below = layout.getRowOffset() + size / width + 2;
+        buffer.append(ESCAPE).append(below).append(";1H").append(ESCAPE).append('J');
+    }
+
+    private void appendFullDelta() {
+        buffer.append("board ").append(width).append(' ').append(size / width).append(newLine);
+        boolean first = true;
+        for (int lineal = 0; lineal < size; lineal++) {
+            CellFaceValue faceValue = view.getFaceValue(lineal);
+            if (faceValue != CellFaceValue.BLANK) {
+                appendDelta(lineal, faceValue.getSymbol(), first);
+                first = false;
+            }
+        }
+        buffer.append(newLine);
+    }
+
+    private void appendChangesDelta() {
+        for (int i = 0; i < dirtyCount; i++) {
+            appendDelta(dirty[i], view.getFaceValue(dirty[i]).getSymbol(), i == 0);
+        }
+        buffer.append(newLine);
+    }
+
+    private void appendDelta(int lineal, char symbol, boolean first) {
+        if (!first) {
+            buffer.append(' ');
+        }
+        buffer.append(lineal % width + 1).append(',').append(lineal / width + 1).append(':').append(symbol);
+    }
+
+    private void clearDirty() {
+        for (int i = 0; i < dirtyCount; i++) {
+            dirtyBits[dirty[i] >>> 6] = 0;
+        }
+        dirtyCount = 0;
+    }
+}
@@ -0,0 +1,166 @@
+package minesweeper.field;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Binary snapshot of a game in progress, to recover a game after a crash or to move it to another process.
+ * <p>
+ * A snapshot holds a {@link FieldState}: the board, the pristine flag and the bitsets of the mines, of the explored
+ * cells and of the marked cells, one bit per cell. Numbers and status counters are computed again when the snapshot is
+ * restored. Bitsets are copied in bulk between the buffer and arrays of longs, and restored into the cells by {@link
+ * AbstractField#restoreState(FieldState)}: no object is created per cell.
+ * <p>
+ * Layout, big endian: magic, version, width, height, number of mines, pristine (0 or 1) as ints, then the mines, the
+ * explored and the marked bitsets, each as {@code (cells + 63) / 64} longs, cell n being bit n % 64 of long n / 64.
+ */
+public final class FieldSnapshot {
+    /**
+     * "MSSN", identifying a snapshot.
+     */
+    static final int MAGIC = 0x4D53534E;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 24;
+
+    /**
+     * Size of the buffer through which snapshots are written.
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private FieldSnapshot() {
+    }
+
+    /**
+     * Get the size of the snapshot of a board.
+     *
+     * @param   spec - the board
+     * @return  long - the size in bytes
+     */
+    public static long sizeOf(BoardSpec spec) {
+        return HEADER_SIZE + 3L * Long.BYTES * FieldState.words(spec.getSize());
+    }
+
+    /**
+     * Save the state of a field to a file, replacing any existing file.
+     *
+     * @param   field - the field
+     * @param   path  - the snapshot file
+     * @throws  IOException if the file cannot be written
+     */
+    public static void save(AbstractField field, Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            write(field.captureState(), channel);
+        }
+    }
+
+    /**
+     * Write a snapshot.
+     *
+     * @param   state   - the state of a field
+     * @param   channel - the destination, not closed
+     * @throws  IOException if the channel fails
+     */
+    public static void write(FieldState state, WritableByteChannel channel) throws IOException {
+        BoardSpec spec = state.getBoardSpec();
+        ByteBuffer buffer = ByteBuffer.allocateDirect((int) Math.min(BUFFER_SIZE, sizeOf(spec)));
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(spec.getWidth()).putInt(spec.getHeight())
+                .putInt(spec.getNumberOfMines()).putInt(state.isPristine() ? 1 : 0);
+        for (long[] bits : new long[][] {state.mines, state.explored, state.marked}) {
+            int written = 0;
+            while (written < bits.length) {
+                int count = Math.min(bits.length - written, buffer.remaining() / Long.BYTES);
+                if (count == 0) {
+                    drain(buffer, channel);
+                    continue;
+                }
+                buffer.asLongBuffer().put(bits, written, count);
+                buffer.position(buffer.position() + count * Long.BYTES);
+                written += count;
+            }
+        }
+        drain(buffer, channel);
+    }
+
+    /**
+     * Read a snapshot from the position of a buffer, which is moved past the snapshot.
+     *
+     * @param   buffer - the buffer, big endian
+     * @return  FieldState - the state, to be restored on a field of its board
+     * @throws  IOException if the buffer does not hold a valid snapshot
+     */
+    public static FieldState read(ByteBuffer buffer) throws IOException {
+        if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC) {
+            throw new IOException("Not a field snapshot");
+        }
+        int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported field snapshot version: " + version);
+        }
+        BoardSpec spec;
+        try {
+            spec = new BoardSpec(buffer.getInt(), buffer.getInt(), buffer.getInt());
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid board in field snapshot", e);
+        }
+        boolean pristine = buffer.getInt() != 0;
+        int words = FieldState.words(spec.getSize());
+        if (buffer.remaining() < 3L * Long.BYTES * words) {
+            throw new IOException("Truncated field snapshot of " + spec);
+        }
+
+        long[][] bitsets = new long[3][words];
+        for (long[] bits : bitsets) {
+            LongBuffer longs = buffer.asLongBuffer();
+            longs.get(bits);
+            buffer.position(buffer.position() + words * Long.BYTES);
+        }
+        try {
+            return new FieldState(spec, pristine, bitsets[0], bitsets[1], bitsets[2]);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid field snapshot", e);
+        }
+    }
+
+    /**
+     * Read a snapshot file, memory-mapped.
+     *
+     * @param   path - the snapshot file
+     * @return  FieldState - the state, to be restored on a field of its board
+     * @throws  IOException if the file cannot be read or mapped, or is not a valid snapshot
+     */
+    public static FieldState load(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Field snapshot too large to be mapped: " + path);
+            }
+            return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Load a snapshot file into a field of its board.
+     *
+     * @param   path  - the snapshot file
+     * @param   field - the field, whose cells are replaced
+     * @throws  IOException if the file cannot be read or mapped, or is not a valid snapshot
+     * @throws  IllegalArgumentException if the snapshot is of another board
+     * @see     AbstractField#restoreState(FieldState)
+     */
+    public static void load(Path path, AbstractField field) throws IOException {
+        field.restoreState(load(path));
+    }
+
+    private static void drain(ByteBuffer buffer, WritableByteChannel channel) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,134 @@
+package minesweeper.field;
+
+/**
+ * State of the cells of a field at a point of a game, as bitsets indexed by lineal value: the mines, the explored
+ * cells and the cells whose face value is MARKED, with the pristine flag. The numbers and the status counters are not
+ * stored, since they follow from the bitsets.
+ * <p>
+ * Captured by {@link AbstractField#captureState()} and restored by {@link AbstractField#restoreState(FieldState)},
+ * whatever the storage of the cells of the two fields. Immutable.
+ */
+public final class FieldState {
+    private final BoardSpec spec;
+    private final boolean pristine;
+    final long[] mines;
+    final long[] explored;
+    final long[] marked;
+
+    /**
+     * Class constructor. The bitsets are not copied.
+     *
+     * @param   spec     - the board
+     * @param   pristine - whether the mines are still to be placed
+     * @param   mines    - the cells containing mines
+     * @param   explored - the explored cells
+     * @param   marked   - the cells whose face value is MARKED
+     * @throws  IllegalArgumentException if a bitset has not one bit per cell of the board, or bits set past the last
+     *          cell
+     */
+    FieldState(BoardSpec spec, boolean pristine, long[] mines, long[] explored, long[] marked) {
+        int words = words(spec.getSize());
+        if (mines.length != words || explored.length != words || marked.length != words) {
+            throw new IllegalArgumentException("Invalid bitsets for " + spec);
+        }
+        int tail = spec.getSize() & 63;
+        long outside = tail == 0 ? 0 : -1L << tail;
+        if (((mines[words - 1] | explored[words - 1] | marked[words - 1]) & outside) != 0) {
+            throw new IllegalArgumentException("Bits set outside the cells of " + spec);
+        }
+        this.spec = spec;
+        this.pristine = pristine;
+        this.mines = mines;
+        this.explored = explored;
+        this.marked = marked;
+    }
+
+    public BoardSpec getBoardSpec() {
+        return spec;
+    }
+
+    /**
+     * Tests whether the mines are still to be placed.
+     *
+     * @return  boolean
+     */
+    public boolean isPristine() {
+        return pristine;
+    }
+
+    /**
+     * Tests whether a cell contains a mine.
+     *
+     * @param   lineal - the lineal value of the cell coordinates
+     * @return  boolean
+     */
+    public boolean isMine(int lineal) {
+        return get(mines, lineal);
+    }
+
+    /**
+     * Tests whether a cell has been explored.
+     *
+     * @param   lineal - the lineal value of the cell coordinates
+     * @return  boolean
+     */
+    public boolean isExplored(int lineal) {
+        return get(explored, lineal);
+    }
+
+    /**
+     * Tests whether the face value of a cell is MARKED.
+     *
+     * @param   lineal - the lineal value of the cell coordinates
+     * @return  boolean
+     */
+    public boolean isMarked(int lineal) {
+        return get(marked, lineal);
+    }
+
+    private boolean get(long[] bits, int lineal) {
+        if (lineal < 0 || lineal >= spec.getSize()) {
+            throw new IndexOutOfBoundsException("Cell not found: " + lineal);
+        }
+        return (bits[lineal >>> 6] & 1L << lineal) != 0;
+    }
+
+    /**
+     * Get the number of longs of a bitset of a number of cells.
+     *
+     * @param   size - the number of cells
+     * @return  int
+     */
+    static int words(int size) {
+        return (size + 63) >>> 6;
+    }
+
+    /**
+     * Count the bits set.
+     *
+     * @param   bits - the bitset
+     * @return  int
+     */
+    static int count(long[] bits) {
+        int count = 0;
+        for (long word : bits) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * List the bits set, in increasing order.
+     *
+     * @param   bits    - the bitset
+     * @param   lineals - receives the indexes of the bits set, as many as the bits set
+     */
+    static void toLineals(long[] bits, int[] lineals) {
+        int n = 0;
+        for (int i = 0; i < bits.length; i++) {
+            for (long word = bits[i]; word != 0; word &= word - 1) {
+                lineals[n++] = (i << 6) + Long.numberOfTrailingZeros(word);
+            }
+        }
+    }
+}
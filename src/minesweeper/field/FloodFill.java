@@ -0,0 +1,162 @@
+package minesweeper.field;
+
+import minesweeper.cell.Neighborhood;
+
+import java.util.Arrays;
+
+/**
+ * Iterative flood fill engine, exploring a cell and, while no adjacent cell is a mine, its surrounding cells.
+ * <p>
+ * The engine keeps a primitive work queue and a visited bitset, both reused by every exploration, so that exploring
+ * does not allocate per cell and does not recurse, whatever the size of the opened region. Every cell is visited at
+ * most once, so the cost is linear in the number of visited cells. The bitset is split in pages allocated on first
+ * use, so that the memory used follows the explored regions rather than the size of the field.
+ * <p>
+ * Rules applied, the same of the original recursive exploration:
+ * <ul>
+ *     <li>the cell chosen by the player is always explored, even if marked or a mine;</li>
+ *     <li>a surrounding cell is explored if it is neither a mine, explored nor marked;</li>
+ *     <li>a surrounding cell wrongly marked (marked but not a mine) is unmarked and explored;</li>
+ *     <li>the surrounding cells of an explored cell are visited only if none of them is a mine.</li>
+ * </ul>
+ * Not thread safe: each field owns its engine.
+ */
+class FloodFill {
+    /**
+     * Number of cells per page of the visited bitset, as power of 2.
+     */
+    private static final int PAGE_SHIFT = 18;
+
+    /**
+     * Mask of the index of a word within a page.
+     */
+    private static final int WORD_MASK = (1 << (PAGE_SHIFT - 6)) - 1;
+
+    private final Neighborhood neighborhood;
+    private final CellStore store;
+
+    /**
+     * Visited cells, one bit per cell, indexed by lineal value, in pages of 2^PAGE_SHIFT cells. Cleared after every
+     * exploration.
+     */
+    private final long[][] visited;
+
+    /**
+     * Cells to be visited. Cells are never removed, so that the visited bits can be cleared at the end.
+     */
+    private int[] queue = new int[64];
+
+    /**
+     * Sole constructor.
+     *
+     * @param   neighborhood - adjacency of the cells of the field
+     * @param   store        - the cells of the field
+     */
+    FloodFill(Neighborhood neighborhood, CellStore store) {
+        this.neighborhood = neighborhood;
+        this.store = store;
+        this.visited = new long[(int) ((size() + (1 << PAGE_SHIFT) - 1) >>> PAGE_SHIFT)][];
+    }
+
+    /**
+     * Explore the cell chosen by the player and the region around it.
+     *
+     * @param   lineal - the lineal value of the cell chosen by the player
+     * @return  boolean - the result of the exploration of the chosen cell: true if action is performed, false if the
+     *          cell was already explored.
+     */
+    boolean explore(int lineal) {
+        boolean result = store.explore(lineal);
+        int tail = 0;
+        if (noneIsMine(lineal)) {
+            tail = enqueueSurrounding(lineal, tail);
+        }
+
+        for (int head = 0; head < tail; head++) {
+            int current = queue[head];
+            if (visit(current) && noneIsMine(current)) {
+                tail = enqueueSurrounding(current, tail);
+            }
+        }
+
+        for (int i = 0; i < tail; i++) {
+            visited[queue[i] >>> PAGE_SHIFT][(queue[i] >>> 6) & WORD_MASK] = 0;
+        }
+        return result;
+    }
+
+    /**
+     * Explore a cell reached automatically, not chosen by the player.
+     *
+     * @param   lineal - the lineal value of the cell
+     * @return  boolean - true if the cell has been explored by this visit, and its surroundings are to be visited.
+     */
+    private boolean visit(int lineal) {
+        if (store.isMine(lineal)) {
+            return false;
+        }
+        if (!store.isExplored(lineal) && !store.isMarked(lineal)) {
+            store.explore(lineal);
+            return true;
+        }
+        if (store.isMarked(lineal)) {
+            store.mark(lineal);
+            store.explore(lineal);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Tests whether none of the surrounding cells is a mine.
+     *
+     * @param   lineal - the lineal value of the cell
+     * @return  boolean
+     */
+    boolean noneIsMine(int lineal) {
+        int shape = neighborhood.shapeOf(lineal);
+        for (int k = 0; k < neighborhood.size(shape); k++) {
+            if (store.isMine(neighborhood.neighbor(lineal, shape, k))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Add the not yet visited surrounding cells to the queue.
+     *
+     * @param   lineal - the lineal value of the cell
+     * @param   tail   - the current queue length
+     * @return  int - the new queue length
+     */
+    private int enqueueSurrounding(int lineal, int tail) {
+        int shape = neighborhood.shapeOf(lineal);
+        for (int k = 0; k < neighborhood.size(shape); k++) {
+            int neighbor = neighborhood.neighbor(lineal, shape, k);
+            long[] page = visited[neighbor >>> PAGE_SHIFT];
+            if (page == null) {
+                page = visited[neighbor >>> PAGE_SHIFT] = new long[1 << (PAGE_SHIFT - 6)];
+            }
+            int word = (neighbor >>> 6) & WORD_MASK;
+            long bit = 1L << neighbor;
+            if ((page[word] & bit) == 0) {
+                page[word] |= bit;
+                if (tail == queue.length) {
+                    queue = Arrays.copyOf(queue, (int) Math.min(2L * queue.length, size()));
+                }
+                queue[tail++] = neighbor;
+            }
+        }
+        return tail;
+    }
+
+    /**
+     * Get the number of cells of the field.
+     *
+     * @return  long - width * height
+     */
+    private long size() {
+        return (long) neighborhood.getWidth() * neighborhood.getHeight();
+    }
+}
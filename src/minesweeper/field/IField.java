@@ -2,6 +2,8 @@ package minesweeper.field;
 
 import minesweeper.cell.ICoordinates;
 
+import java.util.List;
+
 /**
  * Interface for a game field for minesweeper.
  */
@@ -31,4 +33,13 @@ public interface IField {
      * @throws  IllegalArgumentException if coordinates are not valid
      */
     boolean toggleMarkedCell(ICoordinates coordinates);
+
+    /**
+     * Mark or unmark many cells in one call, in the given order, as by {@link #toggleMarkedCell(ICoordinates)}.
+     *
+     * @param   coordinates - cells coordinates
+     * @return  boolean[] - for each coordinates, true if action performed, false is action was not allowed.
+     * @throws  IllegalArgumentException if any coordinates are not valid
+     */
+    boolean[] toggleMarkedCells(List<? extends ICoordinates> coordinates);
 }
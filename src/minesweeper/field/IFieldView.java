@@ -0,0 +1,41 @@
+package minesweeper.field;
+
+import minesweeper.cell.CellFaceValue;
+
+/**
+ * Read-only view of a game field, exposing only what the player sees: the face values of the cells.
+ * <p>
+ * Meant for bots and solvers, which can follow the changes of the field through a {@link FieldListener} instead of
+ * scanning all the cells after every move.
+ */
+public interface IFieldView {
+    /**
+     * Get dimensions and number of mines of the field.
+     *
+     * @return  BoardSpec
+     */
+    BoardSpec getBoardSpec();
+
+    /**
+     * Get the face value of a cell.
+     *
+     * @param   lineal - the lineal value of the cell coordinates
+     * @return  CellFaceValue
+     * @throws  IndexOutOfBoundsException if the lineal value is outside the field
+     */
+    CellFaceValue getFaceValue(int lineal);
+
+    /**
+     * Register a listener, called after each change of a cell.
+     *
+     * @param   listener - the listener
+     */
+    void addListener(FieldListener listener);
+
+    /**
+     * Unregister a listener.
+     *
+     * @param   listener - the listener
+     */
+    void removeListener(FieldListener listener);
+}
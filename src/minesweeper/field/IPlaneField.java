@@ -0,0 +1,47 @@
+package minesweeper.field;
+
+import minesweeper.cell.IPlaneCoordinates;
+
+import java.util.List;
+
+/**
+ * Interface for a game field for minesweeper without bounds, whose cells are addressed by column and row only (see
+ * {@link IPlaneCoordinates}). Bounded fields implement {@link IField}.
+ */
+public interface IPlaneField {
+    /**
+     * Explore a cell of the field.
+     *
+     * @param   coordinates - the coordinates of cell to explore.
+     * @return  boolean - true if selected cell is explored, false if action was not valid (already explored).
+     * @throws  IllegalArgumentException if coordinates are not valid
+     */
+    boolean explore(IPlaneCoordinates coordinates);
+
+    /**
+     * Get the field status, representing the game status.
+     * @see {@link FieldStatus}
+     *
+     * @return - FieldStatus
+     */
+    FieldStatus getFieldStatus();
+
+    /**
+     * Mark an unmarked cell, or unmark a marked one.
+     *
+     * Action not allowed on cell with numeric face value.
+     * @param   coordinates - cell coordinates
+     * @return  boolean - true if action performed, false is action was not allowed.
+     * @throws  IllegalArgumentException if coordinates are not valid
+     */
+    boolean toggleMarkedCell(IPlaneCoordinates coordinates);
+
+    /**
+     * Mark or unmark many cells in one call, in the given order, as by {@link #toggleMarkedCell(IPlaneCoordinates)}.
+     *
+     * @param   coordinates - cells coordinates
+     * @return  boolean[] - for each coordinates, true if action performed, false is action was not allowed.
+     * @throws  IllegalArgumentException if any coordinates are not valid
+     */
+    boolean[] toggleMarkedCells(List<? extends IPlaneCoordinates> coordinates);
+}
@@ -0,0 +1,207 @@
+package minesweeper.field;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.SplittableRandom;
+
+/**
+ * Class representing a minesweeper game field stored in a memory-mapped file, outside of the Java heap.
+ * <p>
+ * Each cell takes a single byte, encoded as described by {@link PackedCells}, after a fixed size header holding the
+ * board dimensions, the pristine flag and the status counters. The header is updated after every move, so a board file
+ * can be opened again without reading nor converting its cells: only the regions being played are paged in by the
+ * operating system. Plays identically to {@link Field}.
+ * <p>
+ * Header layout (big endian ints): magic, version, width, height, number of mines, pristine (0 or 1), correct marks,
+ * wrong marks, revealed mines, revealed safe cells; padded to {@link #HEADER_SIZE} bytes.
+ */
+public class MappedField extends AbstractPackedField implements Closeable {
+    /**
+     * "MSWF", identifying a mapped field file.
+     */
+    static final int MAGIC = 0x4D535746;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 64;
+
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 4;
+    private static final int WIDTH_OFFSET = 8;
+    private static final int HEIGHT_OFFSET = 12;
+    private static final int MINES_OFFSET = 16;
+    private static final int PRISTINE_OFFSET = 20;
+    private static final int CORRECT_MARKS_OFFSET = 24;
+    private static final int WRONG_MARKS_OFFSET = 28;
+    private static final int REVEALED_MINES_OFFSET = 32;
+    private static final int REVEALED_SAFE_OFFSET = 36;
+
+    /**
+     * Size of each mapped segment, as power of 2: a single mapping cannot exceed 2 GB.
+     */
+    private static final int SEGMENT_SHIFT = 30;
+    private static final int SEGMENT_MASK = (1 << SEGMENT_SHIFT) - 1;
+
+    /**
+     * Block of zeros, copied over the cells to clear them.
+     */
+    private static final byte[] ZEROS = new byte[8192];
+
+    private final FileChannel channel;
+
+    /**
+     * The mapped file, header included, in segments of 2^SEGMENT_SHIFT bytes.
+     */
+    private final MappedByteBuffer[] segments;
+
+    /**
+     * Create a new board file, replacing any existing file.
+     *
+     * @param   path       - the board file
+     * @param   spec       - dimensions and number of mines of the field
+     * @param   minePlacer - engine choosing the cells which contain mines
+     * @return  MappedField - the new field
+     * @throws  IOException if the file cannot be created or mapped
+     */
+    public static MappedField create(Path path, BoardSpec spec, MinePlacer minePlacer) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedField field = new MappedField(spec, minePlacer, channel);
+        MappedByteBuffer header = field.segments[0];
+        header.putInt(MAGIC_OFFSET, MAGIC);
+        header.putInt(VERSION_OFFSET, VERSION);
+        header.putInt(WIDTH_OFFSET, spec.getWidth());
+        header.putInt(HEIGHT_OFFSET, spec.getHeight());
+        header.putInt(MINES_OFFSET, spec.getNumberOfMines());
+        field.afterMove();
+        return field;
+    }
+
+    /**
+     * Overloading of {@link #create(Path, BoardSpec, MinePlacer)}, with reproducible mines.
+     */
+    public static MappedField create(Path path, BoardSpec spec, long seed) throws IOException {
+        return create(path, spec, new MinePlacer(seed));
+    }
+
+    /**
+     * Open an existing board file.
+     *
+     * @param   path       - the board file
+     * @param   minePlacer - engine choosing the cells which contain mines, used only if the field is still pristine
+     * @return  MappedField - the field, in the state it was when last changed
+     * @throws  IOException if the file cannot be read or mapped, or is not a board file
+     */
+    public static MappedField open(Path path, MinePlacer minePlacer) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // read the whole header
+            }
+            if (header.hasRemaining() || header.getInt(MAGIC_OFFSET) != MAGIC) {
+                throw new IOException("Not a board file: " + path);
+            }
+            if (header.getInt(VERSION_OFFSET) != VERSION) {
+                throw new IOException("Unsupported board file version: " + header.getInt(VERSION_OFFSET));
+            }
+            BoardSpec spec = new BoardSpec(header.getInt(WIDTH_OFFSET), header.getInt(HEIGHT_OFFSET),
+                    header.getInt(MINES_OFFSET));
+            if (channel.size() < HEADER_SIZE + (long) spec.getSize()) {
+                throw new IOException("Truncated board file: " + path);
+            }
+
+            MappedField field = new MappedField(spec, minePlacer, channel);
+            field.pristine = header.getInt(PRISTINE_OFFSET) != 0;
+            field.correctMarks = header.getInt(CORRECT_MARKS_OFFSET);
+            field.wrongMarks = header.getInt(WRONG_MARKS_OFFSET);
+            field.revealedMines = header.getInt(REVEALED_MINES_OFFSET);
+            field.revealedSafe = header.getInt(REVEALED_SAFE_OFFSET);
+            return field;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Overloading of {@link #open(Path, MinePlacer)}, placing mines at random if the field is still pristine.
+     */
+    public static MappedField open(Path path) throws IOException {
+        return open(path, new MinePlacer(new SplittableRandom()));
+    }
+
+    private MappedField(BoardSpec spec, MinePlacer minePlacer, FileChannel channel) throws IOException {
+        super(spec, minePlacer);
+        this.channel = channel;
+        long length = HEADER_SIZE + (long) spec.getSize();
+        this.segments = new MappedByteBuffer[(int) ((length + SEGMENT_MASK) >>> SEGMENT_SHIFT)];
+        for (int i = 0; i < segments.length; i++) {
+            long position = (long) i << SEGMENT_SHIFT;
+            long size = Math.min(length - position, 1L << SEGMENT_SHIFT);
+            segments[i] = channel.map(FileChannel.MapMode.READ_WRITE, position, size);
+        }
+    }
+
+    @Override
+    int getState(int lineal) {
+        long position = HEADER_SIZE + (long) lineal;
+        return segments[(int) (position >>> SEGMENT_SHIFT)].get((int) (position & SEGMENT_MASK));
+    }
+
+    @Override
+    void setState(int lineal, int state) {
+        long position = HEADER_SIZE + (long) lineal;
+        segments[(int) (position >>> SEGMENT_SHIFT)].put((int) (position & SEGMENT_MASK), (byte) state);
+    }
+
+    @Override
+    void clearCells() {
+        long end = HEADER_SIZE + (long) spec.getSize();
+        for (long position = HEADER_SIZE; position < end; ) {
+            MappedByteBuffer segment = segments[(int) (position >>> SEGMENT_SHIFT)];
+            int index = (int) (position & SEGMENT_MASK);
+            int length = (int) Math.min(ZEROS.length, Math.min(end - position, segment.capacity() - index));
+            segment.put(index, ZEROS, 0, length);
+            position += length;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Store pristine flag and status counters into the header.
+     */
+    @Override
+    void afterMove() {
+        MappedByteBuffer header = segments[0];
+        header.putInt(PRISTINE_OFFSET, pristine ? 1 : 0);
+        header.putInt(CORRECT_MARKS_OFFSET, correctMarks);
+        header.putInt(WRONG_MARKS_OFFSET, wrongMarks);
+        header.putInt(REVEALED_MINES_OFFSET, revealedMines);
+        header.putInt(REVEALED_SAFE_OFFSET, revealedSafe);
+    }
+
+    /**
+     * Write to the storage device any change not yet written.
+     */
+    public void flush() {
+        for (MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+    }
+
+    /**
+     * Flush the changes and close the board file. The field must not be used afterwards.
+     *
+     * @throws  IOException if the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        flush();
+        channel.close();
+    }
+}
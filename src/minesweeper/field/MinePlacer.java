@@ -0,0 +1,268 @@
+package minesweeper.field;
+
+import minesweeper.cell.Neighborhood;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * Engine choosing the cells of a field which contain mines.
+ * <p>
+ * The cells around the first explored one (the safe zone) are never chosen. Depending on the density of mines among
+ * the remaining free cells, one of two strategies is used, so that the cost stays proportional to the number of mines:
+ * <ul>
+ *     <li>sparse fields: cells are drawn at random, rejecting the ones already drawn, tracked in a bitset. With at most
+ *     one cell out of {@link #SPARSE_DENSITY} taken, each draw succeeds in at most two attempts on average;</li>
+ *     <li>dense fields: a partial Fisher-Yates shuffle of the free cells, stopped after as many swaps as mines.</li>
+ * </ul>
+ * Given the same random generator state, field and safe zone the same mines are chosen, so a seeded generator makes
+ * games reproducible. Not thread safe, as the random generator it uses.
+ */
+public class MinePlacer {
+    /**
+     * Which cells are kept free of mines around the first explored cell.
+     */
+    public enum SafeZone {
+        /**
+         * Only the explored cell.
+         */
+        CELL,
+        /**
+         * The explored cell and its neighbors, so that the first exploration always opens a region. If the field has
+         * not enough cells for the mines, only the explored cell is kept free.
+         */
+        NEIGHBORHOOD
+    }
+
+    /**
+     * Maximum ratio of mines among free cells for which the sparse strategy is used.
+     */
+    static final double SPARSE_DENSITY = 0.5;
+
+    /**
+     * Largest number of free cells whose shuffle buffer is kept between placements: larger boards would keep 4 bytes
+     * per cell alive for the whole game.
+     */
+    private static final int MAX_KEPT_CANDIDATES = 1 << 20;
+
+    private RandomGenerator random;
+    private final SafeZone safeZone;
+
+    /**
+     * Buffers kept between placements, so that placing the mines of a new game allocates nothing: the cells of the
+     * safe zone, the cells already drawn by the sparse strategy, and the free cells shuffled by the dense one.
+     */
+    private final int[] safe = new int[Neighborhood.MAX_NEIGHBORS + 1];
+    private long[] taken = new long[0];
+    private int[] candidates = new int[0];
+
+    /**
+     * Class constructor.
+     *
+     * @param   random   - the source of randomness
+     * @param   safeZone - the cells to keep free of mines
+     */
+    public MinePlacer(RandomGenerator random, SafeZone safeZone) {
+        this.random = random;
+        this.safeZone = safeZone;
+    }
+
+    /**
+     * Class constructor, keeping free of mines only the explored cell.
+     *
+     * @param   random - the source of randomness
+     */
+    public MinePlacer(RandomGenerator random) {
+        this(random, SafeZone.CELL);
+    }
+
+    /**
+     * Class constructor, creating a seeded generator and keeping free of mines only the explored cell.
+     *
+     * @param   seed - the seed of the random generator
+     */
+    public MinePlacer(long seed) {
+        this(new SeededRandom(seed));
+    }
+
+    /**
+     * Class constructor, creating a seeded generator.
+     *
+     * @param   seed     - the seed of the random generator
+     * @param   safeZone - the cells to keep free of mines
+     */
+    public MinePlacer(long seed, SafeZone safeZone) {
+        this(new SeededRandom(seed), safeZone);
+    }
+
+    /**
+     * Create a placer returning a layout chosen in advance, for boards generated before the game starts.
+     *
+     * @param   mines - lineal values of the cells containing mines, sorted
+     * @return  MinePlacer - a placer failing with IllegalArgumentException if the number of mines differs from the
+     *          layout, or the first explored cell is one of its mines
+     */
+    public static MinePlacer preset(int[] mines) {
+        int[] layout = mines.clone();
+        return new MinePlacer(null, SafeZone.CELL) {
+            @Override
+            public int[] place(Neighborhood neighborhood, int numberOfMines, int safeLineal, int[] mines) {
+                if (numberOfMines != layout.length) {
+                    String error = String.format("Preset layout has %d mines, not %d", layout.length, numberOfMines);
+                    throw new IllegalArgumentException(error);
+                }
+                if (Arrays.binarySearch(layout, safeLineal) >= 0) {
+                    throw new IllegalArgumentException("The first explored cell is a mine of the preset layout");
+                }
+                if (mines == null || mines.length != layout.length) {
+                    return layout.clone();
+                }
+                System.arraycopy(layout, 0, mines, 0, layout.length);
+                return mines;
+            }
+        };
+    }
+
+    public SafeZone getSafeZone() {
+        return safeZone;
+    }
+
+    /**
+     * Restart the random generator from a seed: the following placements are the same as the ones of a new placer
+     * created with {@link #MinePlacer(long)}. Allocates nothing, unless the placer was created with another generator.
+     *
+     * @param   seed - the seed of the random generator
+     */
+    public void reseed(long seed) {
+        if (random instanceof SeededRandom seeded) {
+            seeded.setSeed(seed);
+        } else {
+            random = new SeededRandom(seed);
+        }
+    }
+
+    /**
+     * Choose the cells containing mines.
+     *
+     * @param   neighborhood  - adjacency of the cells of the field
+     * @param   numberOfMines - number of mines to place
+     * @param   safeLineal    - lineal value of the first explored cell
+     * @return  int[] - lineal values of the cells containing mines, sorted
+     * @throws  IllegalArgumentException if the field has not enough free cells for the mines
+     */
+    public int[] place(Neighborhood neighborhood, int numberOfMines, int safeLineal) {
+        return place(neighborhood, numberOfMines, safeLineal, null);
+    }
+
+    /**
+     * Overloading of {@link #place(Neighborhood, int, int)}, filling an array of a previous placement if it has the
+     * right length, so that a field starting a new game allocates nothing.
+     *
+     * @param   mines - the array to fill; may be null
+     */
+    public int[] place(Neighborhood neighborhood, int numberOfMines, int safeLineal, int[] mines) {
+        int size = neighborhood.getWidth() * neighborhood.getHeight();
+        int zone = safeCells(neighborhood, numberOfMines, safeLineal);
+        int free = size - zone;
+        if (numberOfMines > free) {
+            String error = String.format("Cannot place %d mines in %d free cells", numberOfMines, free);
+            throw new IllegalArgumentException(error);
+        }
+
+        if (mines == null || mines.length != numberOfMines) {
+            mines = new int[numberOfMines];
+        }
+        if (numberOfMines <= SPARSE_DENSITY * free) {
+            sample(size, free, mines, zone);
+        } else {
+            shuffle(free, mines, zone);
+        }
+        Arrays.sort(mines);
+        return mines;
+    }
+
+    /**
+     * Store the cells of the safe zone, sorted, at the start of {@link #safe}.
+     *
+     * @return  int - the number of cells of the safe zone
+     */
+    private int safeCells(Neighborhood neighborhood, int numberOfMines, int safeLineal) {
+        int size = neighborhood.getWidth() * neighborhood.getHeight();
+        int shape = neighborhood.shapeOf(safeLineal);
+        int zone = neighborhood.size(shape) + 1;
+        safe[0] = safeLineal;
+        if (safeZone == SafeZone.CELL || numberOfMines > size - zone) {
+            return 1;
+        }
+
+        for (int k = 1; k < zone; k++) {
+            safe[k] = neighborhood.neighbor(safeLineal, shape, k - 1);
+        }
+        Arrays.sort(safe, 0, zone);
+        return zone;
+    }
+
+    /**
+     * Sparse strategy: draw random free cells, rejecting the ones already drawn.
+     * <p>
+     * The bitset of the drawn cells is left cleared, by clearing only the words of the drawn cells: a placement costs
+     * the number of mines, not the size of the board.
+     */
+    private void sample(int size, int free, int[] mines, int zone) {
+        int words = (size + 63) >>> 6;
+        if (taken.length < words) {
+            taken = new long[words];
+        }
+        int placed = 0;
+        while (placed < mines.length) {
+            int lineal = toLineal(random.nextInt(free), zone);
+            long bit = 1L << lineal;
+            if ((taken[lineal >>> 6] & bit) == 0) {
+                taken[lineal >>> 6] |= bit;
+                mines[placed++] = lineal;
+            }
+        }
+        for (int lineal : mines) {
+            taken[lineal >>> 6] = 0;
+        }
+    }
+
+    /**
+     * Dense strategy: partial Fisher-Yates shuffle of the free cells.
+     */
+    private void shuffle(int free, int[] mines, int zone) {
+        int[] candidates = this.candidates;
+        if (candidates.length < free) {
+            candidates = new int[free];
+            if (free <= MAX_KEPT_CANDIDATES) {
+                this.candidates = candidates;
+            }
+        }
+        for (int i = 0; i < free; i++) {
+            candidates[i] = i;
+        }
+        for (int i = 0; i < mines.length; i++) {
+            int j = i + random.nextInt(free - i);
+            int chosen = candidates[j];
+            candidates[j] = candidates[i];
+            mines[i] = toLineal(chosen, zone);
+        }
+    }
+
+    /**
+     * Convert the index of a free cell into its lineal value, skipping the cells of the safe zone.
+     *
+     * @param   index - the index of the cell among the free ones
+     * @param   zone  - the number of cells of the safe zone, stored sorted in {@link #safe}
+     * @return  int - the lineal value
+     */
+    private int toLineal(int index, int zone) {
+        int lineal = index;
+        for (int i = 0; i < zone; i++) {
+            if (lineal >= safe[i]) {
+                lineal++;
+            }
+        }
+        return lineal;
+    }
+}
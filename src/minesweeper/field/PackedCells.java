@@ -0,0 +1,92 @@
+package minesweeper.field;
+
+import minesweeper.cell.CellFaceValue;
+import minesweeper.cell.CellValue;
+
+/**
+ * Encoding of the state of a cell in the bits of a single byte, shared by the packed field implementations.
+ * <p>
+ * Layout: bits 0-3 hold the ordinal of the {@link CellValue}, bit 4 is set once the cell is explored, bit 5 while the
+ * cell is marked. Face values and the other derived properties are looked up in tables indexed by the state, built
+ * from the same rules of {@link minesweeper.cell.Cell}.
+ */
+final class PackedCells {
+    static final int VALUE = 0x0F;
+    static final int EXPLORED = 0x10;
+    static final int MARKED = 0x20;
+
+    /**
+     * Number of distinct states.
+     */
+    static final int STATES = 0x40;
+
+    static final int MINE = CellValue.MINE.ordinal();
+
+    private static final CellFaceValue[] faces = new CellFaceValue[STATES];
+
+    static {
+        CellValue[] values = CellValue.values();
+        for (int state = 0; state < STATES; state++) {
+            int value = state & VALUE;
+            if (value < values.length) {
+                faces[state] = face(values[value], (state & EXPLORED) != 0, (state & MARKED) != 0);
+            }
+        }
+    }
+
+    private PackedCells() {
+    }
+
+    /**
+     * Compute the face value, as {@link minesweeper.cell.Cell#getFaceValue()}.
+     */
+    private static CellFaceValue face(CellValue value, boolean explored, boolean marked) {
+        if (explored && value == CellValue.MINE) {
+            return CellFaceValue.MINE;
+        }
+        if (explored && value != CellValue.SAFE) {
+            return CellFaceValue.fromValue(value);
+        }
+        if (marked) {
+            return CellFaceValue.MARKED;
+        }
+        if (!explored) {
+            return CellFaceValue.BLANK;
+        }
+        return CellFaceValue.EXPLORED;
+    }
+
+    static CellFaceValue getFaceValue(int state) {
+        return faces[state];
+    }
+
+    static boolean isMine(int state) {
+        return (state & VALUE) == MINE;
+    }
+
+    static boolean isExplored(int state) {
+        return (state & EXPLORED) != 0;
+    }
+
+    static boolean isMarked(int state) {
+        return faces[state] == CellFaceValue.MARKED;
+    }
+
+    /**
+     * Tests whether the cell can be marked or unmarked, that is its face value is not a number.
+     */
+    static boolean isMarkable(int state) {
+        CellFaceValue face = faces[state];
+        return face == CellFaceValue.BLANK
+                || face == CellFaceValue.EXPLORED
+                || face == CellFaceValue.MARKED
+                || face == CellFaceValue.MINE;
+    }
+
+    /**
+     * Get the numeric value of the cell (0 for SAFE), or 9 for a mine.
+     */
+    static int getValue(int state) {
+        return state & VALUE;
+    }
+}
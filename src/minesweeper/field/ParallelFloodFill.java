@@ -0,0 +1,278 @@
+package minesweeper.field;
+
+import minesweeper.cell.Neighborhood;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Parallel flood fill engine, opening the region around an explored cell level by level on a {@link ForkJoinPool}.
+ * <p>
+ * The frontier of the opening, the opened cells whose surroundings are to be visited, is split among the workers of
+ * the pool. Each worker visits the surroundings of its cells and claims them in a visited bitset shared by all the
+ * workers, with a compare-and-set on its words: a cell is visited by the single worker which claimed it, and the cells
+ * it opens form, together with the ones of the other workers, the frontier of the next level. Levels with a frontier
+ * smaller than a threshold are run in the calling thread, as are the small openings altogether.
+ * <p>
+ * A cell is opened as by {@link FloodFill}, from its own state only, and each cell is visited once: the opened cells
+ * are exactly the ones of the sequential engine, whatever the order of the visits. Cells are changed through the
+ * primitive operations of the field, each cell by a single worker, and the status counters are summed at the end by
+ * the field: the field must support changes of different cells at the same time, even when they share a word of its
+ * storage. Not thread safe: each field owns its engine.
+ */
+class ParallelFloodFill {
+    /**
+     * Default number of frontier cells under which a level is run in the calling thread.
+     */
+    static final int SEQUENTIAL_THRESHOLD = 4096;
+
+    /**
+     * Default number of frontier cells visited by each task of a parallel level.
+     */
+    static final int TASK_SIZE = 1024;
+
+    private static final VarHandle WORDS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final AbstractField field;
+    private final Neighborhood neighborhood;
+    private final int sequentialThreshold;
+    private final int taskSize;
+
+    /**
+     * Visited cells, one bit per cell, allocated on first use and cleared after every opening.
+     */
+    private long[] visited;
+
+    /**
+     * Number of cells, not mines, explored by the last opening.
+     */
+    private int opened;
+
+    /**
+     * Number of cells unmarked by the last opening, all of them not mines.
+     */
+    private int unmarked;
+
+    /**
+     * Class constructor.
+     *
+     * @param   field               - the field, whose cells are changed without updating its counters
+     * @param   neighborhood        - adjacency of the cells of the field
+     * @param   sequentialThreshold - number of frontier cells under which a level is run in the calling thread
+     * @param   taskSize            - number of frontier cells visited by each task of a parallel level
+     */
+    ParallelFloodFill(AbstractField field, Neighborhood neighborhood, int sequentialThreshold, int taskSize) {
+        this.field = field;
+        this.neighborhood = neighborhood;
+        this.sequentialThreshold = sequentialThreshold;
+        this.taskSize = taskSize;
+    }
+
+    /**
+     * Open the region around an explored cell none of whose surrounding cells is a mine.
+     *
+     * @param   lineal  - the lineal value of the explored cell
+     * @param   pool    - the pool running the parallel levels
+     * @param   changed - receives the lineal values of the changed cells, or null if not needed
+     */
+    void open(int lineal, ForkJoinPool pool, IntList changed) {
+        if (visited == null) {
+            visited = new long[(int) ((neighborhood.getWidth() * (long) neighborhood.getHeight() + 63) >>> 6)];
+        }
+        opened = 0;
+        unmarked = 0;
+
+        boolean record = changed != null;
+        Level level = new Level(record);
+        level.frontier.add(lineal);
+        while (level.frontier.size > 0) {
+            int[] frontier = level.frontier.values;
+            int size = level.frontier.size;
+            Level next = size < sequentialThreshold
+                    ? visit(frontier, 0, size, record)
+                    : pool.invoke(new LevelTask(frontier, 0, size, record));
+            opened += next.opened;
+            unmarked += next.unmarked;
+            if (record) {
+                changed.addAll(next.changed);
+            }
+            level = next;
+        }
+        Arrays.fill(visited, 0);
+    }
+
+    /**
+     * Get the number of cells, not mines, explored by the last opening.
+     *
+     * @return  int
+     */
+    int getOpened() {
+        return opened;
+    }
+
+    /**
+     * Get the number of cells unmarked by the last opening, all of them not mines.
+     *
+     * @return  int
+     */
+    int getUnmarked() {
+        return unmarked;
+    }
+
+    /**
+     * Visit the surroundings of a range of frontier cells.
+     *
+     * @param   frontier - the frontier
+     * @param   from     - the first cell of the range
+     * @param   to       - the end of the range, excluded
+     * @param   record   - whether to record the changed cells
+     * @return  Level - the cells opened whose surroundings are to be visited, with the counters
+     */
+    private Level visit(int[] frontier, int from, int to, boolean record) {
+        Level level = new Level(record);
+        for (int i = from; i < to; i++) {
+            int shape = neighborhood.shapeOf(frontier[i]);
+            for (int k = 0; k < neighborhood.size(shape); k++) {
+                int neighbor = neighborhood.neighbor(frontier[i], shape, k);
+                if (claim(neighbor) && open(neighbor, level) && noneIsMine(neighbor)) {
+                    level.frontier.add(neighbor);
+                }
+            }
+        }
+        return level;
+    }
+
+    /**
+     * Open a cell as {@link FloodFill} does: a cell which is neither a mine, explored nor marked is explored, a marked
+     * cell which is not a mine is unmarked and explored.
+     *
+     * @return  boolean - true if the surroundings of the cell are to be visited
+     */
+    private boolean open(int lineal, Level level) {
+        if (field.isMine(lineal)) {
+            return false;
+        }
+        if (field.isMarked(lineal)) {
+            field.markCell(lineal);
+            level.unmarked++;
+        } else if (field.isExplored(lineal)) {
+            return false;
+        }
+        if (field.exploreCell(lineal)) {
+            level.opened++;
+        }
+        if (level.changed != null) {
+            level.changed.add(lineal);
+        }
+        return true;
+    }
+
+    private boolean noneIsMine(int lineal) {
+        int shape = neighborhood.shapeOf(lineal);
+        for (int k = 0; k < neighborhood.size(shape); k++) {
+            if (field.isMine(neighborhood.neighbor(lineal, shape, k))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Set the visited bit of a cell.
+     *
+     * @return  boolean - true if the bit was not set, false if another visit claimed the cell first
+     */
+    private boolean claim(int lineal) {
+        int index = lineal >>> 6;
+        long bit = 1L << lineal;
+        long word = (long) WORDS.getVolatile(visited, index);
+        while ((word & bit) == 0) {
+            long witness = (long) WORDS.compareAndExchange(visited, index, word, word | bit);
+            if (witness == word) {
+                return true;
+            }
+            word = witness;
+        }
+        return false;
+    }
+
+    /**
+     * A parallel level, splitting its range of the frontier in halves down to the task size.
+     */
+    @SuppressWarnings("serial")
+    private final class LevelTask extends RecursiveTask<Level> {
+        private final int[] frontier;
+        private final int from;
+        private final int to;
+        private final boolean record;
+
+        LevelTask(int[] frontier, int from, int to, boolean record) {
+            this.frontier = frontier;
+            this.from = from;
+            this.to = to;
+            this.record = record;
+        }
+
+        @Override
+        protected Level compute() {
+            if (to - from <= taskSize) {
+                return visit(frontier, from, to, record);
+            }
+            int middle = (from + to) >>> 1;
+            LevelTask left = new LevelTask(frontier, from, middle, record);
+            LevelTask right = new LevelTask(frontier, middle, to, record);
+            right.fork();
+            return left.compute().merge(right.join());
+        }
+    }
+
+    /**
+     * Result of the visit of a range of the frontier.
+     */
+    private static final class Level {
+        final IntList frontier = new IntList();
+        final IntList changed;
+        int opened;
+        int unmarked;
+
+        Level(boolean record) {
+            this.changed = record ? new IntList() : null;
+        }
+
+        Level merge(Level other) {
+            frontier.addAll(other.frontier);
+            if (changed != null) {
+                changed.addAll(other.changed);
+            }
+            opened += other.opened;
+            unmarked += other.unmarked;
+            return this;
+        }
+    }
+
+    /**
+     * Growable list of ints.
+     */
+    static final class IntList {
+        int[] values = new int[16];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, 2 * size);
+            }
+            values[size++] = value;
+        }
+
+        void addAll(IntList other) {
+            if (size + other.size > values.length) {
+                values = Arrays.copyOf(values, Math.max(2 * values.length, size + other.size));
+            }
+            System.arraycopy(other.values, 0, values, size, other.size);
+            size += other.size;
+        }
+    }
+}
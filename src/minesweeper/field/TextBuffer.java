@@ -0,0 +1,148 @@
+package minesweeper.field;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+
+/**
+ * Growable buffer of characters, reused from one rendering to the next so that rendering allocates nothing once the
+ * buffer is large enough. Unlike {@link StringBuilder}, numbers are appended without creating strings, and the content
+ * is written out without being copied into a string.
+ */
+final class TextBuffer {
+    private char[] chars;
+    private int length;
+
+    /**
+     * Class constructor.
+     *
+     * @param   capacity - the initial capacity, in characters
+     */
+    TextBuffer(int capacity) {
+        this.chars = new char[Math.max(capacity, 16)];
+    }
+
+    int length() {
+        return length;
+    }
+
+    /**
+     * Empty the buffer, keeping its capacity.
+     */
+    void clear() {
+        length = 0;
+    }
+
+    TextBuffer append(char c) {
+        ensureCapacity(1);
+        chars[length++] = c;
+        return this;
+    }
+
+    TextBuffer append(String s) {
+        ensureCapacity(s.length());
+        s.getChars(0, s.length(), chars, length);
+        length += s.length();
+        return this;
+    }
+
+    /**
+     * Append a character several times.
+     *
+     * @param   c     - the character
+     * @param   count - the number of times, nothing is appended if not positive
+     * @return  TextBuffer - this buffer
+     */
+    TextBuffer repeat(char c, int count) {
+        if (count <= 0) {
+            return this;
+        }
+        ensureCapacity(count);
+        Arrays.fill(chars, length, length + count, c);
+        length += count;
+        return this;
+    }
+
+    /**
+     * Append a non-negative number in decimal, right aligned with spaces.
+     *
+     * @param   value - the number
+     * @param   width - the minimum number of characters
+     * @return  TextBuffer - this buffer
+     */
+    TextBuffer append(long value, int width) {
+        int digits = digits(value);
+        repeat(' ', width - digits);
+        ensureCapacity(digits);
+        for (int i = length + digits - 1; i >= length; i--) {
+            chars[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        length += digits;
+        return this;
+    }
+
+    TextBuffer append(long value) {
+        return append(value, 0);
+    }
+
+    /**
+     * Write the content of the buffer.
+     *
+     * @param   writer - the destination
+     * @throws  IOException if the writer fails
+     */
+    void writeTo(Writer writer) throws IOException {
+        writer.write(chars, 0, length);
+    }
+
+    /**
+     * Write the content of the buffer as single byte characters, the buffer holding only ASCII characters.
+     *
+     * @param   channel - the destination
+     * @param   bytes   - the buffer used to encode the characters, written whenever full
+     * @throws  IOException if the channel fails
+     */
+    void writeTo(WritableByteChannel channel, ByteBuffer bytes) throws IOException {
+        int i = 0;
+        while (i < length) {
+            bytes.clear();
+            int end = Math.min(length, i + bytes.remaining());
+            for (; i < end; i++) {
+                bytes.put((byte) chars[i]);
+            }
+            bytes.flip();
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+        }
+    }
+
+    /**
+     * Get the number of decimal digits of a non-negative number.
+     *
+     * @param   value - the number
+     * @return  int
+     */
+    static int digits(long value) {
+        int digits = 1;
+        while (value >= 10) {
+            value /= 10;
+            digits++;
+        }
+        return digits;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (length + extra > chars.length) {
+            chars = Arrays.copyOf(chars, Math.max(chars.length * 2, length + extra));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return new String(chars, 0, length);
+    }
+}
@@ -0,0 +1,101 @@
+package minesweeper.game;
+
+import minesweeper.field.AbstractField;
+import minesweeper.field.FieldStatus;
+import minesweeper.field.IField;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Invoker executing a sequence of commands on a field back to back, for bots and replays.
+ * <p>
+ * The batch stops as soon as the game is lost, and the field status is evaluated once, at the end. When the field is
+ * an {@link AbstractField} and all the commands are {@link Explore} and {@link ToggleMarkedCell} commands on it, the
+ * batch is played as a single move by {@link AbstractField#playMoves}: coordinates are validated once for the whole
+ * batch and the end of move work of the field, such as updating its file, runs once. Other batches are executed one
+ * command at a time.
+ * <p>
+ * Not thread safe: the invoker reuses its buffers from one batch to the next.
+ */
+public class BatchInvoker {
+    private final IField field;
+    private int[] lineals = new int[16];
+    private boolean[] explores = new boolean[16];
+
+    /**
+     * Class constructor.
+     *
+     * @param field - the field the commands act on.
+     */
+    public BatchInvoker(IField field) {
+        this.field = field;
+    }
+
+    /**
+     * Execute a batch of commands, in order, until the game is lost.
+     *
+     * @param commands - the commands.
+     * @return BatchResult - the result of each command and the final field status.
+     * @throws IllegalArgumentException if the commands have coordinates outside the field; in a batch played as a
+     *         single move, no command is executed.
+     */
+    public BatchResult execute(List<? extends Command> commands) {
+        boolean[] results = new boolean[commands.size()];
+        int executed = field instanceof AbstractField abstractField && encode(commands, abstractField)
+                ? playMoves(commands, abstractField, results)
+                : executeEach(commands, results);
+        return new BatchResult(results, executed, field.getFieldStatus());
+    }
+
+    /**
+     * Translate the commands into moves of {@link AbstractField#playMoves}.
+     *
+     * @return boolean - false if a command cannot be translated.
+     */
+    private boolean encode(List<? extends Command> commands, AbstractField field) {
+        int size = commands.size();
+        if (lineals.length < size) {
+            lineals = Arrays.copyOf(lineals, Math.max(size, lineals.length * 2));
+            explores = Arrays.copyOf(explores, lineals.length);
+        }
+        for (int i = 0; i < size; i++) {
+            Command command = commands.get(i);
+            if (command instanceof Explore explore && explore.getField() == field) {
+                lineals[i] = field.toLineal(explore.getCoordinates());
+                explores[i] = true;
+            } else if (command instanceof ToggleMarkedCell toggle && toggle.getField() == field) {
+                lineals[i] = field.toLineal(toggle.getCoordinates());
+                explores[i] = false;
+            } else {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int playMoves(List<? extends Command> commands, AbstractField field, boolean[] results) {
+        int executed = field.playMoves(lineals, explores, commands.size(), results);
+        for (int i = 0; i < executed; i++) {
+            Command command = commands.get(i);
+            if (command instanceof Explore explore) {
+                explore.setSuccess(results[i]);
+            } else {
+                ((ToggleMarkedCell) command).setSuccess(results[i]);
+            }
+        }
+        return executed;
+    }
+
+    private int executeEach(List<? extends Command> commands, boolean[] results) {
+        int executed = 0;
+        for (Command command : commands) {
+            if (field.getFieldStatus() == FieldStatus.LOSS) {
+                break;
+            }
+            command.execute();
+            results[executed++] = command.isSuccess();
+        }
+        return executed;
+    }
+}
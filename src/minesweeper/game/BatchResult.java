@@ -0,0 +1,69 @@
+package minesweeper.game;
+
+import minesweeper.field.FieldStatus;
+
+/**
+ * Outcome of a batch of commands executed by {@link BatchInvoker}.
+ */
+public class BatchResult {
+    private final boolean[] results;
+    private final int executed;
+    private final FieldStatus status;
+
+    /**
+     * Class constructor.
+     *
+     * @param results  - the result of each command of the batch, false for the commands not executed
+     * @param executed - the number of executed commands, from the start of the batch
+     * @param status   - the field status after the batch
+     */
+    BatchResult(boolean[] results, int executed, FieldStatus status) {
+        this.results = results;
+        this.executed = executed;
+        this.status = status;
+    }
+
+    /**
+     * Get the number of commands in the batch.
+     *
+     * @return int.
+     */
+    public int size() {
+        return results.length;
+    }
+
+    /**
+     * Get the number of executed commands. It is lower than the size of the batch when the game was lost before the
+     * end of the batch.
+     *
+     * @return int.
+     */
+    public int getExecuted() {
+        return executed;
+    }
+
+    /**
+     * Test whether a command of the batch was executed correctly.
+     *
+     * @param index - the position of the command in the batch.
+     * @return boolean - false if the command was not executed.
+     * @throws IndexOutOfBoundsException if the index is outside the batch
+     */
+    public boolean isSuccess(int index) {
+        return results[index];
+    }
+
+    /**
+     * Get the field status after the batch.
+     *
+     * @return FieldStatus.
+     */
+    public FieldStatus getStatus() {
+        return status;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d/%d commands executed, %s", executed, results.length, status);
+    }
+}
@@ -40,4 +40,26 @@ public class Explore implements Command {
     public boolean isSuccess() {
         return success;
     }
+
+    /**
+     * Set the result of the command, when it has been executed in a batch by {@link BatchInvoker}.
+     *
+     * @param success - the result.
+     */
+    void setSuccess(boolean success) {
+        this.success = success;
+    }
+
+    public IField getField() {
+        return field;
+    }
+
+    /**
+     * Get the coordinates of the cell to be explored.
+     *
+     * @return ICoordinates.
+     */
+    public ICoordinates getCoordinates() {
+        return coordinates;
+    }
 }
@@ -2,10 +2,17 @@ package minesweeper.game;
 
 import minesweeper.cell.Coordinates;
 import minesweeper.cell.ICoordinates;
+import minesweeper.field.BoardSpec;
 import minesweeper.field.Field;
+import minesweeper.field.FieldRenderer;
 import minesweeper.field.FieldStatus;
 import minesweeper.field.IField;
+import minesweeper.generator.BoardPool;
 
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.util.Scanner;
 
 public class GameController implements Runnable {
@@ -14,11 +21,67 @@ public class GameController implements Runnable {
     IInvoker invoker = new CommandInvoker();
     Scanner scanner = new Scanner(System.in);
 
+    /**
+     * Number of columns of the field to play.
+     */
+    private final int width;
+
+    /**
+     * Number of rows of the field to play.
+     */
+    private final int height;
+
+    /**
+     * Pool of no-guess boards, null to play boards placed at random on the first exploration.
+     */
+    private final BoardPool boardPool;
+
+    /**
+     * Class constructor, for a game on the classic square field.
+     */
+    public GameController() {
+        this(BoardSpec.DEFAULT_SIDE, BoardSpec.DEFAULT_SIDE);
+    }
+
+    /**
+     * Class constructor.
+     *
+     * @param width  - number of columns of the field
+     * @param height - number of rows of the field
+     */
+    public GameController(int width, int height) {
+        this(width, height, null);
+    }
+
+    /**
+     * Class constructor, for games on boards taken from a pool of no-guess boards, with the start cell explored.
+     *
+     * @param width     - number of columns of the field
+     * @param height    - number of rows of the field
+     * @param boardPool - the pool of boards, null to place mines at random on the first exploration
+     */
+    public GameController(int width, int height, BoardPool boardPool) {
+        this.width = width;
+        this.height = height;
+        this.boardPool = boardPool;
+    }
+
+    /**
+     * Write the changes of the field since the previous move.
+     */
+    private void render(FieldRenderer renderer) {
+        try {
+            renderer.render();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     private void makePlayerMove() {
         while (true) {
             System.out.println("Set/unset mines marks or claim a cell as free: ");
             String commandString = scanner.nextLine();
-            ICoordinates coordinates = new Coordinates(commandString);
+            ICoordinates coordinates = new Coordinates(commandString, width, height);
 
             String[] commandStrings = commandString.split(" ");
             String type = commandStrings[commandStrings.length - 1];
@@ -41,6 +104,9 @@ public class GameController implements Runnable {
 
     /**
      * {@inheritDoc}
+     * <p>
+     * After each move only the changed cells are written: on a terminal they are redrawn in place with ANSI escape
+     * sequences, otherwise they are listed in the delta format of {@link FieldRenderer.Mode#DELTA}.
      */
     @Override
     public void run() {
@@ -48,13 +114,18 @@ public class GameController implements Runnable {
         int numberOfMines = scanner.nextInt();
         scanner.nextLine();
 
-        field = new Field(numberOfMines);
-        System.out.println(field);
+        BoardSpec spec = new BoardSpec(width, height, numberOfMines);
+        Field field = boardPool == null ? new Field(spec) : boardPool.take(spec).newField(Field::new);
+        this.field = field;
+        Writer out = new OutputStreamWriter(System.out);
+        FieldRenderer.Mode mode = System.console() != null ? FieldRenderer.Mode.ANSI : FieldRenderer.Mode.DELTA;
+        FieldRenderer renderer = new FieldRenderer(field, out, mode);
+        render(renderer);
 
         FieldStatus gameStatus = FieldStatus.PENDING;
         while (gameStatus == FieldStatus.PENDING) {
             makePlayerMove();
-            System.out.println(field);
+            render(renderer);
             gameStatus = field.getFieldStatus();
         }
 
@@ -0,0 +1,292 @@
+package minesweeper.generator;
+
+import minesweeper.field.BoardSpec;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Pool of no-guess boards generated in the background, so that a new game takes a ready board instantly.
+ * <p>
+ * Each board configuration has its own bounded queue, created on first use, which background producers keep full.
+ * A taken board is replaced at once. When the queue is empty the board is generated in the calling thread: a miss.
+ * A configuration whose generation fails, having no board without guess within the attempts of its generator, is no
+ * longer refilled: its ready boards are still served, then {@link #take(BoardSpec)} fails at once. Thread safe.
+ */
+public class BoardPool implements AutoCloseable {
+    private final int capacity;
+    private final Function<BoardSpec, NoGuessGenerator> generators;
+    private final ExecutorService producers;
+    private final Map<BoardSpec, Slot> slots = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+
+    /**
+     * Class constructor.
+     *
+     * @param   capacity   - number of ready boards kept for each configuration
+     * @param   producers  - number of background producer threads, shared by all the configurations
+     * @param   generators - factory of the generator of each configuration
+     * @throws  IllegalArgumentException if the capacity or the number of producers is not positive
+     */
+    public BoardPool(int capacity, int producers, Function<BoardSpec, NoGuessGenerator> generators) {
+        if (capacity < 1 || producers < 1) {
+            String error = String.format("Invalid capacity %d or number of producers %d", capacity, producers);
+            throw new IllegalArgumentException(error);
+        }
+        this.capacity = capacity;
+        this.generators = generators;
+        AtomicInteger threads = new AtomicInteger();
+        this.producers = Executors.newFixedThreadPool(producers, runnable -> {
+            Thread thread = new Thread(runnable, "board-producer-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Class constructor, with the default generators and one producer per available processor.
+     *
+     * @param   capacity - number of ready boards kept for each configuration
+     */
+    public BoardPool(int capacity) {
+        this(capacity, Runtime.getRuntime().availableProcessors(), NoGuessGenerator::new);
+    }
+
+    /**
+     * Start filling the queue of a configuration, ahead of the first game.
+     *
+     * @param   spec - the board configuration
+     */
+    public void prepare(BoardSpec spec) {
+        slot(spec);
+    }
+
+    /**
+     * Take a board, ready if possible, otherwise generated in the calling thread.
+     *
+     * @param   spec - the board configuration
+     * @return  NoGuessBoard
+     * @throws  IllegalStateException if the pool is closed, or if no board of the configuration can be generated
+     *          without guess, the cause being the failure of the generation
+     * @see     NoGuessGenerator#generate(java.util.random.RandomGenerator)
+     */
+    public NoGuessBoard take(BoardSpec spec) {
+        if (closed) {
+            throw new IllegalStateException("Board pool closed");
+        }
+        Slot slot = slot(spec);
+        NoGuessBoard board = slot.ready.poll();
+        if (board != null) {
+            slot.hits.increment();
+        } else {
+            slot.misses.increment();
+            if (slot.failure == null) {
+                try {
+                    board = slot.generate();
+                } catch (IllegalStateException e) {
+                    slot.fail(e);
+                }
+            }
+            if (board == null) {
+                throw new IllegalStateException("No board of " + spec + " can be generated", slot.failure);
+            }
+        }
+        refill(slot);
+        return board;
+    }
+
+    /**
+     * Get the metrics of a configuration.
+     *
+     * @param   spec - the board configuration
+     * @return  Metrics - a snapshot of the counters
+     */
+    public Metrics getMetrics(BoardSpec spec) {
+        Slot slot = slot(spec);
+        return new Metrics(spec, slot.ready.size(), slot.hits.sum(), slot.misses.sum(), slot.boards.sum(),
+                slot.candidates.sum(), slot.generationNanos.sum(), slot.failures.sum());
+    }
+
+    /**
+     * Stop the producers. Boards being generated are discarded.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        producers.shutdownNow();
+    }
+
+    private Slot slot(BoardSpec spec) {
+        Slot slot = slots.get(spec);
+        if (slot == null) {
+            slot = slots.computeIfAbsent(spec, key -> new Slot(generators.apply(key), capacity));
+            refill(slot);
+        }
+        return slot;
+    }
+
+    /**
+     * Schedule the production of the boards missing from a queue, counting the ones being produced. Nothing is
+     * scheduled once the generation of the configuration has failed.
+     */
+    private void refill(Slot slot) {
+        while (!closed && slot.failure == null) {
+            int inFlight = slot.inFlight.get();
+            if (slot.ready.size() + inFlight >= capacity) {
+                return;
+            }
+            if (slot.inFlight.compareAndSet(inFlight, inFlight + 1)) {
+                try {
+                    producers.execute(() -> produce(slot));
+                } catch (RejectedExecutionException e) {
+                    // closed meanwhile
+                    slot.inFlight.decrementAndGet();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void produce(Slot slot) {
+        try {
+            if (!closed && slot.failure == null) {
+                slot.ready.offer(slot.generate());
+            }
+        } catch (IllegalStateException e) {
+            slot.fail(e);
+        } finally {
+            slot.inFlight.decrementAndGet();
+        }
+        refill(slot);
+    }
+
+    /**
+     * Queue and counters of a configuration.
+     */
+    private static final class Slot {
+        final NoGuessGenerator generator;
+        final BlockingQueue<NoGuessBoard> ready;
+        final AtomicInteger inFlight = new AtomicInteger();
+        final LongAdder hits = new LongAdder();
+        final LongAdder misses = new LongAdder();
+        final LongAdder boards = new LongAdder();
+        final LongAdder candidates = new LongAdder();
+        final LongAdder generationNanos = new LongAdder();
+        final LongAdder failures = new LongAdder();
+
+        /**
+         * The first failure of the generation, after which the queue is no longer refilled.
+         */
+        volatile IllegalStateException failure;
+
+        Slot(NoGuessGenerator generator, int capacity) {
+            this.generator = generator;
+            this.ready = new ArrayBlockingQueue<>(capacity);
+        }
+
+        NoGuessBoard generate() {
+            long start = System.nanoTime();
+            NoGuessBoard board = generator.generate(ThreadLocalRandom.current());
+            generationNanos.add(System.nanoTime() - start);
+            boards.increment();
+            candidates.add(board.getAttempts());
+            return board;
+        }
+
+        void fail(IllegalStateException e) {
+            failures.increment();
+            if (failure == null) {
+                failure = e;
+            }
+        }
+    }
+
+    /**
+     * Snapshot of the metrics of a configuration.
+     */
+    public static final class Metrics {
+        private final BoardSpec spec;
+        private final int ready;
+        private final long hits;
+        private final long misses;
+        private final long boards;
+        private final long candidates;
+        private final long generationNanos;
+        private final long failures;
+
+        Metrics(BoardSpec spec, int ready, long hits, long misses, long boards, long candidates,
+                long generationNanos, long failures) {
+            this.spec = spec;
+            this.ready = ready;
+            this.hits = hits;
+            this.misses = misses;
+            this.boards = boards;
+            this.candidates = candidates;
+            this.generationNanos = generationNanos;
+            this.failures = failures;
+        }
+
+        /**
+         * Get the number of boards ready in the queue.
+         *
+         * @return  int
+         */
+        public int getReady() {
+            return ready;
+        }
+
+        /**
+         * Get the ratio of boards taken ready from the queue.
+         *
+         * @return  double - between 0 and 1, NaN if no board has been taken
+         */
+        public double getHitRate() {
+            return (double) hits / (hits + misses);
+        }
+
+        /**
+         * Get the ratio of candidate layouts accepted as no-guess boards.
+         *
+         * @return  double - between 0 and 1, NaN if no board has been generated
+         */
+        public double getAcceptanceRate() {
+            return (double) boards / candidates;
+        }
+
+        /**
+         * Get the generation throughput of a single thread.
+         *
+         * @return  double - boards generated per second of generation time
+         */
+        public double getBoardsPerSecond() {
+            return boards * 1e9 / generationNanos;
+        }
+
+        /**
+         * Get the number of generations which found no board without guess within the attempts of the generator.
+         *
+         * @return  long
+         */
+        public long getFailures() {
+            return failures;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%s: %d ready, hit rate %.3f (%d hits, %d misses), %d boards from %d "
+                            + "candidates (acceptance %.3f), %.1f boards/s per thread, %d failures", spec, ready,
+                    getHitRate(), hits, misses, boards, candidates, getAcceptanceRate(), getBoardsPerSecond(),
+                    failures);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package minesweeper.generator;
+
+import minesweeper.cell.Coordinates;
+import minesweeper.field.AbstractField;
+import minesweeper.field.BoardSpec;
+import minesweeper.field.MinePlacer;
+
+import java.util.function.BiFunction;
+
+/**
+ * Board generated in advance by a {@link NoGuessGenerator}: a layout of mines and the start cell from which the board
+ * can be solved without guessing.
+ * <p>
+ * Immutable: the same board can create any number of fields.
+ */
+public final class NoGuessBoard {
+    private final BoardSpec spec;
+    private final int[] mines;
+    private final int start;
+    private final int attempts;
+
+    /**
+     * Class constructor.
+     *
+     * @param   spec     - dimensions and number of mines
+     * @param   mines    - lineal values of the cells containing mines, sorted
+     * @param   start    - lineal value of the start cell
+     * @param   attempts - number of candidate layouts generated to find this one
+     */
+    NoGuessBoard(BoardSpec spec, int[] mines, int start, int attempts) {
+        this.spec = spec;
+        this.mines = mines;
+        this.start = start;
+        this.attempts = attempts;
+    }
+
+    public BoardSpec getBoardSpec() {
+        return spec;
+    }
+
+    /**
+     * Get the cell to explore first.
+     *
+     * @return  int - the lineal value of the start cell
+     */
+    public int getStart() {
+        return start;
+    }
+
+    /**
+     * Get the number of candidate layouts generated to find this board, including itself.
+     *
+     * @return  int
+     */
+    public int getAttempts() {
+        return attempts;
+    }
+
+    /**
+     * Create a field with the layout of this board, with the start cell already explored, so that the game goes on
+     * from a position needing no guess.
+     *
+     * @param   fields - factory of the field, from the board and its mine placer
+     * @param   <F>    - the field type
+     * @return  F - the field
+     */
+    public <F extends AbstractField> F newField(BiFunction<BoardSpec, MinePlacer, F> fields) {
+        F field = fields.apply(spec, MinePlacer.preset(mines));
+        field.explore(new Coordinates(start, spec.getWidth()));
+        return field;
+    }
+}
@@ -0,0 +1,160 @@
+package minesweeper.generator;
+
+import minesweeper.cell.Coordinates;
+import minesweeper.cell.Neighborhood;
+import minesweeper.field.BoardSpec;
+import minesweeper.field.FieldStatus;
+import minesweeper.field.MinePlacer;
+import minesweeper.field.MinePlacer.SafeZone;
+import minesweeper.field.PackedField;
+import minesweeper.game.Command;
+import minesweeper.solver.MineProbabilities;
+import minesweeper.solver.ProbabilityEngine;
+import minesweeper.solver.Solver;
+
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * Generator of boards which can be solved from the first exploration without guessing.
+ * <p>
+ * Candidates are drawn as usual, with the neighbors of a random start cell free of mines, then played by logic only:
+ * first the certain moves of the {@link Solver}, then, when it is stuck, the cells that the {@link ProbabilityEngine}
+ * finds free of mines in every placement consistent with the board. A candidate is accepted if all its safe cells get
+ * explored; the cells left are then mines by counting. Components the engine can only sample are never trusted, so an
+ * accepted board never needs a guess, while some solvable candidates may be rejected.
+ * <p>
+ * Thread safe: each generation works on its own field.
+ */
+public class NoGuessGenerator {
+    /**
+     * Default maximum number of candidates of a generation, far above what playable densities need.
+     */
+    public static final int DEFAULT_MAX_ATTEMPTS = 10_000;
+
+    private final BoardSpec spec;
+    private final Neighborhood neighborhood;
+    private final ProbabilityEngine engine;
+    private final int maxAttempts;
+
+    /**
+     * Class constructor.
+     *
+     * @param   spec        - dimensions and number of mines of the boards
+     * @param   engine      - the engine used when the solver is stuck; null to rely on the solver only
+     * @param   maxAttempts - the number of candidates after which a generation gives up
+     * @throws  IllegalArgumentException if the maximum number of attempts is not positive
+     */
+    public NoGuessGenerator(BoardSpec spec, ProbabilityEngine engine, int maxAttempts) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("Invalid maximum number of attempts: " + maxAttempts);
+        }
+        this.spec = spec;
+        this.neighborhood = Neighborhood.of(spec.getWidth(), spec.getHeight());
+        this.engine = engine;
+        this.maxAttempts = maxAttempts;
+    }
+
+    /**
+     * Class constructor, with the default maximum number of attempts.
+     *
+     * @param   spec   - dimensions and number of mines of the boards
+     * @param   engine - the engine used when the solver is stuck; null to rely on the solver only
+     */
+    public NoGuessGenerator(BoardSpec spec, ProbabilityEngine engine) {
+        this(spec, engine, DEFAULT_MAX_ATTEMPTS);
+    }
+
+    /**
+     * Class constructor, with a probability engine on the common pool and the default maximum number of attempts.
+     *
+     * @param   spec - dimensions and number of mines of the boards
+     */
+    public NoGuessGenerator(BoardSpec spec) {
+        this(spec, new ProbabilityEngine());
+    }
+
+    public BoardSpec getBoardSpec() {
+        return spec;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * Generate candidates until one can be solved without guessing.
+     *
+     * @param   random - the source of randomness
+     * @return  NoGuessBoard
+     * @throws  IllegalStateException if no candidate among the maximum number of attempts can be solved, as happens
+     *          when the board is too dense ever to be solved without guessing
+     */
+    public NoGuessBoard generate(RandomGenerator random) {
+        for (int attempts = 1; attempts <= maxAttempts; attempts++) {
+            NoGuessBoard board = tryGenerate(random, attempts);
+            if (board != null) {
+                return board;
+            }
+        }
+        String error = String.format("No board of %s without guess found in %d attempts", spec, maxAttempts);
+        throw new IllegalStateException(error);
+    }
+
+    /**
+     * Generate a single candidate.
+     *
+     * @param   random   - the source of randomness
+     * @param   attempts - the number of candidates generated so far, including this one
+     * @return  NoGuessBoard - the board, or null if the candidate needs a guess
+     */
+    NoGuessBoard tryGenerate(RandomGenerator random, int attempts) {
+        int start = random.nextInt(spec.getSize());
+        int[] mines = new MinePlacer(random, SafeZone.NEIGHBORHOOD).place(neighborhood, spec.getNumberOfMines(), start);
+        NoGuessBoard board = new NoGuessBoard(spec, mines, start, attempts);
+        return isSolvable(board) ? board : null;
+    }
+
+    /**
+     * Play a board by logic only.
+     *
+     * @param   board - the board
+     * @return  boolean - true if all the safe cells get explored without guessing
+     */
+    boolean isSolvable(NoGuessBoard board) {
+        PackedField field = board.newField(PackedField::new);
+        Solver solver = new Solver(field);
+        int safeCells = spec.getSize() - spec.getNumberOfMines();
+        while (field.getRevealedSafe() < safeCells && field.getFieldStatus() == FieldStatus.PENDING) {
+            List<Command> moves = solver.nextMoves();
+            if (!moves.isEmpty()) {
+                for (Command move : moves) {
+                    move.execute();
+                }
+            } else if (engine == null || !exploreSafeCells(field, solver)) {
+                return false;
+            }
+        }
+        return field.getRevealedSafe() == safeCells;
+    }
+
+    /**
+     * Explore the cells which are safe in every placement of the mines consistent with the field.
+     *
+     * @return  boolean - true if at least one cell has been explored
+     */
+    private boolean exploreSafeCells(PackedField field, Solver solver) {
+        MineProbabilities probabilities = engine.compute(field, solver);
+        if (!probabilities.isExact()) {
+            return false;
+        }
+        boolean explored = false;
+        for (int lineal = 0; lineal < spec.getSize(); lineal++) {
+            if (probabilities.isCertainlySafe(lineal) && !solver.isKnownSafe(lineal)) {
+                field.explore(new Coordinates(lineal, spec.getWidth()));
+                explored = true;
+            }
+        }
+        return explored;
+    }
+}
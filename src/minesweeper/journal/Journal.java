@@ -0,0 +1,164 @@
+package minesweeper.journal;
+
+import minesweeper.field.BoardSpec;
+import minesweeper.field.MinePlacer.SafeZone;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read-only view of a journal file written by {@link MoveJournal}, memory-mapped so that records are read in place.
+ * A record cut by a crash at the end of the file is ignored. Thread safe.
+ */
+public class Journal {
+    private final ByteBuffer records;
+    private final BoardSpec spec;
+    private final SafeZone safeZone;
+    private final long seed;
+    private final long startTime;
+    private final int size;
+
+    private Journal(ByteBuffer file, BoardSpec spec) {
+        this.spec = spec;
+        this.safeZone = SafeZone.values()[file.getInt(MoveJournal.SAFE_ZONE_OFFSET)];
+        this.seed = file.getLong(MoveJournal.SEED_OFFSET);
+        this.startTime = file.getLong(MoveJournal.START_TIME_OFFSET);
+        this.size = (file.limit() - MoveJournal.HEADER_SIZE) / MoveJournal.RECORD_SIZE;
+        this.records = file.position(MoveJournal.HEADER_SIZE).slice();
+    }
+
+    /**
+     * Open a journal file.
+     *
+     * @param   path - the journal file
+     * @return  Journal
+     * @throws  IOException if the file cannot be read or mapped, or is not a journal
+     */
+    public static Journal read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Journal too large to be mapped: " + path);
+            }
+            ByteBuffer file = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new Journal(file, readHeader(file, path));
+        }
+    }
+
+    /**
+     * Validate the header of a journal.
+     *
+     * @param   header - the buffer holding the header from its position 0
+     * @param   path   - the journal file, for the error messages
+     * @return  BoardSpec - the board of the journal
+     * @throws  IOException if the header is not the one of a supported journal
+     */
+    static BoardSpec readHeader(ByteBuffer header, Path path) throws IOException {
+        if (header.limit() < MoveJournal.HEADER_SIZE || header.getInt(0) != MoveJournal.MAGIC) {
+            throw new IOException("Not a journal file: " + path);
+        }
+        if (header.getInt(4) != MoveJournal.VERSION) {
+            throw new IOException("Unsupported journal version: " + header.getInt(4));
+        }
+        int safeZone = header.getInt(MoveJournal.SAFE_ZONE_OFFSET);
+        if (safeZone < 0 || safeZone >= SafeZone.values().length) {
+            throw new IOException("Invalid safe zone in journal: " + path);
+        }
+        try {
+            int width = header.getInt(MoveJournal.WIDTH_OFFSET);
+            int height = header.getInt(MoveJournal.HEIGHT_OFFSET);
+            return new BoardSpec(width, height, header.getInt(MoveJournal.MINES_OFFSET));
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid board in journal: " + path, e);
+        }
+    }
+
+    public BoardSpec getBoardSpec() {
+        return spec;
+    }
+
+    public SafeZone getSafeZone() {
+        return safeZone;
+    }
+
+    /**
+     * Get the seed of the mine placer of the game.
+     *
+     * @return  long
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Get the creation time of the journal.
+     *
+     * @return  long - milliseconds since the epoch
+     */
+    public long getStartTime() {
+        return startTime;
+    }
+
+    /**
+     * Get the number of recorded moves.
+     *
+     * @return  int
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get the type of a move.
+     *
+     * @param   move - the index of the move, from 0
+     * @return  MoveType
+     * @throws  IndexOutOfBoundsException if there is no such move
+     * @throws  IllegalArgumentException if the record is corrupted
+     */
+    public MoveType getType(int move) {
+        return MoveType.fromCode(records.get(offset(move) + MoveJournal.TYPE_OFFSET));
+    }
+
+    /**
+     * Get the lineal value of the cell of a move.
+     *
+     * @param   move - the index of the move, from 0
+     * @return  int
+     * @throws  IndexOutOfBoundsException if there is no such move
+     */
+    public int getLineal(int move) {
+        return records.getInt(offset(move) + MoveJournal.LINEAL_OFFSET);
+    }
+
+    /**
+     * Get the result of a move, as returned when it was played.
+     *
+     * @param   move - the index of the move, from 0
+     * @return  boolean
+     * @throws  IndexOutOfBoundsException if there is no such move
+     */
+    public boolean getResult(int move) {
+        return records.get(offset(move) + MoveJournal.RESULT_OFFSET) != 0;
+    }
+
+    /**
+     * Get the time of a move.
+     *
+     * @param   move - the index of the move, from 0
+     * @return  long - milliseconds since the epoch
+     * @throws  IndexOutOfBoundsException if there is no such move
+     */
+    public long getTimestamp(int move) {
+        return records.getLong(offset(move) + MoveJournal.TIME_OFFSET);
+    }
+
+    private int offset(int move) {
+        if (move < 0 || move >= size) {
+            throw new IndexOutOfBoundsException("Move not found: " + move);
+        }
+        return move * MoveJournal.RECORD_SIZE;
+    }
+}
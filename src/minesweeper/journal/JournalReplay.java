@@ -0,0 +1,169 @@
+package minesweeper.journal;
+
+import minesweeper.cell.Coordinates;
+import minesweeper.field.AbstractField;
+import minesweeper.field.BoardSpec;
+import minesweeper.field.FieldState;
+import minesweeper.field.MinePlacer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiFunction;
+
+/**
+ * Replay of a journal on a field, which can be moved to the state after any move of the game.
+ * <p>
+ * Moves are decoded in blocks and played with {@link AbstractField#playMoves}, checking that each move gives the
+ * recorded result. Every {@code keyframeInterval} moves the state of the field is captured as a keyframe, the first
+ * time the replay goes through it: seeking a move restores the closest keyframe before it, and replays at most {@code
+ * keyframeInterval - 1} moves. Keyframes take 3 bits per cell each.
+ * <p>
+ * Not thread safe.
+ *
+ * @param   <F> - the field type
+ */
+public class JournalReplay<F extends AbstractField> {
+    /**
+     * Default number of moves between keyframes.
+     */
+    public static final int DEFAULT_KEYFRAME_INTERVAL = 1024;
+
+    private final Journal journal;
+    private final F field;
+    private final int width;
+    private final int keyframeInterval;
+
+    /**
+     * Captured states, keyframe k being the state after k * keyframeInterval moves.
+     */
+    private final List<FieldState> keyframes = new ArrayList<>();
+
+    private final int[] lineals;
+    private final boolean[] explores;
+    private final boolean[] results;
+    private int position;
+
+    /**
+     * Class constructor. The field starts before the first move.
+     *
+     * @param   journal          - the journal
+     * @param   fields           - factory of the field, from the board and the mine placer of the journal
+     * @param   keyframeInterval - number of moves between keyframes
+     * @throws  IllegalArgumentException if the interval is not positive
+     */
+    public JournalReplay(Journal journal, BiFunction<BoardSpec, MinePlacer, F> fields, int keyframeInterval) {
+        if (keyframeInterval < 1) {
+            throw new IllegalArgumentException("Invalid keyframe interval: " + keyframeInterval);
+        }
+        this.journal = journal;
+        BoardSpec spec = journal.getBoardSpec();
+        this.field = fields.apply(spec, new MinePlacer(journal.getSeed(), journal.getSafeZone()));
+        this.width = spec.getWidth();
+        this.keyframeInterval = keyframeInterval;
+        int block = Math.min(keyframeInterval, Math.max(journal.size(), 1));
+        this.lineals = new int[block];
+        this.explores = new boolean[block];
+        this.results = new boolean[block];
+        keyframes.add(null);
+    }
+
+    /**
+     * Class constructor, with {@link #DEFAULT_KEYFRAME_INTERVAL}.
+     *
+     * @param   journal - the journal
+     * @param   fields  - factory of the field, from the board and the mine placer of the journal
+     */
+    public JournalReplay(Journal journal, BiFunction<BoardSpec, MinePlacer, F> fields) {
+        this(journal, fields, DEFAULT_KEYFRAME_INTERVAL);
+    }
+
+    /**
+     * Get the field, in the state after {@link #getPosition()} moves. It must not be changed but through this replay.
+     *
+     * @return  F
+     */
+    public F getField() {
+        return field;
+    }
+
+    /**
+     * Get the number of moves played on the field.
+     *
+     * @return  int
+     */
+    public int getPosition() {
+        return position;
+    }
+
+    /**
+     * Get the number of keyframes captured so far, the initial state included.
+     *
+     * @return  int
+     */
+    public int getKeyframes() {
+        return keyframes.size();
+    }
+
+    /**
+     * Set the field to its state after a number of moves.
+     *
+     * @param   move - the number of moves, from 0 for the initial state to the size of the journal
+     * @throws  IllegalArgumentException if the journal has fewer moves
+     * @throws  IllegalStateException if a move does not give its recorded result: the journal is not of a game of
+     *          this board, seed and safe zone
+     */
+    public void seek(int move) {
+        if (move < 0 || move > journal.size()) {
+            String error = String.format("Invalid move %d, the journal has %d moves", move, journal.size());
+            throw new IllegalArgumentException(error);
+        }
+        int keyframe = Math.min(move / keyframeInterval, keyframes.size() - 1);
+        if (move < position || keyframe > position / keyframeInterval) {
+            if (keyframe == 0) {
+                field.reset(journal.getSeed());
+            } else {
+                field.restoreState(keyframes.get(keyframe));
+            }
+            position = keyframe * keyframeInterval;
+        }
+        while (position < move) {
+            int end = Math.min(move, (position / keyframeInterval + 1) * keyframeInterval);
+            play(position, end);
+            position = end;
+            if (position % keyframeInterval == 0 && keyframes.size() == position / keyframeInterval) {
+                keyframes.add(field.captureState());
+            }
+        }
+    }
+
+    /**
+     * Play all the moves of the journal.
+     */
+    public void toEnd() {
+        seek(journal.size());
+    }
+
+    /**
+     * Play a block of moves, within a keyframe interval.
+     */
+    private void play(int from, int to) {
+        int count = to - from;
+        for (int i = 0; i < count; i++) {
+            lineals[i] = journal.getLineal(from + i);
+            explores[i] = journal.getType(from + i) == MoveType.EXPLORE;
+        }
+        int played = field.playMoves(lineals, explores, count, results);
+        // moves recorded after the game was lost, which playMoves does not play
+        for (int i = played; i < count; i++) {
+            Coordinates coordinates = new Coordinates(lineals[i], width);
+            results[i] = explores[i] ? field.explore(coordinates) : field.toggleMarkedCell(coordinates);
+        }
+        for (int i = 0; i < count; i++) {
+            if (results[i] != journal.getResult(from + i)) {
+                String error = String.format("Move %d: recorded result %b, replayed %b", from + i,
+                        journal.getResult(from + i), results[i]);
+                throw new IllegalStateException(error);
+            }
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package minesweeper.journal;
+
+import minesweeper.cell.ICoordinates;
+import minesweeper.field.BoardSpec;
+import minesweeper.game.Command;
+import minesweeper.game.CommandInvoker;
+import minesweeper.game.Explore;
+import minesweeper.game.IInvoker;
+import minesweeper.game.ToggleMarkedCell;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Invoker recording every executed command, with its result, in a {@link MoveJournal}.
+ * <p>
+ * Only {@link Explore} and {@link ToggleMarkedCell} commands can be recorded. The journal should be created with the
+ * seed and safe zone of the mine placer of the field, so that the game can be replayed by {@link JournalReplay}.
+ */
+public class JournalingInvoker implements IInvoker, Closeable {
+    private final IInvoker invoker;
+    private final MoveJournal journal;
+    private MoveType type;
+    private int lineal;
+
+    /**
+     * Class constructor.
+     *
+     * @param invoker - the invoker executing the commands.
+     * @param journal - the journal recording them.
+     */
+    public JournalingInvoker(IInvoker invoker, MoveJournal journal) {
+        this.invoker = invoker;
+        this.journal = journal;
+    }
+
+    /**
+     * Class constructor, executing the commands with a {@link CommandInvoker}.
+     *
+     * @param journal - the journal recording them.
+     */
+    public JournalingInvoker(MoveJournal journal) {
+        this(new CommandInvoker(), journal);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IllegalArgumentException if the command cannot be recorded.
+     */
+    @Override
+    public void setCommand(Command command) {
+        if (command instanceof Explore explore) {
+            type = MoveType.EXPLORE;
+            lineal = toLineal(explore.getCoordinates());
+        } else if (command instanceof ToggleMarkedCell toggle) {
+            type = MoveType.TOGGLE_MARK;
+            lineal = toLineal(toggle.getCoordinates());
+        } else {
+            throw new IllegalArgumentException("Command cannot be recorded: " + command);
+        }
+        invoker.setCommand(command);
+    }
+
+    /**
+     * Get the lineal value of coordinates on the board of the journal, from their column and row.
+     *
+     * @throws IllegalArgumentException if the coordinates are outside the board.
+     */
+    private int toLineal(ICoordinates coordinates) {
+        BoardSpec spec = journal.getBoardSpec();
+        long x = coordinates.getX();
+        long y = coordinates.getY();
+        if (x < 0 || y < 0 || x >= spec.getWidth() || y >= spec.getHeight()) {
+            throw new IllegalArgumentException("Coordinates not found: " + coordinates);
+        }
+        return (int) y * spec.getWidth() + (int) x;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws UncheckedIOException if the journal cannot be written.
+     */
+    @Override
+    public void execute() {
+        invoker.execute();
+        try {
+            journal.record(type, lineal, invoker.isSuccess());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isSuccess() {
+        return invoker.isSuccess();
+    }
+
+    public MoveJournal getJournal() {
+        return journal;
+    }
+
+    /**
+     * Close the journal, writing the buffered records.
+     *
+     * @throws IOException if the records cannot be written.
+     */
+    @Override
+    public void close() throws IOException {
+        journal.close();
+    }
+}
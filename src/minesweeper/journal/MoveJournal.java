@@ -0,0 +1,196 @@
+package minesweeper.journal;
+
+import minesweeper.field.BoardSpec;
+import minesweeper.field.MinePlacer.SafeZone;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Append-only journal of the moves of a game, in a file of fixed width binary records.
+ * <p>
+ * The header holds what is needed to replay the game: the board, the seed of the mine placer and its safe zone, and
+ * the creation time. Each move is then recorded in {@value #RECORD_SIZE} bytes. Records are collected in a buffer and
+ * written in groups of {@value #GROUP_RECORDS}, or on {@link #flush()} and {@link #close()}. After a crash, at most the
+ * last group is lost, and a record cut by the crash is ignored by the readers.
+ * <p>
+ * File layout, big endian:
+ * <ul>
+ *     <li>header: magic, version, width, height, number of mines, safe zone (ints), seed, creation time in
+ *     milliseconds since the epoch (longs);</li>
+ *     <li>record: move type (byte, see {@link MoveType}), result (byte, 0 or 1), unused (short), lineal value of the
+ *     cell (int), time of the move in milliseconds since the epoch (long).</li>
+ * </ul>
+ * Not thread safe.
+ *
+ * @see Journal
+ * @see JournalingInvoker
+ */
+public class MoveJournal implements Closeable {
+    static final int MAGIC = 0x4D534A4E;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 40;
+    static final int RECORD_SIZE = 16;
+
+    /**
+     * Number of records written together.
+     */
+    static final int GROUP_RECORDS = 256;
+
+    static final int WIDTH_OFFSET = 8;
+    static final int HEIGHT_OFFSET = 12;
+    static final int MINES_OFFSET = 16;
+    static final int SAFE_ZONE_OFFSET = 20;
+    static final int SEED_OFFSET = 24;
+    static final int START_TIME_OFFSET = 32;
+
+    static final int TYPE_OFFSET = 0;
+    static final int RESULT_OFFSET = 1;
+    static final int LINEAL_OFFSET = 4;
+    static final int TIME_OFFSET = 8;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(GROUP_RECORDS * RECORD_SIZE);
+    private final BoardSpec spec;
+    private final int size;
+    private long records;
+
+    private MoveJournal(FileChannel channel, BoardSpec spec, long records) {
+        this.channel = channel;
+        this.spec = spec;
+        this.size = spec.getSize();
+        this.records = records;
+    }
+
+    /**
+     * Create a journal, replacing any existing file.
+     *
+     * @param   path     - the journal file
+     * @param   spec     - the board of the game
+     * @param   seed     - the seed of the mine placer of the game
+     * @param   safeZone - the safe zone of the mine placer of the game
+     * @return  MoveJournal
+     * @throws  IOException if the file cannot be created
+     */
+    public static MoveJournal create(Path path, BoardSpec spec, long seed, SafeZone safeZone) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(VERSION).putInt(spec.getWidth()).putInt(spec.getHeight())
+                    .putInt(spec.getNumberOfMines()).putInt(safeZone.ordinal()).putLong(seed)
+                    .putLong(System.currentTimeMillis()).flip();
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            return new MoveJournal(channel, spec, 0);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Open an existing journal to record the next moves of its game. A record cut by a crash is discarded.
+     *
+     * @param   path - the journal file
+     * @return  MoveJournal
+     * @throws  IOException if the file cannot be opened, or is not a journal
+     */
+    public static MoveJournal append(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // read the whole header
+            }
+            BoardSpec spec = Journal.readHeader(header.flip(), path);
+            long records = (channel.size() - HEADER_SIZE) / RECORD_SIZE;
+            channel.truncate(HEADER_SIZE + records * RECORD_SIZE);
+            channel.position(HEADER_SIZE + records * RECORD_SIZE);
+            return new MoveJournal(channel, spec, records);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Record a move.
+     *
+     * @param   type   - the type of move
+     * @param   lineal - the lineal value of the cell
+     * @param   result - the result of the move
+     * @throws  IllegalArgumentException if the lineal value is outside the board
+     * @throws  IOException if the buffer is full and its records cannot be written: the move is not recorded
+     */
+    public void record(MoveType type, int lineal, boolean result) throws IOException {
+        if (lineal < 0 || lineal >= size) {
+            throw new IllegalArgumentException("Coordinates not found: " + lineal);
+        }
+        if (!buffer.hasRemaining()) {
+            flush();
+        }
+        buffer.put(type.getCode()).put((byte) (result ? 1 : 0)).putShort((short) 0).putInt(lineal)
+                .putLong(System.currentTimeMillis());
+        records++;
+    }
+
+    public BoardSpec getBoardSpec() {
+        return spec;
+    }
+
+    /**
+     * Get the number of recorded moves, written or still buffered.
+     *
+     * @return  long
+     */
+    public long getRecords() {
+        return records;
+    }
+
+    /**
+     * Write the buffered records to the file. If they cannot all be written, the ones left stay buffered, after the
+     * part already written, and are written by the next flush.
+     *
+     * @throws  IOException if the records cannot be written
+     */
+    public void flush() throws IOException {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } finally {
+            buffer.compact();
+        }
+    }
+
+    /**
+     * Write the buffered records to the file and force them to the storage device, for example at the end of a game.
+     *
+     * @throws  IOException if the records cannot be written
+     */
+    public void sync() throws IOException {
+        flush();
+        channel.force(false);
+    }
+
+    /**
+     * Write the buffered records and close the file.
+     *
+     * @throws  IOException if the records cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+}
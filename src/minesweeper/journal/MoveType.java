@@ -0,0 +1,41 @@
+package minesweeper.journal;
+
+/**
+ * Type of a move recorded in a journal, with its code in the records.
+ */
+public enum MoveType {
+    /**
+     * Exploration of a cell, see {@link minesweeper.game.Explore}.
+     */
+    EXPLORE(1),
+    /**
+     * Mark or unmark of a cell, see {@link minesweeper.game.ToggleMarkedCell}.
+     */
+    TOGGLE_MARK(2);
+
+    private final byte code;
+
+    MoveType(int code) {
+        this.code = (byte) code;
+    }
+
+    byte getCode() {
+        return code;
+    }
+
+    /**
+     * Get the move type of a record code.
+     *
+     * @param   code - the code
+     * @return  MoveType
+     * @throws  IllegalArgumentException if the code is unknown
+     */
+    static MoveType fromCode(byte code) {
+        for (MoveType type : values()) {
+            if (type.code == code) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown move type: " + code);
+    }
+}
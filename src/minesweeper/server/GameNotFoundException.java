@@ -0,0 +1,18 @@
+package minesweeper.server;
+
+/**
+ * Thrown when a request names a game which does not exist, or no longer: answered 404 by {@link GameServer}, unlike
+ * the other errors of the server.
+ */
+class GameNotFoundException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Class constructor.
+     *
+     * @param   id - the identifier of the game
+     */
+    GameNotFoundException(long id) {
+        super("Game not found: " + id);
+    }
+}
@@ -0,0 +1,371 @@
+package minesweeper.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import minesweeper.field.BoardSpec;
+import minesweeper.field.FieldPool;
+import minesweeper.field.PackedField;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * HTTP server hosting many games at once, on the JDK built-in {@link HttpServer}.
+ * <p>
+ * Each request runs on its own virtual thread when the JDK provides them, on a pool of platform threads otherwise.
+ * Games are kept in a {@link SessionStore}, on fields taken from a {@link FieldPool}: within a memory budget, beyond
+ * which the least recently used games are spilled to disk and reloaded on their next request. Requests on the same
+ * game are serialized, requests on different games run in parallel. Cells are given as 1-based column and row, as in
+ * the delta format of {@link minesweeper.field.FieldRenderer}. Endpoints:
+ * <ul>
+ *     <li>{@code POST /games?width=9&height=9&mines=10[&seed=n]} - create a game, 201 with
+ *     {@code {"id":1,"width":9,"height":9,"mines":10}};</li>
+ *     <li>{@code GET /games/<id>} - the board and the status of a game, as the answer of its creation with a
+ *     {@code "status"} field;</li>
+ *     <li>{@code POST /games/<id>/explore?column=c&row=r} and {@code POST /games/<id>/mark?column=c&row=r} - run an
+ *     {@link minesweeper.game.Explore} or {@link minesweeper.game.ToggleMarkedCell} command, answering
+ *     {@code {"success":true,"status":"PENDING"}};</li>
+ *     <li>{@code GET /games/<id>/delta[?format=binary]} - the cells changed since the previous delta, as
+ *     {@code {"status":"PENDING","delta":"3,1:1 4,1:/"}} with the entries of the delta format, or in binary: the
+ *     status ordinal as a byte, the number of cells as an int, then each cell as its lineal value (int) and its symbol
+ *     (byte), big endian;</li>
+ *     <li>{@code DELETE /games/<id>} - end a game, 204;</li>
+ *     <li>{@code GET /stats} - the counters of the store: games, resident games and bytes, hits, misses, evictions
+ *     and reload latency.</li>
+ * </ul>
+ * Errors answer 400 for invalid parameters, 404 for unknown games or paths, 405 for unsupported methods, and 500 for
+ * any other failure, including the state errors of the fields, which are bugs of the server, with a
+ * {@code {"error":"..."}} body.
+ */
+public class GameServer implements Closeable {
+    /**
+     * Largest board accepted, in cells.
+     */
+    static final int MAX_CELLS = 1 << 20;
+
+    /**
+     * Idle fields kept by the pool for each board.
+     */
+    private static final int POOL_CAPACITY = 1024;
+
+    private static final String JSON = "application/json";
+    private static final String BINARY = "application/octet-stream";
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final SessionStore sessions;
+
+    static {
+        // the built-in server writes the headers and the body of an answer apart: with Nagle's algorithm, the body
+        // waits for the delayed acknowledgment of the headers, about 40 ms per request
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    /**
+     * Class constructor. The server is bound, but does not answer before {@link #start()}. Games may take half of the
+     * maximum heap, and are spilled to a new temporary directory.
+     *
+     * @param   address - the address to listen on, port 0 for any free port
+     * @throws  IOException if the address cannot be bound or the directory created
+     */
+    public GameServer(InetSocketAddress address) throws IOException {
+        this(address, Runtime.getRuntime().maxMemory() / 2, Files.createTempDirectory("minesweeper-games"));
+    }
+
+    /**
+     * Class constructor. The server is bound, but does not answer before {@link #start()}.
+     *
+     * @param   address        - the address to listen on, port 0 for any free port
+     * @param   memoryBudget   - the estimated memory the games in memory may hold, in bytes
+     * @param   spillDirectory - the directory of the snapshots of the spilled games, existing
+     * @throws  IOException if the address cannot be bound
+     * @throws  IllegalArgumentException if the budget is not positive
+     */
+    public GameServer(InetSocketAddress address, long memoryBudget, Path spillDirectory) throws IOException {
+        this.sessions = new SessionStore(memoryBudget, spillDirectory,
+                new FieldPool<>(PackedField::new, POOL_CAPACITY));
+        this.server = HttpServer.create(address, 0);
+        this.executor = newExecutor();
+        server.setExecutor(executor);
+        server.createContext("/games", this::handle);
+        server.createContext("/stats", this::handle);
+    }
+
+    /**
+     * Create an executor running each task on a new virtual thread. Virtual threads are looked up by reflection, so
+     * that the server also runs on JDKs without them, on a pool of platform threads.
+     *
+     * @return  ExecutorService
+     */
+    static ExecutorService newExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            return Executors.newFixedThreadPool(4 * Runtime.getRuntime().availableProcessors());
+        }
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Get the port the server listens on.
+     *
+     * @return  int
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Get the number of games in progress.
+     *
+     * @return  int
+     */
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    /**
+     * Stop the server, without waiting for the requests in progress, and delete the snapshots of the spilled games.
+     *
+     * @throws  UncheckedIOException if a snapshot cannot be deleted
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+        try {
+            sessions.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            try (InputStream body = exchange.getRequestBody()) {
+                body.readAllBytes();
+            }
+            try {
+                route(exchange);
+            } catch (GameNotFoundException e) {
+                sendError(exchange, 404, e.getMessage());
+            } catch (IllegalArgumentException e) {
+                sendError(exchange, 400, e.getMessage());
+            } catch (RuntimeException e) {
+                sendError(exchange, 500, String.valueOf(e));
+            }
+        }
+    }
+
+    private void route(HttpExchange exchange) throws IOException {
+        String[] path = exchange.getRequestURI().getPath().split("/");
+        String method = exchange.getRequestMethod();
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+        if (path.length == 2 && path[1].equals("stats") && method.equals("GET")) {
+            send(exchange, 200, JSON, describe(sessions));
+            return;
+        }
+        if (path.length < 2 || !path[1].equals("games")) {
+            sendError(exchange, 404, "Not found: " + exchange.getRequestURI().getPath());
+            return;
+        }
+        if (path.length == 2) {
+            if (!method.equals("POST")) {
+                sendError(exchange, 405, "Method not allowed: " + method);
+                return;
+            }
+            create(exchange, query);
+            return;
+        }
+
+        if (path.length > 4) {
+            sendError(exchange, 404, "Not found: " + exchange.getRequestURI().getPath());
+            return;
+        }
+        long id = parseId(path[2]);
+        String action = path.length == 4 ? path[3] : "";
+        switch (method + " " + action) {
+            case "GET " -> {
+                String json = sessions.access(id, GameServer::describe);
+                send(exchange, 200, JSON, json);
+            }
+            case "DELETE " -> {
+                if (!sessions.remove(id)) {
+                    throw new GameNotFoundException(id);
+                }
+                exchange.sendResponseHeaders(204, -1);
+            }
+            case "POST explore", "POST mark" -> {
+                int column = intParameter(query, "column");
+                int row = intParameter(query, "row");
+                String json = sessions.access(id, session -> {
+                    boolean success = session.play(column, row, action.equals("explore"));
+                    return "{\"success\":" + success + ",\"status\":\"" + session.getStatus() + "\"}";
+                });
+                send(exchange, 200, JSON, json);
+            }
+            case "GET delta" -> {
+                if ("binary".equals(query.get("format"))) {
+                    send(exchange, 200, BINARY, sessions.access(id, GameSession::drainBinary));
+                } else {
+                    String json = sessions.access(id, session -> {
+                        StringBuilder delta = new StringBuilder(64);
+                        session.drainJson(delta);
+                        return delta.toString();
+                    });
+                    send(exchange, 200, JSON, json);
+                }
+            }
+            default -> {
+                boolean known = switch (action) {
+                    case "", "explore", "mark", "delta" -> true;
+                    default -> false;
+                };
+                sendError(exchange, known ? 405 : 404, "Not supported: " + method + " " + action);
+            }
+        }
+    }
+
+    private void create(HttpExchange exchange, Map<String, String> query) throws IOException {
+        int width = intParameter(query, "width", BoardSpec.DEFAULT_SIDE);
+        int height = intParameter(query, "height", BoardSpec.DEFAULT_SIDE);
+        int mines = intParameter(query, "mines", 10);
+        if ((long) width * height > MAX_CELLS) {
+            throw new IllegalArgumentException("Board larger than " + MAX_CELLS + " cells");
+        }
+        BoardSpec spec = new BoardSpec(width, height, mines);
+        long seed = query.containsKey("seed") ? Long.parseLong(query.get("seed"))
+                : ThreadLocalRandom.current().nextLong();
+
+        GameSession session = sessions.create(spec, seed);
+        String json = String.format("{\"id\":%d,\"width\":%d,\"height\":%d,\"mines\":%d}", session.getId(), width,
+                height, mines);
+        send(exchange, 201, JSON, json);
+    }
+
+    private static String describe(GameSession session) {
+        BoardSpec spec = session.getBoardSpec();
+        return String.format("{\"id\":%d,\"width\":%d,\"height\":%d,\"mines\":%d,\"status\":\"%s\"}", session.getId(),
+                spec.getWidth(), spec.getHeight(), spec.getNumberOfMines(), session.getStatus());
+    }
+
+    private static String describe(SessionStore store) {
+        return String.format(Locale.ROOT, "{\"games\":%d,\"resident\":%d,\"residentBytes\":%d,\"budget\":%d,"
+                        + "\"hits\":%d,\"misses\":%d,\"hitRate\":%.4f,\"evictions\":%d,\"spillFailures\":%d,"
+                        + "\"meanReloadMicros\":%.1f,\"maxReloadMicros\":%.1f}", store.size(),
+                store.getResidentCount(), store.getResidentBytes(), store.getBudget(), store.getHits(),
+                store.getMisses(), store.getHitRate(), store.getEvictions(), store.getSpillFailures(),
+                store.getMeanReloadNanos() / 1e3, store.getMaxReloadNanos() / 1e3);
+    }
+
+    private static long parseId(String id) {
+        try {
+            return Long.parseLong(id);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Parse the query of a request, without decoding: the parameters of the server are numbers and names.
+     */
+    private static Map<String, String> parseQuery(String query) {
+        Map<String, String> parameters = new HashMap<>();
+        if (query != null) {
+            for (String parameter : query.split("&")) {
+                String[] keyValue = parameter.split("=", 2);
+                parameters.put(keyValue[0], keyValue.length > 1 ? keyValue[1] : "");
+            }
+        }
+        return parameters;
+    }
+
+    /**
+     * Get an optional integer parameter.
+     *
+     * @throws  IllegalArgumentException if the parameter is not an integer
+     */
+    private static int intParameter(Map<String, String> query, String name, int defaultValue) {
+        return query.containsKey(name) ? intParameter(query, name) : defaultValue;
+    }
+
+    /**
+     * Get a required integer parameter.
+     *
+     * @throws  IllegalArgumentException if the parameter is missing or not an integer
+     */
+    private static int intParameter(Map<String, String> query, String name) {
+        String value = query.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing parameter: " + name);
+        }
+        return Integer.parseInt(value);
+    }
+
+    private static void sendError(HttpExchange exchange, int code, String message) throws IOException {
+        String escaped = String.valueOf(message).replace("\\", "\\\\").replace("\"", "\\\"");
+        send(exchange, code, JSON, "{\"error\":\"" + escaped + "\"}");
+    }
+
+    private static void send(HttpExchange exchange, int code, String type, String body) throws IOException {
+        send(exchange, code, type, body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void send(HttpExchange exchange, int code, String type, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", type);
+        exchange.sendResponseHeaders(code, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * Run the server from the command line. Arguments are key=value pairs:
+     * <ul>
+     *     <li>port - the port to listen on (default 8080);</li>
+     *     <li>memory - the memory budget of the games in memory, in megabytes (default: half of the maximum heap);</li>
+     *     <li>spill - the directory of the snapshots of the spilled games (default: a new temporary directory).</li>
+     * </ul>
+     */
+    public static void main(String[] args) throws IOException {
+        int port = 8080;
+        long memoryBudget = Runtime.getRuntime().maxMemory() / 2;
+        Path spillDirectory = null;
+        for (String arg : args) {
+            String[] keyValue = arg.split("=", 2);
+            switch (keyValue[0]) {
+                case "port" -> port = Integer.parseInt(keyValue[1]);
+                case "memory" -> memoryBudget = Long.parseLong(keyValue[1]) << 20;
+                case "spill" -> spillDirectory = Files.createDirectories(Paths.get(keyValue[1]));
+                default -> throw new IllegalArgumentException("Unknown argument: " + arg);
+            }
+        }
+        if (spillDirectory == null) {
+            spillDirectory = Files.createTempDirectory("minesweeper-games");
+        }
+        GameServer server = new GameServer(new InetSocketAddress(port), memoryBudget, spillDirectory);
+        server.start();
+        System.out.println("Game server listening on port " + server.getPort());
+    }
+}
@@ -0,0 +1,308 @@
+package minesweeper.server;
+
+import minesweeper.cell.Coordinates;
+import minesweeper.field.BoardSpec;
+import minesweeper.field.FieldListener;
+import minesweeper.field.FieldPool;
+import minesweeper.field.FieldSnapshot;
+import minesweeper.field.FieldState;
+import minesweeper.field.FieldStatus;
+import minesweeper.field.PackedField;
+import minesweeper.game.Command;
+import minesweeper.game.CommandInvoker;
+import minesweeper.game.Explore;
+import minesweeper.game.IInvoker;
+import minesweeper.game.ToggleMarkedCell;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * A game hosted by {@link GameServer}: a field, the invoker running the commands of its player, and the cells changed
+ * since the player last fetched them.
+ * <p>
+ * Changed cells are kept as in {@link minesweeper.field.FieldRenderer}, in a bitset to skip duplicates and in a list in
+ * order of change, so that a delta costs the number of changed cells. Requests on the same session are serialized by
+ * its lock; requests on different sessions run in parallel.
+ * <p>
+ * An idle session can be spilled by its {@link SessionStore}: the field and the changed cells are written to a
+ * snapshot file, the field goes back to the pool, and only the identity of the game stays in memory until it is
+ * reloaded. The snapshot file is a {@link FieldSnapshot} followed by the number of changed cells and their lineal
+ * values, as ints.
+ */
+class GameSession implements FieldListener {
+    /**
+     * Estimated size of a resident session besides its cells: the session, its field, invoker, lists and tables.
+     */
+    private static final int OVERHEAD_BYTES = 512;
+
+    private final long id;
+    private final BoardSpec spec;
+    private final long seed;
+    private final int width;
+    private final IInvoker invoker = new CommandInvoker();
+
+    /**
+     * The field of the game, null while the session is spilled.
+     */
+    private PackedField field;
+
+    private long[] dirtyBits;
+    private int[] dirty;
+    private int dirtyCount;
+
+    /**
+     * Tick of the last access, ordering the sessions for eviction. Maintained by the store.
+     */
+    volatile long lastAccess;
+
+    /**
+     * Flag value: true once the session has been closed, and its field given back.
+     */
+    private boolean closed;
+
+    /**
+     * Class constructor. The session starts listening to the field.
+     *
+     * @param   id    - the identifier of the session
+     * @param   seed  - the seed the field has been reset with, placing the same mines when a pristine game is
+     *                reloaded
+     * @param   field - the field of the game, pristine
+     */
+    GameSession(long id, long seed, PackedField field) {
+        this.id = id;
+        this.spec = field.getBoardSpec();
+        this.seed = seed;
+        this.width = spec.getWidth();
+        attach(field);
+    }
+
+    long getId() {
+        return id;
+    }
+
+    BoardSpec getBoardSpec() {
+        return spec;
+    }
+
+    /**
+     * Tests whether the field of the session is in memory.
+     *
+     * @return  boolean
+     */
+    synchronized boolean isResident() {
+        return field != null;
+    }
+
+    /**
+     * Get the estimated memory held by the session while resident: one byte per cell of the field, one bit per cell
+     * of the changed cells bitset, the list of changed cells and a fixed overhead.
+     *
+     * @return  long - the size in bytes, 0 while spilled
+     */
+    synchronized long getResidentBytes() {
+        if (field == null) {
+            return 0;
+        }
+        return OVERHEAD_BYTES + spec.getSize() + (long) Long.BYTES * dirtyBits.length + (long) Integer.BYTES
+                * dirty.length + (long) Integer.BYTES * spec.getNumberOfMines();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void cellChanged(int lineal) {
+        long bit = 1L << lineal;
+        if ((dirtyBits[lineal >>> 6] & bit) != 0) {
+            return;
+        }
+        dirtyBits[lineal >>> 6] |= bit;
+        if (dirtyCount == dirty.length) {
+            dirty = Arrays.copyOf(dirty, dirtyCount * 2);
+        }
+        dirty[dirtyCount++] = lineal;
+    }
+
+    /**
+     * Run a command of the player on a cell.
+     *
+     * @param   column  - the column of the cell, from 1
+     * @param   row     - the row of the cell, from 1
+     * @param   explore - true to explore the cell, false to mark or unmark it
+     * @return  boolean - the result of the command
+     * @throws  IllegalArgumentException if the cell is outside the field
+     * @throws  IllegalStateException if the session is closed
+     */
+    synchronized boolean play(int column, int row, boolean explore) {
+        checkOpen();
+        if (column < 1 || row < 1 || column > width || row > field.getBoardSpec().getHeight()) {
+            throw new IllegalArgumentException(String.format("Cell not found: %d, %d", column, row));
+        }
+        Coordinates coordinates = new Coordinates(column - 1, row - 1, width);
+        Command command = explore ? new Explore(field, coordinates) : new ToggleMarkedCell(field, coordinates);
+        invoker.setCommand(command);
+        invoker.execute();
+        return invoker.isSuccess();
+    }
+
+    synchronized FieldStatus getStatus() {
+        checkOpen();
+        return field.getFieldStatus();
+    }
+
+    /**
+     * Close the session: later requests fail, so that its field can be given to another game.
+     *
+     * @return  boolean - false if the session was already closed
+     */
+    synchronized boolean close() {
+        if (closed) {
+            return false;
+        }
+        closed = true;
+        return true;
+    }
+
+    /**
+     * Take the field from a closed session, to give it back to the pool.
+     *
+     * @return  PackedField - the field, or null if the session was spilled
+     */
+    synchronized PackedField detach() {
+        PackedField detached = field;
+        if (detached != null) {
+            detached.removeListener(this);
+            field = null;
+            dirtyBits = null;
+            dirty = null;
+        }
+        return detached;
+    }
+
+    /**
+     * Write the session to a snapshot file, then give its field back to the pool.
+     *
+     * @param   path - the snapshot file, replaced if it exists
+     * @param   pool - the pool of the fields
+     * @throws  IOException if the file cannot be written; the session is then still resident
+     */
+    synchronized void spill(Path path, FieldPool<PackedField> pool) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            FieldSnapshot.write(field.captureState(), channel);
+            ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES * (1 + dirtyCount));
+            buffer.putInt(dirtyCount).asIntBuffer().put(dirty, 0, dirtyCount);
+            buffer.rewind();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+        pool.release(detach());
+    }
+
+    /**
+     * Restore the session from its snapshot file, on a field taken from the pool, and delete the file.
+     *
+     * @param   path - the snapshot file
+     * @param   pool - the pool of the fields
+     * @throws  IOException if the file cannot be read or is not a snapshot of the session
+     */
+    synchronized void reload(Path path, FieldPool<PackedField> pool) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+        FieldState state = FieldSnapshot.read(buffer);
+        int count = buffer.remaining() >= Integer.BYTES ? buffer.getInt() : -1;
+        if (count < 0 || buffer.remaining() != (long) count * Integer.BYTES) {
+            throw new IOException("Invalid changed cells in session snapshot: " + path);
+        }
+        int[] changed = new int[count];
+        buffer.asIntBuffer().get(changed);
+        for (int lineal : changed) {
+            if (lineal < 0 || lineal >= spec.getSize()) {
+                throw new IOException("Invalid changed cell in session snapshot: " + path);
+            }
+        }
+        PackedField restored = pool.acquire(spec, seed);
+        try {
+            restored.restoreState(state);
+        } catch (IllegalArgumentException e) {
+            pool.release(restored);
+            throw new IOException("Invalid session snapshot: " + path, e);
+        }
+        attach(restored);
+        for (int lineal : changed) {
+            cellChanged(lineal);
+        }
+        Files.delete(path);
+    }
+
+    /**
+     * Start listening to a field, with no changed cells.
+     */
+    private void attach(PackedField field) {
+        this.field = field;
+        this.dirtyBits = new long[(spec.getSize() + 63) >>> 6];
+        this.dirty = new int[64];
+        this.dirtyCount = 0;
+        field.addListener(this);
+    }
+
+    /**
+     * Write the cells changed since the previous delta as JSON, and forget them.
+     *
+     * @param   json - the destination
+     * @throws  IllegalStateException if the session is closed
+     */
+    synchronized void drainJson(StringBuilder json) {
+        checkOpen();
+        json.append("{\"status\":\"").append(field.getFieldStatus()).append("\",\"delta\":\"");
+        for (int i = 0; i < dirtyCount; i++) {
+            int lineal = dirty[i];
+            if (i > 0) {
+                json.append(' ');
+            }
+            json.append(lineal % width + 1).append(',').append(lineal / width + 1).append(':')
+                    .append(field.getFaceValue(lineal).getSymbol());
+        }
+        json.append("\"}");
+        clearDirty();
+    }
+
+    /**
+     * Write the cells changed since the previous delta in the binary format of {@link GameServer}, and forget them.
+     *
+     * @return  byte[]
+     * @throws  IllegalStateException if the session is closed
+     */
+    synchronized byte[] drainBinary() {
+        checkOpen();
+        ByteBuffer buffer = ByteBuffer.allocate(1 + Integer.BYTES + dirtyCount * (Integer.BYTES + 1));
+        buffer.put((byte) field.getFieldStatus().ordinal()).putInt(dirtyCount);
+        for (int i = 0; i < dirtyCount; i++) {
+            buffer.putInt(dirty[i]).put((byte) field.getFaceValue(dirty[i]).getSymbol());
+        }
+        clearDirty();
+        return buffer.array();
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Game closed: " + id);
+        }
+        if (field == null) {
+            throw new IllegalStateException("Game not in memory: " + id);
+        }
+    }
+
+    private void clearDirty() {
+        for (int i = 0; i < dirtyCount; i++) {
+            dirtyBits[dirty[i] >>> 6] = 0;
+        }
+        dirtyCount = 0;
+    }
+}
@@ -0,0 +1,365 @@
+package minesweeper.server;
+
+import minesweeper.field.BoardSpec;
+import minesweeper.field.FieldPool;
+import minesweeper.field.PackedField;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Store of the sessions of {@link GameServer}, keeping the fields in memory within a budget.
+ * <p>
+ * When the estimated size of the resident sessions exceeds the budget, the least recently used sessions are spilled
+ * to snapshot files in a directory, until the size is back to 7/8 of the budget, so that evictions come in batches.
+ * A spilled session is reloaded transparently by the next request on it. Eviction runs on the thread of one of the
+ * requests which find the store over budget: the others go on without waiting for its disk writes, and the evicting
+ * thread checks the budget again once done, so that the sessions they added are evicted too. The budget may thus be
+ * exceeded while an eviction runs, by the sessions created or reloaded meanwhile. Eviction skips the sessions used
+ * since it started.
+ * <p>
+ * Sessions are found in a concurrent map, and locked one by one: requests on unrelated sessions, including the
+ * reload of a spilled session, do not wait for each other. A spilled session keeps in memory only its identity, and
+ * its fields go back to a {@link FieldPool}, whose idle fields are not counted in the budget.
+ * <p>
+ * Hits, misses, evictions and the reload latency are counted for monitoring.
+ */
+class SessionStore implements Closeable {
+    private final long budget;
+    private final Path directory;
+    private final FieldPool<PackedField> fields;
+
+    private final Map<Long, GameSession> sessions = new ConcurrentHashMap<>();
+    private final Set<GameSession> resident = ConcurrentHashMap.newKeySet();
+    private final AtomicLong residentBytes = new AtomicLong();
+    private final AtomicLong nextId = new AtomicLong(1);
+    private final AtomicLong clock = new AtomicLong();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder spillFailures = new LongAdder();
+    private final LongAdder reloadNanos = new LongAdder();
+    private final AtomicLong maxReloadNanos = new AtomicLong();
+
+    /**
+     * Class constructor.
+     *
+     * @param   budget    - the estimated memory the resident sessions may hold, in bytes
+     * @param   directory - the directory of the snapshot files, existing
+     * @param   fields    - the pool of the fields of the games
+     * @throws  IllegalArgumentException if the budget is not positive
+     */
+    SessionStore(long budget, Path directory, FieldPool<PackedField> fields) {
+        if (budget < 1) {
+            throw new IllegalArgumentException("Invalid memory budget: " + budget);
+        }
+        this.budget = budget;
+        this.directory = directory;
+        this.fields = fields;
+    }
+
+    /**
+     * Create a session on a pristine field from the pool.
+     *
+     * @param   spec - the board of the game
+     * @param   seed - the seed of the random generator placing mines
+     * @return  GameSession
+     */
+    GameSession create(BoardSpec spec, long seed) {
+        GameSession session = new GameSession(nextId.getAndIncrement(), seed, fields.acquire(spec, seed));
+        synchronized (session) {
+            session.lastAccess = clock.incrementAndGet();
+            residentBytes.addAndGet(session.getResidentBytes());
+            resident.add(session);
+            sessions.put(session.getId(), session);
+        }
+        evictIfNeeded();
+        return session;
+    }
+
+    /**
+     * Run an action on a session under its lock, reloading the session first if it has been spilled.
+     *
+     * @param   id     - the identifier of the session
+     * @param   action - the action
+     * @param   <R>    - the result type
+     * @return  R - the result of the action
+     * @throws  GameNotFoundException if there is no such session
+     * @throws  UncheckedIOException if the session cannot be reloaded
+     */
+    <R> R access(long id, Function<GameSession, R> action) {
+        GameSession session = sessions.get(id);
+        if (session == null) {
+            throw new GameNotFoundException(id);
+        }
+        R result;
+        synchronized (session) {
+            if (sessions.get(id) != session) {
+                throw new GameNotFoundException(id);
+            }
+            if (!session.isResident()) {
+                reload(session);
+            } else {
+                hits.increment();
+            }
+            session.lastAccess = clock.incrementAndGet();
+            long before = session.getResidentBytes();
+            try {
+                result = action.apply(session);
+            } finally {
+                residentBytes.addAndGet(session.getResidentBytes() - before);
+            }
+        }
+        evictIfNeeded();
+        return result;
+    }
+
+    /**
+     * Close a session and give its field back to the pool, or delete its snapshot file.
+     *
+     * @param   id - the identifier of the session
+     * @return  boolean - false if there is no such session
+     * @throws  UncheckedIOException if the snapshot file cannot be deleted
+     */
+    boolean remove(long id) {
+        GameSession session = sessions.remove(id);
+        if (session == null) {
+            return false;
+        }
+        synchronized (session) {
+            if (!session.close()) {
+                return false;
+            }
+            long bytes = session.getResidentBytes();
+            PackedField field = session.detach();
+            if (field != null) {
+                resident.remove(session);
+                residentBytes.addAndGet(-bytes);
+                fields.release(field);
+            } else {
+                try {
+                    Files.deleteIfExists(snapshotPath(session));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+        return true;
+    }
+
+    private void reload(GameSession session) {
+        long start = System.nanoTime();
+        try {
+            session.reload(snapshotPath(session), fields);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        long nanos = System.nanoTime() - start;
+        misses.increment();
+        reloadNanos.add(nanos);
+        maxReloadNanos.accumulateAndGet(nanos, Math::max);
+        residentBytes.addAndGet(session.getResidentBytes());
+        resident.add(session);
+    }
+
+    /**
+     * Spill the least recently used sessions while the resident sessions exceed the budget, unless an eviction is in
+     * progress on another thread: that thread checks the budget again after releasing the lock, after the sessions
+     * added by this one. Gives up when an eviction spills nothing, for example when the files cannot be written.
+     */
+    private void evictIfNeeded() {
+        boolean spilled = true;
+        while (spilled && residentBytes.get() > budget && evictionLock.tryLock()) {
+            try {
+                spilled = evict();
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Spill the least recently used sessions, down to 7/8 of the budget. Runs under the eviction lock.
+     *
+     * @return  boolean - true if at least one session has been spilled
+     */
+    private boolean evict() {
+        if (residentBytes.get() <= budget) {
+            return false;
+        }
+        boolean spilled = false;
+        long target = budget - budget / 8;
+        List<Candidate> candidates = new ArrayList<>(resident.size());
+        for (GameSession session : resident) {
+            candidates.add(new Candidate(session, session.lastAccess));
+        }
+        candidates.sort(Comparator.comparingLong(candidate -> candidate.lastAccess));
+        for (Candidate candidate : candidates) {
+            if (residentBytes.get() <= target) {
+                break;
+            }
+            spilled |= spill(candidate);
+        }
+        return spilled;
+    }
+
+    /**
+     * Spill a candidate, unless it has changed since the candidates were listed.
+     *
+     * @return  boolean - true if the session has been spilled
+     */
+    private boolean spill(Candidate candidate) {
+        GameSession session = candidate.session;
+        synchronized (session) {
+            // used, closed or spilled since the candidates were sorted
+            if (session.lastAccess != candidate.lastAccess || !session.isResident()
+                    || sessions.get(session.getId()) != session) {
+                return false;
+            }
+            long bytes = session.getResidentBytes();
+            try {
+                session.spill(snapshotPath(session), fields);
+            } catch (IOException e) {
+                spillFailures.increment();
+                return false;
+            }
+            resident.remove(session);
+            residentBytes.addAndGet(-bytes);
+            evictions.increment();
+        }
+        return true;
+    }
+
+    private Path snapshotPath(GameSession session) {
+        return directory.resolve(session.getId() + ".session");
+    }
+
+    /**
+     * Delete the snapshot files of the spilled sessions. The store must not be used afterwards.
+     *
+     * @throws  IOException if a file cannot be deleted
+     */
+    @Override
+    public void close() throws IOException {
+        for (GameSession session : sessions.values()) {
+            Files.deleteIfExists(snapshotPath(session));
+        }
+        sessions.clear();
+    }
+
+    /**
+     * Get the number of sessions, resident or spilled.
+     *
+     * @return  int
+     */
+    int size() {
+        return sessions.size();
+    }
+
+    int getResidentCount() {
+        return resident.size();
+    }
+
+    /**
+     * Get the estimated memory held by the resident sessions.
+     *
+     * @return  long - the size in bytes
+     * @see     GameSession#getResidentBytes()
+     */
+    long getResidentBytes() {
+        return residentBytes.get();
+    }
+
+    long getBudget() {
+        return budget;
+    }
+
+    /**
+     * Get the number of requests which found their session in memory.
+     *
+     * @return  long
+     */
+    long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Get the number of requests which reloaded their session from its snapshot file.
+     *
+     * @return  long
+     */
+    long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Get the fraction of requests which found their session in memory.
+     *
+     * @return  double - from 0 to 1, 1 before any request
+     */
+    double getHitRate() {
+        long hits = getHits();
+        long total = hits + getMisses();
+        return total == 0 ? 1 : (double) hits / total;
+    }
+
+    /**
+     * Get the number of sessions spilled to disk.
+     *
+     * @return  long
+     */
+    long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Get the number of sessions which could not be spilled, and stayed in memory.
+     *
+     * @return  long
+     */
+    long getSpillFailures() {
+        return spillFailures.sum();
+    }
+
+    /**
+     * Get the mean time to reload a spilled session.
+     *
+     * @return  double - nanoseconds, 0 before any reload
+     */
+    double getMeanReloadNanos() {
+        long misses = getMisses();
+        return misses == 0 ? 0 : (double) reloadNanos.sum() / misses;
+    }
+
+    long getMaxReloadNanos() {
+        return maxReloadNanos.get();
+    }
+
+    /**
+     * A resident session with its last access, read once so that sorting the candidates is consistent.
+     */
+    private static final class Candidate {
+        final GameSession session;
+        final long lastAccess;
+
+        Candidate(GameSession session, long lastAccess) {
+            this.session = session;
+            this.lastAccess = lastAccess;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package minesweeper.simulation;
+
+import minesweeper.field.AbstractField;
+import minesweeper.game.Command;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Strategy choosing the moves of a player, for games played without user interaction.
+ * <p>
+ * Each worker of the {@link Simulator} owns its instance, reused for all the games the worker plays: implementations
+ * need not be thread safe, and may keep buffers between games.
+ */
+public interface MoveStrategy {
+    /**
+     * Start a new game.
+     *
+     * @param   field  - the field of the game, pristine
+     * @param   random - the source of randomness of the strategy for this game, seeded so that games are reproducible
+     */
+    void start(AbstractField field, RandomGenerator random);
+
+    /**
+     * Choose the next move of the game.
+     *
+     * @return  Command - the move, or null if the strategy gives up the game
+     */
+    Command nextMove();
+}
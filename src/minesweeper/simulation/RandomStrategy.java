@@ -0,0 +1,78 @@
+package minesweeper.simulation;
+
+import minesweeper.cell.CellFaceValue;
+import minesweeper.cell.Coordinates;
+import minesweeper.field.AbstractField;
+import minesweeper.game.Command;
+import minesweeper.game.Explore;
+import minesweeper.game.ToggleMarkedCell;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Strategy exploring the cells in random order, the baseline to compare bots with.
+ * <p>
+ * When only mines are left unexplored, they are marked to win the game. The random order is a permutation of all the
+ * cells, shuffled at the start of each game into an array kept between games to avoid allocations.
+ */
+public class RandomStrategy implements MoveStrategy {
+    /**
+     * The field of the current game.
+     */
+    AbstractField field;
+
+    private int[] order = new int[0];
+    private int cursor;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void start(AbstractField field, RandomGenerator random) {
+        this.field = field;
+        int size = field.getBoardSpec().getSize();
+        if (order.length != size) {
+            order = new int[size];
+        }
+        // Shuffle from the identity, so that the order depends on the random generator of the game only
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        for (int i = size - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = order[i];
+            order[i] = order[j];
+            order[j] = swap;
+        }
+        cursor = 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Explore the next cell of the random order not yet explored, or mark it if all the safe cells are explored.
+     */
+    @Override
+    public Command nextMove() {
+        boolean onlyMines = field.getRevealedSafe() == field.getBoardSpec().getSize()
+                - field.getBoardSpec().getNumberOfMines();
+        while (cursor < order.length) {
+            int lineal = order[cursor++];
+            if (isCandidate(lineal)) {
+                Coordinates coordinates = new Coordinates(lineal, field.getBoardSpec().getWidth());
+                return onlyMines ? new ToggleMarkedCell(field, coordinates) : new Explore(field, coordinates);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Tests whether a cell can be chosen: neither explored nor marked.
+     *
+     * @param   lineal - the lineal value of the cell coordinates
+     * @return  boolean
+     */
+    boolean isCandidate(int lineal) {
+        return field.getFaceValue(lineal) == CellFaceValue.BLANK;
+    }
+}
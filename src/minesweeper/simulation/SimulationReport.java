@@ -0,0 +1,111 @@
+package minesweeper.simulation;
+
+import minesweeper.field.BoardSpec;
+
+import java.util.Locale;
+
+/**
+ * Aggregated results of a run of the {@link Simulator}.
+ */
+public final class SimulationReport {
+    private final BoardSpec spec;
+    private final long games;
+    private final long wins;
+    private final long losses;
+    private final long moves;
+    private final long openedCells;
+    private final long gameNanos;
+    private final long elapsedNanos;
+
+    /**
+     * Class constructor.
+     *
+     * @param   spec         - the board of the games
+     * @param   games        - number of games played
+     * @param   wins         - number of games won
+     * @param   losses       - number of games lost; the others have been given up by the strategy
+     * @param   moves        - total number of moves
+     * @param   openedCells  - total number of explored safe cells
+     * @param   gameNanos    - total time spent playing the games, summed over the workers
+     * @param   elapsedNanos - wall clock time of the run
+     */
+    SimulationReport(BoardSpec spec, long games, long wins, long losses, long moves, long openedCells, long gameNanos,
+                     long elapsedNanos) {
+        this.spec = spec;
+        this.games = games;
+        this.wins = wins;
+        this.losses = losses;
+        this.moves = moves;
+        this.openedCells = openedCells;
+        this.gameNanos = gameNanos;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public BoardSpec getBoardSpec() {
+        return spec;
+    }
+
+    public long getGames() {
+        return games;
+    }
+
+    public long getWins() {
+        return wins;
+    }
+
+    public long getLosses() {
+        return losses;
+    }
+
+    /**
+     * Get the number of games given up by the strategy, or stopped after too many moves.
+     *
+     * @return  long
+     */
+    public long getUnfinished() {
+        return games - wins - losses;
+    }
+
+    public long getMoves() {
+        return moves;
+    }
+
+    public long getOpenedCells() {
+        return openedCells;
+    }
+
+    /**
+     * Get the ratio of games won.
+     *
+     * @return  double - between 0 and 1, NaN if no game has been played
+     */
+    public double getWinRate() {
+        return (double) wins / games;
+    }
+
+    /**
+     * Get the average time spent on a game by a worker.
+     *
+     * @return  double - nanoseconds per game
+     */
+    public double getNanosPerGame() {
+        return (double) gameNanos / games;
+    }
+
+    /**
+     * Get the throughput of the run, over all the workers.
+     *
+     * @return  double - games per second of wall clock time
+     */
+    public double getGamesPerSecond() {
+        return games * 1e9 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%s: %d games, win rate %.4f (%d won, %d lost, %d unfinished), "
+                        + "%.1f moves/game, %.1f opened cells/game, %.1f us/game, %.0f games/s", spec, games,
+                getWinRate(), wins, losses, getUnfinished(), (double) moves / games, (double) openedCells / games,
+                getNanosPerGame() / 1e3, getGamesPerSecond());
+    }
+}
@@ -0,0 +1,237 @@
+package minesweeper.simulation;
+
+import minesweeper.field.AbstractField;
+import minesweeper.field.BitplaneField;
+import minesweeper.field.BoardSpec;
+import minesweeper.field.Field;
+import minesweeper.field.FieldStatus;
+import minesweeper.field.MinePlacer;
+import minesweeper.field.MinePlacer.SafeZone;
+import minesweeper.field.PackedField;
+import minesweeper.game.Command;
+import minesweeper.game.CommandInvoker;
+import minesweeper.game.IInvoker;
+import minesweeper.solver.ProbabilityEngine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+
+/**
+ * Headless runner playing complete games on all cores, to measure the difficulty of boards and the quality of bots.
+ * <p>
+ * Each worker thread owns its {@link MoveStrategy} and its field, {@link AbstractField#reset(MinePlacer) reset} for
+ * every game taken from a shared counter. Game n is seeded from the master seed and n only, both for the placement of
+ * its mines and for the strategy: its outcome does not depend on which worker plays it, so a run is reproducible from
+ * its master seed whatever the number of threads. Results are summed into {@link LongAdder}s, which workers update
+ * without contention.
+ */
+public class Simulator {
+    /**
+     * Moves per cell after which a game is stopped as unfinished, against strategies repeating moves forever.
+     */
+    private static final int MAX_MOVES_PER_CELL = 4;
+
+    private final BoardSpec spec;
+    private final SafeZone safeZone;
+    private final BiFunction<BoardSpec, MinePlacer, ? extends AbstractField> fields;
+    private final Supplier<? extends MoveStrategy> strategies;
+    private final int threads;
+
+    /**
+     * Class constructor.
+     *
+     * @param   spec       - the board of the games
+     * @param   safeZone   - the cells kept free of mines around the first exploration
+     * @param   fields     - factory of the fields, from the board and the mine placer of each game
+     * @param   strategies - factory of the strategies, called once per worker
+     * @param   threads    - number of workers
+     * @throws  IllegalArgumentException if the number of workers is not positive
+     */
+    public Simulator(BoardSpec spec, SafeZone safeZone,
+                     BiFunction<BoardSpec, MinePlacer, ? extends AbstractField> fields,
+                     Supplier<? extends MoveStrategy> strategies, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Invalid number of threads: " + threads);
+        }
+        this.spec = spec;
+        this.safeZone = safeZone;
+        this.fields = fields;
+        this.strategies = strategies;
+        this.threads = threads;
+    }
+
+    /**
+     * Class constructor, for games on {@link PackedField} with the classic safe zone, using all the available cores.
+     *
+     * @param   spec       - the board of the games
+     * @param   strategies - factory of the strategies, called once per worker
+     */
+    public Simulator(BoardSpec spec, Supplier<? extends MoveStrategy> strategies) {
+        this(spec, SafeZone.CELL, PackedField::new, strategies, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Play a number of games.
+     *
+     * @param   games - number of games to play
+     * @param   seed  - the master seed, from which the seed of each game is derived
+     * @return  SimulationReport
+     */
+    public SimulationReport run(long games, long seed) {
+        AtomicLong next = new AtomicLong();
+        LongAdder wins = new LongAdder();
+        LongAdder losses = new LongAdder();
+        LongAdder moves = new LongAdder();
+        LongAdder openedCells = new LongAdder();
+        LongAdder gameNanos = new LongAdder();
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        try {
+            List<Future<?>> workers = new ArrayList<>(threads);
+            for (int i = 0; i < threads; i++) {
+                workers.add(executor.submit(() -> {
+                    MoveStrategy strategy = strategies.get();
+                    IInvoker invoker = new CommandInvoker();
+                    AbstractField field = null;
+                    for (long game = next.getAndIncrement(); game < games; game = next.getAndIncrement()) {
+                        long gameStart = System.nanoTime();
+                        SplittableRandom random = new SplittableRandom(gameSeed(seed, game));
+                        MinePlacer minePlacer = new MinePlacer(random.split(), safeZone);
+                        if (field == null) {
+                            field = fields.apply(spec, minePlacer);
+                        } else {
+                            field.reset(minePlacer);
+                        }
+                        strategy.start(field, random.split());
+                        long played = play(field, strategy, invoker);
+
+                        FieldStatus status = field.getFieldStatus();
+                        if (status == FieldStatus.WIN) {
+                            wins.increment();
+                        } else if (status == FieldStatus.LOSS) {
+                            losses.increment();
+                        }
+                        moves.add(played);
+                        openedCells.add(field.getRevealedSafe());
+                        gameNanos.add(System.nanoTime() - gameStart);
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Simulation interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Simulation failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        return new SimulationReport(spec, games, wins.sum(), losses.sum(), moves.sum(), openedCells.sum(),
+                gameNanos.sum(), elapsed);
+    }
+
+    /**
+     * Play a game until it ends, the strategy gives up, or too many moves have been made.
+     *
+     * @return  long - the number of moves
+     */
+    private long play(AbstractField field, MoveStrategy strategy, IInvoker invoker) {
+        long maxMoves = (long) MAX_MOVES_PER_CELL * spec.getSize();
+        long moves = 0;
+        while (moves < maxMoves && field.getFieldStatus() == FieldStatus.PENDING) {
+            Command command = strategy.nextMove();
+            if (command == null) {
+                break;
+            }
+            invoker.setCommand(command);
+            invoker.execute();
+            moves++;
+        }
+        return moves;
+    }
+
+    /**
+     * Derive the seed of a game from the master seed, mixing the bits so that games with close numbers get unrelated
+     * random sequences.
+     */
+    private static long gameSeed(long seed, long game) {
+        long z = seed + (game + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;
+        z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return z ^ (z >>> 33);
+    }
+
+    /**
+     * Run a simulation from the command line. Arguments are key=value pairs:
+     * <ul>
+     *     <li>size - the board, as width x height (default 9x9);</li>
+     *     <li>mines - number of mines (default 10);</li>
+     *     <li>games - number of games (default 100000);</li>
+     *     <li>strategy - random, solver, or probability for the solver guessing with the probability engine
+     *     (default solver);</li>
+     *     <li>field - Field, PackedField or BitplaneField (default PackedField);</li>
+     *     <li>zone - CELL or NEIGHBORHOOD, the safe zone of the first exploration (default CELL);</li>
+     *     <li>threads - number of workers (default all the available processors);</li>
+     *     <li>seed - master seed (default 1).</li>
+     * </ul>
+     */
+    public static void main(String[] args) {
+        String size = "9x9";
+        int mines = 10;
+        long games = 100_000;
+        String strategy = "solver";
+        String implementation = "PackedField";
+        SafeZone safeZone = SafeZone.CELL;
+        int threads = Runtime.getRuntime().availableProcessors();
+        long seed = 1;
+        for (String arg : args) {
+            String[] keyValue = arg.split("=", 2);
+            switch (keyValue[0]) {
+                case "size" -> size = keyValue[1];
+                case "mines" -> mines = Integer.parseInt(keyValue[1]);
+                case "games" -> games = Long.parseLong(keyValue[1]);
+                case "strategy" -> strategy = keyValue[1];
+                case "field" -> implementation = keyValue[1];
+                case "zone" -> safeZone = SafeZone.valueOf(keyValue[1]);
+                case "threads" -> threads = Integer.parseInt(keyValue[1]);
+                case "seed" -> seed = Long.parseLong(keyValue[1]);
+                default -> throw new IllegalArgumentException("Unknown argument: " + arg);
+            }
+        }
+
+        String[] dimensions = size.split("x");
+        BoardSpec spec = new BoardSpec(Integer.parseInt(dimensions[0]), Integer.parseInt(dimensions[1]), mines);
+        BiFunction<BoardSpec, MinePlacer, AbstractField> fields = switch (implementation) {
+            case "Field" -> Field::new;
+            case "PackedField" -> PackedField::new;
+            case "BitplaneField" -> BitplaneField::new;
+            default -> throw new IllegalArgumentException("Unknown field implementation: " + implementation);
+        };
+        Supplier<MoveStrategy> strategies = switch (strategy) {
+            case "random" -> RandomStrategy::new;
+            case "solver" -> SolverStrategy::new;
+            case "probability" -> () -> new SolverStrategy(new ProbabilityEngine());
+            default -> throw new IllegalArgumentException("Unknown strategy: " + strategy);
+        };
+
+        System.out.printf("%s strategy, %s, %d threads, seed %d%n", strategy, implementation, threads, seed);
+        System.out.println(new Simulator(spec, safeZone, fields, strategies, threads).run(games, seed));
+    }
+}
@@ -0,0 +1,88 @@
+package minesweeper.simulation;
+
+import minesweeper.cell.Coordinates;
+import minesweeper.field.AbstractField;
+import minesweeper.game.Command;
+import minesweeper.game.Explore;
+import minesweeper.solver.MineProbabilities;
+import minesweeper.solver.ProbabilityEngine;
+import minesweeper.solver.Solver;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.random.RandomGenerator;
+
+/**
+ * Strategy playing the certain moves found by a {@link Solver}, and guessing only when none is left.
+ * <p>
+ * Guesses are the safest cell according to a {@link ProbabilityEngine} if one is given, otherwise a random cell not
+ * known to be a mine.
+ */
+public class SolverStrategy extends RandomStrategy {
+    private final ProbabilityEngine engine;
+    private final Deque<Command> moves = new ArrayDeque<>();
+    private Solver solver;
+
+    /**
+     * Class constructor, for a strategy guessing at random.
+     */
+    public SolverStrategy() {
+        this(null);
+    }
+
+    /**
+     * Class constructor.
+     *
+     * @param   engine - the engine choosing the guesses; null to guess at random
+     */
+    public SolverStrategy(ProbabilityEngine engine) {
+        this.engine = engine;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void start(AbstractField field, RandomGenerator random) {
+        if (solver != null) {
+            solver.detach();
+        }
+        super.start(field, random);
+        solver = new Solver(field);
+        moves.clear();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Certain moves come first, then guesses.
+     */
+    @Override
+    public Command nextMove() {
+        if (moves.isEmpty()) {
+            moves.addAll(solver.nextMoves());
+        }
+        if (!moves.isEmpty()) {
+            return moves.poll();
+        }
+        if (engine == null || field.getRevealedSafe() == 0) {
+            return super.nextMove();
+        }
+        MineProbabilities probabilities = engine.compute(field, solver);
+        int safest = probabilities.getSafestCell();
+        if (safest < 0 || probabilities.getProbability(safest) == 1) {
+            return super.nextMove();
+        }
+        return new Explore(field, new Coordinates(safest, field.getBoardSpec().getWidth()));
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Cells known to be mines are never chosen.
+     */
+    @Override
+    boolean isCandidate(int lineal) {
+        return super.isCandidate(lineal) && !solver.isKnownMine(lineal);
+    }
+}
@@ -0,0 +1,417 @@
+package minesweeper.solver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Connected component of the frontier: unknown cells linked by the constraints of the revealed cells around them.
+ * <p>
+ * The mines of a component do not depend on the ones of the other components, except through the total number of
+ * mines of the board. So each component is solved alone, counting its solutions by number of mines, and for each cell
+ * the solutions in which the cell is a mine. Counts are either exact, enumerating all the solutions, or estimated by
+ * sampling random paths of the search tree (Knuth's estimator, unbiased).
+ */
+final class Component {
+    /**
+     * Below this number of cells left a branch of the enumeration is not split into subtasks.
+     */
+    private static final int SEQUENTIAL_CELLS = 12;
+
+    /**
+     * Number of samples of a sampling subtask.
+     */
+    private static final int SAMPLE_BATCH = 1024;
+
+    /**
+     * Lineal values of the cells, in enumeration order.
+     */
+    final int[] cells;
+
+    /**
+     * Number of mines not yet known around each constraint.
+     */
+    private final int[] targets;
+
+    /**
+     * Indexes of the constraints of each cell.
+     */
+    private final int[][] cellConstraints;
+
+    /**
+     * Number of cells of each constraint.
+     */
+    private final int[] constraintSizes;
+
+    /**
+     * Number of mines of the first element of the solution counts.
+     */
+    int offset;
+
+    /**
+     * Solutions by number of mines, scaled so that the greatest is 1.
+     */
+    double[] weights;
+
+    /**
+     * For each cell, the solutions in which it is a mine, by number of mines, with the same scale of the weights.
+     */
+    double[][] cellWeights;
+
+    /**
+     * Whether the counts are exact rather than sampled.
+     */
+    boolean exact;
+
+    /**
+     * Mine probability of each cell, set by the {@link ProbabilityEngine} once all the components are combined.
+     */
+    double[] probabilities;
+
+    /**
+     * Whether each cell is a mine in no solution the rest of the board can complete, set with the probabilities. Exact
+     * counts are integers, scaled by at most their greatest one, so that a count of zero is told from an underflow.
+     */
+    boolean[] certainlySafe;
+
+    /**
+     * Class constructor.
+     *
+     * @param   cells           - lineal values of the cells, in enumeration order
+     * @param   targets         - mines not yet known around each constraint
+     * @param   constraintCells - for each constraint, the indexes in cells of its unknown neighbors
+     */
+    Component(int[] cells, int[] targets, int[][] constraintCells) {
+        this.cells = cells;
+        this.targets = targets;
+        this.constraintSizes = new int[targets.length];
+        int[] counts = new int[cells.length];
+        for (int k = 0; k < targets.length; k++) {
+            constraintSizes[k] = constraintCells[k].length;
+            for (int cell : constraintCells[k]) {
+                counts[cell]++;
+            }
+        }
+        this.cellConstraints = new int[cells.length][];
+        for (int i = 0; i < cells.length; i++) {
+            cellConstraints[i] = new int[counts[i]];
+            counts[i] = 0;
+        }
+        for (int k = 0; k < targets.length; k++) {
+            for (int cell : constraintCells[k]) {
+                cellConstraints[cell][counts[cell]++] = k;
+            }
+        }
+    }
+
+    /**
+     * Count the solutions, exactly or by sampling, and store the scaled results.
+     *
+     * @param   maxExactCells - components with more cells are sampled
+     * @param   samples       - number of samples
+     * @param   random        - the source of the samples
+     * @param   parallelism   - the parallelism of the pool running the task, to size the subtasks
+     * @throws  IllegalStateException if no solution is found
+     */
+    void solve(int maxExactCells, int samples, SplittableRandom random, int parallelism) {
+        Counts counts;
+        exact = cells.length <= maxExactCells;
+        if (exact) {
+            int splitDepth = 3 + 32 - Integer.numberOfLeadingZeros(Math.max(1, parallelism - 1));
+            counts = new EnumerateTask(new State(this), 0, splitDepth).invoke();
+        } else {
+            counts = new SampleTask(samples, random).invoke();
+        }
+
+        int first = 0;
+        int last = cells.length;
+        while (first <= last && counts.solutions[first] == 0) {
+            first++;
+        }
+        while (last >= first && counts.solutions[last] == 0) {
+            last--;
+        }
+        if (first > last) {
+            throw new IllegalStateException("No solution found for a frontier component of " + cells.length + " cells");
+        }
+
+        double max = 0;
+        for (int m = first; m <= last; m++) {
+            max = Math.max(max, counts.solutions[m]);
+        }
+        int length = last - first + 1;
+        offset = first;
+        weights = new double[length];
+        cellWeights = new double[cells.length][length];
+        for (int m = 0; m < length; m++) {
+            weights[m] = counts.solutions[first + m] / max;
+            double[] row = counts.mines[first + m];
+            for (int i = 0; row != null && i < cells.length; i++) {
+                cellWeights[i][m] = row[i] / max;
+            }
+        }
+    }
+
+    /**
+     * Tests whether a cell can take a value, given the constraints around it.
+     */
+    private boolean isFeasible(State state, int cell, int value) {
+        for (int k : cellConstraints[cell]) {
+            int mines = state.mines[k] + value;
+            if (mines > targets[k] || mines + constraintSizes[k] - state.assigned[k] - 1 < targets[k]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void assign(State state, int cell, int value) {
+        for (int k : cellConstraints[cell]) {
+            state.mines[k] += value;
+            state.assigned[k]++;
+        }
+        state.values[cell] = (byte) value;
+        state.mineCount += value;
+    }
+
+    private void unassign(State state, int cell) {
+        int value = state.values[cell];
+        for (int k : cellConstraints[cell]) {
+            state.mines[k] -= value;
+            state.assigned[k]--;
+        }
+        state.mineCount -= value;
+    }
+
+    /**
+     * Enumerate all the solutions of the cells from depth on.
+     */
+    private void enumerate(State state, int depth, Counts counts) {
+        if (depth == cells.length) {
+            counts.add(state, 0);
+            return;
+        }
+        for (int value = 0; value <= 1; value++) {
+            if (isFeasible(state, depth, value)) {
+                assign(state, depth, value);
+                enumerate(state, depth + 1, counts);
+                unassign(state, depth);
+            }
+        }
+    }
+
+    /**
+     * Follow a random path of the search tree, and add its leaf weighted by the inverse of its probability: 2 to the
+     * number of random choices made.
+     */
+    private void sample(State state, SplittableRandom random, Counts counts) {
+        int choices = 0;
+        for (int cell = 0; cell < cells.length; cell++) {
+            boolean safe = isFeasible(state, cell, 0);
+            boolean mine = isFeasible(state, cell, 1);
+            if (!safe && !mine) {
+                return;
+            }
+            if (safe && mine) {
+                choices++;
+                assign(state, cell, random.nextBoolean() ? 1 : 0);
+            } else {
+                assign(state, cell, mine ? 1 : 0);
+            }
+        }
+        counts.add(state, choices);
+    }
+
+    /**
+     * Assignment of the cells, with the mines and the cells assigned around each constraint.
+     */
+    private static final class State {
+        final byte[] values;
+        final int[] mines;
+        final int[] assigned;
+        int mineCount;
+
+        State(Component component) {
+            this.values = new byte[component.cells.length];
+            this.mines = new int[component.targets.length];
+            this.assigned = new int[component.targets.length];
+        }
+
+        void clear() {
+            Arrays.fill(values, (byte) 0);
+            Arrays.fill(mines, 0);
+            Arrays.fill(assigned, 0);
+            mineCount = 0;
+        }
+
+        State(State state) {
+            this.values = state.values.clone();
+            this.mines = state.mines.clone();
+            this.assigned = state.assigned.clone();
+            this.mineCount = state.mineCount;
+        }
+    }
+
+    /**
+     * Solution counts of a part of the search tree.
+     */
+    private static final class Counts {
+        final int size;
+
+        /**
+         * Solutions by number of mines.
+         */
+        final double[] solutions;
+
+        /**
+         * Solutions in which each cell is a mine, by number of mines then cell. Rows are allocated on first use, as
+         * few numbers of mines are reached in large components.
+         */
+        final double[][] mines;
+
+        /**
+         * Binary exponent of the counts: the actual counts are the stored ones times 2 to the scale. Sampled weights
+         * exceed the range of a double in large components.
+         */
+        int scale = Integer.MIN_VALUE;
+
+        Counts(int size) {
+            this.size = size;
+            this.solutions = new double[size + 1];
+            this.mines = new double[size + 1][];
+        }
+
+        /**
+         * Add a solution.
+         *
+         * @param   state    - the assignment of all the cells
+         * @param   exponent - the weight of the solution, as a power of 2
+         */
+        void add(State state, int exponent) {
+            if (exponent > scale) {
+                rescale(exponent);
+            }
+            double weight = Math.scalb(1.0, exponent - scale);
+            int m = state.mineCount;
+            solutions[m] += weight;
+            if (mines[m] == null) {
+                mines[m] = new double[size];
+            }
+            double[] row = mines[m];
+            for (int i = 0; i < size; i++) {
+                if (state.values[i] != 0) {
+                    row[i] += weight;
+                }
+            }
+        }
+
+        Counts merge(Counts other) {
+            if (other.scale == Integer.MIN_VALUE) {
+                return this;
+            }
+            if (other.scale > scale) {
+                rescale(other.scale);
+            }
+            int shift = other.scale - scale;
+            for (int m = 0; m <= size; m++) {
+                solutions[m] += Math.scalb(other.solutions[m], shift);
+                if (other.mines[m] == null) {
+                    continue;
+                }
+                if (mines[m] == null) {
+                    mines[m] = new double[size];
+                }
+                for (int i = 0; i < size; i++) {
+                    mines[m][i] += Math.scalb(other.mines[m][i], shift);
+                }
+            }
+            return this;
+        }
+
+        private void rescale(int exponent) {
+            if (scale != Integer.MIN_VALUE) {
+                int shift = scale - exponent;
+                for (int m = 0; m <= size; m++) {
+                    solutions[m] = Math.scalb(solutions[m], shift);
+                    for (int i = 0; mines[m] != null && i < size; i++) {
+                        mines[m][i] = Math.scalb(mines[m][i], shift);
+                    }
+                }
+            }
+            scale = exponent;
+        }
+    }
+
+    /**
+     * Exact enumeration, forking the first levels of the search tree.
+     */
+    @SuppressWarnings("serial")
+    private final class EnumerateTask extends RecursiveTask<Counts> {
+        private final State state;
+        private final int depth;
+        private final int splitDepth;
+
+        EnumerateTask(State state, int depth, int splitDepth) {
+            this.state = state;
+            this.depth = depth;
+            this.splitDepth = splitDepth;
+        }
+
+        @Override
+        protected Counts compute() {
+            if (depth >= splitDepth || cells.length - depth <= SEQUENTIAL_CELLS) {
+                Counts counts = new Counts(cells.length);
+                enumerate(state, depth, counts);
+                return counts;
+            }
+            List<EnumerateTask> tasks = new ArrayList<>(2);
+            for (int value = 0; value <= 1; value++) {
+                if (isFeasible(state, depth, value)) {
+                    State branch = new State(state);
+                    assign(branch, depth, value);
+                    tasks.add(new EnumerateTask(branch, depth + 1, splitDepth));
+                }
+            }
+            Counts counts = new Counts(cells.length);
+            for (EnumerateTask task : ForkJoinTask.invokeAll(tasks)) {
+                counts.merge(task.join());
+            }
+            return counts;
+        }
+    }
+
+    /**
+     * Sampling, split into batches with independent random generators.
+     */
+    @SuppressWarnings("serial")
+    private final class SampleTask extends RecursiveTask<Counts> {
+        private final int samples;
+        private final SplittableRandom random;
+
+        SampleTask(int samples, SplittableRandom random) {
+            this.samples = samples;
+            this.random = random;
+        }
+
+        @Override
+        protected Counts compute() {
+            if (samples > SAMPLE_BATCH) {
+                int half = samples / 2;
+                SampleTask left = new SampleTask(half, random.split());
+                SampleTask right = new SampleTask(samples - half, random.split());
+                ForkJoinTask.invokeAll(left, right);
+                return left.join().merge(right.join());
+            }
+            Counts counts = new Counts(cells.length);
+            State state = new State(Component.this);
+            for (int i = 0; i < samples; i++) {
+                sample(state, random, counts);
+                state.clear();
+            }
+            return counts;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package minesweeper.solver;
+
+import java.util.Arrays;
+
+/**
+ * Mine probabilities of the cells of a field, computed by a {@link ProbabilityEngine}.
+ * <p>
+ * The probabilities refer to the state of the field when they have been computed: they are not updated by later moves.
+ * Revealed and known safe cells have probability 0, known mines probability 1. Frontier cells, the unknown cells next
+ * to a revealed one, have their own probability; all the other unknown cells share the same background probability.
+ */
+public final class MineProbabilities {
+    private final long[] knownMines;
+    private final long[] knownSafe;
+    private final long[] certainlySafe;
+    private final int[] frontier;
+    private final double[] frontierProbabilities;
+    private final double background;
+    private final int safest;
+    private final int components;
+    private final boolean exact;
+
+    /**
+     * Class constructor.
+     *
+     * @param   knownMines            - bitset of the known mines
+     * @param   knownSafe             - bitset of the revealed or known safe cells
+     * @param   certainlySafe         - bitset of the cells which are a mine in no consistent placement
+     * @param   frontier              - the lineal values of the frontier cells, sorted
+     * @param   frontierProbabilities - the probabilities of the frontier cells, in the same order
+     * @param   background            - the probability of the other unknown cells
+     * @param   safest                - the lineal value of the unknown cell least likely to be a mine, -1 if none
+     * @param   components            - the number of independent components of the frontier
+     * @param   exact                 - whether all the components have been enumerated
+     */
+    MineProbabilities(long[] knownMines, long[] knownSafe, long[] certainlySafe, int[] frontier,
+                      double[] frontierProbabilities, double background, int safest, int components, boolean exact) {
+        this.knownMines = knownMines;
+        this.knownSafe = knownSafe;
+        this.certainlySafe = certainlySafe;
+        this.frontier = frontier;
+        this.frontierProbabilities = frontierProbabilities;
+        this.background = background;
+        this.safest = safest;
+        this.components = components;
+        this.exact = exact;
+    }
+
+    /**
+     * Get the probability that a cell is a mine.
+     *
+     * @param   lineal - the lineal value of the cell coordinates
+     * @return  double - between 0 and 1
+     * @throws  IndexOutOfBoundsException if the lineal value is outside the field
+     */
+    public double getProbability(int lineal) {
+        if ((knownMines[lineal >>> 6] & (1L << lineal)) != 0) {
+            return 1;
+        }
+        if ((knownSafe[lineal >>> 6] & (1L << lineal)) != 0) {
+            return 0;
+        }
+        int index = Arrays.binarySearch(frontier, lineal);
+        return index >= 0 ? frontierProbabilities[index] : background;
+    }
+
+    /**
+     * Tests whether a cell is a mine in no placement of the mines consistent with the field. Unlike a probability of 0,
+     * which the scaling of the weights may give to a cell that is a mine in very unlikely placements only, this is
+     * decided on the solution counts. When the probabilities are not exact, only revealed and known safe cells are
+     * certainly safe.
+     *
+     * @param   lineal - the lineal value of the cell coordinates
+     * @return  boolean
+     * @throws  IndexOutOfBoundsException if the lineal value is outside the field
+     */
+    public boolean isCertainlySafe(int lineal) {
+        return (certainlySafe[lineal >>> 6] & (1L << lineal)) != 0;
+    }
+
+    /**
+     * Get the probability shared by the unknown cells not adjacent to any revealed cell.
+     *
+     * @return  double - the background probability, NaN if there are no such cells
+     */
+    public double getBackgroundProbability() {
+        return background;
+    }
+
+    /**
+     * Get the unknown cell least likely to be a mine. Ties are broken in favor of frontier cells, which reveal more.
+     *
+     * @return  int - the lineal value of the cell, -1 if no cell is unknown
+     */
+    public int getSafestCell() {
+        return safest;
+    }
+
+    /**
+     * Get the number of frontier cells.
+     *
+     * @return  int
+     */
+    public int getFrontierSize() {
+        return frontier.length;
+    }
+
+    /**
+     * Get the number of independent components of the frontier.
+     *
+     * @return  int
+     */
+    public int getComponentCount() {
+        return components;
+    }
+
+    /**
+     * Tests whether the probabilities are exact, or some components have been sampled.
+     *
+     * @return  boolean
+     */
+    public boolean isExact() {
+        return exact;
+    }
+}
@@ -0,0 +1,567 @@
+package minesweeper.solver;
+
+import minesweeper.cell.CellFaceValue;
+import minesweeper.cell.Neighborhood;
+import minesweeper.field.BoardSpec;
+import minesweeper.field.IFieldView;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Engine computing the probability of each unknown cell of a field to be a mine, for when no move is certain.
+ * <p>
+ * The frontier, the unknown cells adjacent to revealed ones, is split into independent connected components, which
+ * are solved in parallel on a {@link ForkJoinPool}: each component counts its solutions by number of mines, by
+ * exhaustive enumeration or, above a size cutoff, by sampling. Components are then combined: a configuration of the
+ * frontier with t mines is weighted by the ways of placing the remaining mines among the unknown cells outside the
+ * frontier, that is the binomial coefficient C(R, M - t), where M is the total number of mines of the field minus the
+ * known ones and R the number of those cells.
+ * <p>
+ * The combination is a tree of products of the components' distributions: each node convolves its children, then a
+ * second pass from the root gives every component the weights of all the others, without computing the product of
+ * the other components once for each of them. Weights are scaled at each step, so that large frontiers do not exceed
+ * the range of a double.
+ * <p>
+ * As scaled weights may underflow, the numbers of mines with at least one solution are carried along the weights, so
+ * that the cells which are a mine in no consistent placement are told exactly, see {@link
+ * MineProbabilities#isCertainlySafe(int)}.
+ * <p>
+ * Known cells can be taken from a {@link Solver} following the same field, which keeps the components small. Marks set
+ * by the player are not trusted. Instances are thread safe, if the fields are not changed while computing.
+ */
+public class ProbabilityEngine {
+    /**
+     * Default size cutoff: components with more cells are sampled.
+     */
+    public static final int DEFAULT_MAX_EXACT_CELLS = 40;
+
+    /**
+     * Default number of samples of a component above the cutoff.
+     */
+    public static final int DEFAULT_SAMPLES = 20_000;
+
+    /**
+     * Number of components below which the nodes of the product tree are computed without forking.
+     */
+    private static final int SEQUENTIAL_COMPONENTS = 16;
+
+    /**
+     * Number of weights of a node below which its children are computed without forking, in the second pass.
+     */
+    private static final int SEQUENTIAL_WEIGHTS = 256;
+
+    private final ForkJoinPool pool;
+    private final int maxExactCells;
+    private final int samples;
+    private final long seed;
+
+    /**
+     * Class constructor.
+     *
+     * @param   pool          - the pool running the computations
+     * @param   maxExactCells - components with more cells are sampled instead of enumerated
+     * @param   samples       - number of samples of a component above the cutoff
+     * @param   seed          - seed of the sampling, so that results are reproducible
+     * @throws  IllegalArgumentException if the cutoff or the number of samples is not positive
+     */
+    public ProbabilityEngine(ForkJoinPool pool, int maxExactCells, int samples, long seed) {
+        if (maxExactCells < 1 || samples < 1) {
+            String error = String.format("Invalid cutoff %d or number of samples %d", maxExactCells, samples);
+            throw new IllegalArgumentException(error);
+        }
+        this.pool = pool;
+        this.maxExactCells = maxExactCells;
+        this.samples = samples;
+        this.seed = seed;
+    }
+
+    /**
+     * Class constructor, with default cutoff and number of samples.
+     *
+     * @param   pool - the pool running the computations
+     */
+    public ProbabilityEngine(ForkJoinPool pool) {
+        this(pool, DEFAULT_MAX_EXACT_CELLS, DEFAULT_SAMPLES, 0);
+    }
+
+    /**
+     * Class constructor, running on the common pool with default cutoff and number of samples.
+     */
+    public ProbabilityEngine() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Overloading of {@link #compute(IFieldView, Solver)}, without known cells.
+     */
+    public MineProbabilities compute(IFieldView view) {
+        return compute(view, null);
+    }
+
+    /**
+     * Compute the mine probabilities of the cells of a field.
+     *
+     * @param   view   - the field
+     * @param   solver - a solver following the same field, whose known cells are taken as granted; may be null
+     * @return  MineProbabilities
+     * @throws  IllegalStateException if the field has no consistent placement of its mines
+     */
+    public MineProbabilities compute(IFieldView view, Solver solver) {
+        return pool.invoke(ForkJoinTask.adapt(() -> computeInPool(view, solver)));
+    }
+
+    private MineProbabilities computeInPool(IFieldView view, Solver solver) {
+        BoardSpec spec = view.getBoardSpec();
+        int size = spec.getSize();
+        Neighborhood neighborhood = Neighborhood.of(spec.getWidth(), spec.getHeight());
+        int words = (size + 63) >>> 6;
+        long[] knownMines = new long[words];
+        long[] knownSafe = new long[words];
+        int minesLeft = spec.getNumberOfMines();
+        int unknownCells = size;
+        for (int lineal = 0; lineal < size; lineal++) {
+            CellFaceValue face = view.getFaceValue(lineal);
+            if (face == CellFaceValue.MINE || solver != null && solver.isKnownMine(lineal)) {
+                set(knownMines, lineal);
+                minesLeft--;
+                unknownCells--;
+            } else if (face.getMinesAround() >= 0 || solver != null && solver.isKnownSafe(lineal)) {
+                set(knownSafe, lineal);
+                unknownCells--;
+            }
+        }
+
+        // Constraints of the revealed cells: {mines left, frontier indexes of the unknown neighbors...}
+        Map<Integer, Integer> frontierIndexes = new HashMap<>();
+        int[] frontier = new int[64];
+        List<int[]> constraints = new ArrayList<>();
+        int[] unknown = new int[Neighborhood.MAX_NEIGHBORS];
+        for (int lineal = 0; lineal < size; lineal++) {
+            int target = view.getFaceValue(lineal).getMinesAround();
+            if (target < 0) {
+                continue;
+            }
+            int count = 0;
+            int shape = neighborhood.shapeOf(lineal);
+            for (int k = 0; k < neighborhood.size(shape); k++) {
+                int neighbor = neighborhood.neighbor(lineal, shape, k);
+                if (get(knownMines, neighbor)) {
+                    target--;
+                } else if (!get(knownSafe, neighbor)) {
+                    unknown[count++] = neighbor;
+                }
+            }
+            if (count == 0) {
+                continue;
+            }
+            int[] constraint = new int[count + 1];
+            constraint[0] = target;
+            for (int i = 0; i < count; i++) {
+                Integer index = frontierIndexes.get(unknown[i]);
+                if (index == null) {
+                    index = frontierIndexes.size();
+                    frontierIndexes.put(unknown[i], index);
+                    if (index == frontier.length) {
+                        frontier = Arrays.copyOf(frontier, index * 2);
+                    }
+                    frontier[index] = unknown[i];
+                }
+                constraint[i + 1] = index;
+            }
+            constraints.add(constraint);
+        }
+        int frontierSize = frontierIndexes.size();
+        int outside = unknownCells - frontierSize;
+
+        List<Component> components = split(frontier, frontierSize, constraints);
+        SplittableRandom random = new SplittableRandom(seed);
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(components.size());
+        for (Component component : components) {
+            SplittableRandom componentRandom = random.split();
+            tasks.add(ForkJoinTask.adapt(
+                    () -> component.solve(maxExactCells, samples, componentRandom, pool.getParallelism())));
+        }
+        ForkJoinTask.invokeAll(tasks);
+
+        // Weight of t mines on the frontier: C(outside, minesLeft - t)
+        Node root = components.isEmpty() ? new Node(null) : new BuildTask(components, 0, components.size()).invoke();
+        double[] weights = weigh(root, minesLeft, outside);
+        double total = 0;
+        double outsideMines = 0;
+        for (int i = 0; i < weights.length; i++) {
+            total += root.weights[i] * weights[i];
+            outsideMines += root.weights[i] * weights[i] * (minesLeft - root.offset - i);
+        }
+        if (total == 0) {
+            throw new IllegalStateException("The frontier is inconsistent with the number of mines left");
+        }
+        // Numbers of mines of the frontier leaving a number of mines the outside cells can hold, and whether any of
+        // them leaves a mine outside
+        boolean[] rest = new boolean[weights.length];
+        boolean outsideSafe = true;
+        for (int i = 0; i < rest.length; i++) {
+            int mines = minesLeft - root.offset - i;
+            rest[i] = mines >= 0 && mines <= outside;
+            outsideSafe &= !(rest[i] && root.support[i] && mines > 0);
+        }
+        if (!components.isEmpty()) {
+            new SpreadTask(root, weights, rest).invoke();
+        }
+        double background = outside > 0 ? outsideMines / total / outside : Double.NaN;
+
+        return result(components, knownMines, knownSafe, frontierIndexes, background, outside, outsideSafe, size);
+    }
+
+    /**
+     * Split the frontier into connected components, ordering the cells of each one breadth first, so that the
+     * constraints are closed as early as possible during the enumeration.
+     */
+    private static List<Component> split(int[] frontier, int frontierSize, List<int[]> constraints) {
+        int[] constraintCounts = new int[frontierSize + 1];
+        for (int[] constraint : constraints) {
+            for (int i = 1; i < constraint.length; i++) {
+                constraintCounts[constraint[i] + 1]++;
+            }
+        }
+        // Constraints of each cell, as offsets into a single array
+        for (int i = 0; i < frontierSize; i++) {
+            constraintCounts[i + 1] += constraintCounts[i];
+        }
+        int[] cellConstraints = new int[constraintCounts[frontierSize]];
+        int[] filled = Arrays.copyOf(constraintCounts, frontierSize);
+        for (int k = 0; k < constraints.size(); k++) {
+            int[] constraint = constraints.get(k);
+            for (int i = 1; i < constraint.length; i++) {
+                cellConstraints[filled[constraint[i]]++] = k;
+            }
+        }
+
+        List<Component> components = new ArrayList<>();
+        int[] local = new int[frontierSize];
+        Arrays.fill(local, -1);
+        int[] localConstraints = new int[constraints.size()];
+        Arrays.fill(localConstraints, -1);
+        int[] queue = new int[frontierSize];
+        for (int start = 0; start < frontierSize; start++) {
+            if (local[start] >= 0) {
+                continue;
+            }
+            int head = 0;
+            int tail = 0;
+            List<int[]> componentConstraints = new ArrayList<>();
+            local[start] = 0;
+            queue[tail++] = start;
+            while (head < tail) {
+                int cell = queue[head++];
+                for (int c = constraintCounts[cell]; c < constraintCounts[cell + 1]; c++) {
+                    int k = cellConstraints[c];
+                    if (localConstraints[k] >= 0) {
+                        continue;
+                    }
+                    localConstraints[k] = componentConstraints.size();
+                    int[] constraint = constraints.get(k);
+                    componentConstraints.add(constraint);
+                    for (int i = 1; i < constraint.length; i++) {
+                        if (local[constraint[i]] < 0) {
+                            local[constraint[i]] = tail;
+                            queue[tail++] = constraint[i];
+                        }
+                    }
+                }
+            }
+
+            int[] cells = new int[tail];
+            for (int i = 0; i < tail; i++) {
+                cells[i] = frontier[queue[i]];
+            }
+            int[] targets = new int[componentConstraints.size()];
+            int[][] constraintCells = new int[targets.length][];
+            for (int k = 0; k < targets.length; k++) {
+                int[] constraint = componentConstraints.get(k);
+                targets[k] = constraint[0];
+                constraintCells[k] = new int[constraint.length - 1];
+                for (int i = 1; i < constraint.length; i++) {
+                    constraintCells[k][i - 1] = local[constraint[i]];
+                }
+            }
+            components.add(new Component(cells, targets, constraintCells));
+        }
+        return components;
+    }
+
+    /**
+     * Get the weights of the frontier mine counts of the root: the ways of placing the other mines outside the
+     * frontier, scaled so that the greatest is 1.
+     */
+    private static double[] weigh(Node root, int minesLeft, int outside) {
+        double[] weights = new double[root.weights.length];
+        int first = Math.max(0, minesLeft - (root.offset + weights.length - 1));
+        int last = Math.min(outside, minesLeft - root.offset);
+        if (first > last) {
+            return weights;
+        }
+        // log C(outside, j), up to a constant, for j mines outside the frontier
+        double[] logs = new double[last - first + 1];
+        double max = 0;
+        for (int j = first; j < last; j++) {
+            logs[j - first + 1] = logs[j - first] + Math.log(outside - j) - Math.log(j + 1);
+            max = Math.max(max, logs[j - first + 1]);
+        }
+        for (int j = first; j <= last; j++) {
+            weights[minesLeft - j - root.offset] = Math.exp(logs[j - first] - max);
+        }
+        return weights;
+    }
+
+    private MineProbabilities result(List<Component> components, long[] knownMines, long[] knownSafe,
+                                     Map<Integer, Integer> frontierIndexes, double background, int outside,
+                                     boolean outsideSafe, int size) {
+        long[] entries = new long[frontierIndexes.size()];
+        double[] probabilities = new double[entries.length];
+        long[] certainlySafe = knownSafe.clone();
+        int count = 0;
+        boolean exact = true;
+        for (Component component : components) {
+            exact &= component.exact;
+            for (int i = 0; i < component.cells.length; i++) {
+                probabilities[count] = component.probabilities[i];
+                entries[count] = (long) component.cells[i] << 32 | count;
+                if (component.certainlySafe[i]) {
+                    set(certainlySafe, component.cells[i]);
+                }
+                count++;
+            }
+        }
+        Arrays.sort(entries);
+        if (!exact) {
+            // sampling may miss solutions, so a count of zero does not prove a cell safe
+            certainlySafe = knownSafe;
+        } else if (outside > 0 && outsideSafe) {
+            for (int lineal = 0; lineal < size; lineal++) {
+                if (!get(knownMines, lineal) && !get(knownSafe, lineal) && !frontierIndexes.containsKey(lineal)) {
+                    set(certainlySafe, lineal);
+                }
+            }
+        }
+
+        int[] frontier = new int[entries.length];
+        double[] sorted = new double[entries.length];
+        int safest = -1;
+        double lowest = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < entries.length; i++) {
+            frontier[i] = (int) (entries[i] >>> 32);
+            sorted[i] = probabilities[(int) entries[i]];
+            if (sorted[i] < lowest) {
+                lowest = sorted[i];
+                safest = frontier[i];
+            }
+        }
+        if (outside > 0 && background < lowest) {
+            for (int lineal = 0; lineal < size; lineal++) {
+                if (!get(knownMines, lineal) && !get(knownSafe, lineal) && !frontierIndexes.containsKey(lineal)) {
+                    safest = lineal;
+                    break;
+                }
+            }
+        }
+        return new MineProbabilities(knownMines, knownSafe, certainlySafe, frontier, sorted, background, safest,
+                components.size(), exact);
+    }
+
+    private static boolean get(long[] bits, int lineal) {
+        return (bits[lineal >>> 6] & (1L << lineal)) != 0;
+    }
+
+    private static void set(long[] bits, int lineal) {
+        bits[lineal >>> 6] |= 1L << lineal;
+    }
+
+    /**
+     * Node of the product tree: the distribution of the mines of a range of components.
+     */
+    private static final class Node {
+        final Component component;
+        Node left;
+        Node right;
+
+        /**
+         * Number of mines of the first weight.
+         */
+        int offset;
+
+        /**
+         * Weights by number of mines, scaled so that the greatest is 1.
+         */
+        double[] weights;
+
+        /**
+         * Whether each number of mines of the weights has at least one solution, even if its weight underflows.
+         */
+        boolean[] support;
+
+        /**
+         * Leaf constructor, for a solved component or, if null, for the empty frontier.
+         */
+        Node(Component component) {
+            this.component = component;
+            this.offset = component == null ? 0 : component.offset;
+            this.weights = component == null ? new double[] {1} : component.weights;
+            this.support = new boolean[weights.length];
+            for (int i = 0; i < weights.length; i++) {
+                support[i] = weights[i] > 0;
+            }
+        }
+
+        /**
+         * Inner node constructor, convolving the children.
+         */
+        Node(Node left, Node right) {
+            this.component = null;
+            this.left = left;
+            this.right = right;
+            this.offset = left.offset + right.offset;
+            this.weights = new double[left.weights.length + right.weights.length - 1];
+            this.support = new boolean[weights.length];
+            for (int i = 0; i < left.weights.length; i++) {
+                for (int j = 0; j < right.weights.length; j++) {
+                    weights[i + j] += left.weights[i] * right.weights[j];
+                    support[i + j] |= left.support[i] && right.support[j];
+                }
+            }
+            normalize(weights);
+        }
+    }
+
+    private static void normalize(double[] weights) {
+        double max = 0;
+        for (double weight : weights) {
+            max = Math.max(max, weight);
+        }
+        if (max > 0) {
+            for (int i = 0; i < weights.length; i++) {
+                weights[i] /= max;
+            }
+        }
+    }
+
+    /**
+     * Build the product tree of a range of components.
+     */
+    @SuppressWarnings("serial")
+    private static final class BuildTask extends RecursiveTask<Node> {
+        private final List<Component> components;
+        private final int from;
+        private final int to;
+
+        BuildTask(List<Component> components, int from, int to) {
+            this.components = components;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Node compute() {
+            if (to - from == 1) {
+                return new Node(components.get(from));
+            }
+            int middle = (from + to) >>> 1;
+            BuildTask left = new BuildTask(components, from, middle);
+            BuildTask right = new BuildTask(components, middle, to);
+            if (to - from <= SEQUENTIAL_COMPONENTS) {
+                return new Node(left.compute(), right.compute());
+            }
+            right.fork();
+            Node leftNode = left.compute();
+            return new Node(leftNode, right.join());
+        }
+    }
+
+    /**
+     * Spread the weights of the rest of the board from a node to its leaves, and compute the probabilities of the
+     * cells of each component.
+     * <p>
+     * The weights of a node give, for each number of mines of its range, the weight of all the configurations of the
+     * rest of the board: the other components and the cells outside the frontier. A child gets them by summing over
+     * the mines of its sibling, and the numbers of mines the rest of the board can complete, which tell the cells
+     * certainly safe, the same way.
+     */
+    @SuppressWarnings("serial")
+    private static final class SpreadTask extends RecursiveTask<Void> {
+        private final Node node;
+        private final double[] weights;
+        private final boolean[] rest;
+
+        SpreadTask(Node node, double[] weights, boolean[] rest) {
+            this.node = node;
+            this.weights = weights;
+            this.rest = rest;
+        }
+
+        @Override
+        protected Void compute() {
+            if (node.component != null) {
+                leaf(node.component);
+                return null;
+            }
+            SpreadTask left = new SpreadTask(node.left, sibling(node.left.weights.length, node.right.weights),
+                    sibling(node.left.weights.length, node.right.support));
+            SpreadTask right = new SpreadTask(node.right, sibling(node.right.weights.length, node.left.weights),
+                    sibling(node.right.weights.length, node.left.support));
+            if (node.weights.length <= SEQUENTIAL_WEIGHTS) {
+                left.compute();
+                right.compute();
+            } else {
+                ForkJoinTask.invokeAll(left, right);
+            }
+            return null;
+        }
+
+        private double[] sibling(int length, double[] siblingWeights) {
+            double[] result = new double[length];
+            for (int i = 0; i < length; i++) {
+                for (int j = 0; j < siblingWeights.length; j++) {
+                    result[i] += siblingWeights[j] * weights[i + j];
+                }
+            }
+            normalize(result);
+            return result;
+        }
+
+        private boolean[] sibling(int length, boolean[] siblingSupport) {
+            boolean[] result = new boolean[length];
+            for (int i = 0; i < length; i++) {
+                for (int j = 0; j < siblingSupport.length && !result[i]; j++) {
+                    result[i] = siblingSupport[j] && rest[i + j];
+                }
+            }
+            return result;
+        }
+
+        private void leaf(Component component) {
+            double total = 0;
+            for (int m = 0; m < weights.length; m++) {
+                total += component.weights[m] * weights[m];
+            }
+            component.probabilities = new double[component.cells.length];
+            component.certainlySafe = new boolean[component.cells.length];
+            for (int i = 0; i < component.cells.length; i++) {
+                double mines = 0;
+                boolean safe = true;
+                for (int m = 0; m < weights.length; m++) {
+                    mines += component.cellWeights[i][m] * weights[m];
+                    safe &= !(rest[m] && component.cellWeights[i][m] > 0);
+                }
+                component.probabilities[i] = mines / total;
+                component.certainlySafe[i] = safe;
+            }
+        }
+    }
+}
@@ -0,0 +1,323 @@
+package minesweeper.solver;
+
+import minesweeper.cell.CellFaceValue;
+import minesweeper.cell.Coordinates;
+import minesweeper.cell.Neighborhood;
+import minesweeper.field.FieldListener;
+import minesweeper.field.IField;
+import minesweeper.field.IFieldView;
+import minesweeper.game.Command;
+import minesweeper.game.Explore;
+import minesweeper.game.ToggleMarkedCell;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Deterministic solver, finding the cells which are certainly safe or certainly mines from the face values of a field.
+ * <p>
+ * Each revealed cell is a constraint: its number of adjacent mines, minus the mines already known, is the number of
+ * mines among its unknown neighbors. Two rules are applied:
+ * <ul>
+ *     <li>single cell: if no mine is left the unknown neighbors are safe, if as many mines as unknown neighbors are
+ *     left they are all mines;</li>
+ *     <li>pairwise subset: if the unknown neighbors of a constraint are a subset of the ones of another, the cells in
+ *     the difference hold the difference of the mines left, so they are all safe or all mines in the same way.</li>
+ * </ul>
+ * The solver follows the field through a {@link FieldListener}: only the constraints around changed or deduced cells
+ * are evaluated again, never the whole field, so the cost of each move does not depend on the frontier length.
+ * <p>
+ * Results are commands, to be run through a {@link minesweeper.game.IInvoker}: {@link Explore} for safe cells,
+ * {@link ToggleMarkedCell} for mines not already marked. Marks set by the player are not trusted. Not thread safe.
+ */
+public class Solver implements FieldListener {
+    private final IField field;
+    private final IFieldView view;
+    private final Neighborhood neighborhood;
+    private final int width;
+    private final int height;
+
+    /**
+     * Cells known to be mines, one bit per cell.
+     */
+    private final long[] knownMines;
+
+    /**
+     * Cells known to be safe, one bit per cell.
+     */
+    private final long[] knownSafe;
+
+    /**
+     * Constraints to be evaluated again, with one bit per cell telling whether it is already queued.
+     */
+    private int[] dirty = new int[64];
+    private int dirtyCount;
+    private final long[] queued;
+
+    /**
+     * Commands found and not yet returned.
+     */
+    private final List<Command> moves = new ArrayList<>();
+
+    /**
+     * Buffers of unknown cells, to avoid allocating while evaluating constraints.
+     */
+    private final int[] unknown = new int[Neighborhood.MAX_NEIGHBORS];
+    private final int[] otherUnknown = new int[Neighborhood.MAX_NEIGHBORS];
+    private final int[] difference = new int[Neighborhood.MAX_NEIGHBORS];
+
+    /**
+     * Class constructor. Scans the field once, then follows its changes.
+     *
+     * @param   field - the field on which the commands are run
+     * @param   view  - the read-only view of the same field
+     */
+    public Solver(IField field, IFieldView view) {
+        this.field = field;
+        this.view = view;
+        this.width = view.getBoardSpec().getWidth();
+        this.height = view.getBoardSpec().getHeight();
+        this.neighborhood = Neighborhood.of(width, height);
+        int size = view.getBoardSpec().getSize();
+        int words = (size + 63) >>> 6;
+        this.knownMines = new long[words];
+        this.knownSafe = new long[words];
+        this.queued = new long[words];
+        for (int lineal = 0; lineal < size; lineal++) {
+            if (isRevealed(lineal)) {
+                enqueue(lineal);
+            }
+        }
+        view.addListener(this);
+    }
+
+    /**
+     * Class constructor, for fields implementing both interfaces.
+     *
+     * @param   field - the field
+     * @param   <F>   - the field type
+     */
+    public <F extends IField & IFieldView> Solver(F field) {
+        this(field, field);
+    }
+
+    /**
+     * Stop following the changes of the field.
+     */
+    public void detach() {
+        view.removeListener(this);
+    }
+
+    /**
+     * Tests whether a cell is known to be a mine.
+     *
+     * @param   lineal - the lineal value of the cell coordinates
+     * @return  boolean
+     */
+    public boolean isKnownMine(int lineal) {
+        return isMine(lineal);
+    }
+
+    /**
+     * Tests whether a cell is known to be safe, explored or not.
+     *
+     * @param   lineal - the lineal value of the cell coordinates
+     * @return  boolean
+     */
+    public boolean isKnownSafe(int lineal) {
+        return get(knownSafe, lineal) || isRevealed(lineal) && view.getFaceValue(lineal) != CellFaceValue.MINE;
+    }
+
+    /**
+     * Evaluate the constraints changed since the last call, and return the certain moves found.
+     *
+     * @return  List - the commands to run, empty if no move is certain
+     */
+    public List<Command> nextMoves() {
+        while (dirtyCount > 0) {
+            int lineal = dirty[--dirtyCount];
+            queued[lineal >>> 6] &= ~(1L << lineal);
+            evaluate(lineal);
+        }
+        List<Command> result = new ArrayList<>(moves);
+        moves.clear();
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The changed cell and its revealed neighbors are queued for evaluation.
+     */
+    @Override
+    public void cellChanged(int lineal) {
+        if (isRevealed(lineal)) {
+            enqueue(lineal);
+        }
+        enqueueRevealedNeighbors(lineal);
+    }
+
+    private void enqueueRevealedNeighbors(int lineal) {
+        int shape = neighborhood.shapeOf(lineal);
+        for (int k = 0; k < neighborhood.size(shape); k++) {
+            int neighbor = neighborhood.neighbor(lineal, shape, k);
+            if (isRevealed(neighbor)) {
+                enqueue(neighbor);
+            }
+        }
+    }
+
+    private void enqueue(int lineal) {
+        if (get(queued, lineal)) {
+            return;
+        }
+        set(queued, lineal);
+        if (dirtyCount == dirty.length) {
+            dirty = Arrays.copyOf(dirty, dirty.length * 2);
+        }
+        dirty[dirtyCount++] = lineal;
+    }
+
+    /**
+     * Evaluate the constraint of a revealed cell, alone and paired with the revealed cells within two rows and columns.
+     *
+     * @param   lineal - the lineal value of the revealed cell
+     */
+    private void evaluate(int lineal) {
+        int size = unknownNeighbors(lineal, unknown);
+        if (size == 0) {
+            return;
+        }
+        int left = minesLeft(lineal);
+        if (left == 0 || left == size) {
+            deduce(unknown, size, left == size);
+            return;
+        }
+
+        int row = lineal / width;
+        int column = lineal % width;
+        for (int i = Math.max(0, row - 2); i <= Math.min(height - 1, row + 2); i++) {
+            for (int j = Math.max(0, column - 2); j <= Math.min(width - 1, column + 2); j++) {
+                int other = i * width + j;
+                if (other == lineal || !isRevealed(other)) {
+                    continue;
+                }
+                int otherSize = unknownNeighbors(other, otherUnknown);
+                // the cells deduced from a superset are outside the neighborhood of this cell, whose constraint stays
+                // up to date: the other pairs are still evaluated
+                if (otherSize > size) {
+                    evaluatePair(unknown, size, left, otherUnknown, otherSize, minesLeft(other));
+                }
+                // the cells deduced from a subset are neighbors of this cell, which is queued again by deduce
+                if (otherSize > 0 && otherSize < size
+                        && evaluatePair(otherUnknown, otherSize, minesLeft(other), unknown, size, left)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Apply the pairwise subset rule.
+     *
+     * @return  boolean - true if cells have been deduced, so that the constraints are no longer up to date
+     */
+    private boolean evaluatePair(int[] subset, int subsetSize, int subsetLeft, int[] superset, int supersetSize,
+                                 int supersetLeft) {
+        int differenceSize = 0;
+        int common = 0;
+        for (int i = 0; i < supersetSize; i++) {
+            if (contains(subset, subsetSize, superset[i])) {
+                common++;
+            } else {
+                difference[differenceSize++] = superset[i];
+            }
+        }
+        if (common != subsetSize) {
+            return false;
+        }
+        int left = supersetLeft - subsetLeft;
+        if (left != 0 && left != differenceSize) {
+            return false;
+        }
+        deduce(difference, differenceSize, left != 0);
+        return true;
+    }
+
+    private static boolean contains(int[] cells, int size, int lineal) {
+        for (int i = 0; i < size; i++) {
+            if (cells[i] == lineal) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Record cells as mines or safe, add the corresponding commands, and queue the constraints around them.
+     */
+    private void deduce(int[] cells, int size, boolean mines) {
+        for (int i = 0; i < size; i++) {
+            int lineal = cells[i];
+            set(mines ? knownMines : knownSafe, lineal);
+            Coordinates coordinates = new Coordinates(lineal, width);
+            if (!mines) {
+                moves.add(new Explore(field, coordinates));
+            } else if (view.getFaceValue(lineal) != CellFaceValue.MARKED) {
+                moves.add(new ToggleMarkedCell(field, coordinates));
+            }
+            enqueueRevealedNeighbors(lineal);
+        }
+    }
+
+    /**
+     * Collect the neighbors of a cell which are neither revealed nor known.
+     *
+     * @return  int - the number of cells collected
+     */
+    private int unknownNeighbors(int lineal, int[] buffer) {
+        int size = 0;
+        int shape = neighborhood.shapeOf(lineal);
+        for (int k = 0; k < neighborhood.size(shape); k++) {
+            int neighbor = neighborhood.neighbor(lineal, shape, k);
+            if (!isRevealed(neighbor) && !isMine(neighbor) && !get(knownSafe, neighbor)) {
+                buffer[size++] = neighbor;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Get the number of mines around a revealed cell which are not yet known.
+     */
+    private int minesLeft(int lineal) {
+        int left = view.getFaceValue(lineal).getMinesAround();
+        int shape = neighborhood.shapeOf(lineal);
+        for (int k = 0; k < neighborhood.size(shape); k++) {
+            if (isMine(neighborhood.neighbor(lineal, shape, k))) {
+                left--;
+            }
+        }
+        return left;
+    }
+
+    private boolean isMine(int lineal) {
+        return get(knownMines, lineal) || view.getFaceValue(lineal) == CellFaceValue.MINE;
+    }
+
+    /**
+     * Tests whether the face value of a cell shows the number of adjacent mines.
+     */
+    private boolean isRevealed(int lineal) {
+        return view.getFaceValue(lineal).getMinesAround() >= 0;
+    }
+
+    private static boolean get(long[] bits, int lineal) {
+        return (bits[lineal >>> 6] & (1L << lineal)) != 0;
+    }
+
+    private static void set(long[] bits, int lineal) {
+        bits[lineal >>> 6] |= 1L << lineal;
+    }
+}